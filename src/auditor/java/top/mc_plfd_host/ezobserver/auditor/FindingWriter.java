@@ -0,0 +1,101 @@
+package top.mc_plfd_host.ezobserver.auditor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * 审计结果输出
+ * 每个违规物品输出一行，支持 JSONL 和 CSV 两种格式
+ * 多个扫描线程共享同一个实例，写入操作是同步的
+ *
+ * @author Kush_ShuL
+ */
+final class FindingWriter implements Closeable {
+
+    enum Format {
+        JSONL,
+        CSV
+    }
+
+    private final Writer writer;
+    private final Format format;
+
+    FindingWriter(Writer writer, Format format) throws IOException {
+        this.writer = writer;
+        this.format = format;
+        if (format == Format.CSV) {
+            writer.write("file,location,item,count,violations\n");
+        }
+    }
+
+    /**
+     * 写入一条违规记录
+     *
+     * @param file 来源文件（相对于世界目录）
+     * @param location 物品所在位置的描述
+     * @param item 物品 ID
+     * @param count 物品数量
+     * @param violations 违规描述
+     */
+    synchronized void write(String file, String location, String item, int count, List<String> violations) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        if (format == Format.JSONL) {
+            line.append("{\"file\":").append(json(file))
+                .append(",\"location\":").append(json(location))
+                .append(",\"item\":").append(json(item))
+                .append(",\"count\":").append(count)
+                .append(",\"violations\":[");
+            for (int i = 0; i < violations.size(); i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                line.append(json(violations.get(i)));
+            }
+            line.append("]}\n");
+        } else {
+            line.append(csv(file)).append(',')
+                .append(csv(location)).append(',')
+                .append(csv(item)).append(',')
+                .append(count).append(',')
+                .append(csv(String.join(" | ", violations))).append('\n');
+        }
+        writer.write(line.toString());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.flush();
+        writer.close();
+    }
+
+    private static String json(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,335 @@
+package top.mc_plfd_host.ezobserver.auditor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 将 NBT 中的文本组件转换为带 § 颜色代码的旧版字符串
+ * 插件通过 ItemMeta.getDisplayName() / getLore() 取得的也是这种格式，
+ * 因此 config.yml 中带颜色代码的关键词可以原样匹配
+ *
+ * 支持的输入：JSON 字符串（1.20.4 及以前、1.20.5 组件格式）、
+ * NBT 复合标签形式的文本组件（1.21.5+）以及纯文本
+ *
+ * @author Kush_ShuL
+ */
+final class LegacyText {
+
+    private static final Map<String, Character> COLOR_CODES = new LinkedHashMap<>();
+
+    static {
+        COLOR_CODES.put("black", '0');
+        COLOR_CODES.put("dark_blue", '1');
+        COLOR_CODES.put("dark_green", '2');
+        COLOR_CODES.put("dark_aqua", '3');
+        COLOR_CODES.put("dark_red", '4');
+        COLOR_CODES.put("dark_purple", '5');
+        COLOR_CODES.put("gold", '6');
+        COLOR_CODES.put("gray", '7');
+        COLOR_CODES.put("dark_gray", '8');
+        COLOR_CODES.put("blue", '9');
+        COLOR_CODES.put("green", 'a');
+        COLOR_CODES.put("aqua", 'b');
+        COLOR_CODES.put("red", 'c');
+        COLOR_CODES.put("light_purple", 'd');
+        COLOR_CODES.put("yellow", 'e');
+        COLOR_CODES.put("white", 'f');
+    }
+
+    private LegacyText() {
+    }
+
+    /**
+     * 转换文本组件，无法解析时返回原始文本
+     */
+    static String toLegacy(Object component) {
+        if (component == null) {
+            return null;
+        }
+        Object parsed = component;
+        if (component instanceof String string) {
+            String trimmed = string.trim();
+            if (trimmed.startsWith("{") || trimmed.startsWith("[") || trimmed.startsWith("\"")) {
+                try {
+                    parsed = new JsonParser(trimmed).parse();
+                } catch (IllegalArgumentException e) {
+                    return string;
+                }
+            } else {
+                return string;
+            }
+        }
+        StringBuilder builder = new StringBuilder();
+        append(builder, parsed, new Style());
+        return builder.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void append(StringBuilder builder, Object component, Style parent) {
+        if (component instanceof String text) {
+            appendText(builder, text, parent);
+        } else if (component instanceof List<?> list) {
+            // 列表形式：第一个元素为父组件，其余元素继承其样式
+            if (list.isEmpty()) {
+                return;
+            }
+            Style style = parent;
+            Object first = list.get(0);
+            if (first instanceof Map<?, ?> map) {
+                style = parent.inherit((Map<String, Object>) map);
+            }
+            append(builder, first, parent);
+            for (int i = 1; i < list.size(); i++) {
+                append(builder, list.get(i), style);
+            }
+        } else if (component instanceof Map<?, ?> rawMap) {
+            Map<String, Object> map = (Map<String, Object>) rawMap;
+            Style style = parent.inherit(map);
+            Object text = map.get("text");
+            if (text == null) {
+                text = map.get("translate");
+            }
+            if (text != null) {
+                appendText(builder, String.valueOf(text), style);
+            }
+            Object extra = map.get("extra");
+            if (extra instanceof List<?> extras) {
+                for (Object child : extras) {
+                    append(builder, child, style);
+                }
+            }
+        } else if (component != null) {
+            appendText(builder, String.valueOf(component), parent);
+        }
+    }
+
+    private static void appendText(StringBuilder builder, String text, Style style) {
+        if (text.isEmpty()) {
+            return;
+        }
+        if (style.color != null) {
+            builder.append('§').append(style.color);
+        }
+        if (style.obfuscated) builder.append("§k");
+        if (style.bold) builder.append("§l");
+        if (style.strikethrough) builder.append("§m");
+        if (style.underlined) builder.append("§n");
+        if (style.italic) builder.append("§o");
+        builder.append(text);
+    }
+
+    /**
+     * 文本样式，子组件继承父组件未覆盖的样式
+     */
+    private static final class Style {
+        private Character color;
+        private boolean bold;
+        private boolean italic;
+        private boolean underlined;
+        private boolean strikethrough;
+        private boolean obfuscated;
+
+        private Style inherit(Map<String, Object> map) {
+            Style style = new Style();
+            style.color = color;
+            style.bold = flag(map, "bold", bold);
+            style.italic = flag(map, "italic", italic);
+            style.underlined = flag(map, "underlined", underlined);
+            style.strikethrough = flag(map, "strikethrough", strikethrough);
+            style.obfuscated = flag(map, "obfuscated", obfuscated);
+            Object colorName = map.get("color");
+            if (colorName instanceof String name && COLOR_CODES.containsKey(name)) {
+                style.color = COLOR_CODES.get(name);
+            }
+            return style;
+        }
+
+        private static boolean flag(Map<String, Object> map, String key, boolean inherited) {
+            Object value = map.get(key);
+            if (value instanceof Boolean bool) {
+                return bool;
+            }
+            if (value instanceof Number number) {
+                return number.intValue() != 0;
+            }
+            return inherited;
+        }
+    }
+
+    /**
+     * 仅用于文本组件的最小 JSON 解析器
+     * 对象解析为 Map，数组解析为 List，数字统一解析为 Double
+     */
+    private static final class JsonParser {
+        private final String input;
+        private int position;
+
+        private JsonParser(String input) {
+            this.input = input;
+        }
+
+        private Object parse() {
+            Object value = readValue();
+            skipWhitespace();
+            if (position != input.length()) {
+                throw error("多余的字符");
+            }
+            return value;
+        }
+
+        private Object readValue() {
+            skipWhitespace();
+            if (position >= input.length()) {
+                throw error("意外的结尾");
+            }
+            char c = input.charAt(position);
+            switch (c) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readArray();
+                case '"':
+                    return readString();
+                case 't':
+                    expect("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    expect("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    expect("null");
+                    return null;
+                default:
+                    return readNumber();
+            }
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            position++;
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return map;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                if (peek() != ':') {
+                    throw error("缺少冒号");
+                }
+                position++;
+                map.put(key, readValue());
+                skipWhitespace();
+                char c = peek();
+                position++;
+                if (c == '}') {
+                    return map;
+                }
+                if (c != ',') {
+                    throw error("缺少逗号");
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> list = new ArrayList<>();
+            position++;
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+                return list;
+            }
+            while (true) {
+                list.add(readValue());
+                skipWhitespace();
+                char c = peek();
+                position++;
+                if (c == ']') {
+                    return list;
+                }
+                if (c != ',') {
+                    throw error("缺少逗号");
+                }
+            }
+        }
+
+        private String readString() {
+            if (peek() != '"') {
+                throw error("缺少引号");
+            }
+            position++;
+            StringBuilder builder = new StringBuilder();
+            while (position < input.length()) {
+                char c = input.charAt(position++);
+                if (c == '"') {
+                    return builder.toString();
+                }
+                if (c != '\\') {
+                    builder.append(c);
+                    continue;
+                }
+                if (position >= input.length()) {
+                    break;
+                }
+                char escaped = input.charAt(position++);
+                switch (escaped) {
+                    case 'n' -> builder.append('\n');
+                    case 't' -> builder.append('\t');
+                    case 'r' -> builder.append('\r');
+                    case 'b' -> builder.append('\b');
+                    case 'f' -> builder.append('\f');
+                    case 'u' -> {
+                        if (position + 4 > input.length()) {
+                            throw error("无效的转义");
+                        }
+                        try {
+                            builder.append((char) Integer.parseInt(input.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("无效的转义");
+                        }
+                        position += 4;
+                    }
+                    default -> builder.append(escaped);
+                }
+            }
+            throw error("字符串未结束");
+        }
+
+        private Double readNumber() {
+            int start = position;
+            while (position < input.length() && "+-0123456789.eE".indexOf(input.charAt(position)) >= 0) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(input.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("无效的数字");
+            }
+        }
+
+        private void expect(String literal) {
+            if (!input.startsWith(literal, position)) {
+                throw error("无效的字面量");
+            }
+            position += literal.length();
+        }
+
+        private char peek() {
+            return position < input.length() ? input.charAt(position) : '\0';
+        }
+
+        private void skipWhitespace() {
+            while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " (位置 " + position + ")");
+        }
+    }
+}
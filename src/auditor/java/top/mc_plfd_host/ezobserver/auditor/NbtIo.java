@@ -0,0 +1,287 @@
+package top.mc_plfd_host.ezobserver.auditor;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 最小化的 NBT 读取器
+ * 将 NBT 解码为普通 Java 对象：复合标签为 Map，列表为 List，数组为对应的基本类型数组
+ * 只负责读取，不依赖服务端实现
+ *
+ * @author Kush_ShuL
+ */
+public final class NbtIo {
+
+    private static final int TAG_END = 0;
+    private static final int TAG_BYTE = 1;
+    private static final int TAG_SHORT = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_LONG = 4;
+    private static final int TAG_FLOAT = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_BYTE_ARRAY = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_LIST = 9;
+    private static final int TAG_COMPOUND = 10;
+    private static final int TAG_INT_ARRAY = 11;
+    private static final int TAG_LONG_ARRAY = 12;
+
+    // 与原版一致的最大嵌套深度，防止恶意数据导致栈溢出
+    private static final int MAX_DEPTH = 512;
+
+    private NbtIo() {
+    }
+
+    /**
+     * 读取 GZIP 压缩的 NBT（玩家数据 .dat 文件）
+     */
+    public static Map<String, Object> readCompressed(InputStream in) throws IOException {
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)))) {
+            return read(data);
+        }
+    }
+
+    /**
+     * 读取未压缩的 NBT 字节（已解压的区块数据）
+     */
+    public static Map<String, Object> read(byte[] bytes) throws IOException {
+        try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return read(data);
+        }
+    }
+
+    /**
+     * 读取带名称的根复合标签
+     */
+    public static Map<String, Object> read(DataInput in) throws IOException {
+        int type = in.readUnsignedByte();
+        if (type == TAG_END) {
+            return new LinkedHashMap<>();
+        }
+        if (type != TAG_COMPOUND) {
+            throw new IOException("根标签不是复合标签: " + type);
+        }
+        in.readUTF();
+        return readCompound(in, 0);
+    }
+
+    private static Map<String, Object> readCompound(DataInput in, int depth) throws IOException {
+        checkDepth(depth);
+        Map<String, Object> compound = new LinkedHashMap<>();
+        while (true) {
+            int type = in.readUnsignedByte();
+            if (type == TAG_END) {
+                return compound;
+            }
+            String name = in.readUTF();
+            compound.put(name, readPayload(in, type, depth + 1));
+        }
+    }
+
+    private static Object readPayload(DataInput in, int type, int depth) throws IOException {
+        switch (type) {
+            case TAG_BYTE:
+                return in.readByte();
+            case TAG_SHORT:
+                return in.readShort();
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_FLOAT:
+                return in.readFloat();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_BYTE_ARRAY: {
+                byte[] value = new byte[checkLength(in.readInt())];
+                in.readFully(value);
+                return value;
+            }
+            case TAG_STRING:
+                return in.readUTF();
+            case TAG_LIST: {
+                checkDepth(depth);
+                int elementType = in.readUnsignedByte();
+                int length = in.readInt();
+                if (length <= 0) {
+                    return new ArrayList<>();
+                }
+                List<Object> list = new ArrayList<>(Math.min(length, 1024));
+                for (int i = 0; i < length; i++) {
+                    list.add(readPayload(in, elementType, depth + 1));
+                }
+                return list;
+            }
+            case TAG_COMPOUND:
+                return readCompound(in, depth);
+            case TAG_INT_ARRAY: {
+                int[] value = new int[checkLength(in.readInt())];
+                for (int i = 0; i < value.length; i++) {
+                    value[i] = in.readInt();
+                }
+                return value;
+            }
+            case TAG_LONG_ARRAY: {
+                long[] value = new long[checkLength(in.readInt())];
+                for (int i = 0; i < value.length; i++) {
+                    value[i] = in.readLong();
+                }
+                return value;
+            }
+            default:
+                throw new IOException("未知的 NBT 标签类型: " + type);
+        }
+    }
+
+    private static void checkDepth(int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("NBT 嵌套深度超过 " + MAX_DEPTH);
+        }
+    }
+
+    private static int checkLength(int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("NBT 数组长度无效: " + length);
+        }
+        return length;
+    }
+
+    // ========== 大小估算 ==========
+
+    /**
+     * 复合标签按二进制 NBT 写出（不压缩）时的字节数
+     * 按根标签计算：类型 1 字节、空名称 2 字节，加上标签内容
+     */
+    public static int estimateSize(Map<String, Object> compound) {
+        long size = 3 + payloadSize(compound);
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long payloadSize(Object value) {
+        if (value instanceof Byte) {
+            return 1;
+        }
+        if (value instanceof Short) {
+            return 2;
+        }
+        if (value instanceof Integer || value instanceof Float) {
+            return 4;
+        }
+        if (value instanceof Long || value instanceof Double) {
+            return 8;
+        }
+        if (value instanceof String string) {
+            return 2 + utfLength(string);
+        }
+        if (value instanceof byte[] bytes) {
+            return 4 + bytes.length;
+        }
+        if (value instanceof int[] ints) {
+            return 4 + 4L * ints.length;
+        }
+        if (value instanceof long[] longs) {
+            return 4 + 8L * longs.length;
+        }
+        if (value instanceof List<?> list) {
+            // 元素类型 1 字节、长度 4 字节
+            long size = 5;
+            for (Object element : list) {
+                size += payloadSize(element);
+            }
+            return size;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = 1; // TAG_End
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) map).entrySet()) {
+                size += 3 + utfLength(entry.getKey()) + payloadSize(entry.getValue());
+            }
+            return size;
+        }
+        return 0;
+    }
+
+    /**
+     * writeUTF 使用的修改版 UTF-8 编码长度
+     */
+    private static int utfLength(String string) {
+        int length = 0;
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length++;
+            } else if (c <= 0x07FF) {
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    // ========== 读取辅助方法 ==========
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> getCompound(Map<String, Object> compound, String key) {
+        Object value = compound == null ? null : compound.get(key);
+        return value instanceof Map ? (Map<String, Object>) value : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<Object> getList(Map<String, Object> compound, String key) {
+        Object value = compound == null ? null : compound.get(key);
+        return value instanceof List ? (List<Object>) value : null;
+    }
+
+    public static String getString(Map<String, Object> compound, String key) {
+        Object value = compound == null ? null : compound.get(key);
+        return value instanceof String string ? string : null;
+    }
+
+    /**
+     * 读取任意数值标签，缺失时返回默认值
+     */
+    public static int getInt(Map<String, Object> compound, String key, int defaultValue) {
+        Object value = compound == null ? null : compound.get(key);
+        return value instanceof Number number ? number.intValue() : defaultValue;
+    }
+
+    public static double getDouble(Map<String, Object> compound, String key, double defaultValue) {
+        Object value = compound == null ? null : compound.get(key);
+        return value instanceof Number number ? number.doubleValue() : defaultValue;
+    }
+
+    /**
+     * 读取布尔值，兼容 byte 标签和字符串形式的方块状态
+     */
+    public static boolean getBoolean(Map<String, Object> compound, String key) {
+        Object value = compound == null ? null : compound.get(key);
+        if (value instanceof Number number) {
+            return number.intValue() != 0;
+        }
+        if (value instanceof String string) {
+            return Boolean.parseBoolean(string);
+        }
+        return false;
+    }
+
+    /**
+     * 去掉命名空间前缀，例如 minecraft:sharpness -> sharpness
+     */
+    public static String stripNamespace(String id) {
+        if (id == null) {
+            return null;
+        }
+        int index = id.indexOf(':');
+        return index >= 0 ? id.substring(index + 1) : id;
+    }
+}
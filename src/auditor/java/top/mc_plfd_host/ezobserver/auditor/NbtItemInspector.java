@@ -0,0 +1,543 @@
+package top.mc_plfd_host.ezobserver.auditor;
+
+import org.bukkit.Material;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
+import top.mc_plfd_host.ezobserver.checker.ViolationList;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.config.EnchantmentConflictManager;
+import top.mc_plfd_host.ezobserver.config.PotionEffectLimitManager;
+import top.mc_plfd_host.ezobserver.config.TrustedDataRules;
+import top.mc_plfd_host.ezobserver.rules.ItemFacts;
+import top.mc_plfd_host.ezobserver.rules.ItemRules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于 NBT 的物品检测器
+ * 检测规则和违规描述直接使用插件的 {@link ItemRules}，与 ItemChecker 的区别只在于
+ * 物品数据来自 NBT 而不是 ItemStack / ItemMeta，由 {@link ItemView} 提供
+ *
+ * 同时支持 1.20.4 及以前的 tag 格式和 1.20.5+ 的 components 格式
+ * 插件中的检测时间预算只用于保护服务器主线程，离线审计不使用
+ *
+ * @author Kush_ShuL
+ */
+public final class NbtItemInspector {
+
+    private static final String[] LEGACY_EFFECT_IDS = {
+        null, "speed", "slowness", "haste", "mining_fatigue", "strength", "instant_health",
+        "instant_damage", "jump_boost", "nausea", "regeneration", "resistance", "fire_resistance",
+        "water_breathing", "invisibility", "blindness", "night_vision", "hunger", "weakness",
+        "poison", "wither", "health_boost", "absorption", "saturation", "glowing", "levitation",
+        "luck", "unluck", "slow_falling", "conduit_power", "dolphins_grace", "bad_omen",
+        "hero_of_the_village", "darkness"
+    };
+
+    private final ConfigSnapshot config;
+    private final ItemRules rules;
+
+    public NbtItemInspector(ConfigSnapshot config) {
+        this.config = config;
+        this.rules = new ItemRules(new EnchantmentConflictManager(null), new PotionEffectLimitManager());
+    }
+
+    /**
+     * 检测单个物品
+     *
+     * @param itemTag 物品的 NBT 复合标签
+     * @return 违规描述列表，为空表示物品合法
+     */
+    public ViolationList checkItem(Map<String, Object> itemTag) {
+        ItemView item = ItemView.of(itemTag);
+        if (item == null) {
+            return new ViolationList();
+        }
+
+        // 数据过大的物品不再检测内容，与插件一致只检查顶层物品
+        if (config.isSizeGuardEnabled()) {
+            String oversized = ItemRules.checkSize(item.getType(), item.getTypeName(), NbtIo.estimateSize(itemTag), config);
+            if (oversized != null) {
+                ViolationList violations = new ViolationList();
+                violations.add(ViolationCode.OVERSIZED, oversized);
+                return violations;
+            }
+        }
+
+        return checkItem(item);
+    }
+
+    private ViolationList checkItem(ItemView item) {
+        ViolationList violations = new ViolationList();
+
+        // 检查禁止的物品类型（快速路径）
+        String banned = rules.checkBannedType(item, config);
+        if (banned != null) {
+            violations.add(ViolationCode.BANNED_TYPE, banned);
+            return violations;
+        }
+
+        // 带有可信 PDC 数据的自定义物品只执行其档案中开启的检测
+        TrustedDataRules.Profile trustedProfile = item.findTrustedProfile(config.getTrustedData());
+
+        // 检查附魔
+        if (!item.getEnchantments().isEmpty() && (trustedProfile == null || trustedProfile.isCheckEnchantments())) {
+            rules.checkEnchantments(item, config, violations);
+        }
+
+        // 检查物品元数据
+        rules.checkMeta(item, config, trustedProfile, violations);
+
+        // 检查特殊物品类型
+        if (trustedProfile == null || trustedProfile.isCheckSpecialItems()) {
+            rules.checkSpecialItems(item, config, violations);
+            if (!item.containerItems.isEmpty()) {
+                violations.addAll(checkContainer(item));
+            }
+            if (item.getTypeName().equals("BUNDLE") && !item.bundleItems.isEmpty()) {
+                violations.addAll(checkBundle(item));
+            }
+            rules.checkEmptyData(item, violations);
+        }
+
+        return violations;
+    }
+
+    private ViolationList checkContainer(ItemView item) {
+        ViolationList violations = new ViolationList();
+
+        int violatingItemCount = 0;
+        ViolationList contentViolations = new ViolationList();
+
+        for (Map<String, Object> slotTag : item.containerItems) {
+            Map<String, Object> contentTag = NbtIo.getCompound(slotTag, "item");
+            int slot = contentTag != null ? NbtIo.getInt(slotTag, "slot", 0) : NbtIo.getInt(slotTag, "Slot", 0);
+            if (contentTag == null) {
+                contentTag = slotTag;
+            }
+
+            ItemView content = ItemView.of(contentTag);
+            if (content == null) {
+                continue;
+            }
+            List<String> itemViolations = checkItem(content);
+            if (!itemViolations.isEmpty()) {
+                violatingItemCount++;
+                contentViolations.addDetail(ItemRules.contentDetail("插槽 " + slot, content.getTypeName(), itemViolations));
+            }
+        }
+
+        if (violatingItemCount > 0) {
+            violations.add(ViolationCode.CONTAINER, ItemRules.containerViolation(item.getTypeName(), violatingItemCount));
+            violations.addAll(contentViolations);
+        }
+
+        return violations;
+    }
+
+    private ViolationList checkBundle(ItemView item) {
+        ViolationList violations = new ViolationList();
+
+        int violatingItemCount = 0;
+        ViolationList contentViolations = new ViolationList();
+
+        for (int i = 0; i < item.bundleItems.size(); i++) {
+            ItemView content = ItemView.of(item.bundleItems.get(i));
+            if (content == null) {
+                continue;
+            }
+            List<String> itemViolations = checkItem(content);
+            if (!itemViolations.isEmpty()) {
+                violatingItemCount++;
+                contentViolations.addDetail(ItemRules.contentDetail(String.valueOf(i + 1), content.getTypeName(),
+                    itemViolations));
+            }
+        }
+
+        if (violatingItemCount > 0) {
+            violations.add(ViolationCode.CONTAINER, ItemRules.bundleViolation(violatingItemCount, item.bundleItems.size()));
+            violations.addAll(contentViolations);
+        }
+
+        return violations;
+    }
+
+    /**
+     * 物品 NBT 的统一视图
+     * 屏蔽 tag 格式与 components 格式之间的差异，原版附魔数据来自 {@link VanillaEnchantments}
+     */
+    static final class ItemView implements ItemFacts {
+        private String type;
+        private Material material;
+        private boolean hasMeta;
+        private final Map<String, Integer> enchantments = new LinkedHashMap<>();
+        private final Map<String, Integer> storedEnchantments = new LinkedHashMap<>();
+        private String displayName;
+        private final List<String> lore = new ArrayList<>();
+        private final List<Modifier> attributes = new ArrayList<>();
+        private boolean unbreakable;
+        private final List<Effect> effects = new ArrayList<>();
+        private int fireworkFlight;
+        private boolean pistonExtended;
+        private Map<String, Object> entityData;
+        // PublicBukkitValues 中的键 (namespace:key)，即插件写入的 PDC 数据
+        private Set<String> persistentDataKeys = Collections.emptySet();
+        private List<Map<String, Object>> containerItems = Collections.emptyList();
+        private List<Map<String, Object>> bundleItems = Collections.emptyList();
+        private int bookPageCount;
+        private boolean bookHasAuthor;
+        private boolean bookHasTitle;
+        private boolean hasMapId;
+        private boolean hasRecipes;
+        private boolean glintOverride;
+
+        /**
+         * 解析物品标签，空气或无效物品返回 null
+         */
+        static ItemView of(Map<String, Object> itemTag) {
+            String type = materialName(itemTag);
+            if (type == null || type.isEmpty() || type.equals("AIR")) {
+                return null;
+            }
+
+            ItemView view = new ItemView();
+            view.type = type;
+            try {
+                view.material = Material.valueOf(type);
+            } catch (IllegalArgumentException e) {
+                // 模组物品或更新版本的物品
+                view.material = null;
+            }
+
+            Map<String, Object> components = NbtIo.getCompound(itemTag, "components");
+            Map<String, Object> tag = NbtIo.getCompound(itemTag, "tag");
+            if (components != null && !components.isEmpty()) {
+                view.hasMeta = true;
+                view.readComponents(components);
+            } else if (tag != null && !tag.isEmpty()) {
+                view.hasMeta = true;
+                view.readLegacyTag(tag);
+            }
+            return view;
+        }
+
+        static String materialName(Map<String, Object> itemTag) {
+            String id = NbtIo.getString(itemTag, "id");
+            return id == null ? null : NbtIo.stripNamespace(id).toUpperCase();
+        }
+
+        // ========== ItemFacts ==========
+
+        @Override
+        public Material getType() {
+            return material;
+        }
+
+        @Override
+        public String getTypeName() {
+            return type;
+        }
+
+        @Override
+        public boolean hasMeta() {
+            return hasMeta;
+        }
+
+        @Override
+        public Map<String, Integer> getEnchantments() {
+            return enchantments;
+        }
+
+        @Override
+        public int getVanillaMaxLevel(String enchantment) {
+            return VanillaEnchantments.getMaxLevel(enchantment);
+        }
+
+        @Override
+        public boolean canEnchant(String enchantment) {
+            return VanillaEnchantments.canEnchant(enchantment, type);
+        }
+
+        @Override
+        public boolean hasStoredEnchantments() {
+            return !storedEnchantments.isEmpty();
+        }
+
+        @Override
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public List<String> getLore() {
+            return lore;
+        }
+
+        @Override
+        public List<Modifier> getAttributeModifiers() {
+            return attributes;
+        }
+
+        @Override
+        public boolean isUnbreakable() {
+            return unbreakable;
+        }
+
+        @Override
+        public List<Effect> getCustomEffects() {
+            return effects;
+        }
+
+        @Override
+        public int getFireworkFlight() {
+            return fireworkFlight;
+        }
+
+        @Override
+        public boolean isPistonExtended() {
+            return pistonExtended;
+        }
+
+        /**
+         * NBT 中可以直接读取 EntityTag / entity_data，对应插件中的 getSpawnedType()
+         */
+        @Override
+        public String getSpawnedEntityType() {
+            String id = entityData != null ? NbtIo.stripNamespace(NbtIo.getString(entityData, "id")) : null;
+            return id != null ? id.toUpperCase() : null;
+        }
+
+        @Override
+        public boolean hasEntityData() {
+            return entityData != null;
+        }
+
+        @Override
+        public TrustedDataRules.Profile findTrustedProfile(TrustedDataRules rules) {
+            return rules.findProfile(persistentDataKeys);
+        }
+
+        @Override
+        public boolean hasUntrustedData(TrustedDataRules rules) {
+            return rules.hasUntrustedData(persistentDataKeys);
+        }
+
+        @Override
+        public int getBookPageCount() {
+            return bookPageCount;
+        }
+
+        @Override
+        public boolean hasBookAuthor() {
+            return bookHasAuthor;
+        }
+
+        @Override
+        public boolean hasBookTitle() {
+            return bookHasTitle;
+        }
+
+        @Override
+        public boolean hasMapData() {
+            return hasMapId;
+        }
+
+        @Override
+        public boolean hasRecipes() {
+            return hasRecipes;
+        }
+
+        @Override
+        public boolean hasEnchantGlint() {
+            return glintOverride;
+        }
+
+        // ========== 1.20.4 及以前的 tag 格式 ==========
+
+        private void readLegacyTag(Map<String, Object> tag) {
+            readLegacyEnchantments(NbtIo.getList(tag, "Enchantments"), enchantments);
+            readLegacyEnchantments(NbtIo.getList(tag, "StoredEnchantments"), storedEnchantments);
+
+            Map<String, Object> display = NbtIo.getCompound(tag, "display");
+            if (display != null) {
+                displayName = LegacyText.toLegacy(display.get("Name"));
+                List<Object> loreLines = NbtIo.getList(display, "Lore");
+                if (loreLines != null) {
+                    for (Object line : loreLines) {
+                        lore.add(LegacyText.toLegacy(line));
+                    }
+                }
+            }
+
+            for (Map<String, Object> modifier : compounds(NbtIo.getList(tag, "AttributeModifiers"))) {
+                attributes.add(new Modifier(attributeName(NbtIo.getString(modifier, "AttributeName")),
+                        NbtIo.getDouble(modifier, "Amount", 0)));
+            }
+
+            unbreakable = NbtIo.getBoolean(tag, "Unbreakable");
+
+            List<Object> customEffects = NbtIo.getList(tag, "CustomPotionEffects");
+            if (customEffects == null) {
+                customEffects = NbtIo.getList(tag, "custom_potion_effects");
+            }
+            for (Map<String, Object> effect : compounds(customEffects)) {
+                String id = NbtIo.getString(effect, "id");
+                if (id == null) {
+                    int numericId = NbtIo.getInt(effect, "Id", 0) & 0xFF;
+                    id = numericId < LEGACY_EFFECT_IDS.length ? LEGACY_EFFECT_IDS[numericId] : null;
+                }
+                if (id != null) {
+                    int amplifier = effect.containsKey("amplifier")
+                            ? NbtIo.getInt(effect, "amplifier", 0)
+                            : NbtIo.getInt(effect, "Amplifier", 0);
+                    int duration = effect.containsKey("duration")
+                            ? NbtIo.getInt(effect, "duration", 0)
+                            : NbtIo.getInt(effect, "Duration", 0);
+                    effects.add(new Effect(effectName(id), amplifier, duration));
+                }
+            }
+
+            fireworkFlight = NbtIo.getInt(NbtIo.getCompound(tag, "Fireworks"), "Flight", 0);
+            pistonExtended = NbtIo.getBoolean(NbtIo.getCompound(tag, "BlockStateTag"), "extended");
+            entityData = NbtIo.getCompound(tag, "EntityTag");
+            persistentDataKeys = keys(NbtIo.getCompound(tag, "PublicBukkitValues"));
+
+            Map<String, Object> blockEntity = NbtIo.getCompound(tag, "BlockEntityTag");
+            containerItems = compounds(NbtIo.getList(blockEntity, "Items"));
+            bundleItems = compounds(NbtIo.getList(tag, "Items"));
+
+            List<Object> pages = NbtIo.getList(tag, "pages");
+            bookPageCount = pages != null ? pages.size() : 0;
+            bookHasAuthor = NbtIo.getString(tag, "author") != null;
+            bookHasTitle = NbtIo.getString(tag, "title") != null;
+            hasMapId = tag.containsKey("map");
+            List<Object> recipes = NbtIo.getList(tag, "Recipes");
+            hasRecipes = recipes != null && !recipes.isEmpty();
+        }
+
+        private static void readLegacyEnchantments(List<Object> list, Map<String, Integer> target) {
+            for (Map<String, Object> enchantment : compounds(list)) {
+                String id = NbtIo.getString(enchantment, "id");
+                if (id != null) {
+                    target.put(NbtIo.stripNamespace(id), NbtIo.getInt(enchantment, "lvl", 0));
+                }
+            }
+        }
+
+        // ========== 1.20.5+ 的 components 格式 ==========
+
+        private void readComponents(Map<String, Object> components) {
+            readComponentEnchantments(components.get("minecraft:enchantments"), enchantments);
+            readComponentEnchantments(components.get("minecraft:stored_enchantments"), storedEnchantments);
+
+            displayName = LegacyText.toLegacy(components.get("minecraft:custom_name"));
+            List<Object> loreLines = NbtIo.getList(components, "minecraft:lore");
+            if (loreLines != null) {
+                for (Object line : loreLines) {
+                    lore.add(LegacyText.toLegacy(line));
+                }
+            }
+
+            Object attributeComponent = components.get("minecraft:attribute_modifiers");
+            List<Object> modifiers = attributeComponent instanceof Map<?, ?>
+                    ? NbtIo.getList(NbtIo.getCompound(components, "minecraft:attribute_modifiers"), "modifiers")
+                    : NbtIo.getList(components, "minecraft:attribute_modifiers");
+            for (Map<String, Object> modifier : compounds(modifiers)) {
+                attributes.add(new Modifier(attributeName(NbtIo.getString(modifier, "type")),
+                        NbtIo.getDouble(modifier, "amount", 0)));
+            }
+
+            unbreakable = components.containsKey("minecraft:unbreakable");
+
+            Map<String, Object> potionContents = NbtIo.getCompound(components, "minecraft:potion_contents");
+            for (Map<String, Object> effect : compounds(NbtIo.getList(potionContents, "custom_effects"))) {
+                String id = NbtIo.getString(effect, "id");
+                if (id != null) {
+                    Object amplifier = effect.get("amplifier");
+                    int amplifierValue = amplifier instanceof Byte b ? b & 0xFF : NbtIo.getInt(effect, "amplifier", 0);
+                    effects.add(new Effect(effectName(id), amplifierValue, NbtIo.getInt(effect, "duration", 0)));
+                }
+            }
+
+            fireworkFlight = NbtIo.getInt(NbtIo.getCompound(components, "minecraft:fireworks"), "flight_duration", 0);
+            pistonExtended = NbtIo.getBoolean(NbtIo.getCompound(components, "minecraft:block_state"), "extended");
+            entityData = NbtIo.getCompound(components, "minecraft:entity_data");
+            persistentDataKeys = keys(NbtIo.getCompound(
+                    NbtIo.getCompound(components, "minecraft:custom_data"), "PublicBukkitValues"));
+
+            containerItems = compounds(NbtIo.getList(components, "minecraft:container"));
+            bundleItems = compounds(NbtIo.getList(components, "minecraft:bundle_contents"));
+
+            Map<String, Object> book = NbtIo.getCompound(components, "minecraft:written_book_content");
+            if (book != null) {
+                List<Object> pages = NbtIo.getList(book, "pages");
+                bookPageCount = pages != null ? pages.size() : 0;
+                bookHasAuthor = book.containsKey("author");
+                bookHasTitle = book.containsKey("title");
+            }
+            hasMapId = components.containsKey("minecraft:map_id");
+            List<Object> recipes = NbtIo.getList(components, "minecraft:recipes");
+            hasRecipes = recipes != null && !recipes.isEmpty();
+            glintOverride = NbtIo.getBoolean(components, "minecraft:enchantment_glint_override");
+        }
+
+        /**
+         * 1.20.5 - 1.21.4 为 {levels: {...}}，1.21.5+ 直接为附魔到等级的映射
+         */
+        @SuppressWarnings("unchecked")
+        private static void readComponentEnchantments(Object component, Map<String, Integer> target) {
+            if (!(component instanceof Map<?, ?> map)) {
+                return;
+            }
+            Object levels = map.get("levels");
+            Map<String, Object> entries = levels instanceof Map<?, ?> ? (Map<String, Object>) levels : (Map<String, Object>) map;
+            for (Map.Entry<String, Object> entry : entries.entrySet()) {
+                if (entry.getValue() instanceof Number level) {
+                    target.put(NbtIo.stripNamespace(entry.getKey()), level.intValue());
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<Map<String, Object>> compounds(List<Object> list) {
+            if (list == null || list.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Map<String, Object>> result = new ArrayList<>(list.size());
+            for (Object element : list) {
+                if (element instanceof Map) {
+                    result.add((Map<String, Object>) element);
+                }
+            }
+            return result;
+        }
+
+        private static Set<String> keys(Map<String, Object> compound) {
+            return compound != null ? compound.keySet() : Collections.emptySet();
+        }
+
+        /**
+         * 属性名称统一为 1.21.3+ 的无前缀形式，例如 ATTACK_DAMAGE
+         */
+        private static String attributeName(String id) {
+            String name = id == null ? "UNKNOWN" : NbtIo.stripNamespace(id);
+            int dot = name.indexOf('.');
+            if (dot >= 0) {
+                // generic.attack_damage / player.block_interaction_range
+                name = name.substring(dot + 1);
+            }
+            return name.toUpperCase();
+        }
+
+        /**
+         * 药水效果名称为去掉命名空间后的大写形式，例如 STRENGTH
+         */
+        private static String effectName(String id) {
+            return NbtIo.stripNamespace(id).toUpperCase();
+        }
+    }
+}
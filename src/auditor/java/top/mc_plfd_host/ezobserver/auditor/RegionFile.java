@@ -0,0 +1,145 @@
+package top.mc_plfd_host.ezobserver.auditor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Anvil 区域文件（.mca）读取器
+ * 按照原版格式解析 4KiB 扇区头部，并解压每个区块的 NBT 数据
+ * 同时用于 region/ 与 entities/ 目录下的区域文件
+ *
+ * @author Kush_ShuL
+ */
+public final class RegionFile {
+
+    private static final int SECTOR_SIZE = 4096;
+    private static final int CHUNK_COUNT = 1024;
+
+    private static final int COMPRESSION_GZIP = 1;
+    private static final int COMPRESSION_ZLIB = 2;
+    private static final int COMPRESSION_NONE = 3;
+    private static final int COMPRESSION_LZ4 = 4;
+    // 区块数据过大时原版会将其写入外部 .mcc 文件，并在压缩类型上设置该标记位
+    private static final int EXTERNAL_FLAG = 0x80;
+
+    private final Path path;
+    private final int regionX;
+    private final int regionZ;
+    private final byte[] data;
+
+    /**
+     * 区块访问回调
+     */
+    public interface ChunkVisitor {
+        void visit(int chunkX, int chunkZ, Map<String, Object> chunk) throws IOException;
+    }
+
+    public RegionFile(Path path) throws IOException {
+        this.path = path;
+        String[] parts = path.getFileName().toString().split("\\.");
+        if (parts.length != 4 || !parts[0].equals("r")) {
+            throw new IOException("无法识别的区域文件名: " + path.getFileName());
+        }
+        try {
+            this.regionX = Integer.parseInt(parts[1]);
+            this.regionZ = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            throw new IOException("无法识别的区域文件名: " + path.getFileName(), e);
+        }
+        this.data = Files.readAllBytes(path);
+    }
+
+    /**
+     * 依次读取区域文件中的所有区块
+     * 单个区块损坏时只报告该区块，不影响其余区块
+     *
+     * @return 读取失败的区块数量
+     */
+    public int forEachChunk(ChunkVisitor visitor, ErrorHandler errorHandler) throws IOException {
+        if (data.length < SECTOR_SIZE * 2) {
+            // 空区域文件（原版会预留 8KiB 头部），没有区块
+            return 0;
+        }
+
+        int failures = 0;
+        for (int index = 0; index < CHUNK_COUNT; index++) {
+            int header = readInt(index * 4);
+            int sectorOffset = header >>> 8;
+            int sectorCount = header & 0xFF;
+            if (sectorOffset == 0 || sectorCount == 0) {
+                continue;
+            }
+
+            int chunkX = regionX * 32 + (index & 31);
+            int chunkZ = regionZ * 32 + (index >> 5);
+            try {
+                Map<String, Object> chunk = readChunk(sectorOffset, chunkX, chunkZ);
+                if (chunk != null) {
+                    visitor.visit(chunkX, chunkZ, chunk);
+                }
+            } catch (IOException | RuntimeException e) {
+                failures++;
+                errorHandler.onError(String.format("区块 [%d, %d] 读取失败: %s", chunkX, chunkZ, e.getMessage()));
+            }
+        }
+        return failures;
+    }
+
+    private Map<String, Object> readChunk(int sectorOffset, int chunkX, int chunkZ) throws IOException {
+        int position = sectorOffset * SECTOR_SIZE;
+        if (position + 5 > data.length) {
+            throw new IOException("区块偏移超出文件范围");
+        }
+
+        int length = readInt(position);
+        int compression = data[position + 4] & 0xFF;
+        if (length <= 0) {
+            return null;
+        }
+
+        InputStream raw;
+        if ((compression & EXTERNAL_FLAG) != 0) {
+            Path external = path.resolveSibling("c." + chunkX + "." + chunkZ + ".mcc");
+            raw = new ByteArrayInputStream(Files.readAllBytes(external));
+            compression &= ~EXTERNAL_FLAG;
+        } else {
+            if (position + 4 + length > data.length) {
+                throw new IOException("区块长度超出文件范围");
+            }
+            raw = new ByteArrayInputStream(data, position + 5, length - 1);
+        }
+
+        InputStream decompressed = switch (compression) {
+            case COMPRESSION_GZIP -> new GZIPInputStream(raw);
+            case COMPRESSION_ZLIB -> new InflaterInputStream(raw);
+            case COMPRESSION_NONE -> raw;
+            case COMPRESSION_LZ4 -> throw new IOException("不支持 LZ4 压缩的区块，请在服务器中将 region-file-compression 改回 deflate");
+            default -> throw new IOException("未知的区块压缩类型: " + compression);
+        };
+
+        try (InputStream in = decompressed) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(length * 4, 8192));
+            in.transferTo(out);
+            return NbtIo.read(out.toByteArray());
+        }
+    }
+
+    private int readInt(int offset) {
+        return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+                | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+    }
+
+    /**
+     * 区块级错误回调
+     */
+    public interface ErrorHandler {
+        void onError(String message);
+    }
+}
@@ -0,0 +1,146 @@
+package top.mc_plfd_host.ezobserver.auditor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 原版附魔数据表
+ * 离线环境下无法使用 Enchantment.getMaxLevel() / canEnchantItem()，
+ * 因此按原版附魔类别在此维护最大等级和可附魔的物品类型
+ *
+ * @author Kush_ShuL
+ */
+final class VanillaEnchantments {
+
+    private static final Map<String, Entry> ENCHANTMENTS = new HashMap<>();
+
+    private static final Predicate<String> ARMOR = VanillaEnchantments::isArmor;
+    private static final Predicate<String> HEAD = type -> type.endsWith("_HELMET");
+    private static final Predicate<String> CHEST = type -> type.endsWith("_CHESTPLATE");
+    private static final Predicate<String> LEGS = type -> type.endsWith("_LEGGINGS");
+    private static final Predicate<String> FEET = type -> type.endsWith("_BOOTS");
+    private static final Predicate<String> SWORD = type -> type.endsWith("_SWORD");
+    private static final Predicate<String> AXE = type -> type.endsWith("_AXE");
+    private static final Predicate<String> DIGGER = type -> type.endsWith("_PICKAXE") || type.endsWith("_SHOVEL")
+            || type.endsWith("_AXE") || type.endsWith("_HOE");
+    private static final Predicate<String> BREAKABLE = VanillaEnchantments::isBreakable;
+    private static final Predicate<String> WEARABLE = type -> isArmor(type) || type.equals("ELYTRA")
+            || type.equals("CARVED_PUMPKIN") || type.endsWith("_HEAD") || type.endsWith("_SKULL");
+    private static final Predicate<String> VANISHABLE = type -> isBreakable(type) || WEARABLE.test(type)
+            || type.equals("COMPASS") || type.equals("RECOVERY_COMPASS");
+
+    static {
+        // 盔甲
+        register("protection", 4, ARMOR);
+        register("fire_protection", 4, ARMOR);
+        register("blast_protection", 4, ARMOR);
+        register("projectile_protection", 4, ARMOR);
+        register("thorns", 3, ARMOR);
+        register("respiration", 3, HEAD);
+        register("aqua_affinity", 1, HEAD);
+        register("swift_sneak", 3, LEGS);
+        register("feather_falling", 4, FEET);
+        register("depth_strider", 3, FEET);
+        register("frost_walker", 2, FEET);
+        register("soul_speed", 3, FEET);
+        register("binding_curse", 1, WEARABLE);
+
+        // 近战武器（伤害类附魔在原版中同样可以附在斧上）
+        register("sharpness", 5, SWORD.or(AXE));
+        register("smite", 5, SWORD.or(AXE));
+        register("bane_of_arthropods", 5, SWORD.or(AXE));
+        register("knockback", 2, SWORD);
+        register("fire_aspect", 2, SWORD);
+        register("looting", 3, SWORD);
+        register("sweeping", 3, SWORD);
+        register("sweeping_edge", 3, SWORD);
+
+        // 工具
+        register("efficiency", 5, DIGGER.or(type -> type.equals("SHEARS")));
+        register("silk_touch", 1, DIGGER);
+        register("fortune", 3, DIGGER);
+
+        // 远程武器
+        register("power", 5, type -> type.equals("BOW"));
+        register("punch", 2, type -> type.equals("BOW"));
+        register("flame", 1, type -> type.equals("BOW"));
+        register("infinity", 1, type -> type.equals("BOW"));
+        register("multishot", 1, type -> type.equals("CROSSBOW"));
+        register("quick_charge", 3, type -> type.equals("CROSSBOW"));
+        register("piercing", 4, type -> type.equals("CROSSBOW"));
+        register("loyalty", 3, type -> type.equals("TRIDENT"));
+        register("impaling", 5, type -> type.equals("TRIDENT"));
+        register("riptide", 3, type -> type.equals("TRIDENT"));
+        register("channeling", 1, type -> type.equals("TRIDENT"));
+
+        // 钓鱼竿
+        register("luck_of_the_sea", 3, type -> type.equals("FISHING_ROD"));
+        register("lure", 3, type -> type.equals("FISHING_ROD"));
+
+        // 重锤（1.21+）
+        register("density", 5, type -> type.equals("MACE"));
+        register("breach", 4, type -> type.equals("MACE"));
+        register("wind_burst", 3, type -> type.equals("MACE"));
+
+        // 通用
+        register("unbreaking", 3, BREAKABLE);
+        register("mending", 1, BREAKABLE);
+        register("vanishing_curse", 1, VANISHABLE);
+    }
+
+    private VanillaEnchantments() {
+    }
+
+    private static void register(String name, int maxLevel, Predicate<String> target) {
+        ENCHANTMENTS.put(name, new Entry(maxLevel, target));
+    }
+
+    /**
+     * 是否为已知的原版附魔
+     */
+    static boolean isKnown(String name) {
+        return ENCHANTMENTS.containsKey(name);
+    }
+
+    /**
+     * 获取原版最大等级，未知附魔返回 -1
+     */
+    static int getMaxLevel(String name) {
+        Entry entry = ENCHANTMENTS.get(name);
+        return entry != null ? entry.maxLevel : -1;
+    }
+
+    /**
+     * 检查附魔能否应用到指定物品类型上
+     * 未知附魔（模组或更新版本新增）不做判断，视为可以应用
+     */
+    static boolean canEnchant(String name, String materialName) {
+        Entry entry = ENCHANTMENTS.get(name);
+        return entry == null || entry.target.test(materialName);
+    }
+
+    private static boolean isArmor(String type) {
+        return type.endsWith("_HELMET") || type.endsWith("_CHESTPLATE")
+                || type.endsWith("_LEGGINGS") || type.endsWith("_BOOTS");
+    }
+
+    private static boolean isBreakable(String type) {
+        return isArmor(type) || DIGGER.test(type) || SWORD.test(type)
+                || type.equals("BOW") || type.equals("CROSSBOW") || type.equals("TRIDENT")
+                || type.equals("FISHING_ROD") || type.equals("SHEARS") || type.equals("FLINT_AND_STEEL")
+                || type.equals("CARROT_ON_A_STICK") || type.equals("WARPED_FUNGUS_ON_A_STICK")
+                || type.equals("SHIELD") || type.equals("ELYTRA") || type.equals("BRUSH")
+                || type.equals("MACE") || type.equals("WOLF_ARMOR");
+    }
+
+    private static final class Entry {
+        private final int maxLevel;
+        private final Predicate<String> target;
+
+        private Entry(int maxLevel, Predicate<String> target) {
+            this.maxLevel = maxLevel;
+            this.target = target;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package top.mc_plfd_host.ezobserver.auditor;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.rules.ItemRules;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 离线世界审计工具
+ * 不需要启动服务器，直接读取世界存档中的区域文件和玩家数据，
+ * 使用 config.yml 中的检测规则检查所有物品，配置解析和检测规则与插件共用（ConfigSnapshot、ItemRules）
+ *
+ * 用法: java -jar EzObserver-auditor.jar <世界目录> [--config 文件] [--format jsonl|csv] [--output 文件] [--threads 数量]
+ *
+ * 退出码:
+ * 0 = 未发现违规物品
+ * 1 = 发现违规物品
+ * 2 = 参数错误、配置错误或存在无法读取的文件（审计结果不完整）
+ *
+ * @author Kush_ShuL
+ */
+public final class WorldAuditor {
+
+    public static final int EXIT_CLEAN = 0;
+    public static final int EXIT_VIOLATIONS = 1;
+    public static final int EXIT_ERROR = 2;
+
+    // 方块实体与实体中以列表形式保存物品的键
+    private static final String[] ITEM_LIST_KEYS = {"Items", "Inventory", "EnderItems", "HandItems", "ArmorItems"};
+    // 方块实体与实体中以单个复合标签保存物品的键
+    private static final String[] ITEM_KEYS = {"Item", "item", "RecordItem", "Book", "SaddleItem", "DecorItem",
+            "ArmorItem", "body_armor_item", "saddle"};
+
+    private final Path worldDirectory;
+    private final ConfigSnapshot config;
+    private final NbtItemInspector inspector;
+    private final FindingWriter writer;
+
+    private final AtomicLong filesScanned = new AtomicLong();
+    private final AtomicLong chunksScanned = new AtomicLong();
+    private final AtomicLong itemsScanned = new AtomicLong();
+    private final AtomicLong violatingItems = new AtomicLong();
+    private final AtomicLong oversizedChunks = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private WorldAuditor(Path worldDirectory, ConfigSnapshot config, FindingWriter writer) {
+        this.worldDirectory = worldDirectory;
+        this.config = config;
+        this.inspector = new NbtItemInspector(config);
+        this.writer = writer;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * 执行审计并返回退出码
+     */
+    public static int run(String[] args) {
+        Path world = null;
+        File configFile = null;
+        FindingWriter.Format format = FindingWriter.Format.JSONL;
+        Path output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--config" -> configFile = new File(requireValue(args, ++i));
+                    case "--format" -> format = FindingWriter.Format.valueOf(requireValue(args, ++i).toUpperCase(Locale.ROOT));
+                    case "--output" -> output = Paths.get(requireValue(args, ++i));
+                    case "--threads" -> threads = Math.max(1, Integer.parseInt(requireValue(args, ++i)));
+                    case "--help", "-h" -> {
+                        printUsage();
+                        return EXIT_CLEAN;
+                    }
+                    default -> {
+                        if (args[i].startsWith("--") || world != null) {
+                            throw new IllegalArgumentException("未知参数: " + args[i]);
+                        }
+                        world = Paths.get(args[i]);
+                    }
+                }
+            }
+            if (world == null) {
+                throw new IllegalArgumentException("缺少世界目录");
+            }
+            if (!Files.isDirectory(world)) {
+                throw new IllegalArgumentException("世界目录不存在: " + world.toAbsolutePath());
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("[EzObserver] " + e.getMessage());
+            printUsage();
+            return EXIT_ERROR;
+        }
+
+        ConfigSnapshot config;
+        try {
+            config = loadConfig(configFile);
+        } catch (IOException e) {
+            System.err.println("[EzObserver] 配置加载失败: " + e.getMessage());
+            return EXIT_ERROR;
+        }
+
+        try (FindingWriter findingWriter = new FindingWriter(openOutput(output), format)) {
+            WorldAuditor auditor = new WorldAuditor(world, config, findingWriter);
+            return auditor.audit(threads);
+        } catch (IOException e) {
+            System.err.println("[EzObserver] 审计失败: " + e.getMessage());
+            return EXIT_ERROR;
+        }
+    }
+
+    /**
+     * 加载配置，未指定文件时使用插件内置的默认 config.yml
+     * 与插件相同，文件中缺少的键使用内置配置中的值
+     */
+    private static ConfigSnapshot loadConfig(File file) throws IOException {
+        InputStream defaultStream = WorldAuditor.class.getResourceAsStream("/config.yml");
+        if (defaultStream == null) {
+            throw new IOException("找不到内置的默认 config.yml");
+        }
+        YamlConfiguration defaults;
+        try (InputStreamReader reader = new InputStreamReader(defaultStream, StandardCharsets.UTF_8)) {
+            defaults = YamlConfiguration.loadConfiguration(reader);
+        }
+
+        YamlConfiguration yaml = defaults;
+        if (file != null) {
+            if (!file.isFile()) {
+                throw new IOException("配置文件不存在: " + file.getAbsolutePath());
+            }
+            yaml = YamlConfiguration.loadConfiguration(file);
+            yaml.setDefaults(defaults);
+        }
+        // 配置中的问题由 ConfigSnapshot 以警告输出到标准错误
+        return new ConfigSnapshot(yaml, Logger.getLogger("EzObserver-Auditor"));
+    }
+
+    private int audit(int threads) throws IOException {
+        long startTime = System.currentTimeMillis();
+        List<Path> files = discoverFiles();
+        System.err.printf("[EzObserver] 开始审计 %s: %d 个文件, %d 个线程%n", worldDirectory, files.size(), threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "EzObserver-Auditor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(executor.submit(() -> auditFile(file)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("审计被中断", e);
+                } catch (java.util.concurrent.ExecutionException e) {
+                    errors.incrementAndGet();
+                    System.err.println("[EzObserver] 审计任务异常: " + e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.err.printf("[EzObserver] 审计完成: %d 个文件, %d 个区块, %d 个物品, %d 个违规物品, %d 个超过数据预算的区块, %d 个错误, 用时 %.1f 秒%n",
+                filesScanned.get(), chunksScanned.get(), itemsScanned.get(), violatingItems.get(), oversizedChunks.get(),
+                errors.get(), (System.currentTimeMillis() - startTime) / 1000.0);
+
+        if (errors.get() > 0) {
+            return EXIT_ERROR;
+        }
+        return violatingItems.get() > 0 || oversizedChunks.get() > 0 ? EXIT_VIOLATIONS : EXIT_CLEAN;
+    }
+
+    /**
+     * 查找世界目录下所有需要审计的文件
+     * 包括各维度的 region/、entities/ 以及 playerdata/
+     */
+    private List<Path> discoverFiles() throws IOException {
+        try (Stream<Path> stream = Files.walk(worldDirectory, 4)) {
+            return stream.filter(Files::isRegularFile)
+                    .filter(path -> {
+                        Path parent = path.getParent();
+                        String directory = parent == null ? "" : parent.getFileName().toString();
+                        String name = path.getFileName().toString();
+                        return ((directory.equals("region") || directory.equals("entities")) && name.endsWith(".mca"))
+                                || (directory.equals("playerdata") && name.endsWith(".dat"));
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void auditFile(Path file) {
+        String relative = worldDirectory.relativize(file).toString().replace(File.separatorChar, '/');
+        try {
+            if (file.getFileName().toString().endsWith(".dat")) {
+                auditPlayerFile(file, relative);
+            } else {
+                auditRegionFile(file, relative);
+            }
+            filesScanned.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            errors.incrementAndGet();
+            System.err.println("[EzObserver] 无法读取 " + relative + ": " + e.getMessage());
+        }
+    }
+
+    private void auditPlayerFile(Path file, String relative) throws IOException {
+        Map<String, Object> player;
+        try (InputStream in = Files.newInputStream(file)) {
+            player = NbtIo.readCompressed(in);
+        }
+        String name = file.getFileName().toString();
+        String uuid = name.substring(0, name.length() - ".dat".length());
+        inspectHolder(player, relative, "玩家 " + uuid);
+    }
+
+    private void auditRegionFile(Path file, String relative) throws IOException {
+        RegionFile region = new RegionFile(file);
+        int failures = region.forEachChunk((chunkX, chunkZ, chunk) -> {
+            chunksScanned.incrementAndGet();
+            // 1.18 之前区块数据位于 Level 标签下
+            Map<String, Object> level = NbtIo.getCompound(chunk, "Level");
+            Map<String, Object> root = level != null ? level : chunk;
+            String chunkLocation = String.format("区块 [%d, %d]", chunkX, chunkZ);
+            // 区块内方块实体和实体携带的物品数据总量，对应插件的区块数据预算
+            // 1.17+ 的实体保存在 entities/ 下单独的区域文件中，与方块实体分别计算
+            long payload = 0;
+
+            List<Object> blockEntities = NbtIo.getList(root, "block_entities");
+            if (blockEntities == null) {
+                blockEntities = NbtIo.getList(root, "TileEntities");
+            }
+            for (Map<String, Object> blockEntity : compounds(blockEntities)) {
+                String location = String.format("%s 方块实体 %s (%d, %d, %d)", chunkLocation,
+                        NbtIo.getString(blockEntity, "id"),
+                        NbtIo.getInt(blockEntity, "x", 0), NbtIo.getInt(blockEntity, "y", 0), NbtIo.getInt(blockEntity, "z", 0));
+                payload += inspectHolder(blockEntity, relative, location);
+            }
+
+            // entities/ 目录下的区域文件为 Entities，1.17 之前实体与区块保存在一起
+            List<Object> entities = NbtIo.getList(root, "Entities");
+            for (Map<String, Object> entity : compounds(entities)) {
+                payload += inspectEntity(entity, relative, chunkLocation);
+            }
+
+            if (ItemRules.isChunkPayloadExceeded(payload, config)) {
+                oversizedChunks.incrementAndGet();
+                writer.write(relative, chunkLocation, "-", 0, List.of(String.format(
+                        "区块物品数据 %d 字节，超过预算 %d 字节", payload, config.getChunkPayloadMaxBytes())));
+            }
+        }, message -> {
+            errors.incrementAndGet();
+            System.err.println("[EzObserver] " + relative + " " + message);
+        });
+        if (failures > 0) {
+            System.err.printf("[EzObserver] %s 中有 %d 个区块无法读取%n", relative, failures);
+        }
+    }
+
+    private long inspectEntity(Map<String, Object> entity, String file, String chunkLocation) throws IOException {
+        String location = String.format("%s 实体 %s%s", chunkLocation, NbtIo.getString(entity, "id"), position(entity));
+        long payload = inspectHolder(entity, file, location);
+
+        // 乘客（例如骑在船上的盔甲架）
+        for (Map<String, Object> passenger : compounds(NbtIo.getList(entity, "Passengers"))) {
+            payload += inspectEntity(passenger, file, chunkLocation);
+        }
+        return payload;
+    }
+
+    /**
+     * 检查方块实体、实体或玩家数据中保存的所有物品
+     *
+     * @return 这些物品的数据总量（字节），区块数据预算关闭时为 0
+     */
+    private long inspectHolder(Map<String, Object> holder, String file, String location) throws IOException {
+        long payload = 0;
+        for (String key : ITEM_LIST_KEYS) {
+            List<Object> items = NbtIo.getList(holder, key);
+            if (items == null) {
+                continue;
+            }
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i) instanceof Map<?, ?>) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> item = (Map<String, Object>) items.get(i);
+                    int slot = item.containsKey("Slot") ? NbtIo.getInt(item, "Slot", i) : i;
+                    payload += inspectItem(item, file, String.format("%s %s[%d]", location, key, slot));
+                }
+            }
+        }
+
+        for (String key : ITEM_KEYS) {
+            Map<String, Object> item = NbtIo.getCompound(holder, key);
+            if (item != null) {
+                payload += inspectItem(item, file, location + " " + key);
+            }
+        }
+
+        // 1.21.5+ 将装备统一保存在 equipment 标签中
+        Map<String, Object> equipment = NbtIo.getCompound(holder, "equipment");
+        if (equipment != null) {
+            for (Map.Entry<String, Object> entry : equipment.entrySet()) {
+                if (entry.getValue() instanceof Map<?, ?>) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> item = (Map<String, Object>) entry.getValue();
+                    payload += inspectItem(item, file, location + " equipment." + entry.getKey());
+                }
+            }
+        }
+        return payload;
+    }
+
+    private long inspectItem(Map<String, Object> item, String file, String location) throws IOException {
+        if (NbtIo.getString(item, "id") == null) {
+            return 0;
+        }
+        itemsScanned.incrementAndGet();
+        List<String> violations = inspector.checkItem(item);
+        if (!violations.isEmpty()) {
+            violatingItems.incrementAndGet();
+            int count = item.containsKey("count") ? NbtIo.getInt(item, "count", 1) : NbtIo.getInt(item, "Count", 1);
+            writer.write(file, location, NbtIo.getString(item, "id"), count, violations);
+        }
+        return config.isChunkPayloadEnabled() ? NbtIo.estimateSize(item) : 0;
+    }
+
+    private static String position(Map<String, Object> entity) {
+        List<Object> pos = NbtIo.getList(entity, "Pos");
+        if (pos == null || pos.size() != 3 || !(pos.get(0) instanceof Number)) {
+            return "";
+        }
+        return String.format(Locale.ROOT, " (%.1f, %.1f, %.1f)",
+                ((Number) pos.get(0)).doubleValue(), ((Number) pos.get(1)).doubleValue(), ((Number) pos.get(2)).doubleValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> compounds(List<Object> list) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (list != null) {
+            for (Object element : list) {
+                if (element instanceof Map) {
+                    result.add((Map<String, Object>) element);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Writer openOutput(Path output) throws IOException {
+        if (output == null) {
+            return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        }
+        return Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("参数 " + args[index - 1] + " 缺少值");
+        }
+        return args[index];
+    }
+
+    private static void printUsage() {
+        System.err.println("用法: java -jar EzObserver-auditor.jar <世界目录> [选项]");
+        System.err.println("  --config <文件>     使用的 config.yml，默认使用插件内置配置");
+        System.err.println("  --format jsonl|csv  输出格式，默认 jsonl");
+        System.err.println("  --output <文件>     输出文件，默认输出到标准输出");
+        System.err.println("  --threads <数量>    扫描线程数，默认为 CPU 核心数");
+        System.err.println("退出码: 0 = 未发现违规, 1 = 发现违规, 2 = 错误或审计不完整");
+    }
+}
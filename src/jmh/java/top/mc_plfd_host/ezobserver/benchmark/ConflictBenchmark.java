@@ -0,0 +1,55 @@
+package top.mc_plfd_host.ezobserver.benchmark;
+
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import top.mc_plfd_host.ezobserver.config.EnchantmentConflictManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EnchantmentConflictManager.findConflictingEnchantments 的吞吐量
+ * byItem 从物品读取附魔，byNames 直接使用附魔名称（离线审计工具的调用方式）
+ *
+ * @author Kush_ShuL
+ */
+@State(Scope.Benchmark)
+public class ConflictBenchmark {
+
+    private EnchantmentConflictManager conflictManager;
+    private ItemStack[] items;
+    private List<List<String>> enchantNames;
+
+    @Setup
+    public void setUp(PluginState state) {
+        conflictManager = state.plugin.getEnchantmentConflictManager();
+        items = ItemCorpus.create(ItemCorpus.MAX_ENCHANTED);
+        enchantNames = new ArrayList<>();
+        for (ItemStack item : items) {
+            List<String> names = new ArrayList<>();
+            for (Enchantment enchantment : item.getEnchantments().keySet()) {
+                names.add(enchantment.getKey().getKey());
+            }
+            enchantNames.add(names);
+        }
+    }
+
+    @Benchmark
+    public void byItem(Blackhole blackhole) {
+        for (ItemStack item : items) {
+            blackhole.consume(conflictManager.findConflictingEnchantments(item));
+        }
+    }
+
+    @Benchmark
+    public void byNames(Blackhole blackhole) {
+        for (int i = 0; i < items.length; i++) {
+            blackhole.consume(conflictManager.findConflictingEnchantments(items[i].getType(), enchantNames.get(i)));
+        }
+    }
+}
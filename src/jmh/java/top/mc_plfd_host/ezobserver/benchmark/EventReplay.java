@@ -0,0 +1,267 @@
+package top.mc_plfd_host.ezobserver.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.checker.ItemChecker;
+import top.mc_plfd_host.ezobserver.fixer.ItemFixer;
+import top.mc_plfd_host.ezobserver.listener.AdmissionController;
+import top.mc_plfd_host.ezobserver.storage.EventRecorder;
+import top.mc_plfd_host.ezobserver.storage.EventRecordingReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 事件回放工具
+ * 在 MockBukkit 模拟服务器上构造插件的检测组件 (见 {@link PluginState})，把 /ezo record 录制的事件按原速、加速或不限速送入
+ * 准入控制 -> 复制检测 -> 检测 -> 修正 的处理流程，输出吞吐量、延迟分位数和内存分配量
+ *
+ * 按速度回放时，延迟从事件的计划时间开始计算，处理跟不上时排队等待的时间也计入延迟；
+ * 不限速回放时只计算每个事件自身的处理时间
+ *
+ * 运行: ./gradlew replayEvents --args="<录制文件> [--speed 倍数] [--loops 次数]"
+ *
+ * @author Kush_ShuL
+ */
+public final class EventReplay {
+
+    private final EzObserver plugin;
+    private final ServerMock server;
+    private final ItemChecker checker;
+    private final ItemFixer fixer;
+    private final AdmissionController admissionController;
+    private final List<Player> players = new ArrayList<>();
+
+    private long[] latencies = new long[1 << 16];
+    private int events;
+    private int skipped;
+    private int violating;
+
+    private EventReplay(ServerMock server, EzObserver plugin) {
+        this.server = server;
+        this.plugin = plugin;
+        this.checker = new ItemChecker(plugin);
+        this.fixer = new ItemFixer(plugin, plugin.getFixTemplateCache());
+        this.admissionController = plugin.getAdmissionController();
+    }
+
+    public static void main(String[] args) {
+        File file = null;
+        double speed = 1.0;
+        int loops = 1;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--speed" -> speed = Double.parseDouble(requireValue(args, ++i));
+                    case "--loops" -> loops = Math.max(1, Integer.parseInt(requireValue(args, ++i)));
+                    case "--help", "-h" -> {
+                        printUsage();
+                        return;
+                    }
+                    default -> {
+                        if (args[i].startsWith("--") || file != null) {
+                            throw new IllegalArgumentException("未知参数: " + args[i]);
+                        }
+                        file = new File(args[i]);
+                    }
+                }
+            }
+            if (file == null) {
+                throw new IllegalArgumentException("缺少录制文件");
+            }
+            if (!file.isFile()) {
+                throw new IllegalArgumentException("录制文件不存在: " + file.getAbsolutePath());
+            }
+            if (speed < 0) {
+                throw new IllegalArgumentException("回放速度不能为负数: " + speed);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("[EzObserver] " + e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+
+        ServerMock server = MockBukkit.mock();
+        try {
+            EventReplay replay = new EventReplay(server, PluginState.createPlugin(server));
+            // 第一轮之前不限速回放一遍作为预热，结果不计入报告
+            replay.replay(file, 0);
+            replay.reset();
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < loops; i++) {
+                replay.replay(file, speed);
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            replay.printReport(file, speed, elapsedNanos, allocated);
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("[EzObserver] 回放失败: " + e.getMessage());
+            System.exit(2);
+        } finally {
+            MockBukkit.unmock();
+        }
+    }
+
+    private void replay(File file, double speed) throws IOException {
+        try (EventRecordingReader reader = new EventRecordingReader(file)) {
+            long startNanos = System.nanoTime();
+            EventRecordingReader.Record record;
+            while ((record = reader.next()) != null) {
+                long scheduledNanos = startNanos;
+                if (speed > 0) {
+                    scheduledNanos += (long) (record.getOffsetNanos() / speed);
+                    long wait;
+                    while ((wait = scheduledNanos - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+
+                long begin = System.nanoTime();
+                process(record);
+                long end = System.nanoTime();
+                addLatency(end - (speed > 0 ? scheduledNanos : begin));
+            }
+        }
+    }
+
+    /**
+     * 按 ItemMoveListener 的顺序处理一个事件，取消、没收等只作用于事件本身的步骤不模拟
+     */
+    private void process(EventRecordingReader.Record record) {
+        Player player = player(record.getPlayerIndex());
+        ItemStack item = deserialize(record.getItem());
+        ItemStack other = deserialize(record.getOther());
+        if (item == null) {
+            item = other;
+            other = null;
+        }
+        if (item == null) {
+            return;
+        }
+
+        AdmissionController.EventType type = admissionType(record.getKind());
+        if (type != null) {
+            AdmissionController.Admission admission = other != null
+                    ? admissionController.admit(player, type, item, other)
+                    : admissionController.admit(player, type, item);
+            if (admission != AdmissionController.Admission.CHECK) {
+                skipped++;
+                return;
+            }
+        }
+        if (record.getKind() == EventRecorder.Kind.CLICK && player != null) {
+            plugin.getDupeDetector().observe(player, item);
+        }
+
+        boolean clean = checkAndFix(item);
+        if (other != null) {
+            clean &= checkAndFix(other);
+        }
+        if (clean && type != null) {
+            if (other != null) {
+                admissionController.markClean(player, type, item, other);
+            } else {
+                admissionController.markClean(player, type, item);
+            }
+        }
+    }
+
+    private boolean checkAndFix(ItemStack item) {
+        List<String> violations = checker.checkItem(item);
+        if (violations.isEmpty()) {
+            return true;
+        }
+        violating++;
+        fixer.fixItem(item, violations);
+        return false;
+    }
+
+    private static AdmissionController.EventType admissionType(EventRecorder.Kind kind) {
+        return switch (kind) {
+            case CLICK -> AdmissionController.EventType.CLICK;
+            case DRAG -> AdmissionController.EventType.DRAG;
+            case HELD -> AdmissionController.EventType.HELD;
+            case SWAP -> AdmissionController.EventType.SWAP;
+            case INTERACT -> AdmissionController.EventType.INTERACT;
+            default -> null;
+        };
+    }
+
+    private Player player(int index) {
+        if (index == 0) {
+            return null;
+        }
+        while (players.size() < index) {
+            players.add(server.addPlayer());
+        }
+        return players.get(index - 1);
+    }
+
+    private static ItemStack deserialize(byte[] bytes) {
+        return bytes.length == 0 ? null : ItemStack.deserializeBytes(bytes);
+    }
+
+    private void addLatency(long nanos) {
+        if (events == latencies.length) {
+            latencies = Arrays.copyOf(latencies, events * 2);
+        }
+        latencies[events++] = nanos;
+    }
+
+    private void reset() {
+        events = 0;
+        skipped = 0;
+        violating = 0;
+    }
+
+    private void printReport(File file, double speed, long elapsedNanos, long allocated) {
+        long[] sorted = Arrays.copyOf(latencies, events);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+
+        System.out.printf("录制文件:   %s%n", file.getName());
+        System.out.printf("回放速度:   %s%n", speed > 0 ? speed + "x" : "不限速");
+        System.out.printf("事件数:     %d (准入跳过 %d, 违规物品 %d)%n", events, skipped, violating);
+        System.out.printf("用时:       %.2f 秒%n", seconds);
+        System.out.printf("吞吐量:     %.0f 事件/秒%n", events / seconds);
+        System.out.printf("延迟 (us):  p50 %.1f | p90 %.1f | p99 %.1f | p99.9 %.1f | max %.1f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), percentile(sorted, 1.0));
+        System.out.printf("内存分配:   %.1f MB (每个事件 %d 字节)%n",
+                allocated / (1024.0 * 1024.0), events > 0 ? allocated / events : 0);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("参数 " + args[index - 1] + " 缺少值");
+        }
+        return args[index];
+    }
+
+    private static void printUsage() {
+        System.err.println("用法: ./gradlew replayEvents --args=\"<录制文件> [选项]\"");
+        System.err.println("  --speed <倍数>  回放速度，1 为原速，0 为不限速，默认 1");
+        System.err.println("  --loops <次数>  重复回放的次数，默认 1");
+    }
+}
@@ -0,0 +1,39 @@
+package top.mc_plfd_host.ezobserver.benchmark;
+
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import top.mc_plfd_host.ezobserver.checker.ItemChecker;
+
+/**
+ * ItemChecker.checkItem 的吞吐量，每次操作检测集合中的全部物品
+ *
+ * @author Kush_ShuL
+ */
+@State(Scope.Benchmark)
+public class ItemCheckerBenchmark {
+
+    @Param({ItemCorpus.CLEAN_TOOLS, ItemCorpus.MAX_ENCHANTED, ItemCorpus.NESTED_SHULKERS,
+            ItemCorpus.POTIONS, ItemCorpus.LORE_HEAVY})
+    public String corpus;
+
+    private ItemChecker checker;
+    private ItemStack[] items;
+
+    @Setup
+    public void setUp(PluginState state) {
+        checker = new ItemChecker(state.plugin);
+        items = ItemCorpus.create(corpus);
+    }
+
+    @Benchmark
+    public void checkItem(Blackhole blackhole) {
+        for (ItemStack item : items) {
+            blackhole.consume(checker.checkItem(item));
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package top.mc_plfd_host.ezobserver.benchmark;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.ShulkerBox;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试使用的物品集合
+ * 每个集合模拟服务器上常见的一类物品，必须在 MockBukkit 启动后创建（ItemMeta 由模拟服务器提供）
+ *
+ * @author Kush_ShuL
+ */
+public final class ItemCorpus {
+
+    public static final String CLEAN_TOOLS = "clean-tools";
+    public static final String MAX_ENCHANTED = "max-enchanted";
+    public static final String NESTED_SHULKERS = "nested-shulkers";
+    public static final String POTIONS = "potions";
+    public static final String LORE_HEAVY = "lore-heavy";
+
+    private ItemCorpus() {
+    }
+
+    public static ItemStack[] create(String name) {
+        return switch (name) {
+            case CLEAN_TOOLS -> cleanTools();
+            case MAX_ENCHANTED -> maxEnchanted();
+            case NESTED_SHULKERS -> nestedShulkers();
+            case POTIONS -> potions();
+            case LORE_HEAVY -> loreHeavy();
+            default -> throw new IllegalArgumentException("未知的物品集合: " + name);
+        };
+    }
+
+    /**
+     * 无附魔或只有普通附魔的工具
+     */
+    private static ItemStack[] cleanTools() {
+        List<ItemStack> items = new ArrayList<>();
+        items.add(new ItemStack(Material.DIAMOND_PICKAXE));
+        items.add(new ItemStack(Material.IRON_SHOVEL));
+        items.add(new ItemStack(Material.STONE_AXE));
+        items.add(new ItemStack(Material.BOW));
+        items.add(new ItemStack(Material.COBBLESTONE, 64));
+        items.add(new ItemStack(Material.OAK_LOG, 32));
+        items.add(enchanted(Material.DIAMOND_PICKAXE, Enchantment.DIG_SPEED, 3));
+        items.add(enchanted(Material.IRON_SWORD, Enchantment.DAMAGE_ALL, 2));
+        return items.toArray(new ItemStack[0]);
+    }
+
+    /**
+     * 满级附魔的装备，以及等级超限、附魔冲突的作弊装备
+     */
+    private static ItemStack[] maxEnchanted() {
+        List<ItemStack> items = new ArrayList<>();
+
+        ItemStack sword = new ItemStack(Material.NETHERITE_SWORD);
+        sword.addUnsafeEnchantment(Enchantment.DAMAGE_ALL, 5);
+        sword.addUnsafeEnchantment(Enchantment.LOOT_BONUS_MOBS, 3);
+        sword.addUnsafeEnchantment(Enchantment.FIRE_ASPECT, 2);
+        sword.addUnsafeEnchantment(Enchantment.DURABILITY, 3);
+        sword.addUnsafeEnchantment(Enchantment.MENDING, 1);
+        items.add(sword);
+
+        ItemStack pickaxe = new ItemStack(Material.NETHERITE_PICKAXE);
+        pickaxe.addUnsafeEnchantment(Enchantment.DIG_SPEED, 5);
+        pickaxe.addUnsafeEnchantment(Enchantment.LOOT_BONUS_BLOCKS, 3);
+        pickaxe.addUnsafeEnchantment(Enchantment.DURABILITY, 3);
+        pickaxe.addUnsafeEnchantment(Enchantment.MENDING, 1);
+        items.add(pickaxe);
+
+        ItemStack chestplate = new ItemStack(Material.NETHERITE_CHESTPLATE);
+        chestplate.addUnsafeEnchantment(Enchantment.PROTECTION_ENVIRONMENTAL, 4);
+        chestplate.addUnsafeEnchantment(Enchantment.DURABILITY, 3);
+        chestplate.addUnsafeEnchantment(Enchantment.MENDING, 1);
+        items.add(chestplate);
+
+        // 等级超限
+        ItemStack illegalSword = new ItemStack(Material.DIAMOND_SWORD);
+        illegalSword.addUnsafeEnchantment(Enchantment.DAMAGE_ALL, 32767);
+        illegalSword.addUnsafeEnchantment(Enchantment.FIRE_ASPECT, 255);
+        items.add(illegalSword);
+
+        // 冲突附魔
+        ItemStack conflictingPickaxe = new ItemStack(Material.DIAMOND_PICKAXE);
+        conflictingPickaxe.addUnsafeEnchantment(Enchantment.SILK_TOUCH, 1);
+        conflictingPickaxe.addUnsafeEnchantment(Enchantment.LOOT_BONUS_BLOCKS, 3);
+        items.add(conflictingPickaxe);
+
+        // 不可破坏
+        ItemStack unbreakable = new ItemStack(Material.DIAMOND_AXE);
+        ItemMeta meta = unbreakable.getItemMeta();
+        meta.setUnbreakable(true);
+        unbreakable.setItemMeta(meta);
+        items.add(unbreakable);
+
+        return items.toArray(new ItemStack[0]);
+    }
+
+    /**
+     * 装满物品的潜影盒，其中一格是另一个装满物品的潜影盒
+     */
+    private static ItemStack[] nestedShulkers() {
+        ItemStack[] inner = maxEnchanted();
+        ItemStack innerBox = shulker(Material.BLUE_SHULKER_BOX, inner);
+
+        List<ItemStack> outerContents = new ArrayList<>();
+        outerContents.add(innerBox);
+        for (ItemStack item : cleanTools()) {
+            outerContents.add(item);
+        }
+        for (ItemStack item : potions()) {
+            outerContents.add(item);
+        }
+        ItemStack outerBox = shulker(Material.SHULKER_BOX, outerContents.toArray(new ItemStack[0]));
+
+        return new ItemStack[]{outerBox, innerBox, shulker(Material.RED_SHULKER_BOX, cleanTools())};
+    }
+
+    /**
+     * 普通药水、超限药水和极端作弊药水
+     */
+    private static ItemStack[] potions() {
+        List<ItemStack> items = new ArrayList<>();
+        items.add(potion(Material.POTION, PotionEffectType.SPEED, 1, 3600));
+        items.add(potion(Material.SPLASH_POTION, PotionEffectType.REGENERATION, 1, 900));
+        items.add(potion(Material.LINGERING_POTION, PotionEffectType.INCREASE_DAMAGE, 1, 1800));
+        items.add(potion(Material.POTION, PotionEffectType.SPEED, 9, 3600));
+        items.add(potion(Material.SPLASH_POTION, PotionEffectType.INCREASE_DAMAGE, 124, Integer.MAX_VALUE));
+        items.add(potion(Material.TIPPED_ARROW, PotionEffectType.REGENERATION, 0, 100));
+        return items.toArray(new ItemStack[0]);
+    }
+
+    /**
+     * 带有长名称、多行 Lore 和 PDC 数据的自定义物品
+     */
+    private static ItemStack[] loreHeavy() {
+        List<ItemStack> items = new ArrayList<>();
+        Material[] types = {Material.DIAMOND_SWORD, Material.BOW, Material.PAPER, Material.DIAMOND_HELMET};
+        for (int i = 0; i < types.length; i++) {
+            ItemStack item = new ItemStack(types[i]);
+            ItemMeta meta = item.getItemMeta();
+            meta.setDisplayName("§6§l传说之刃 §7[§e" + (i + 1) + "§7] §bLegendary Blade of the Ancients");
+            List<String> lore = new ArrayList<>();
+            for (int line = 0; line < 20; line++) {
+                lore.add("§7第 " + (line + 1) + " 行: §f攻击力 +" + (line * 3) + " §8| §aCrit chance " + line + "% §8| §dSoulbound");
+            }
+            meta.setLore(lore);
+            meta.getPersistentDataContainer().set(new NamespacedKey("rpgitems", "item_id"), PersistentDataType.STRING, "blade_" + i);
+            meta.getPersistentDataContainer().set(new NamespacedKey("rpgitems", "level"), PersistentDataType.INTEGER, i * 10);
+            item.setItemMeta(meta);
+            items.add(item);
+        }
+        return items.toArray(new ItemStack[0]);
+    }
+
+    private static ItemStack enchanted(Material type, Enchantment enchantment, int level) {
+        ItemStack item = new ItemStack(type);
+        item.addUnsafeEnchantment(enchantment, level);
+        return item;
+    }
+
+    private static ItemStack potion(Material type, PotionEffectType effect, int amplifier, int duration) {
+        ItemStack item = new ItemStack(type);
+        if (item.getItemMeta() instanceof PotionMeta meta) {
+            meta.addCustomEffect(new PotionEffect(effect, duration, amplifier), true);
+            item.setItemMeta(meta);
+        }
+        return item;
+    }
+
+    private static ItemStack shulker(Material type, ItemStack[] contents) {
+        ItemStack box = new ItemStack(type);
+        if (box.getItemMeta() instanceof BlockStateMeta meta && meta.getBlockState() instanceof ShulkerBox state) {
+            for (int slot = 0; slot < contents.length && slot < state.getInventory().getSize(); slot++) {
+                state.getInventory().setItem(slot, contents[slot]);
+            }
+            meta.setBlockState(state);
+            box.setItemMeta(meta);
+        }
+        return box;
+    }
+}
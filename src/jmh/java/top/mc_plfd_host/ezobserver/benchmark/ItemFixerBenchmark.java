@@ -0,0 +1,62 @@
+package top.mc_plfd_host.ezobserver.benchmark;
+
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import top.mc_plfd_host.ezobserver.checker.ItemChecker;
+import top.mc_plfd_host.ezobserver.fixer.FixTemplateCache;
+import top.mc_plfd_host.ezobserver.fixer.ItemFixer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ItemFixer.fixItem 的吞吐量
+ * fixCached 复用同一个修正器，相同物品命中修正结果缓存；fixUncached 每次使用空的修正结果缓存，执行完整的修正流程
+ *
+ * @author Kush_ShuL
+ */
+@State(Scope.Benchmark)
+public class ItemFixerBenchmark {
+
+    @Param({ItemCorpus.MAX_ENCHANTED, ItemCorpus.NESTED_SHULKERS, ItemCorpus.POTIONS})
+    public String corpus;
+
+    private PluginState state;
+    private ItemFixer fixer;
+    private ItemStack[] items;
+    private List<List<String>> violations;
+
+    @Setup
+    public void setUp(PluginState state) {
+        this.state = state;
+        fixer = new ItemFixer(state.plugin, new FixTemplateCache());
+        items = ItemCorpus.create(corpus);
+
+        // 检测结果预先计算，只测量修正本身
+        ItemChecker checker = new ItemChecker(state.plugin);
+        violations = new ArrayList<>();
+        for (ItemStack item : items) {
+            violations.add(checker.checkItem(item));
+        }
+    }
+
+    @Benchmark
+    public void fixCached(Blackhole blackhole) {
+        for (int i = 0; i < items.length; i++) {
+            blackhole.consume(fixer.fixItem(items[i], violations.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void fixUncached(Blackhole blackhole) {
+        ItemFixer freshFixer = new ItemFixer(state.plugin, new FixTemplateCache());
+        for (int i = 0; i < items.length; i++) {
+            blackhole.consume(freshFixer.fixItem(items[i], violations.get(i)));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package top.mc_plfd_host.ezobserver.benchmark;
+
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 禁止名称和 Lore 关键词匹配的吞吐量，使用默认配置中的关键词列表
+ * 每次操作匹配自定义物品的全部名称和 Lore 行
+ *
+ * @author Kush_ShuL
+ */
+@State(Scope.Benchmark)
+public class KeywordBenchmark {
+
+    private ConfigSnapshot config;
+    private String[] names;
+    private String[] loreLines;
+
+    @Setup
+    public void setUp(PluginState state) {
+        config = state.plugin.getConfigManager().getSnapshot();
+
+        List<String> nameList = new ArrayList<>();
+        List<String> loreList = new ArrayList<>();
+        for (ItemStack item : ItemCorpus.create(ItemCorpus.LORE_HEAVY)) {
+            ItemMeta meta = item.getItemMeta();
+            nameList.add(meta.getDisplayName());
+            loreList.addAll(meta.getLore());
+        }
+        names = nameList.toArray(new String[0]);
+        loreLines = loreList.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public void nameKeywords(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(config.findBannedNameKeyword(name));
+        }
+    }
+
+    @Benchmark
+    public void loreKeywords(Blackhole blackhole) {
+        for (String line : loreLines) {
+            blackhole.consume(config.findBannedLoreKeyword(line));
+        }
+    }
+}
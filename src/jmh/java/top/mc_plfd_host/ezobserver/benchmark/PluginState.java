@@ -0,0 +1,54 @@
+package top.mc_plfd_host.ezobserver.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.util.ServerCapabilities;
+
+/**
+ * 基准测试共用的模拟服务器
+ * 每个 fork 启动一次 MockBukkit，加载但不启用插件，只通过 {@link EzObserver#initComponents()} 构造检测和修正使用的组件；
+ * onEnable 中的定时任务、后台线程和监听器依赖模拟服务器未实现的调度器，基准测试不需要
+ *
+ * @author Kush_ShuL
+ */
+@State(Scope.Benchmark)
+public class PluginState {
+
+    public EzObserver plugin;
+
+    @Setup(Level.Trial)
+    public void start() {
+        plugin = createPlugin(MockBukkit.mock());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        MockBukkit.unmock();
+    }
+
+    /**
+     * 在模拟服务器上加载插件并构造组件
+     * 模拟服务器无法序列化物品时直接失败：大小检测、检测印章和修正结果缓存都依赖序列化，
+     * 否则测得的是异常分支而不是实际的检测流程
+     */
+    static EzObserver createPlugin(ServerMock server) {
+        EzObserver plugin = (EzObserver) server.getPluginManager().loadPlugin(EzObserver.class, new Object[0]);
+        plugin.initComponents();
+        ServerCapabilities.probe();
+
+        try {
+            new ItemStack(Material.STONE).serializeAsBytes();
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("模拟服务器不支持 ItemStack.serializeAsBytes，基准测试结果没有意义", e);
+        }
+        return plugin;
+    }
+}
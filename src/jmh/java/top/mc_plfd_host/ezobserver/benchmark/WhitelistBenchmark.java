@@ -0,0 +1,51 @@
+package top.mc_plfd_host.ezobserver.benchmark;
+
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import top.mc_plfd_host.ezobserver.config.WhitelistManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * WhitelistManager.isWhitelisted 的吞吐量
+ * 白名单中登记了部分自定义物品，查询集合混合了白名单物品和其他各类物品；
+ * 同一物品重复查询，测量的是结果缓存命中后的开销
+ *
+ * @author Kush_ShuL
+ */
+@State(Scope.Benchmark)
+public class WhitelistBenchmark {
+
+    private WhitelistManager whitelistManager;
+    private ItemStack[] items;
+
+    @Setup
+    public void setUp(PluginState state) {
+        // 检测流程使用的是配置管理器持有的白名单
+        whitelistManager = state.plugin.getConfigManager().getWhitelistManager();
+
+        ItemStack[] custom = ItemCorpus.create(ItemCorpus.LORE_HEAVY);
+        whitelistManager.addToWhitelist(custom[0]);
+        whitelistManager.addToWhitelist(custom[1]);
+
+        List<ItemStack> mixed = new ArrayList<>();
+        Collections.addAll(mixed, custom);
+        Collections.addAll(mixed, ItemCorpus.create(ItemCorpus.CLEAN_TOOLS));
+        Collections.addAll(mixed, ItemCorpus.create(ItemCorpus.MAX_ENCHANTED));
+        Collections.addAll(mixed, ItemCorpus.create(ItemCorpus.POTIONS));
+        items = mixed.toArray(new ItemStack[0]);
+    }
+
+    @Benchmark
+    public void isWhitelisted(Blackhole blackhole) {
+        for (ItemStack item : items) {
+            blackhole.consume(whitelistManager.isWhitelisted(item));
+        }
+    }
+}
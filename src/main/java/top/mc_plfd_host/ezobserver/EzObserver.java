@@ -3,19 +3,37 @@ package top.mc_plfd_host.ezobserver;
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import org.bukkit.command.PluginCommand;
 import org.bukkit.plugin.java.JavaPlugin;
+import top.mc_plfd_host.ezobserver.alert.AlertAggregator;
+import top.mc_plfd_host.ezobserver.checker.DupeDetector;
+import top.mc_plfd_host.ezobserver.checker.ProvenanceCache;
+import top.mc_plfd_host.ezobserver.checker.VerdictStamp;
 import top.mc_plfd_host.ezobserver.command.EzObserverCommand;
 import top.mc_plfd_host.ezobserver.config.ConfigManager;
+import top.mc_plfd_host.ezobserver.config.ConfigWatcher;
 import top.mc_plfd_host.ezobserver.config.EnchantmentConflictManager;
 import top.mc_plfd_host.ezobserver.config.MessageManager;
 import top.mc_plfd_host.ezobserver.config.PotionEffectLimitManager;
 import top.mc_plfd_host.ezobserver.config.WhitelistManager;
+import top.mc_plfd_host.ezobserver.fixer.FixTemplateCache;
+import top.mc_plfd_host.ezobserver.jfr.JfrSupport;
+import top.mc_plfd_host.ezobserver.listener.AdmissionController;
+import top.mc_plfd_host.ezobserver.listener.ChunkPayloadTracker;
+import top.mc_plfd_host.ezobserver.listener.CreativeFirewall;
 import top.mc_plfd_host.ezobserver.listener.ItemMoveListener;
 import top.mc_plfd_host.ezobserver.listener.PlayerEffectListener;
+import top.mc_plfd_host.ezobserver.listener.SourceGateListener;
+import top.mc_plfd_host.ezobserver.monitor.PerfMonitor;
 import top.mc_plfd_host.ezobserver.monitor.RealTimeMonitor;
 import top.mc_plfd_host.ezobserver.permission.PermissionManager;
 import top.mc_plfd_host.ezobserver.report.ReportManager;
 import top.mc_plfd_host.ezobserver.scanner.WorldScanner;
+import top.mc_plfd_host.ezobserver.storage.ConfiscationVault;
+import top.mc_plfd_host.ezobserver.storage.EventRecorder;
+import top.mc_plfd_host.ezobserver.storage.ViolationJournal;
 import top.mc_plfd_host.ezobserver.util.FoliaUtil;
+import top.mc_plfd_host.ezobserver.util.ServerCapabilities;
+
+import java.util.List;
 
 public class EzObserver extends JavaPlugin {
 
@@ -29,34 +47,31 @@ public class EzObserver extends JavaPlugin {
     private PermissionManager permissionManager;
     private RealTimeMonitor realTimeMonitor;
     private ReportManager reportManager;
+    private ConfigWatcher configWatcher;
+    private ConfiscationVault confiscationVault;
+    private ViolationJournal violationJournal;
+    private AlertAggregator alertAggregator;
+    private AdmissionController admissionController;
+    private DupeDetector dupeDetector;
+    private VerdictStamp verdictStamp;
+    private ProvenanceCache provenanceCache;
+    private FixTemplateCache fixTemplateCache;
+    private EventRecorder eventRecorder;
+    private PerfMonitor perfMonitor;
     private BukkitAudiences adventure;
 
     @Override
     public void onEnable() {
-        instance = this;
-        
         // Initialize adventure platform
         this.adventure = BukkitAudiences.create(this);
         
-        // Initialize config manager
-        configManager = new ConfigManager(this);
-        configManager.loadConfig();
+        initComponents();
         
-        // Initialize enchantment conflict manager
-        enchantmentConflictManager = new EnchantmentConflictManager(configManager);
+        // 启动性能统计的定期输出
+        perfMonitor.start();
         
-        // Initialize potion effect limit manager
-        potionEffectLimitManager = new PotionEffectLimitManager();
-        
-        // Initialize message manager
-        messageManager = new MessageManager(this);
-        messageManager.loadMessages();
-        
-        // Initialize whitelist manager
-        whitelistManager = new WhitelistManager(this);
-        
-        // Initialize permission manager
-        permissionManager = new PermissionManager(this);
+        // 注册 JFR 事件并释放 ezobserver.jfc
+        JfrSupport.register(this);
         
         // Initialize real-time monitor
         realTimeMonitor = new RealTimeMonitor(this);
@@ -68,9 +83,37 @@ public class EzObserver extends JavaPlugin {
         // Initialize scanner
         worldScanner = new WorldScanner(this);
         
+        // 打开没收库
+        confiscationVault = new ConfiscationVault(this);
+        confiscationVault.open();
+        
+        // 启动违规日志
+        violationJournal = new ViolationJournal(this);
+        violationJournal.open();
+        
+        // 启动违规广播聚合器
+        alertAggregator = new AlertAggregator(this);
+        alertAggregator.start();
+        getServer().getPluginManager().registerEvents(alertAggregator, this);
+        
+        // 物品事件准入控制
+        getServer().getPluginManager().registerEvents(admissionController, this);
+        
+        // 物品事件录制器，由 /ezo record 启动
+        eventRecorder = new EventRecorder(this);
+        
         // Register event listener
         getServer().getPluginManager().registerEvents(new ItemMoveListener(this), this);
         
+        // 物品来源检测
+        getServer().getPluginManager().registerEvents(new SourceGateListener(this), this);
+        
+        // 创造模式物品防火墙
+        getServer().getPluginManager().registerEvents(new CreativeFirewall(this), this);
+        
+        // 区块物品数据量统计
+        getServer().getPluginManager().registerEvents(new ChunkPayloadTracker(this), this);
+        
         // Register player effect listener (only triggers on effect updates for high performance)
         PlayerEffectListener playerEffectListener = new PlayerEffectListener(this);
         getServer().getPluginManager().registerEvents(playerEffectListener, this);
@@ -83,6 +126,10 @@ public class EzObserver extends JavaPlugin {
             command.setTabCompleter(commandExecutor);
         }
         
+        // 启动配置文件热重载
+        configWatcher = new ConfigWatcher(this);
+        configWatcher.start();
+        
         // 显示服务器类型和 Folia 兼容性信息
         String serverType = FoliaUtil.getServerType();
         boolean isFolia = FoliaUtil.isFolia();
@@ -93,18 +140,112 @@ public class EzObserver extends JavaPlugin {
         if (isFolia) {
             getLogger().info("Folia detected! Using region-based scheduling for thread safety.");
         }
+        List<String> apiFallbacks = ServerCapabilities.probe();
+        getLogger().info("API capabilities: " + ServerCapabilities.describe());
+        for (String fallback : apiFallbacks) {
+            getLogger().warning("API fallback: " + fallback);
+        }
         
         // 显示高级功能启用状态
         getLogger().info("Advanced features loaded:");
         getLogger().info("- Real-time monitoring: " + (configManager.isRealTimeMonitoringEnabled() ? "Enabled" : "Disabled"));
         getLogger().info("- Auto-fix: " + (configManager.isAutoFixEnabled() ? "Enabled" : "Disabled"));
+        getLogger().info("- Hot reload: " + (configManager.getSnapshot().isHotReloadEnabled() ? "Enabled" : "Disabled"));
         getLogger().info("- Permission system: Active");
         getLogger().info("- Report system: Active");
     }
 
+    /**
+     * 创建检测和修正流程使用的组件：配置、各类管理器、缓存和统计
+     * 只构造对象，不启动定时任务、线程，也不注册监听器；
+     * onEnable 首先调用，基准测试在未启用的插件上直接调用，不依赖模拟服务器的调度器
+     */
+    public void initComponents() {
+        instance = this;
+        
+        // Initialize config manager
+        configManager = new ConfigManager(this);
+        configManager.loadConfig();
+        
+        // 性能统计，检测器、修正器等组件在构造时取得
+        perfMonitor = new PerfMonitor(this);
+        
+        // Initialize enchantment conflict manager
+        enchantmentConflictManager = new EnchantmentConflictManager(configManager);
+        
+        // Initialize potion effect limit manager
+        potionEffectLimitManager = new PotionEffectLimitManager();
+        
+        // Initialize message manager
+        messageManager = new MessageManager(this);
+        messageManager.loadMessages();
+        
+        // Initialize whitelist manager
+        whitelistManager = new WhitelistManager(this);
+        
+        // Initialize permission manager
+        permissionManager = new PermissionManager(this);
+        
+        // 检测印章
+        verdictStamp = new VerdictStamp(this);
+        
+        // 可信来源物品集合
+        provenanceCache = new ProvenanceCache(this);
+        
+        // 复制物品检测
+        dupeDetector = new DupeDetector(this);
+        
+        // 修正结果缓存，所有 ItemFixer 共享
+        fixTemplateCache = new FixTemplateCache();
+        
+        // 物品事件准入控制，监听器在 onEnable 中注册
+        admissionController = new AdmissionController(this);
+    }
+
     @Override
     public void onDisable() {
         try {
+            // 停止配置文件监听
+            if (configWatcher != null) {
+                configWatcher.stop();
+            }
+            
+            // 关闭没收库，等待未写入的记录落盘
+            if (confiscationVault != null) {
+                try {
+                    confiscationVault.close();
+                } catch (Exception e) {
+                    getLogger().warning("关闭没收库时发生错误: " + e.getMessage());
+                }
+            }
+            
+            // 注销 JFR 事件
+            JfrSupport.unregister();
+            
+            // 停止性能统计日志任务
+            if (perfMonitor != null) {
+                perfMonitor.stop();
+            }
+            
+            // 停止事件录制，写完队列中剩余的事件
+            if (eventRecorder != null) {
+                eventRecorder.stop();
+            }
+            
+            // 停止违规广播聚合器
+            if (alertAggregator != null) {
+                alertAggregator.stop();
+            }
+            
+            // 关闭违规日志，写完队列中剩余的记录
+            if (violationJournal != null) {
+                try {
+                    violationJournal.close();
+                } catch (Exception e) {
+                    getLogger().warning("关闭违规日志时发生错误: " + e.getMessage());
+                }
+            }
+            
             // 清理实时监控器
             if (realTimeMonitor != null) {
                 try {
@@ -172,6 +313,46 @@ public class EzObserver extends JavaPlugin {
         return messageManager;
     }
 
+    public ConfiscationVault getConfiscationVault() {
+        return confiscationVault;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    public DupeDetector getDupeDetector() {
+        return dupeDetector;
+    }
+
+    public VerdictStamp getVerdictStamp() {
+        return verdictStamp;
+    }
+
+    public ProvenanceCache getProvenanceCache() {
+        return provenanceCache;
+    }
+
+    public FixTemplateCache getFixTemplateCache() {
+        return fixTemplateCache;
+    }
+
+    public PerfMonitor getPerfMonitor() {
+        return perfMonitor;
+    }
+
+    public EventRecorder getEventRecorder() {
+        return eventRecorder;
+    }
+
+    public AlertAggregator getAlertAggregator() {
+        return alertAggregator;
+    }
+
+    public ViolationJournal getViolationJournal() {
+        return violationJournal;
+    }
+
     public WorldScanner getWorldScanner() {
         return worldScanner;
     }
@@ -0,0 +1,347 @@
+package top.mc_plfd_host.ezobserver.alert;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.config.MessageManager;
+import top.mc_plfd_host.ezobserver.jfr.AlertFlushEvent;
+import top.mc_plfd_host.ezobserver.permission.PermissionManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 违规广播聚合器
+ * 同一玩家、同一处理方式、同一类违规在一个时间窗口内的所有违规合并为一条广播，
+ * 例如玩家倒出一整箱违规物品时只会广播一次汇总，而不是每件物品一条
+ *
+ * 每个接收者有独立的每分钟消息上限，超出部分只统计数量，下次有余量时提示被省略的条数。
+ * 最近的汇总会保留在摘要中，管理员上线时补发离线期间的汇总
+ *
+ * @author Kush_ShuL
+ */
+public class AlertAggregator implements Listener {
+
+    private final EzObserver plugin;
+    // 当前窗口中正在累积的汇总
+    private final Map<AlertKey, Bucket> pending = new ConcurrentHashMap<>();
+    // 每个接收者的限流状态，只在全局区域线程上访问
+    private final Map<UUID, RecipientLimit> limits = new HashMap<>();
+    // 最近的汇总，用于管理员上线时补发
+    private final Deque<DigestEntry> digest = new ArrayDeque<>();
+    // 管理员最近一次下线的时间
+    private final Map<UUID, Long> lastQuit = new ConcurrentHashMap<>();
+
+    private ScheduledTask flushTask;
+
+    public AlertAggregator(EzObserver plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 按配置的窗口长度启动定时汇总任务
+     */
+    public void start() {
+        long windowTicks = Math.max(1L, getSnapshot().getAlertWindowMillis() / 50L);
+        flushTask = plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, task -> flush(),
+                windowTicks, windowTicks);
+    }
+
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        pending.clear();
+    }
+
+    /**
+     * 记录一次需要广播的违规，可以在任意线程调用
+     *
+     * @param player 物品持有者，可以为 null
+     * @param messageKey 广播消息键 (broadcast-delete/broadcast-store/broadcast-fix)
+     */
+    public void record(Player player, String material, String messageKey, List<String> violations) {
+        String playerName = player != null ? player.getName() : "未知";
+        AlertKey key = new AlertKey(playerName, messageKey, ViolationCode.classify(violations));
+        String reason = String.join(", ", violations);
+        pending.compute(key, (k, bucket) -> {
+            if (bucket == null) {
+                bucket = new Bucket(reason);
+            }
+            bucket.add(material, reason);
+            return bucket;
+        });
+    }
+
+    // ========== 汇总 ==========
+
+    /**
+     * 结束当前窗口：每个汇总只构建一次 Component，再分发给所有接收者
+     */
+    private void flush() {
+        AlertFlushEvent event = new AlertFlushEvent();
+        event.begin();
+        ConfigSnapshot config = getSnapshot();
+        refillLimits(config);
+
+        int summaries = 0;
+        int deliveries = 0;
+        if (!pending.isEmpty()) {
+            MessageManager messages = plugin.getMessageManager();
+            for (AlertKey key : new ArrayList<>(pending.keySet())) {
+                Bucket bucket = pending.remove(key);
+                if (bucket == null) {
+                    continue;
+                }
+                Component summary = messages.getMessage(key.messageKey, bucket.toPlaceholders(key.playerName));
+                deliveries += deliver(summary, config);
+                addToDigest(summary, config);
+                summaries++;
+            }
+        }
+
+        sendSuppressedNotices();
+        event.finish(summaries, deliveries, countSuppressed());
+    }
+
+    /**
+     * @return 实际发送给玩家的消息数
+     */
+    private int deliver(Component summary, ConfigSnapshot config) {
+        Bukkit.getConsoleSender().sendMessage(summary);
+        int maxPerMinute = config.getAlertMaxPerRecipientPerMinute();
+        int delivered = 0;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (maxPerMinute <= 0) {
+                player.sendMessage(summary);
+                delivered++;
+                continue;
+            }
+            RecipientLimit limit = limits.computeIfAbsent(player.getUniqueId(), k -> new RecipientLimit(maxPerMinute));
+            if (limit.tokens >= 1.0) {
+                limit.tokens -= 1.0;
+                player.sendMessage(summary);
+                delivered++;
+            } else {
+                limit.suppressed++;
+            }
+        }
+        return delivered;
+    }
+
+    private int countSuppressed() {
+        int suppressed = 0;
+        for (RecipientLimit limit : limits.values()) {
+            suppressed += limit.suppressed;
+        }
+        return suppressed;
+    }
+
+    private void refillLimits(ConfigSnapshot config) {
+        int maxPerMinute = config.getAlertMaxPerRecipientPerMinute();
+        long now = System.nanoTime();
+        for (RecipientLimit limit : limits.values()) {
+            double elapsedMinutes = (now - limit.lastRefill) / (double) TimeUnit.MINUTES.toNanos(1);
+            limit.tokens = Math.min(maxPerMinute, limit.tokens + elapsedMinutes * maxPerMinute);
+            limit.lastRefill = now;
+        }
+    }
+
+    /**
+     * 向有余量的接收者提示被省略的汇总条数
+     */
+    private void sendSuppressedNotices() {
+        if (limits.isEmpty()) {
+            return;
+        }
+        MessageManager messages = plugin.getMessageManager();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            RecipientLimit limit = limits.get(player.getUniqueId());
+            if (limit == null || limit.suppressed == 0 || limit.tokens < 1.0) {
+                continue;
+            }
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("count", String.valueOf(limit.suppressed));
+            player.sendMessage(messages.getMessage("alert-suppressed", placeholders));
+            limit.tokens -= 1.0;
+            limit.suppressed = 0;
+        }
+    }
+
+    // ========== 管理员摘要 ==========
+
+    private void addToDigest(Component summary, ConfigSnapshot config) {
+        if (!config.isAlertDigestEnabled()) {
+            return;
+        }
+        synchronized (digest) {
+            digest.addLast(new DigestEntry(System.currentTimeMillis(), summary));
+            while (digest.size() > config.getAlertDigestSize()) {
+                digest.removeFirst();
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        ConfigSnapshot config = getSnapshot();
+        if (!config.isAlertDigestEnabled() || !player.hasPermission(PermissionManager.PERMISSION_ADMIN)) {
+            return;
+        }
+
+        long oldest = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(config.getAlertDigestMaxAgeMinutes());
+        Long quitAt = lastQuit.remove(player.getUniqueId());
+        long since = quitAt != null ? Math.max(quitAt, oldest) : oldest;
+
+        List<Component> missed = new ArrayList<>();
+        synchronized (digest) {
+            for (DigestEntry entry : digest) {
+                if (entry.timestamp > since) {
+                    missed.add(entry.summary);
+                }
+            }
+        }
+        if (missed.isEmpty()) {
+            return;
+        }
+
+        MessageManager messages = plugin.getMessageManager();
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("count", String.valueOf(missed.size()));
+        player.sendMessage(messages.getMessage("alert-digest-header", placeholders));
+        for (Component summary : missed) {
+            player.sendMessage(summary);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        if (player.hasPermission(PermissionManager.PERMISSION_ADMIN)) {
+            lastQuit.put(player.getUniqueId(), System.currentTimeMillis());
+        }
+        // 限流状态只在全局区域线程上修改
+        UUID playerId = player.getUniqueId();
+        plugin.getServer().getGlobalRegionScheduler().execute(plugin, () -> limits.remove(playerId));
+    }
+
+    private ConfigSnapshot getSnapshot() {
+        return plugin.getConfigManager().getSnapshot();
+    }
+
+    /**
+     * 汇总的分组键：玩家 + 广播消息 + 违规类别
+     */
+    private static final class AlertKey {
+        private final String playerName;
+        private final String messageKey;
+        private final long reasonMask;
+
+        private AlertKey(String playerName, String messageKey, long reasonMask) {
+            this.playerName = playerName;
+            this.messageKey = messageKey;
+            this.reasonMask = reasonMask;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof AlertKey key && reasonMask == key.reasonMask
+                    && playerName.equals(key.playerName) && messageKey.equals(key.messageKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(playerName, messageKey, reasonMask);
+        }
+    }
+
+    /**
+     * 一个窗口内累积的违规，只在 ConcurrentHashMap.compute 中修改
+     */
+    private static final class Bucket {
+        // 汇总中最多列出的物品类型数
+        private static final int MAX_LISTED_ITEMS = 3;
+
+        private final String firstReason;
+        private final Map<String, Integer> itemCounts = new LinkedHashMap<>();
+        private int otherReasons;
+
+        private Bucket(String firstReason) {
+            this.firstReason = firstReason;
+        }
+
+        private void add(String material, String reason) {
+            itemCounts.merge(material, 1, Integer::sum);
+            if (!firstReason.equals(reason)) {
+                otherReasons++;
+            }
+        }
+
+        private Map<String, String> toPlaceholders(String playerName) {
+            StringBuilder items = new StringBuilder();
+            int listed = 0;
+            Iterator<Map.Entry<String, Integer>> iterator = itemCounts.entrySet().iterator();
+            while (iterator.hasNext() && listed < MAX_LISTED_ITEMS) {
+                Map.Entry<String, Integer> entry = iterator.next();
+                if (listed > 0) {
+                    items.append(", ");
+                }
+                items.append(entry.getKey());
+                if (entry.getValue() > 1) {
+                    items.append(" x").append(entry.getValue());
+                }
+                listed++;
+            }
+            if (itemCounts.size() > listed) {
+                items.append(" (+").append(itemCounts.size() - listed).append(')');
+            }
+
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("player", playerName);
+            placeholders.put("item", items.toString());
+            placeholders.put("reason", otherReasons > 0 ? firstReason + " (+" + otherReasons + ")" : firstReason);
+            return placeholders;
+        }
+    }
+
+    private static final class RecipientLimit {
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+        private int suppressed;
+
+        private RecipientLimit(int capacity) {
+            this.tokens = capacity;
+        }
+    }
+
+    private static final class DigestEntry {
+        private final long timestamp;
+        private final Component summary;
+
+        private DigestEntry(long timestamp, Component summary) {
+            this.timestamp = timestamp;
+            this.summary = summary;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package top.mc_plfd_host.ezobserver.checker;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次检测的时间预算
+ * 一次顶层检测（包括容器和收纳袋内物品的递归检测）共用一个截止时间，每个检测阶段结束后检查是否超时；
+ * 超时后停止检测，结果替换为一条 "检测超时" 违规，因此单件物品的检测耗时有上限；
+ * 该违规和其他违规一样按没收模式处理（关闭没收时只记录），违规描述中记录超时发生的阶段和物品
+ *
+ * 不是线程安全的，每次检测创建一个
+ *
+ * @author Kush_ShuL
+ */
+public final class CheckBudget {
+
+    public static final String VIOLATION_PREFIX = "检测超时";
+
+    private static final CheckBudget UNLIMITED = new CheckBudget(0);
+
+    private final long budgetNanos;
+    private final long deadline;
+    private String exceededAt;
+
+    private CheckBudget(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+        this.deadline = budgetNanos > 0 ? System.nanoTime() + budgetNanos : 0;
+    }
+
+    /**
+     * 开始计时
+     *
+     * @param budgetNanos 预算，不大于 0 时不限制
+     */
+    public static CheckBudget start(long budgetNanos) {
+        return budgetNanos > 0 ? new CheckBudget(budgetNanos) : UNLIMITED;
+    }
+
+    /**
+     * 阶段结束后调用，已超时时返回 true 并记录第一次超时的位置
+     *
+     * @param stage 刚结束的阶段
+     * @param item 正在检测的物品（可能是容器内的物品）
+     */
+    public boolean isExceeded(String stage, ItemStack item) {
+        if (exceededAt != null) {
+            return true;
+        }
+        if (budgetNanos <= 0 || System.nanoTime() - deadline < 0) {
+            return false;
+        }
+        exceededAt = stage + " (" + item.getType().name() + ")";
+        return true;
+    }
+
+    public boolean isExhausted() {
+        return exceededAt != null;
+    }
+
+    /**
+     * 超时违规的描述
+     */
+    public String describe() {
+        return String.format("%s: 超过 %d 微秒的检测预算，停止于 %s",
+                VIOLATION_PREFIX, TimeUnit.NANOSECONDS.toMicros(budgetNanos), exceededAt);
+    }
+}
@@ -0,0 +1,223 @@
+package top.mc_plfd_host.ezobserver.checker;
+
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.permission.PermissionManager;
+import top.mc_plfd_host.ezobserver.util.BoundedLruCache;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 复制物品检测
+ * 对带有自定义名称、Lore 或 PDC 数据的不可堆叠物品计算指纹，
+ * 统计同一指纹同时存在于多少个不同位置（玩家或容器），达到阈值时告警
+ *
+ * 指纹为数量归一后物品序列化字节的 SHA-256 前 128 位，无法通过构造元数据制造碰撞。
+ * "同时存在" 按最近一次看到的时间判断：超过观察窗口没有再次看到物品的位置不再计数，
+ * 物品在玩家之间转手时原持有者随之过期，只有真正并存的副本才会累积
+ *
+ * 跟踪的指纹数量和每个指纹记录的位置数都有上限，内存占用与经过的物品数量无关
+ *
+ * @author Kush_ShuL
+ */
+public class DupeDetector {
+
+    private static final int MAX_FINGERPRINTS = 4096;
+    private static final int MAX_HOLDERS = 64;
+
+    private final EzObserver plugin;
+    private final BoundedLruCache<Fingerprint, Copies> copies = new BoundedLruCache<>(MAX_FINGERPRINTS);
+    // MessageDigest 不是线程安全的，每个线程持有一份
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public DupeDetector(EzObserver plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 记录玩家背包中的物品
+     */
+    public void observe(Player player, ItemStack item) {
+        if (player == null) {
+            return;
+        }
+        UUID id = player.getUniqueId();
+        observe(item, id.getMostSignificantBits() ^ id.getLeastSignificantBits(), player.getName(), player);
+    }
+
+    /**
+     * 记录容器中的物品
+     *
+     * @param player 打开容器的玩家，可以为 null
+     */
+    public void observe(Location location, ItemStack item, Player player) {
+        if (location == null || location.getWorld() == null) {
+            return;
+        }
+        long holder = location.getWorld().getUID().getLeastSignificantBits();
+        holder = holder * 31 + location.getBlockX();
+        holder = holder * 31 + location.getBlockY();
+        holder = holder * 31 + location.getBlockZ();
+        String name = location.getWorld().getName() + " " + location.getBlockX() + "," + location.getBlockY() + "," + location.getBlockZ();
+        observe(item, holder, name, player);
+    }
+
+    private void observe(ItemStack item, long holder, String holderName, Player player) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        if (!config.isDupeDetectionEnabled() || !isDistinctive(item)) {
+            return;
+        }
+        Fingerprint fingerprint = fingerprint(item);
+        Copies entry = copies.computeIfAbsent(fingerprint, key -> new Copies());
+
+        long now = System.nanoTime();
+        long window = TimeUnit.SECONDS.toNanos(config.getDupeWindowSeconds());
+        long cooldown = TimeUnit.MINUTES.toNanos(config.getDupeAlertCooldownMinutes());
+        int count;
+        synchronized (entry) {
+            count = entry.record(holder, now, window);
+            if (count < config.getDupeThreshold() || (entry.alerted && now - entry.lastAlert < cooldown)) {
+                return;
+            }
+            entry.alerted = true;
+            entry.lastAlert = now;
+        }
+        alert(item.getType().name(), count, holderName, player);
+    }
+
+    /**
+     * 只有不可堆叠且带有自定义名称、Lore 或 PDC 数据的物品才统计
+     * 附魔、潜影盒内容等相同的物品在正常游戏中很常见，不能作为复制的依据；插件自己写入的 PDC 数据不计
+     */
+    private static boolean isDistinctive(ItemStack item) {
+        if (item == null || item.getMaxStackSize() != 1 || !item.hasItemMeta()) {
+            return false;
+        }
+        ItemMeta meta = item.getItemMeta();
+        if (meta.hasDisplayName() || meta.hasLore()) {
+            return true;
+        }
+        PersistentDataContainer container = meta.getPersistentDataContainer();
+        if (container.isEmpty()) {
+            return false;
+        }
+        for (NamespacedKey key : container.getKeys()) {
+            if (!VerdictStamp.NAMESPACE.equals(key.getNamespace())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Fingerprint fingerprint(ItemStack item) {
+        ItemStack content = item;
+        if (item.getAmount() != 1) {
+            content = item.clone();
+            content.setAmount(1);
+        }
+        ByteBuffer hash = ByteBuffer.wrap(digests.get().digest(content.serializeAsBytes()));
+        return new Fingerprint(hash.getLong(), hash.getLong());
+    }
+
+    private void alert(String itemName, int count, String holderName, Player player) {
+        String reason = "疑似复制物品: 相同物品同时存在于 " + count + " 个位置，最近位置 " + holderName;
+        plugin.getLogger().warning(reason + " (" + itemName + ")");
+        plugin.getViolationJournal().record(player, itemName, "dupe-suspect", List.of(reason));
+        plugin.getServer().getGlobalRegionScheduler().execute(plugin, () -> {
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("item", itemName);
+            placeholders.put("count", String.valueOf(count));
+            placeholders.put("holder", holderName);
+            plugin.getServer().broadcast(plugin.getMessageManager().getMessage("dupe-suspect", placeholders),
+                    PermissionManager.PERMISSION_ADMIN);
+        });
+    }
+
+    /**
+     * 物品内容哈希的前 128 位
+     */
+    private static final class Fingerprint {
+        private final long high;
+        private final long low;
+
+        private Fingerprint(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Fingerprint fingerprint && high == fingerprint.high && low == fingerprint.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(high ^ low);
+        }
+    }
+
+    /**
+     * 同一指纹的各个位置及最近一次看到的时间，由调用方同步
+     */
+    private static final class Copies {
+        private long[] holders = new long[4];
+        private long[] lastSeen = new long[4];
+        private int size;
+        private boolean alerted;
+        private long lastAlert;
+
+        /**
+         * 记录位置并返回观察窗口内仍然存在的位置数，过期的位置同时移除
+         */
+        private int record(long holder, long now, long window) {
+            boolean found = false;
+            int live = 0;
+            for (int i = 0; i < size; i++) {
+                if (holders[i] == holder) {
+                    lastSeen[i] = now;
+                    found = true;
+                }
+                if (now - lastSeen[i] <= window) {
+                    holders[live] = holders[i];
+                    lastSeen[live] = lastSeen[i];
+                    live++;
+                }
+            }
+            size = live;
+            if (!found) {
+                if (size == holders.length) {
+                    if (size >= MAX_HOLDERS) {
+                        // 位置数已远超任何合理阈值，不再记录新位置
+                        return size;
+                    }
+                    holders = Arrays.copyOf(holders, size * 2);
+                    lastSeen = Arrays.copyOf(lastSeen, size * 2);
+                }
+                holders[size] = holder;
+                lastSeen[size] = now;
+                size++;
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package top.mc_plfd_host.ezobserver.checker;
+
+import org.bukkit.inventory.ItemStack;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.monitor.PerfMonitor;
+import top.mc_plfd_host.ezobserver.rules.ItemRules;
+import top.mc_plfd_host.ezobserver.util.BoundedLruCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 物品数据大小检测
+ * 在完整检测之前估算物品的 NBT 数据大小，超过上限的物品（超长成书、大量 Lore、塞满成书的潜影盒等）
+ * 直接判定违规，不再解析其元数据
+ *
+ * 大小按 serializeAsBytes 解压后的字节数计算；没有元数据的物品不含 NBT 数据，按固定大小计算，不序列化。
+ * 序列化是整个检测的主要开销且无法中途停止，因此每个物品只测量一次：结果连同物品副本一起缓存，
+ * 命中时以 equals 确认是同一物品，哈希碰撞不会让另一个物品沿用缓存的结果。
+ * 较小的物品放在容量较大的缓存中；较大的物品（包括超过上限的）放在容量很小的缓存中，
+ * 反复经过的大型潜影盒和成书不会每次都重新序列化，物品副本的内存占用也有上限。
+ * 容器内的物品包含在容器自身的数据中，因此容器的上限就是其内容的总大小上限。
+ * 上限和违规描述由 {@link ItemRules} 提供，离线审计工具使用同样的规则。
+ *
+ * @author Kush_ShuL
+ */
+public class ItemSizeGuard {
+
+    public static final String VIOLATION_PREFIX = ItemRules.SIZE_VIOLATION_PREFIX;
+
+    private static final int CACHE_SIZE = 2048;
+    private static final int CACHEABLE_BYTES = 4096;
+    // 大物品缓存最多占用约 LARGE_CACHE_SIZE * LARGE_CACHEABLE_BYTES，更大的物品不缓存
+    private static final int LARGE_CACHE_SIZE = 16;
+    private static final int LARGE_CACHEABLE_BYTES = 512 * 1024;
+    // 没有元数据的物品序列化后只有 id、数量和数据版本
+    private static final int BARE_ITEM_BYTES = 64;
+    private static final int GZIP_MAGIC_0 = 0x1f;
+    private static final int GZIP_MAGIC_1 = 0x8b;
+
+    private final PerfMonitor perfMonitor;
+    private final Logger logger;
+    // 序列化失败只在第一次时输出警告
+    private final AtomicBoolean serializeFailureReported = new AtomicBoolean();
+    private final BoundedLruCache<SizeKey, Integer> estimates = new BoundedLruCache<>(CACHE_SIZE);
+    private final BoundedLruCache<SizeKey, Integer> largeEstimates = new BoundedLruCache<>(LARGE_CACHE_SIZE);
+
+    public ItemSizeGuard(EzObserver plugin) {
+        this.perfMonitor = plugin.getPerfMonitor();
+        this.logger = plugin.getLogger();
+    }
+
+    /**
+     * 检测物品数据大小
+     *
+     * @return 超过上限时返回违规描述，否则返回 null
+     */
+    public String check(ItemStack item, ConfigSnapshot config) {
+        if (!item.hasItemMeta()) {
+            return null;
+        }
+        return ItemRules.checkSize(item.getType(), item.getType().name(), estimate(item), config);
+    }
+
+    /**
+     * 估算物品数据大小 (字节)
+     */
+    public int estimate(ItemStack item) {
+        if (!item.hasItemMeta()) {
+            return BARE_ITEM_BYTES;
+        }
+        SizeKey key = new SizeKey(item);
+        Integer cached = estimates.get(key);
+        if (cached == null) {
+            cached = largeEstimates.get(key);
+        }
+        if (cached != null) {
+            perfMonitor.hit(PerfMonitor.Cache.SIZE_ESTIMATE);
+            return cached;
+        }
+        perfMonitor.miss(PerfMonitor.Cache.SIZE_ESTIMATE);
+
+        int size = measure(item);
+        if (size < 0) {
+            // 无法序列化的物品不缓存，交给后续检测处理
+            return 0;
+        }
+        if (size <= CACHEABLE_BYTES) {
+            estimates.put(new SizeKey(item.clone()), size);
+        } else if (size <= LARGE_CACHEABLE_BYTES) {
+            largeEstimates.put(new SizeKey(item.clone()), size);
+        }
+        return size;
+    }
+
+    /**
+     * 解压序列化数据并计数
+     *
+     * @return 字节数，无法序列化时返回 -1
+     */
+    private int measure(ItemStack item) {
+        byte[] bytes;
+        try {
+            bytes = item.serializeAsBytes();
+        } catch (Exception e) {
+            if (serializeFailureReported.compareAndSet(false, true)) {
+                logger.warning("无法序列化物品 " + item.getType().name() + "，大小检测对无法序列化的物品不生效: " + e);
+            }
+            return -1;
+        }
+        if (bytes.length < 2 || (bytes[0] & 0xff) != GZIP_MAGIC_0 || (bytes[1] & 0xff) != GZIP_MAGIC_1) {
+            return bytes.length;
+        }
+
+        long count = 0;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            while (count < Integer.MAX_VALUE) {
+                long skipped = in.skip(Integer.MAX_VALUE - count);
+                if (skipped <= 0) {
+                    break;
+                }
+                count += skipped;
+            }
+        } catch (IOException e) {
+            return bytes.length;
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 缓存的键，两个物品 equals（类型、数量和元数据都相同）才视为同一物品
+     * 哈希值只用于定位，碰撞的物品在 equals 比较时区分开；
+     * ItemStack.hashCode() 会复制一份 ItemMeta，哈希只取类型、数量和直接从物品数据读取的附魔
+     */
+    private static final class SizeKey {
+        private final ItemStack item;
+        private final int hash;
+
+        private SizeKey(ItemStack item) {
+            this.item = item;
+            int hash = 31 * item.getType().hashCode() + item.getAmount();
+            if (item.hasItemMeta()) {
+                hash = 31 * hash + item.getEnchantments().hashCode() + 1;
+            }
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof SizeKey key && hash == key.hash && item.equals(key.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
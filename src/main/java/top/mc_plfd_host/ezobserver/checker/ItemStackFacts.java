@@ -0,0 +1,255 @@
+package top.mc_plfd_host.ezobserver.checker;
+
+import org.bukkit.Material;
+import org.bukkit.attribute.Attribute;
+import org.bukkit.attribute.AttributeModifier;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Piston;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
+import org.bukkit.inventory.meta.BookMeta;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.FireworkMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.MapMeta;
+import org.bukkit.inventory.meta.PotionMeta;
+import org.bukkit.inventory.meta.SpawnEggMeta;
+import org.bukkit.potion.PotionEffect;
+import top.mc_plfd_host.ezobserver.config.TrustedDataRules;
+import top.mc_plfd_host.ezobserver.rules.ItemFacts;
+import top.mc_plfd_host.ezobserver.util.ServerCapabilities;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从 ItemStack 读取的物品视图
+ * ItemMeta 只获取一次，各项数据在规则第一次用到时才读取
+ *
+ * @author Kush_ShuL
+ */
+final class ItemStackFacts implements ItemFacts {
+
+    private final ItemStack item;
+    private final Material type;
+    private final ItemMeta meta;
+
+    private Map<String, Enchantment> enchantmentTypes;
+    private Map<String, Integer> enchantments;
+    private List<Modifier> modifiers;
+    private ItemStack cleanItem;
+
+    ItemStackFacts(ItemStack item) {
+        this.item = item;
+        this.type = item.getType();
+        this.meta = item.hasItemMeta() ? item.getItemMeta() : null;
+    }
+
+    /**
+     * 已获取的 ItemMeta，物品没有元数据时为 null
+     */
+    ItemMeta getMeta() {
+        return meta;
+    }
+
+    @Override
+    public Material getType() {
+        return type;
+    }
+
+    @Override
+    public String getTypeName() {
+        return type.name();
+    }
+
+    @Override
+    public boolean hasMeta() {
+        return meta != null;
+    }
+
+    @Override
+    public Map<String, Integer> getEnchantments() {
+        if (enchantments == null) {
+            Map<Enchantment, Integer> itemEnchantments = item.getEnchantments();
+            if (itemEnchantments.isEmpty()) {
+                enchantmentTypes = Collections.emptyMap();
+                enchantments = Collections.emptyMap();
+            } else {
+                enchantmentTypes = new LinkedHashMap<>();
+                enchantments = new LinkedHashMap<>();
+                for (Map.Entry<Enchantment, Integer> entry : itemEnchantments.entrySet()) {
+                    String name = entry.getKey().getKey().getKey();
+                    enchantmentTypes.put(name, entry.getKey());
+                    enchantments.put(name, entry.getValue());
+                }
+            }
+        }
+        return enchantments;
+    }
+
+    @Override
+    public int getVanillaMaxLevel(String enchantment) {
+        getEnchantments();
+        Enchantment enchant = enchantmentTypes.get(enchantment);
+        return enchant != null ? enchant.getMaxLevel() : 0;
+    }
+
+    @Override
+    public boolean canEnchant(String enchantment) {
+        getEnchantments();
+        Enchantment enchant = enchantmentTypes.get(enchantment);
+        if (enchant == null) {
+            return true;
+        }
+        // canEnchantItem 对已经附魔的物品可能返回 false，使用同类型的干净物品测试
+        if (cleanItem == null) {
+            cleanItem = new ItemStack(type);
+        }
+        return enchant.canEnchantItem(cleanItem);
+    }
+
+    @Override
+    public boolean hasStoredEnchantments() {
+        return meta instanceof EnchantmentStorageMeta storageMeta
+                && storageMeta.hasStoredEnchants() && !storageMeta.getStoredEnchants().isEmpty();
+    }
+
+    @Override
+    public String getDisplayName() {
+        // 使用 legacy API 避免类型不兼容
+        return meta != null && meta.hasDisplayName() ? meta.getDisplayName() : null;
+    }
+
+    @Override
+    public List<String> getLore() {
+        if (meta == null || !meta.hasLore()) {
+            return Collections.emptyList();
+        }
+        List<String> lore = meta.getLore();
+        return lore != null ? lore : Collections.emptyList();
+    }
+
+    @Override
+    public List<Modifier> getAttributeModifiers() {
+        if (modifiers == null) {
+            if (meta == null || !meta.hasAttributeModifiers()) {
+                modifiers = Collections.emptyList();
+            } else {
+                modifiers = new ArrayList<>();
+                for (Attribute attribute : Attribute.values()) {
+                    Collection<AttributeModifier> attributeModifiers = meta.getAttributeModifiers(attribute);
+                    if (attributeModifiers != null) {
+                        for (AttributeModifier modifier : attributeModifiers) {
+                            modifiers.add(new Modifier(attribute.name(), modifier.getAmount()));
+                        }
+                    }
+                }
+            }
+        }
+        return modifiers;
+    }
+
+    @Override
+    public boolean isUnbreakable() {
+        return meta != null && meta.isUnbreakable();
+    }
+
+    @Override
+    public List<Effect> getCustomEffects() {
+        if (!(meta instanceof PotionMeta potionMeta) || !potionMeta.hasCustomEffects()) {
+            return Collections.emptyList();
+        }
+        // 基础药水效果是原版的，只检查自定义效果
+        List<Effect> effects = new ArrayList<>();
+        for (PotionEffect effect : potionMeta.getCustomEffects()) {
+            effects.add(new Effect(effect.getType().getName(), effect.getAmplifier(), effect.getDuration()));
+        }
+        return effects;
+    }
+
+    @Override
+    public int getFireworkFlight() {
+        return meta instanceof FireworkMeta fireworkMeta ? fireworkMeta.getPower() : 0;
+    }
+
+    @Override
+    public boolean isPistonExtended() {
+        if (!(meta instanceof BlockStateMeta blockStateMeta) || !blockStateMeta.hasBlockState()) {
+            return false;
+        }
+        try {
+            BlockData blockData = blockStateMeta.getBlockState().getBlockData();
+            return blockData instanceof Piston piston && piston.isExtended();
+        } catch (Exception e) {
+            // 无法读取方块状态时不视为伸出
+            return false;
+        }
+    }
+
+    @Override
+    public String getSpawnedEntityType() {
+        if (!(meta instanceof SpawnEggMeta)) {
+            return null;
+        }
+        // API 不存在或不可用时返回 null，回退已在启动时记录
+        Object spawnedType = ServerCapabilities.getSpawnedType(meta);
+        return spawnedType != null ? spawnedType.toString() : null;
+    }
+
+    @Override
+    public boolean hasEntityData() {
+        // 通过 getSpawnedEntity() 检查实体快照（Paper 1.20.4+）
+        return meta instanceof SpawnEggMeta && ServerCapabilities.getSpawnedEntity(meta) != null;
+    }
+
+    @Override
+    public TrustedDataRules.Profile findTrustedProfile(TrustedDataRules rules) {
+        return meta != null ? rules.findProfile(meta.getPersistentDataContainer()) : null;
+    }
+
+    @Override
+    public boolean hasUntrustedData(TrustedDataRules rules) {
+        return meta != null && rules.hasUntrustedData(meta.getPersistentDataContainer());
+    }
+
+    @Override
+    public int getBookPageCount() {
+        return meta instanceof BookMeta bookMeta ? bookMeta.getPageCount() : 0;
+    }
+
+    @Override
+    public boolean hasBookAuthor() {
+        return meta instanceof BookMeta bookMeta && bookMeta.hasAuthor();
+    }
+
+    @Override
+    public boolean hasBookTitle() {
+        return meta instanceof BookMeta bookMeta && bookMeta.hasTitle();
+    }
+
+    @Override
+    public boolean hasMapData() {
+        // 使用的 API（hasMapView 或 hasMapId）由 ServerCapabilities 在启动时选定
+        return !(meta instanceof MapMeta) || ServerCapabilities.hasMapData(meta);
+    }
+
+    @Override
+    public boolean hasRecipes() {
+        // KnowledgeBookMeta 不是所有版本都有，是否存在由 ServerCapabilities 在启动时探测
+        if (!ServerCapabilities.HAS_KNOWLEDGE_BOOK_RECIPES || !ServerCapabilities.isKnowledgeBookMeta(meta)) {
+            return true;
+        }
+        return ServerCapabilities.hasRecipes(meta);
+    }
+
+    @Override
+    public boolean hasEnchantGlint() {
+        // hasEnchantGlint() 是 1.20.5+ 的新方法，旧版本跳过此检查
+        return meta != null && ServerCapabilities.HAS_ENCHANT_GLINT_CHECK && ServerCapabilities.hasEnchantGlint(meta);
+    }
+}
@@ -0,0 +1,115 @@
+package top.mc_plfd_host.ezobserver.checker;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.monitor.PerfMonitor;
+import top.mc_plfd_host.ezobserver.util.BoundedLruCache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 可信来源物品集合
+ * 在物品产生的位置（合成、铁砧、附魔、交易、战利品、发射器、创造模式）检测通过的物品记录在此，
+ * 之后移动这些物品时只需一次哈希查找和 isSimilar 比较即可跳过完整检测
+ *
+ * 集合中保存物品的副本，以 isSimilar 判断相同（忽略数量），不会因哈希碰撞误判；
+ * 查找前先按物品类型过滤，集合中从未出现过的类型直接返回；
+ * 键的哈希只取类型、是否有元数据和附魔，附魔直接从物品数据读取，不复制整个 ItemMeta，
+ * 名称或 Lore 不同而附魔相同的物品落在同一个桶中，由 isSimilar 区分；
+ * 集合绑定创建时的配置快照，配置重载后整体清空
+ *
+ * @author Kush_ShuL
+ */
+public class ProvenanceCache {
+
+    private final EzObserver plugin;
+    private volatile Entries entries;
+
+    public ProvenanceCache(EzObserver plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 记录一件在来源处检测通过的物品
+     */
+    public void trust(ItemStack item, ConfigSnapshot config) {
+        if (!config.isSourceGateEnabled() || item == null || item.getType() == Material.AIR) {
+            return;
+        }
+        Entries current = entries(config);
+        current.trusted.put(new ItemKey(item.clone()), Boolean.TRUE);
+        current.types.add(item.getType());
+    }
+
+    public boolean isTrusted(ItemStack item, ConfigSnapshot config) {
+        if (!config.isSourceGateEnabled() || item == null || item.getType() == Material.AIR) {
+            return false;
+        }
+        Entries current = entries(config);
+        boolean trusted = current.types.contains(item.getType()) && current.trusted.get(new ItemKey(item)) != null;
+        if (trusted) {
+            plugin.getPerfMonitor().hit(PerfMonitor.Cache.PROVENANCE);
+        } else {
+            plugin.getPerfMonitor().miss(PerfMonitor.Cache.PROVENANCE);
+        }
+        return trusted;
+    }
+
+    public int size() {
+        Entries current = entries;
+        return current != null ? current.trusted.size() : 0;
+    }
+
+    private Entries entries(ConfigSnapshot config) {
+        Entries current = entries;
+        if (current == null || current.config != config) {
+            // 配置已重载，按旧规则检测通过的物品不再可信
+            current = new Entries(config);
+            entries = current;
+        }
+        return current;
+    }
+
+    private static final class Entries {
+        private final ConfigSnapshot config;
+        private final BoundedLruCache<ItemKey, Boolean> trusted;
+        // 记录过的物品类型，只增不减：被淘汰的类型只会多做一次查找
+        private final Set<Material> types = ConcurrentHashMap.newKeySet();
+
+        private Entries(ConfigSnapshot config) {
+            this.config = config;
+            this.trusted = new BoundedLruCache<>(config.getSourceGateMaxTrusted());
+        }
+    }
+
+    /**
+     * 集合的键，忽略物品数量，两个物品 isSimilar 即视为相同
+     * getItemMeta() 每次调用都会复制一份元数据，哈希不使用它
+     */
+    private static final class ItemKey {
+        private final ItemStack item;
+        private final int hash;
+
+        private ItemKey(ItemStack item) {
+            this.item = item;
+            int hash = item.getType().hashCode();
+            if (item.hasItemMeta()) {
+                hash = 31 * hash + item.getEnchantments().hashCode() + 1;
+            }
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ItemKey key && hash == key.hash && item.isSimilar(key.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package top.mc_plfd_host.ezobserver.checker;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.monitor.PerfMonitor;
+import top.mc_plfd_host.ezobserver.util.BoundedLruCache;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * 检测印章
+ * 检测通过的不可堆叠物品在 PDC 中写入一枚印章：配置纪元、物品内容哈希和以服务器密钥计算的截断 HMAC。
+ * 之后的检测只需校验印章即可跳过完整的检测流程；物品的任何改动都会改变内容哈希，印章随之失效
+ *
+ * 印章格式 (29 字节)：版本 (1) | 配置纪元 (4) | 内容哈希前 8 字节 (8) | HMAC 前 16 字节 (16)
+ * 内容哈希为去掉印章、数量归一后物品序列化字节的 SHA-256
+ *
+ * 计算内容哈希需要复制物品、去掉印章并完整序列化，开销与它要跳过的检测规则相当，
+ * 因此校验通过的物品连同其印章缓存在内存中：之后遇到印章相同的物品时，以 isSimilar 与缓存的副本比较，
+ * 相同即视为有效，不再计算内容哈希。isSimilar 直接比较两份物品数据，不复制元数据也不序列化；
+ * 代价是缓存中保存的物品副本，只有序列化后不超过 VERIFIED_CACHEABLE_BYTES 的物品才缓存，
+ * 更大的物品（装满的潜影盒等）每次仍完整计算，此时印章的收益取决于被跳过的检测是否更慢。
+ * 印章只把内容哈希前缀写入物品，复制到其他物品上的印章无法命中缓存，仍需计算内容哈希。
+ * 内容哈希对应的签名同样缓存，检测时刚校验通过的物品实例在加印章时直接跳过
+ *
+ * 服务器密钥在首次启动时随机生成，保存在插件目录的 verdict-secret.key 中，删除该文件会使所有印章失效
+ *
+ * @author Kush_ShuL
+ */
+public class VerdictStamp {
+
+    public static final String NAMESPACE = "ezobserver";
+    public static final String KEY = "verdict";
+    public static final String STAMP_KEY = NAMESPACE + ":" + KEY;
+
+    private static final String SECRET_FILE = "verdict-secret.key";
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final byte VERSION = 1;
+    private static final int HASH_PREFIX = 8;
+    private static final int MAC_PREFIX = 16;
+    private static final int STAMP_LENGTH = 1 + 4 + HASH_PREFIX + MAC_PREFIX;
+    private static final int SIGNATURE_CACHE_SIZE = 4096;
+    private static final int VERIFIED_CACHE_SIZE = 1024;
+    // 只缓存序列化后不超过此大小的物品，限制缓存中物品副本的内存占用
+    private static final int VERIFIED_CACHEABLE_BYTES = 8192;
+
+    private final EzObserver plugin;
+    private final NamespacedKey key = new NamespacedKey(NAMESPACE, KEY);
+    private final SecretKeySpec secret;
+    // Mac 和 MessageDigest 不是线程安全的，每个线程持有一份
+    private final ThreadLocal<Mac> macs;
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+    // 以完整内容哈希为键的签名
+    private final BoundedLruCache<ByteBuffer, Signature> signatures = new BoundedLruCache<>(SIGNATURE_CACHE_SIZE);
+    // 校验通过的物品副本及其纪元
+    private final BoundedLruCache<VerifiedKey, Integer> verified = new BoundedLruCache<>(VERIFIED_CACHE_SIZE);
+    // 当前线程最近一次校验通过的物品实例
+    private final ThreadLocal<Verified> lastVerified = new ThreadLocal<>();
+
+    public VerdictStamp(EzObserver plugin) {
+        this.plugin = plugin;
+        this.secret = new SecretKeySpec(loadSecret(), MAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(MAC_ALGORITHM);
+                mac.init(secret);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * 判断是否是印章使用的 PDC 键
+     */
+    public static boolean isStampKey(String namespace, String key) {
+        return NAMESPACE.equals(namespace) && KEY.equals(key);
+    }
+
+    /**
+     * 物品带有当前配置下有效的印章时返回 true
+     */
+    public boolean isValid(ItemStack item, ConfigSnapshot config) {
+        if (!config.isVerdictStampEnabled() || !isEligible(item)) {
+            return false;
+        }
+        // 只有可以加印章的物品计入命中率
+        boolean valid = verify(item, config);
+        if (valid) {
+            plugin.getPerfMonitor().hit(PerfMonitor.Cache.VERDICT_STAMP);
+        } else {
+            plugin.getPerfMonitor().miss(PerfMonitor.Cache.VERDICT_STAMP);
+        }
+        return valid;
+    }
+
+    private boolean verify(ItemStack item, ConfigSnapshot config) {
+        ItemMeta meta = item.getItemMeta();
+        byte[] stamp = meta.getPersistentDataContainer().get(key, PersistentDataType.BYTE_ARRAY);
+        if (stamp == null || stamp.length != STAMP_LENGTH || stamp[0] != VERSION) {
+            return false;
+        }
+        // 先比较纪元，配置变化后的旧印章不需要计算哈希
+        ByteBuffer buffer = ByteBuffer.wrap(stamp);
+        buffer.get();
+        if (buffer.getInt() != config.getEpoch()) {
+            return false;
+        }
+
+        Integer cachedEpoch = verified.get(new VerifiedKey(item, stamp));
+        if (cachedEpoch == null || cachedEpoch != config.getEpoch()) {
+            byte[] content = serializeContent(item, meta);
+            byte[] contentHash = digests.get().digest(content);
+            if (!MessageDigest.isEqual(Arrays.copyOfRange(stamp, 5, 5 + HASH_PREFIX), Arrays.copyOf(contentHash, HASH_PREFIX))) {
+                return false;
+            }
+            byte[] expected = signCached(config.getEpoch(), contentHash);
+            if (!MessageDigest.isEqual(Arrays.copyOfRange(stamp, 5 + HASH_PREFIX, STAMP_LENGTH), expected)) {
+                return false;
+            }
+            if (content.length <= VERIFIED_CACHEABLE_BYTES) {
+                verified.put(new VerifiedKey(item.clone(), stamp), config.getEpoch());
+            }
+        }
+        lastVerified.set(new Verified(item, config.getEpoch()));
+        return true;
+    }
+
+    /**
+     * 为检测通过的物品生成带印章的副本
+     *
+     * 检测时会先校验印章，同一线程上刚校验通过的同一物品实例不再重新计算
+     *
+     * @return 带印章的物品，物品刚校验过有效印章时返回物品本身，物品不适合加印章时返回 null
+     */
+    public ItemStack stamp(ItemStack item, ConfigSnapshot config) {
+        if (!config.isVerdictStampEnabled() || !isEligible(item)) {
+            return null;
+        }
+        Verified last = lastVerified.get();
+        if (last != null) {
+            lastVerified.remove();
+            if (last.item == item && last.epoch == config.getEpoch()) {
+                return item;
+            }
+        }
+        ItemMeta meta = item.getItemMeta();
+        byte[] content = serializeContent(item, meta);
+        byte[] contentHash = digests.get().digest(content);
+
+        ByteBuffer stamp = ByteBuffer.allocate(STAMP_LENGTH);
+        stamp.put(VERSION);
+        stamp.putInt(config.getEpoch());
+        stamp.put(contentHash, 0, HASH_PREFIX);
+        stamp.put(signCached(config.getEpoch(), contentHash));
+
+        ItemStack stamped = item.clone();
+        ItemMeta stampedMeta = stamped.getItemMeta();
+        stampedMeta.getPersistentDataContainer().set(key, PersistentDataType.BYTE_ARRAY, stamp.array());
+        stamped.setItemMeta(stampedMeta);
+        if (content.length <= VERIFIED_CACHEABLE_BYTES) {
+            // 刚加上的印章下次校验时直接命中
+            verified.put(new VerifiedKey(stamped.clone(), stamp.array()), config.getEpoch());
+        }
+        return stamped;
+    }
+
+    /**
+     * 只为带有数据的不可堆叠物品加印章：可堆叠物品加印章后会无法与同类物品堆叠
+     */
+    private static boolean isEligible(ItemStack item) {
+        return item != null && item.getType() != Material.AIR && item.getMaxStackSize() == 1 && item.hasItemMeta();
+    }
+
+    /**
+     * 去掉印章、数量归一后的物品序列化字节，内容哈希以此计算
+     */
+    private byte[] serializeContent(ItemStack item, ItemMeta meta) {
+        ItemStack content = item.clone();
+        content.setAmount(1);
+        if (meta.getPersistentDataContainer().has(key)) {
+            ItemMeta contentMeta = content.getItemMeta();
+            contentMeta.getPersistentDataContainer().remove(key);
+            content.setItemMeta(contentMeta);
+        }
+        return content.serializeAsBytes();
+    }
+
+    /**
+     * 内容哈希的签名，同一纪元下已经计算过时直接返回缓存的结果
+     */
+    private byte[] signCached(int epoch, byte[] contentHash) {
+        ByteBuffer cacheKey = ByteBuffer.wrap(contentHash);
+        Signature cached = signatures.get(cacheKey);
+        if (cached != null && cached.epoch == epoch) {
+            return cached.mac;
+        }
+        byte[] mac = sign(epoch, contentHash);
+        signatures.put(cacheKey, new Signature(epoch, mac));
+        return mac;
+    }
+
+    private byte[] sign(int epoch, byte[] contentHash) {
+        Mac mac = macs.get();
+        mac.update(ByteBuffer.allocate(4).putInt(epoch).array());
+        return Arrays.copyOf(mac.doFinal(contentHash), MAC_PREFIX);
+    }
+
+    /**
+     * 读取服务器密钥，不存在时生成
+     */
+    private byte[] loadSecret() {
+        Path file = plugin.getDataFolder().toPath().resolve(SECRET_FILE);
+        try {
+            if (Files.isRegularFile(file)) {
+                byte[] existing = Files.readAllBytes(file);
+                if (existing.length >= 32) {
+                    return existing;
+                }
+                plugin.getLogger().warning("检测印章密钥文件无效，将重新生成: " + file);
+            }
+            byte[] generated = new byte[32];
+            new SecureRandom().nextBytes(generated);
+            Files.createDirectories(file.getParent());
+            Files.write(file, generated);
+            return generated;
+        } catch (IOException e) {
+            // 无法保存密钥时使用仅本次运行有效的随机密钥，重启后旧印章全部失效
+            plugin.getLogger().warning("无法读写检测印章密钥，本次运行使用临时密钥: " + e.getMessage());
+            byte[] temporary = new byte[32];
+            new SecureRandom().nextBytes(temporary);
+            return temporary;
+        }
+    }
+
+    private static final class Signature {
+        private final int epoch;
+        private final byte[] mac;
+
+        private Signature(int epoch, byte[] mac) {
+            this.epoch = epoch;
+            this.mac = mac;
+        }
+    }
+
+    /**
+     * 校验缓存的键，印章相同且物品 isSimilar（忽略数量）才视为同一物品
+     * 印章包含内容哈希前缀和签名，作为哈希值足以区分不同物品，不需要读取元数据
+     */
+    private static final class VerifiedKey {
+        private final ItemStack item;
+        private final byte[] stamp;
+        private final int hash;
+
+        private VerifiedKey(ItemStack item, byte[] stamp) {
+            this.item = item;
+            this.stamp = stamp;
+            this.hash = 31 * item.getType().hashCode() + Arrays.hashCode(stamp);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof VerifiedKey key && hash == key.hash
+                    && Arrays.equals(stamp, key.stamp) && item.isSimilar(key.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Verified {
+        private final ItemStack item;
+        private final int epoch;
+
+        private Verified(ItemStack item, int epoch) {
+            this.item = item;
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package top.mc_plfd_host.ezobserver.checker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 违规类别
+ * 每个类别占用一个位，多个类别可以合并为一个 long 掩码，用于存储和统计时代替完整的违规描述
+ * ItemChecker 产生违规时直接记录类别（见 {@link ViolationList}）；
+ * 其他来源的违规描述根据前缀或关键词判定类别
+ *
+ * @author Kush_ShuL
+ */
+public enum ViolationCode {
+
+    BANNED_TYPE(true, "禁止的物品类型"),
+    ENCHANTMENT_LEVEL(true, "附魔 "),
+    ILLEGAL_ENCHANTMENT(true, "非法附魔"),
+    CONFLICTING_ENCHANTMENT(true, "冲突附魔组"),
+    OP_ITEM(true, "OP附魔", "OP物品"),
+    ATTRIBUTE(true, "属性修饰符"),
+    UNBREAKABLE(false, "不可破坏属性", "无法破坏属性"),
+    BANNED_NAME(true, "物品名称包含禁止关键词"),
+    BANNED_LORE(true, "物品Lore包含禁止关键词"),
+    POTION(true, "禁止的药水效果", "极端作弊药水效果", "药水效果", "非药水效果"),
+    SPAWN_EGG(true, "刷怪蛋"),
+    FIREWORK(true, "烟花火箭"),
+    PISTON(true, "检测到无头活塞", "活塞"),
+    ENTITY_DATA(false, "自定义实体数据", "EntityTag"),
+    CONTAINER(true, "容器", "收纳袋"),
+    EMPTY_DATA(true, "空数据物品", "空成书", "空附魔书", "空地图", "空知识之书"),
+    OTHER(false),
+    // 新增类别追加在末尾，已存储的掩码位保持不变
+    DUPLICATE(true, "疑似复制物品"),
+    // 检测超时，名称沿用最初的隔离处理方式，保持掩码位不变
+    QUARANTINE(true, CheckBudget.VIOLATION_PREFIX),
+    OVERSIZED(true, ItemSizeGuard.VIOLATION_PREFIX),
+    ENCHANT_GLINT(true, "异常发光效果");
+
+    private final boolean prefix;
+    private final String[] markers;
+
+    ViolationCode(boolean prefix, String... markers) {
+        this.prefix = prefix;
+        this.markers = markers;
+    }
+
+    public long mask() {
+        return 1L << ordinal();
+    }
+
+    private boolean matches(String violation) {
+        for (String marker : markers) {
+            if (prefix ? violation.startsWith(marker) : violation.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 将违规描述列表归类为类别掩码，无法归类的描述计入 OTHER
+     * ItemChecker 的检测结果已记录每条描述的类别，直接返回记录的掩码
+     */
+    public static long classify(List<String> violations) {
+        if (violations instanceof ViolationList list) {
+            return list.mask();
+        }
+        long mask = 0;
+        for (String violation : violations) {
+            mask |= classify(violation);
+        }
+        return mask;
+    }
+
+    /**
+     * 将单条违规描述归类为类别掩码
+     * 一条描述可能同时属于多个类别（例如刷怪蛋的自定义实体数据）
+     */
+    public static long classify(String violation) {
+        // 缩进的行是容器内物品的明细，已由容器本身的 CONTAINER 类别覆盖
+        if (violation.startsWith(" ")) {
+            return 0;
+        }
+        long matched = 0;
+        for (ViolationCode code : values()) {
+            if (code.matches(violation)) {
+                matched |= code.mask();
+            }
+        }
+        return matched != 0 ? matched : OTHER.mask();
+    }
+
+    /**
+     * 将类别掩码还原为类别列表
+     */
+    public static List<ViolationCode> fromMask(long mask) {
+        List<ViolationCode> codes = new ArrayList<>();
+        for (ViolationCode code : values()) {
+            if ((mask & code.mask()) != 0) {
+                codes.add(code);
+            }
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,117 @@
+package top.mc_plfd_host.ezobserver.checker;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 带违规类别的违规描述列表
+ * ItemChecker 在产生每条违规描述时同时记录其类别，修正器和统计直接使用记录的类别掩码，
+ * 不再根据描述文本反推类别
+ *
+ * 没有指定类别的描述（例如外部代码直接添加的文本）按 {@link ViolationCode#classify(String)} 归类
+ *
+ * @author Kush_ShuL
+ */
+public class ViolationList extends AbstractList<String> implements RandomAccess {
+
+    private final List<String> messages = new ArrayList<>();
+    private long[] codes = new long[4];
+
+    /**
+     * 添加一条违规描述并记录其类别
+     */
+    public void add(ViolationCode code, String violation) {
+        add(code.mask(), violation);
+    }
+
+    /**
+     * 添加一条同时属于多个类别的违规描述
+     */
+    public void add(long mask, String violation) {
+        insert(messages.size(), violation, mask);
+    }
+
+    /**
+     * 添加容器内物品的明细行，明细不单独计入类别，已由容器本身的 CONTAINER 类别覆盖
+     */
+    public void addDetail(String detail) {
+        insert(messages.size(), detail, 0);
+    }
+
+    @Override
+    public void add(int index, String violation) {
+        insert(index, violation, ViolationCode.classify(violation));
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> violations) {
+        if (violations instanceof ViolationList other) {
+            for (int i = 0; i < other.size(); i++) {
+                add(other.codes[i], other.messages.get(i));
+            }
+            return !other.isEmpty();
+        }
+        return super.addAll(violations);
+    }
+
+    @Override
+    public String get(int index) {
+        return messages.get(index);
+    }
+
+    @Override
+    public String set(int index, String violation) {
+        String previous = messages.set(index, violation);
+        codes[index] = ViolationCode.classify(violation);
+        return previous;
+    }
+
+    @Override
+    public String remove(int index) {
+        String removed = messages.remove(index);
+        System.arraycopy(codes, index + 1, codes, index, messages.size() - index);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return messages.size();
+    }
+
+    /**
+     * 指定描述的类别掩码
+     */
+    public long codeAt(int index) {
+        if (index < 0 || index >= messages.size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return codes[index];
+    }
+
+    /**
+     * 全部描述的类别掩码
+     */
+    public long mask() {
+        long mask = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            mask |= codes[i];
+        }
+        return mask;
+    }
+
+    private void insert(int index, String violation, long mask) {
+        int size = messages.size();
+        messages.add(index, violation);
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, size * 2);
+        }
+        System.arraycopy(codes, index, codes, index + 1, size - index);
+        codes[index] = mask;
+        modCount++;
+    }
+}
@@ -2,6 +2,8 @@ package top.mc_plfd_host.ezobserver.command;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -10,17 +12,30 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import top.mc_plfd_host.ezobserver.EzObserver;
 import top.mc_plfd_host.ezobserver.checker.ItemChecker;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
 import top.mc_plfd_host.ezobserver.config.MessageManager;
+import top.mc_plfd_host.ezobserver.monitor.PerfMonitor;
+import top.mc_plfd_host.ezobserver.storage.EventRecorder;
+import top.mc_plfd_host.ezobserver.storage.VaultRecord;
 
 import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public class EzObserverCommand implements CommandExecutor, TabCompleter {
 
+    // 没收记录查询单次最多显示的条数
+    private static final int VAULT_LIST_LIMIT = 20;
+
     private final EzObserver plugin;
     private final ItemChecker itemChecker;
 
@@ -45,8 +60,15 @@ public class EzObserverCommand implements CommandExecutor, TabCompleter {
 
         switch (args[0].toLowerCase()) {
             case "reload":
-                plugin.getConfigManager().reloadConfig();
+                List<String> problems = plugin.getConfigManager().reloadConfig();
                 plugin.getMessageManager().reloadMessages();
+                if (!problems.isEmpty()) {
+                    sendMessage(sender, messages.getMessage("config-reload-rejected", Map.of("count", problems.size())));
+                    for (String problem : problems) {
+                        sendMessage(sender, messages.getMessage("config-reload-problem", Map.of("problem", problem)));
+                    }
+                    break;
+                }
                 sendMessage(sender, messages.getConfigReloaded());
                 plugin.getLogger().info("配置已被 " + sender.getName() + " 重新加载");
                 break;
@@ -70,6 +92,15 @@ public class EzObserverCommand implements CommandExecutor, TabCompleter {
             case "whitelist":
                 handleWhitelistCommand(sender, args);
                 break;
+            case "vault":
+                handleVaultCommand(sender, args);
+                break;
+            case "record":
+                handleRecordCommand(sender, args);
+                break;
+            case "perf":
+                handlePerfCommand(sender, args);
+                break;
             case "help":
             default:
                 sendHelp(sender);
@@ -93,17 +124,20 @@ public class EzObserverCommand implements CommandExecutor, TabCompleter {
         sendMessage(sender, messages.getMessage("help-scan"));
         sendMessage(sender, messages.getMessage("help-check"));
         sendMessage(sender, messages.getMessage("help-whitelist"));
+        sendMessage(sender, messages.getMessage("help-vault"));
+        sendMessage(sender, messages.getMessage("help-record"));
+        sendMessage(sender, messages.getMessage("help-perf"));
         sendMessage(sender, messages.getMessage("help-footer"));
     }
 
     private void sendStatus(CommandSender sender) {
         MessageManager messages = plugin.getMessageManager();
-        String statusOn = messages.getStatusOn();
-        String statusOff = messages.getStatusOff();
+        Component statusOn = messages.getStatusOn();
+        Component statusOff = messages.getStatusOff();
         
         sendMessage(sender, messages.getMessage("status-header"));
         
-        Map<String, String> placeholders = new HashMap<>();
+        Map<String, Object> placeholders = new HashMap<>();
         
         placeholders.put("status", plugin.getConfigManager().isEnabled() ? statusOn : statusOff);
         sendMessage(sender, messages.getMessage("status-enabled", placeholders));
@@ -233,12 +267,187 @@ public class EzObserverCommand implements CommandExecutor, TabCompleter {
         }
     }
     
+    /**
+     * /ezobserver vault <玩家> [小时] - 查询玩家的没收记录
+     */
+    private void handleVaultCommand(CommandSender sender, String[] args) {
+        MessageManager messages = plugin.getMessageManager();
+        
+        if (args.length < 2) {
+            sendMessage(sender, messages.getMessage("vault-usage"));
+            return;
+        }
+        
+        long hours = 24;
+        if (args.length >= 3) {
+            try {
+                hours = Long.parseLong(args[2]);
+            } catch (NumberFormatException e) {
+                sendMessage(sender, messages.getMessage("vault-usage"));
+                return;
+            }
+        }
+        
+        UUID playerId = resolvePlayerId(args[1]);
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put("player", args[1]);
+        placeholders.put("hours", String.valueOf(hours));
+        if (playerId == null) {
+            sendMessage(sender, messages.getMessage("vault-unknown-player", placeholders));
+            return;
+        }
+        
+        long since = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(hours);
+        List<VaultRecord> records = plugin.getConfiscationVault().findByPlayer(playerId, since, VAULT_LIST_LIMIT);
+        if (records.isEmpty()) {
+            sendMessage(sender, messages.getMessage("vault-empty", placeholders));
+            return;
+        }
+        
+        sendMessage(sender, messages.getMessage("vault-list-header", placeholders));
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        for (VaultRecord record : records) {
+            List<String> codes = new ArrayList<>();
+            for (ViolationCode code : ViolationCode.fromMask(record.getReasonMask())) {
+                codes.add(code.name());
+            }
+            placeholders.put("time", sdf.format(new Date(record.getTimestamp())));
+            placeholders.put("item", record.getMaterial());
+            placeholders.put("reason", String.join(", ", codes));
+            sendMessage(sender, messages.getMessage("vault-list-item", placeholders));
+        }
+    }
+    
+    /**
+     * /ezobserver record start [分钟] | stop - 录制物品事件用于离线回放
+     */
+    private void handleRecordCommand(CommandSender sender, String[] args) {
+        MessageManager messages = plugin.getMessageManager();
+        EventRecorder recorder = plugin.getEventRecorder();
+        
+        if (args.length < 2) {
+            sendMessage(sender, messages.getMessage("record-usage"));
+            return;
+        }
+        
+        Map<String, String> placeholders = new HashMap<>();
+        switch (args[1].toLowerCase()) {
+            case "start":
+                long maxMinutes = plugin.getConfigManager().getSnapshot().getRecorderMaxMinutes();
+                long minutes = maxMinutes;
+                if (args.length >= 3) {
+                    try {
+                        minutes = Long.parseLong(args[2]);
+                    } catch (NumberFormatException e) {
+                        sendMessage(sender, messages.getMessage("record-usage"));
+                        return;
+                    }
+                    if (minutes <= 0) {
+                        sendMessage(sender, messages.getMessage("record-usage"));
+                        return;
+                    }
+                    minutes = Math.min(minutes, maxMinutes);
+                }
+                if (recorder.isRecording()) {
+                    placeholders.put("file", recorder.getCurrentFile().getName());
+                    sendMessage(sender, messages.getMessage("record-already-running", placeholders));
+                    return;
+                }
+                File file = recorder.start(minutes);
+                if (file == null) {
+                    sendMessage(sender, messages.getMessage("record-failed"));
+                    return;
+                }
+                placeholders.put("file", file.getName());
+                placeholders.put("minutes", String.valueOf(minutes));
+                sendMessage(sender, messages.getMessage("record-started", placeholders));
+                break;
+            case "stop":
+                if (!recorder.isRecording()) {
+                    sendMessage(sender, messages.getMessage("record-not-running"));
+                    return;
+                }
+                placeholders.put("file", recorder.getCurrentFile().getName());
+                recorder.stop();
+                sendMessage(sender, messages.getMessage("record-stopped", placeholders));
+                break;
+            default:
+                sendMessage(sender, messages.getMessage("record-usage"));
+                break;
+        }
+    }
+    
+    /**
+     * /ezobserver perf [reset|dump] - 查看、重置或写出性能统计
+     */
+    private void handlePerfCommand(CommandSender sender, String[] args) {
+        MessageManager messages = plugin.getMessageManager();
+        PerfMonitor perf = plugin.getPerfMonitor();
+        Map<String, String> placeholders = new HashMap<>();
+        
+        if (args.length >= 2) {
+            switch (args[1].toLowerCase()) {
+                case "reset":
+                    perf.reset();
+                    sendMessage(sender, messages.getMessage("perf-reset"));
+                    return;
+                case "dump":
+                    try {
+                        placeholders.put("file", perf.dump().getName());
+                        sendMessage(sender, messages.getMessage("perf-dumped", placeholders));
+                    } catch (IOException e) {
+                        plugin.getLogger().warning("写入性能统计日志失败: " + e.getMessage());
+                        sendMessage(sender, messages.getMessage("perf-dump-failed"));
+                    }
+                    return;
+                default:
+                    sendMessage(sender, messages.getMessage("perf-usage"));
+                    return;
+            }
+        }
+        
+        List<PerfMonitor.StageStats> stages = perf.getStageStats();
+        placeholders.put("seconds", String.format("%.0f", perf.getElapsedSeconds()));
+        sendMessage(sender, messages.getMessage("perf-header", placeholders));
+        if (stages.isEmpty()) {
+            sendMessage(sender, messages.getMessage("perf-empty"));
+        }
+        for (PerfMonitor.StageStats stats : stages) {
+            placeholders.put("stage", stats.getStage().getDisplayName());
+            placeholders.put("calls", String.valueOf(stats.getCount()));
+            placeholders.put("rate", String.format("%.1f", stats.getRate()));
+            placeholders.put("p50", PerfMonitor.formatNanos(stats.getP50()));
+            placeholders.put("p99", PerfMonitor.formatNanos(stats.getP99()));
+            placeholders.put("max", PerfMonitor.formatNanos(stats.getMax()));
+            sendMessage(sender, messages.getMessage("perf-stage", placeholders));
+        }
+        for (PerfMonitor.Cache cache : PerfMonitor.Cache.values()) {
+            double ratio = perf.getHitRatio(cache);
+            if (ratio < 0) {
+                continue;
+            }
+            placeholders.put("cache", cache.getDisplayName());
+            placeholders.put("lookups", String.valueOf(perf.getLookups(cache)));
+            placeholders.put("ratio", String.format("%.1f", ratio * 100));
+            sendMessage(sender, messages.getMessage("perf-cache", placeholders));
+        }
+    }
+    
+    private UUID resolvePlayerId(String name) {
+        Player online = Bukkit.getPlayerExact(name);
+        if (online != null) {
+            return online.getUniqueId();
+        }
+        OfflinePlayer offline = Bukkit.getOfflinePlayerIfCached(name);
+        return offline != null ? offline.getUniqueId() : null;
+    }
+    
     @Override
     public List<String> onTabComplete(@Nonnull CommandSender sender, @Nonnull Command command, @Nonnull String alias, @Nonnull String[] args) {
         List<String> completions = new ArrayList<>();
         
         if (args.length == 1) {
-            List<String> subCommands = Arrays.asList("reload", "status", "scan", "check", "whitelist", "help");
+            List<String> subCommands = Arrays.asList("reload", "status", "scan", "check", "whitelist", "vault", "record", "perf", "help");
             String input = args[0].toLowerCase();
             for (String sub : subCommands) {
                 if (sub.startsWith(input)) {
@@ -253,6 +462,27 @@ public class EzObserverCommand implements CommandExecutor, TabCompleter {
                     completions.add(sub);
                 }
             }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("record")) {
+            String input = args[1].toLowerCase();
+            for (String sub : Arrays.asList("start", "stop")) {
+                if (sub.startsWith(input)) {
+                    completions.add(sub);
+                }
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("perf")) {
+            String input = args[1].toLowerCase();
+            for (String sub : Arrays.asList("reset", "dump")) {
+                if (sub.startsWith(input)) {
+                    completions.add(sub);
+                }
+            }
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("vault")) {
+            String input = args[1].toLowerCase();
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (player.getName().toLowerCase().startsWith(input)) {
+                    completions.add(player.getName());
+                }
+            }
         }
         
         return completions;
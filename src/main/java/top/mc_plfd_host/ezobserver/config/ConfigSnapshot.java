@@ -0,0 +1,944 @@
+package top.mc_plfd_host.ezobserver.config;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * 不可变的配置快照
+ * 所有配置项在构造时一次性编译完成，之后不再修改，
+ * 因此任意线程（包括 Folia 的各区域线程）都可以无锁读取，
+ * 重载配置时只需替换 ConfigManager 中的引用，不会出现检测过程中读到一半新一半旧的配置
+ *
+ * @author Kush_ShuL
+ */
+public final class ConfigSnapshot {
+
+    // 基础设置
+    private final boolean enabled;
+    private final boolean strictMode;
+    private final boolean logViolations;
+    private final boolean broadcastViolations;
+    private final String broadcastMessageDelete;
+    private final String broadcastMessageStore;
+    private final String broadcastMessageFix;
+    private final boolean confiscateItems;
+    private final String confiscateMode;
+    private final boolean deleteMode;
+    private final boolean storeMode;
+    private final boolean fixMode;
+    private final String confiscateStoragePath;
+    private final int vaultSegmentSizeMb;
+    private final int journalQueueCapacity;
+    private final String journalOverflowPolicy;
+    private final int journalMaxFileSizeMb;
+    private final boolean journalCompressRotated;
+    private final int journalRetentionDays;
+    private final boolean journalConsoleSummary;
+    private final long alertWindowMillis;
+    private final int alertMaxPerRecipientPerMinute;
+    private final boolean alertDigestEnabled;
+    private final int alertDigestSize;
+    private final long alertDigestMaxAgeMinutes;
+    private final boolean admissionControlEnabled;
+    private final double admissionRatePerSecond;
+    private final double admissionBurst;
+    private final int admissionAbuseThreshold;
+    private final long admissionCooldownSeconds;
+    private final boolean dupeDetectionEnabled;
+    private final int dupeThreshold;
+    private final long dupeWindowSeconds;
+    private final long dupeAlertCooldownMinutes;
+    private final boolean verdictStampEnabled;
+    private final long recorderMaxMinutes;
+    private final long recorderMaxFileSizeMb;
+    private final boolean perfEnabled;
+    private final long checkBudgetNanos;
+    private final boolean sizeGuardEnabled;
+    private final int sizeGuardMaxBytes;
+    private final int sizeGuardContainerMaxBytes;
+    private final Map<Material, Integer> sizeGuardMaterialLimits;
+    private final boolean chunkPayloadEnabled;
+    private final long chunkPayloadMaxBytes;
+    private final boolean sourceGateEnabled;
+    private final int sourceGateMaxTrusted;
+    private final boolean creativeFirewallEnabled;
+    private final Set<Material> creativeBlockedMaterials;
+    private final int creativeMaxNbtLength;
+    private final List<String> creativeBlockedTags;
+    private final List<String> creativeAllowedPdcNamespaces;
+    private final int creativeMaxPending;
+    private final long perfDumpIntervalMinutes;
+    private final long perfMaxFileSizeMb;
+    private final int perfMaxFiles;
+    // 配置内容的哈希，检测印章只在配置内容相同时有效
+    private final int epoch;
+    private final int vaultRetentionDays;
+    private final int vaultQueueCapacity;
+    private final int maxEnchantmentLevel;
+    private final boolean useVanillaMaxForUnconfigured;
+    private final double unconfiguredEnchantmentMultiplier;
+    private final int maxAttributeModifierAmount;
+    private final Map<String, Integer> enchantmentLimits;
+    private final Map<String, Double> attributeLimits;
+
+    // 修正模式设置
+    private final boolean removeOverLimitEnchantments;
+    private final boolean downgradeEnchantments;
+    private final boolean removeOverLimitAttributes;
+    private final boolean downgradeAttributes;
+    private final boolean removeUnbreakable;
+
+    // 自定义禁止物品设置
+    private final boolean bannedItemsEnabled;
+    private final String bannedItemsActionMode;
+    private final String[] bannedNameKeywords;
+    private final String[] bannedLoreKeywords;
+    private final Set<Material> bannedMaterials;
+    private final Set<Material> bannedSpawnEggs;
+
+    // OP物品检测设置
+    private final boolean opItemsEnabled;
+    private final int maxTotalEnchantmentLevel;
+    private final double maxEnchantmentMultiplier;
+    private final int maxAttributeCount;
+    private final double maxAttributeMultiplier;
+
+    // 药水检测设置
+    private final boolean potionCheckEnabled;
+    private final int maxPotionDuration;
+    private final int maxPotionAmplifier;
+    private final Set<String> bannedPotionEffects;
+    private final Map<String, Integer> potionEffectLimits;
+    private final Map<String, Integer> potionDurationLimits;
+
+    // 可信自定义物品数据
+    private final TrustedDataRules trustedData;
+
+    // 高级功能配置
+    private final boolean realTimeMonitoringEnabled;
+    private final boolean autoFixEnabled;
+    private final boolean autoDeleteEnabled;
+    private final int realTimeScanInterval;
+    private final int maxViolationHistory;
+    private final boolean reportGenerationEnabled;
+    private final long reportRetentionDays;
+    private final boolean permissionBypassEnabled;
+    private final boolean hotReloadEnabled;
+    private final long hotReloadDebounceMillis;
+
+    // 编译过程中发现的配置问题，热重载时据此拒绝无效的修改
+    private final List<String> problems;
+
+    /**
+     * 从配置文件编译快照
+     * 无效的单项配置只记录警告并跳过，不影响其余配置，同时记录到 {@link #getProblems()}
+     */
+    public ConfigSnapshot(FileConfiguration config, Logger logger) {
+        List<String> problems = new ArrayList<>();
+        enabled = config.getBoolean("enabled", true);
+        strictMode = config.getBoolean("strict-mode", false);
+        logViolations = config.getBoolean("log-violations", true);
+        broadcastViolations = config.getBoolean("broadcast-violations", true);
+        broadcastMessageDelete = config.getString("broadcast-message-delete", "&c[EzObserver] &e玩家 &f{player} &e持有违规物品 &f{item}&e: &c{reason} &7物品已删除");
+        broadcastMessageStore = config.getString("broadcast-message-store", "&c[EzObserver] &e玩家 &f{player} &e持有违规物品 &f{item}&e: &c{reason} &7物品已没收");
+        broadcastMessageFix = config.getString("broadcast-message-fix", "&c[EzObserver] &e玩家 &f{player} &e持有违规物品 &f{item}&e: &c{reason} &a正在尝试修正违规属性……");
+        confiscateItems = config.getBoolean("confiscate-items", true);
+        confiscateMode = config.getString("confiscate-mode", "delete");
+        deleteMode = "delete".equalsIgnoreCase(confiscateMode);
+        storeMode = "store".equalsIgnoreCase(confiscateMode);
+        fixMode = "fix".equalsIgnoreCase(confiscateMode);
+        confiscateStoragePath = config.getString("confiscate-storage-path", "plugins/EzObserver/confiscated/");
+        vaultSegmentSizeMb = config.getInt("confiscate-vault.segment-size-mb", 16);
+        vaultRetentionDays = config.getInt("confiscate-vault.retention-days", 90);
+        vaultQueueCapacity = config.getInt("confiscate-vault.queue-capacity", 4096);
+        journalQueueCapacity = config.getInt("violation-journal.queue-capacity", 8192);
+        journalOverflowPolicy = config.getString("violation-journal.overflow-policy", "drop-newest");
+        journalMaxFileSizeMb = config.getInt("violation-journal.max-file-size-mb", 32);
+        journalCompressRotated = config.getBoolean("violation-journal.compress-rotated", true);
+        journalRetentionDays = config.getInt("violation-journal.retention-days", 30);
+        journalConsoleSummary = config.getBoolean("violation-journal.console-summary", true);
+        alertWindowMillis = config.getLong("broadcast-aggregation.window-ms", 2000);
+        alertMaxPerRecipientPerMinute = config.getInt("broadcast-aggregation.max-per-recipient-per-minute", 20);
+        alertDigestEnabled = config.getBoolean("broadcast-aggregation.admin-digest.enabled", true);
+        alertDigestSize = config.getInt("broadcast-aggregation.admin-digest.size", 50);
+        alertDigestMaxAgeMinutes = config.getLong("broadcast-aggregation.admin-digest.max-age-minutes", 60);
+        admissionControlEnabled = config.getBoolean("admission-control.enabled", true);
+        admissionRatePerSecond = config.getDouble("admission-control.rate-per-second", 30.0);
+        admissionBurst = config.getDouble("admission-control.burst", 60.0);
+        admissionAbuseThreshold = config.getInt("admission-control.abuse-threshold", 100);
+        admissionCooldownSeconds = config.getLong("admission-control.cooldown-seconds", 5);
+        dupeDetectionEnabled = config.getBoolean("dupe-detection.enabled", false);
+        dupeThreshold = config.getInt("dupe-detection.threshold", 8);
+        dupeWindowSeconds = config.getLong("dupe-detection.window-seconds", 5);
+        dupeAlertCooldownMinutes = config.getLong("dupe-detection.alert-cooldown-minutes", 30);
+        verdictStampEnabled = config.getBoolean("verdict-stamp.enabled", false);
+        recorderMaxMinutes = config.getLong("event-recorder.max-minutes", 30);
+        recorderMaxFileSizeMb = config.getLong("event-recorder.max-file-size-mb", 256);
+        perfEnabled = config.getBoolean("perf.enabled", true);
+        long checkBudgetMicros = config.getLong("check-budget.max-micros", 2000);
+        checkBudgetNanos = config.getBoolean("check-budget.enabled", true) ? checkBudgetMicros * 1000L : 0;
+        sizeGuardEnabled = config.getBoolean("size-guard.enabled", true);
+        sizeGuardMaxBytes = config.getInt("size-guard.max-bytes", 32768);
+        sizeGuardContainerMaxBytes = config.getInt("size-guard.container-max-bytes", 262144);
+        Map<Material, Integer> sizeLimits = new EnumMap<>(Material.class);
+        parseIntSection(config, "size-guard.material-max-bytes", "无效的物品大小上限配置: ", problems, logger)
+                .forEach((name, limit) -> {
+                    Material material = Material.matchMaterial(name);
+                    if (material == null || limit <= 0) {
+                        report(problems, logger, "无效的物品大小上限配置: " + name + " = " + limit);
+                    } else {
+                        sizeLimits.put(material, limit);
+                    }
+                });
+        sizeGuardMaterialLimits = Collections.unmodifiableMap(sizeLimits);
+        chunkPayloadEnabled = config.getBoolean("chunk-payload.enabled", true);
+        chunkPayloadMaxBytes = config.getLong("chunk-payload.max-bytes", 1048576);
+        sourceGateEnabled = config.getBoolean("source-gate.enabled", true);
+        sourceGateMaxTrusted = config.getInt("source-gate.max-trusted", 4096);
+        creativeFirewallEnabled = config.getBoolean("creative-firewall.enabled", true);
+        creativeBlockedMaterials = parseMaterials(config.getStringList("creative-firewall.blocked-materials"),
+                "无效的创造模式禁止物品类型: ", problems, logger);
+        creativeMaxNbtLength = config.getInt("creative-firewall.max-nbt-length", 16384);
+        creativeBlockedTags = List.copyOf(config.getStringList("creative-firewall.blocked-tags"));
+        creativeAllowedPdcNamespaces = config.getStringList("creative-firewall.allowed-pdc-namespaces").stream()
+                .map(String::toLowerCase)
+                .toList();
+        creativeMaxPending = config.getInt("creative-firewall.max-pending", 16);
+        perfDumpIntervalMinutes = config.getLong("perf.dump-interval-minutes", 5);
+        perfMaxFileSizeMb = config.getLong("perf.max-file-size-mb", 4);
+        perfMaxFiles = config.getInt("perf.max-files", 5);
+        epoch = config.saveToString().hashCode();
+        maxEnchantmentLevel = config.getInt("max-enchantment-level", 10);
+        useVanillaMaxForUnconfigured = config.getBoolean("use-vanilla-max-for-unconfigured", true);
+        unconfiguredEnchantmentMultiplier = config.getDouble("unconfigured-enchantment-multiplier", 1.0);
+        maxAttributeModifierAmount = config.getInt("max-attribute-modifier-amount", 100);
+
+        // 加载附魔限制
+        Map<String, Integer> enchantments = new HashMap<>();
+        ConfigurationSection enchantmentSection = config.getConfigurationSection("enchantment-limits");
+        if (enchantmentSection != null) {
+            for (String key : enchantmentSection.getKeys(false)) {
+                if (enchantmentSection.isInt(key)) {
+                    enchantments.put(key.toUpperCase(), enchantmentSection.getInt(key));
+                } else {
+                    report(problems, logger, "无效的附魔限制配置: " + key + " = " + enchantmentSection.get(key));
+                }
+            }
+        }
+        enchantmentLimits = Map.copyOf(enchantments);
+
+        // 加载属性修饰符限制
+        Map<String, Double> attributes = new HashMap<>();
+        ConfigurationSection attributeSection = config.getConfigurationSection("attribute-limits");
+        if (attributeSection != null) {
+            for (String key : attributeSection.getKeys(false)) {
+                if (attributeSection.isDouble(key) || attributeSection.isInt(key)) {
+                    attributes.put(key.toUpperCase(), attributeSection.getDouble(key));
+                } else {
+                    report(problems, logger, "无效的属性限制配置: " + key + " = " + attributeSection.get(key));
+                }
+            }
+        }
+        attributeLimits = Map.copyOf(attributes);
+
+        // 加载修正模式设置
+        removeOverLimitEnchantments = config.getBoolean("fix-settings.remove-over-limit-enchantments", true);
+        downgradeEnchantments = config.getBoolean("fix-settings.downgrade-enchantments", false);
+        removeOverLimitAttributes = config.getBoolean("fix-settings.remove-over-limit-attributes", true);
+        downgradeAttributes = config.getBoolean("fix-settings.downgrade-attributes", false);
+        removeUnbreakable = config.getBoolean("fix-settings.remove-unbreakable", true);
+
+        // 加载自定义禁止物品设置
+        bannedItemsEnabled = config.getBoolean("banned-items.enabled", true);
+        bannedItemsActionMode = config.getString("banned-items.action-mode", "delete");
+        bannedNameKeywords = config.getStringList("banned-items.name-keywords").toArray(new String[0]);
+        bannedLoreKeywords = config.getStringList("banned-items.lore-keywords").toArray(new String[0]);
+        bannedMaterials = parseMaterials(config.getStringList("banned-items.banned-materials"), "无效的物品类型: ", problems, logger);
+        bannedSpawnEggs = parseMaterials(config.getStringList("banned-items.banned-spawn-eggs"), "无效的刷怪蛋类型: ", problems, logger);
+
+        // 加载OP物品检测设置
+        opItemsEnabled = config.getBoolean("op-items.enabled", true);
+        maxTotalEnchantmentLevel = config.getInt("op-items.max-total-enchantment-level", 50);
+        maxEnchantmentMultiplier = config.getDouble("op-items.max-enchantment-multiplier", 2.0);
+        maxAttributeCount = config.getInt("op-items.max-attribute-count", 10);
+        maxAttributeMultiplier = config.getDouble("op-items.max-attribute-multiplier", 5.0);
+
+        // 加载药水检测设置
+        potionCheckEnabled = config.getBoolean("potion-check.enabled", true);
+        maxPotionDuration = config.getInt("potion-check.max-duration", 600);
+        maxPotionAmplifier = config.getInt("potion-check.max-amplifier", 2);
+
+        Set<String> effects = new HashSet<>();
+        for (String effect : config.getStringList("potion-check.banned-effects")) {
+            effects.add(effect.toUpperCase());
+        }
+        bannedPotionEffects = Set.copyOf(effects);
+        potionEffectLimits = parseIntSection(config, "potion-check.effect-limits", "无效的药水效果限制配置: ", problems, logger);
+        potionDurationLimits = parseIntSection(config, "potion-check.duration-limits", "无效的药水持续时间限制配置: ", problems, logger);
+
+        // 加载可信自定义物品数据规则
+        List<String> trustedDataProblems = new ArrayList<>();
+        trustedData = TrustedDataRules.fromConfig(config.getConfigurationSection("trusted-data"), trustedDataProblems);
+        for (String problem : trustedDataProblems) {
+            report(problems, logger, problem);
+        }
+
+        // 加载高级功能配置
+        realTimeMonitoringEnabled = config.getBoolean("advanced.real-time-monitoring.enabled", true);
+        autoFixEnabled = config.getBoolean("advanced.auto-fix.enabled", false);
+        autoDeleteEnabled = config.getBoolean("advanced.auto-delete.enabled", false);
+        realTimeScanInterval = config.getInt("advanced.real-time-monitoring.scan-interval", 20);
+        maxViolationHistory = config.getInt("advanced.max-violation-history", 100);
+        reportGenerationEnabled = config.getBoolean("advanced.report-generation.enabled", true);
+        reportRetentionDays = config.getLong("advanced.report-generation.retention-days", 30);
+        permissionBypassEnabled = config.getBoolean("advanced.permission-bypass.enabled", true);
+        hotReloadEnabled = config.getBoolean("advanced.hot-reload.enabled", true);
+        hotReloadDebounceMillis = config.getLong("advanced.hot-reload.debounce-ms", 500);
+
+        // 取值范围校验
+        if (!deleteMode && !storeMode && !fixMode) {
+            report(problems, logger, "无效的没收模式: " + confiscateMode + " (可选 delete/store/fix)");
+        }
+        if (!"delete".equalsIgnoreCase(bannedItemsActionMode) && !"notify".equalsIgnoreCase(bannedItemsActionMode)) {
+            report(problems, logger, "无效的违禁物品处理模式: " + bannedItemsActionMode + " (可选 delete/notify)");
+        }
+        if (maxEnchantmentLevel < 0 || maxTotalEnchantmentLevel < 0 || maxAttributeCount < 0
+                || maxPotionDuration < 0 || maxPotionAmplifier < 0) {
+            report(problems, logger, "等级、数量与持续时间上限不能为负数");
+        }
+        if (unconfiguredEnchantmentMultiplier <= 0 || maxEnchantmentMultiplier <= 0 || maxAttributeMultiplier <= 0) {
+            report(problems, logger, "倍数配置必须大于 0");
+        }
+        if (vaultSegmentSizeMb <= 0) {
+            report(problems, logger, "没收库段文件大小必须大于 0: " + vaultSegmentSizeMb);
+        }
+        if (vaultQueueCapacity <= 0) {
+            report(problems, logger, "没收库写入队列容量必须大于 0: " + vaultQueueCapacity);
+        }
+        if (journalQueueCapacity <= 0 || journalMaxFileSizeMb <= 0) {
+            report(problems, logger, "违规日志队列容量和文件大小上限必须大于 0");
+        }
+        if (!"drop-newest".equalsIgnoreCase(journalOverflowPolicy) && !"drop-oldest".equalsIgnoreCase(journalOverflowPolicy)) {
+            report(problems, logger, "无效的违规日志溢出策略: " + journalOverflowPolicy + " (可选 drop-newest/drop-oldest)");
+        }
+        if (alertWindowMillis < 50) {
+            report(problems, logger, "广播汇总窗口不能小于 50 毫秒: " + alertWindowMillis);
+        }
+        if (alertMaxPerRecipientPerMinute < 0 || alertDigestSize < 0 || alertDigestMaxAgeMinutes < 0) {
+            report(problems, logger, "广播限流与管理员摘要配置不能为负数");
+        }
+        if (admissionRatePerSecond <= 0 || admissionBurst < 1 || admissionAbuseThreshold <= 0 || admissionCooldownSeconds < 0) {
+            report(problems, logger, "准入控制配置无效: 速率和超速阈值必须大于 0，突发容量不能小于 1，冷却时间不能为负数");
+        }
+        if (dupeThreshold < 2 || dupeThreshold > 64 || dupeWindowSeconds <= 0 || dupeAlertCooldownMinutes < 0) {
+            report(problems, logger, "复制物品检测配置无效: 阈值必须在 2 到 64 之间，观察窗口必须大于 0，告警冷却不能为负数");
+        }
+        if (recorderMaxMinutes <= 0 || recorderMaxFileSizeMb <= 0) {
+            report(problems, logger, "事件录制配置无效: 最长时长和文件大小上限必须大于 0");
+        }
+        if (checkBudgetNanos < 0) {
+            report(problems, logger, "检测预算不能为负数: " + checkBudgetMicros);
+        }
+        if (sizeGuardMaxBytes <= 0 || sizeGuardContainerMaxBytes <= 0) {
+            report(problems, logger, "物品大小上限必须大于 0");
+        }
+        if (chunkPayloadMaxBytes <= 0) {
+            report(problems, logger, "区块物品数据预算必须大于 0: " + chunkPayloadMaxBytes);
+        }
+        if (sourceGateMaxTrusted <= 0) {
+            report(problems, logger, "可信来源物品数量上限必须大于 0: " + sourceGateMaxTrusted);
+        }
+        if (creativeMaxNbtLength <= 0 || creativeMaxPending <= 0) {
+            report(problems, logger, "创造模式防火墙配置无效: NBT 长度上限和等待检测数上限必须大于 0");
+        }
+        if (perfDumpIntervalMinutes < 0 || perfMaxFileSizeMb <= 0 || perfMaxFiles < 1) {
+            report(problems, logger, "性能统计配置无效: 写入间隔不能为负数，文件大小上限必须大于 0，保留文件数不能小于 1");
+        }
+        if (hotReloadDebounceMillis < 0) {
+            report(problems, logger, "热重载防抖时间不能为负数: " + hotReloadDebounceMillis);
+        }
+        this.problems = List.copyOf(problems);
+    }
+
+    private static void report(List<String> problems, Logger logger, String message) {
+        problems.add(message);
+        logger.warning(message);
+    }
+
+    private static Set<Material> parseMaterials(List<String> names, String warning, List<String> problems, Logger logger) {
+        EnumSet<Material> materials = EnumSet.noneOf(Material.class);
+        for (String materialName : names) {
+            try {
+                materials.add(Material.valueOf(materialName.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                report(problems, logger, warning + materialName);
+            }
+        }
+        return Collections.unmodifiableSet(materials);
+    }
+
+    private static Map<String, Integer> parseIntSection(FileConfiguration config, String path, String warning,
+                                                        List<String> problems, Logger logger) {
+        Map<String, Integer> values = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection(path);
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                if (section.isInt(key)) {
+                    values.put(key.toUpperCase(), section.getInt(key));
+                } else {
+                    report(problems, logger, warning + key + " = " + section.get(key));
+                }
+            }
+        }
+        return Map.copyOf(values);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isStrictMode() {
+        return strictMode;
+    }
+
+    public boolean isLogViolations() {
+        return logViolations;
+    }
+
+    public boolean isBroadcastViolations() {
+        return broadcastViolations;
+    }
+
+    public String getBroadcastMessage() {
+        if (storeMode) {
+            return broadcastMessageStore;
+        } else if (fixMode) {
+            return broadcastMessageFix;
+        }
+        return broadcastMessageDelete;
+    }
+
+    public String getBroadcastMessageDelete() {
+        return broadcastMessageDelete;
+    }
+
+    public String getBroadcastMessageStore() {
+        return broadcastMessageStore;
+    }
+
+    public String getBroadcastMessageFix() {
+        return broadcastMessageFix;
+    }
+
+    public boolean isConfiscateItems() {
+        return confiscateItems;
+    }
+
+    public String getConfiscateMode() {
+        return confiscateMode;
+    }
+
+    public String getConfiscateStoragePath() {
+        return confiscateStoragePath;
+    }
+
+    public int getVaultSegmentSizeMb() {
+        return vaultSegmentSizeMb;
+    }
+
+    /**
+     * 没收记录保留天数，0 表示永久保留
+     */
+    public int getVaultRetentionDays() {
+        return vaultRetentionDays;
+    }
+
+    /**
+     * 没收库写入队列容量，只在启动时读取
+     */
+    public int getVaultQueueCapacity() {
+        return vaultQueueCapacity;
+    }
+
+    /**
+     * 违规日志队列容量，只在启动时读取
+     */
+    public int getJournalQueueCapacity() {
+        return journalQueueCapacity;
+    }
+
+    /**
+     * 违规日志队列溢出策略 (drop-newest/drop-oldest)，只在启动时读取
+     */
+    public String getJournalOverflowPolicy() {
+        return journalOverflowPolicy;
+    }
+
+    public int getJournalMaxFileSizeMb() {
+        return journalMaxFileSizeMb;
+    }
+
+    public boolean isJournalCompressRotated() {
+        return journalCompressRotated;
+    }
+
+    /**
+     * 违规日志保留天数，0 表示永久保留
+     */
+    public int getJournalRetentionDays() {
+        return journalRetentionDays;
+    }
+
+    public boolean isJournalConsoleSummary() {
+        return journalConsoleSummary;
+    }
+
+    /**
+     * 广播汇总窗口长度 (毫秒)，只在启动时读取
+     */
+    public long getAlertWindowMillis() {
+        return alertWindowMillis;
+    }
+
+    /**
+     * 每个玩家每分钟最多收到的违规广播数，0 表示不限制
+     */
+    public int getAlertMaxPerRecipientPerMinute() {
+        return alertMaxPerRecipientPerMinute;
+    }
+
+    public boolean isAlertDigestEnabled() {
+        return alertDigestEnabled;
+    }
+
+    public int getAlertDigestSize() {
+        return alertDigestSize;
+    }
+
+    public long getAlertDigestMaxAgeMinutes() {
+        return alertDigestMaxAgeMinutes;
+    }
+
+    public boolean isAdmissionControlEnabled() {
+        return admissionControlEnabled;
+    }
+
+    public double getAdmissionRatePerSecond() {
+        return admissionRatePerSecond;
+    }
+
+    public double getAdmissionBurst() {
+        return admissionBurst;
+    }
+
+    /**
+     * 一秒内超出速率的事件数达到该值时进入冷却
+     */
+    public int getAdmissionAbuseThreshold() {
+        return admissionAbuseThreshold;
+    }
+
+    public long getAdmissionCooldownSeconds() {
+        return admissionCooldownSeconds;
+    }
+
+    public boolean isDupeDetectionEnabled() {
+        return dupeDetectionEnabled;
+    }
+
+    /**
+     * 同一不可堆叠物品同时存在于多少个不同位置时视为疑似复制
+     */
+    public int getDupeThreshold() {
+        return dupeThreshold;
+    }
+
+    public long getDupeWindowSeconds() {
+        return dupeWindowSeconds;
+    }
+
+    public long getDupeAlertCooldownMinutes() {
+        return dupeAlertCooldownMinutes;
+    }
+
+    public boolean isVerdictStampEnabled() {
+        return verdictStampEnabled;
+    }
+
+    public long getRecorderMaxMinutes() {
+        return recorderMaxMinutes;
+    }
+
+    public long getRecorderMaxFileSizeMb() {
+        return recorderMaxFileSizeMb;
+    }
+
+    /**
+     * 单次检测的时间预算 (纳秒)，0 表示不限制
+     */
+    public long getCheckBudgetNanos() {
+        return checkBudgetNanos;
+    }
+
+    public boolean isSizeGuardEnabled() {
+        return sizeGuardEnabled;
+    }
+
+    public int getSizeGuardMaxBytes() {
+        return sizeGuardMaxBytes;
+    }
+
+    public int getSizeGuardContainerMaxBytes() {
+        return sizeGuardContainerMaxBytes;
+    }
+
+    /**
+     * 物品类型单独配置的大小上限，未配置时返回 null
+     */
+    public Integer getSizeGuardMaterialLimit(Material material) {
+        return sizeGuardMaterialLimits.get(material);
+    }
+
+    public boolean isChunkPayloadEnabled() {
+        return chunkPayloadEnabled;
+    }
+
+    public long getChunkPayloadMaxBytes() {
+        return chunkPayloadMaxBytes;
+    }
+
+    public boolean isSourceGateEnabled() {
+        return sourceGateEnabled;
+    }
+
+    public int getSourceGateMaxTrusted() {
+        return sourceGateMaxTrusted;
+    }
+
+    public boolean isCreativeFirewallEnabled() {
+        return creativeFirewallEnabled;
+    }
+
+    public boolean isCreativeBlockedMaterial(Material material) {
+        return creativeBlockedMaterials.contains(material);
+    }
+
+    public int getCreativeMaxNbtLength() {
+        return creativeMaxNbtLength;
+    }
+
+    public List<String> getCreativeBlockedTags() {
+        return creativeBlockedTags;
+    }
+
+    /**
+     * 创造模式物品允许携带的 PDC 命名空间 (小写)，包含 "*" 时不限制
+     */
+    public List<String> getCreativeAllowedPdcNamespaces() {
+        return creativeAllowedPdcNamespaces;
+    }
+
+    public int getCreativeMaxPending() {
+        return creativeMaxPending;
+    }
+
+    public boolean isPerfEnabled() {
+        return perfEnabled;
+    }
+
+    public long getPerfDumpIntervalMinutes() {
+        return perfDumpIntervalMinutes;
+    }
+
+    public long getPerfMaxFileSizeMb() {
+        return perfMaxFileSizeMb;
+    }
+
+    public int getPerfMaxFiles() {
+        return perfMaxFiles;
+    }
+
+    /**
+     * 配置纪元：由配置内容计算，内容不变时重启或重载后保持不变
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    public boolean isDeleteMode() {
+        return deleteMode;
+    }
+
+    public boolean isStoreMode() {
+        return storeMode;
+    }
+
+    public boolean isFixMode() {
+        return fixMode;
+    }
+
+    public boolean isRemoveOverLimitEnchantments() {
+        return removeOverLimitEnchantments;
+    }
+
+    public boolean isDowngradeEnchantments() {
+        return downgradeEnchantments;
+    }
+
+    public boolean isRemoveOverLimitAttributes() {
+        return removeOverLimitAttributes;
+    }
+
+    public boolean isDowngradeAttributes() {
+        return downgradeAttributes;
+    }
+
+    public boolean isRemoveUnbreakable() {
+        return removeUnbreakable;
+    }
+
+    public int getMaxEnchantmentLevel() {
+        return maxEnchantmentLevel;
+    }
+
+    public int getMaxAttributeModifierAmount() {
+        return maxAttributeModifierAmount;
+    }
+
+    public int getEnchantmentLimit(String enchantment) {
+        return enchantmentLimits.getOrDefault(enchantment.toUpperCase(), maxEnchantmentLevel);
+    }
+
+    public boolean hasEnchantmentLimit(String enchantment) {
+        return enchantmentLimits.containsKey(enchantment.toUpperCase());
+    }
+
+    public Map<String, Integer> getEnchantmentLimits() {
+        return enchantmentLimits;
+    }
+
+    public boolean isUseVanillaMaxForUnconfigured() {
+        return useVanillaMaxForUnconfigured;
+    }
+
+    public double getUnconfiguredEnchantmentMultiplier() {
+        return unconfiguredEnchantmentMultiplier;
+    }
+
+    /**
+     * 获取属性修饰符限制
+     * 1.21.3 起属性名称去掉了 GENERIC_ / PLAYER_ 前缀，配置和服务器使用不同写法时互相兼容
+     */
+    public double getAttributeLimit(String attribute) {
+        String key = attribute.toUpperCase();
+        Double limit = attributeLimits.get(key);
+        if (limit == null) {
+            if (key.startsWith("GENERIC_") || key.startsWith("PLAYER_")) {
+                limit = attributeLimits.get(key.substring(key.indexOf('_') + 1));
+            } else {
+                limit = attributeLimits.get("GENERIC_" + key);
+            }
+        }
+        return limit != null ? limit : (double) maxAttributeModifierAmount;
+    }
+
+    public Map<String, Double> getAttributeLimits() {
+        return attributeLimits;
+    }
+
+    // 自定义禁止物品相关方法
+    public boolean isBannedItemsEnabled() {
+        return bannedItemsEnabled;
+    }
+
+    public List<String> getBannedNameKeywords() {
+        return List.of(bannedNameKeywords);
+    }
+
+    public List<String> getBannedLoreKeywords() {
+        return List.of(bannedLoreKeywords);
+    }
+
+    /**
+     * 检查文本是否包含禁止的名称关键词
+     * @return 命中的关键词，未命中返回 null
+     */
+    public String findBannedNameKeyword(String text) {
+        return findKeyword(bannedNameKeywords, text);
+    }
+
+    /**
+     * 检查文本是否包含禁止的Lore关键词
+     * @return 命中的关键词，未命中返回 null
+     */
+    public String findBannedLoreKeyword(String text) {
+        return findKeyword(bannedLoreKeywords, text);
+    }
+
+    private static String findKeyword(String[] keywords, String text) {
+        for (String keyword : keywords) {
+            if (text.contains(keyword)) {
+                return keyword;
+            }
+        }
+        return null;
+    }
+
+    public Set<Material> getBannedMaterials() {
+        return bannedMaterials;
+    }
+
+    public boolean isBannedMaterial(Material material) {
+        return bannedMaterials.contains(material);
+    }
+
+    public String getBannedItemsActionMode() {
+        return bannedItemsActionMode;
+    }
+
+    public boolean isBannedItemsDeleteMode() {
+        return "delete".equalsIgnoreCase(bannedItemsActionMode);
+    }
+
+    public boolean isBannedItemsNotifyMode() {
+        return "notify".equalsIgnoreCase(bannedItemsActionMode);
+    }
+
+    public Set<Material> getBannedSpawnEggs() {
+        return bannedSpawnEggs;
+    }
+
+    public boolean isBannedSpawnEgg(Material material) {
+        return bannedSpawnEggs.contains(material);
+    }
+
+    // OP物品检测相关方法
+    public boolean isOpItemsEnabled() {
+        return opItemsEnabled;
+    }
+
+    public int getMaxTotalEnchantmentLevel() {
+        return maxTotalEnchantmentLevel;
+    }
+
+    public double getMaxEnchantmentMultiplier() {
+        return maxEnchantmentMultiplier;
+    }
+
+    public int getMaxAttributeCount() {
+        return maxAttributeCount;
+    }
+
+    public double getMaxAttributeMultiplier() {
+        return maxAttributeMultiplier;
+    }
+
+    // 药水检测相关方法
+    public boolean isPotionCheckEnabled() {
+        return potionCheckEnabled;
+    }
+
+    public int getMaxPotionDuration() {
+        return maxPotionDuration;
+    }
+
+    public int getMaxPotionAmplifier() {
+        return maxPotionAmplifier;
+    }
+
+    public Set<String> getBannedPotionEffects() {
+        return bannedPotionEffects;
+    }
+
+    public boolean isBannedPotionEffect(String effectType) {
+        return bannedPotionEffects.contains(effectType.toUpperCase());
+    }
+
+    public int getPotionEffectLimit(String effectType) {
+        return potionEffectLimits.getOrDefault(effectType.toUpperCase(), maxPotionAmplifier);
+    }
+
+    public int getPotionDurationLimit(String effectType) {
+        return potionDurationLimits.getOrDefault(effectType.toUpperCase(), maxPotionDuration);
+    }
+
+    public boolean hasPotionEffectLimit(String effectType) {
+        return potionEffectLimits.containsKey(effectType.toUpperCase());
+    }
+
+    public boolean hasPotionDurationLimit(String effectType) {
+        return potionDurationLimits.containsKey(effectType.toUpperCase());
+    }
+
+    public Map<String, Integer> getPotionEffectLimits() {
+        return potionEffectLimits;
+    }
+
+    public Map<String, Integer> getPotionDurationLimits() {
+        return potionDurationLimits;
+    }
+
+    // 高级功能配置方法
+    public boolean isRealTimeMonitoringEnabled() {
+        return realTimeMonitoringEnabled;
+    }
+
+    public boolean isAutoFixEnabled() {
+        return autoFixEnabled;
+    }
+
+    public boolean isAutoDeleteEnabled() {
+        return autoDeleteEnabled;
+    }
+
+    public int getRealTimeScanInterval() {
+        return realTimeScanInterval;
+    }
+
+    public int getMaxViolationHistory() {
+        return maxViolationHistory;
+    }
+
+    public boolean isReportGenerationEnabled() {
+        return reportGenerationEnabled;
+    }
+
+    public long getReportRetentionDays() {
+        return reportRetentionDays;
+    }
+
+    public boolean isPermissionBypassEnabled() {
+        return permissionBypassEnabled;
+    }
+
+    public TrustedDataRules getTrustedData() {
+        return trustedData;
+    }
+
+    public boolean isHotReloadEnabled() {
+        return hotReloadEnabled;
+    }
+
+    public long getHotReloadDebounceMillis() {
+        return hotReloadDebounceMillis;
+    }
+
+    /**
+     * 获取编译时发现的配置问题，为空表示配置有效
+     */
+    public List<String> getProblems() {
+        return problems;
+    }
+}
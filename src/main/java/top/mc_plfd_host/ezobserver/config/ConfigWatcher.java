@@ -0,0 +1,272 @@
+package top.mc_plfd_host.ezobserver.config;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import top.mc_plfd_host.ezobserver.EzObserver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 配置文件热重载
+ * 监听插件目录下的 config.yml、messages.yml 和 whitelist.yml，
+ * 文件变化后在后台线程完成解析、校验和规则编译，通过后一次性替换生效，并在日志中输出变更内容。
+ * 解析失败或校验不通过的修改会被拒绝，当前规则继续生效
+ *
+ * @author Kush_ShuL
+ */
+public class ConfigWatcher {
+
+    private static final String CONFIG_FILE = "config.yml";
+    private static final String MESSAGES_FILE = "messages.yml";
+    private static final String WHITELIST_FILE = "whitelist.yml";
+    private static final Set<String> WATCHED_FILES = Set.of(CONFIG_FILE, MESSAGES_FILE, WHITELIST_FILE);
+
+    // 日志中最多输出的变更条目数，避免整份文件被替换时刷屏
+    private static final int MAX_DIFF_LINES = 20;
+
+    private final EzObserver plugin;
+    private final Logger logger;
+    private final Path dataFolder;
+
+    // 各文件上一次成功应用的内容（展开后的键值），用于生成变更对比
+    private final Map<String, Map<String, Object>> appliedValues = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    public ConfigWatcher(EzObserver plugin) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+        this.dataFolder = plugin.getDataFolder().toPath();
+    }
+
+    /**
+     * 启动文件监听，配置中关闭热重载时不做任何事
+     */
+    public synchronized void start() {
+        ConfigSnapshot snapshot = plugin.getConfigManager().getSnapshot();
+        if (!snapshot.isHotReloadEnabled() || watcherThread != null) {
+            return;
+        }
+
+        // 记录当前文件内容作为对比基准
+        for (String fileName : WATCHED_FILES) {
+            YamlConfiguration yaml = parse(fileName);
+            if (yaml != null) {
+                appliedValues.put(fileName, flatten(yaml));
+            }
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dataFolder.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.warning("无法启动配置文件监听，热重载不可用: " + e.getMessage());
+            closeWatchService();
+            return;
+        }
+
+        long debounceMillis = snapshot.getHotReloadDebounceMillis();
+        watcherThread = new Thread(() -> watchLoop(debounceMillis), "EzObserver-ConfigWatcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        logger.info("配置文件热重载已启用 (防抖 " + debounceMillis + "ms)");
+    }
+
+    /**
+     * 停止文件监听
+     */
+    public synchronized void stop() {
+        closeWatchService();
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+            watcherThread = null;
+        }
+    }
+
+    private void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warning("关闭配置文件监听时发生错误: " + e.getMessage());
+            }
+            watchService = null;
+        }
+    }
+
+    private void watchLoop(long debounceMillis) {
+        WatchService service = watchService;
+        // 文件名 -> 最后一次变化后应当处理的时间，编辑器保存时往往连续触发多次事件
+        Map<String, Long> pending = new HashMap<>();
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key;
+                if (pending.isEmpty()) {
+                    key = service.take();
+                } else {
+                    long wait = Math.max(0, pending.values().stream().min(Long::compare).orElse(0L) - System.currentTimeMillis());
+                    key = service.poll(wait, TimeUnit.MILLISECONDS);
+                }
+
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path path) {
+                            String fileName = path.getFileName().toString();
+                            if (WATCHED_FILES.contains(fileName)) {
+                                pending.put(fileName, System.currentTimeMillis() + debounceMillis);
+                            }
+                        }
+                    }
+                    if (!key.reset()) {
+                        logger.warning("插件目录已不可访问，配置文件热重载已停止");
+                        return;
+                    }
+                }
+
+                long now = System.currentTimeMillis();
+                Iterator<Map.Entry<String, Long>> iterator = pending.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, Long> entry = iterator.next();
+                    if (entry.getValue() <= now) {
+                        iterator.remove();
+                        reloadFile(entry.getKey());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // 插件关闭时正常退出
+        }
+    }
+
+    private void reloadFile(String fileName) {
+        try {
+            YamlConfiguration yaml = parse(fileName);
+            if (yaml == null) {
+                return;
+            }
+
+            Map<String, Object> values = flatten(yaml);
+            List<String> changes = diff(appliedValues.getOrDefault(fileName, Map.of()), values);
+            if (changes.isEmpty()) {
+                // 内容没有变化（例如插件自己保存了白名单），无需重新应用
+                return;
+            }
+
+            switch (fileName) {
+                case CONFIG_FILE -> {
+                    ConfigSnapshot snapshot = new ConfigSnapshot(yaml, logger);
+                    if (!snapshot.getProblems().isEmpty()) {
+                        logger.warning(fileName + " 存在 " + snapshot.getProblems().size() + " 处无效配置，已拒绝本次修改，继续使用当前配置");
+                        return;
+                    }
+                    plugin.getConfigManager().applySnapshot(snapshot);
+                }
+                case MESSAGES_FILE -> plugin.getMessageManager().applyMessages(yaml);
+                case WHITELIST_FILE -> {
+                    String mode = yaml.getString("mode", "strict");
+                    if (!"strict".equalsIgnoreCase(mode) && !"loose".equalsIgnoreCase(mode) && !"type".equalsIgnoreCase(mode)) {
+                        logger.warning(fileName + " 中的白名单模式无效: " + mode + " (可选 strict/loose/type)，已拒绝本次修改");
+                        return;
+                    }
+                    plugin.getConfigManager().getWhitelistManager().applyWhitelist(yaml);
+                }
+                default -> {
+                    return;
+                }
+            }
+
+            appliedValues.put(fileName, values);
+            logger.info(fileName + " 已热重载，共 " + changes.size() + " 处变更:");
+            for (int i = 0; i < changes.size() && i < MAX_DIFF_LINES; i++) {
+                logger.info("  " + changes.get(i));
+            }
+            if (changes.size() > MAX_DIFF_LINES) {
+                logger.info("  ……以及其他 " + (changes.size() - MAX_DIFF_LINES) + " 处变更");
+            }
+        } catch (Exception e) {
+            // 热重载失败不能影响监听线程，也不能影响当前生效的规则
+            logger.warning("热重载 " + fileName + " 时发生错误，继续使用当前配置: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 读取并解析文件，文件不存在或语法错误时返回 null
+     */
+    private YamlConfiguration parse(String fileName) {
+        Path file = dataFolder.resolve(fileName);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        YamlConfiguration yaml = new YamlConfiguration();
+        try {
+            yaml.loadFromString(Files.readString(file, StandardCharsets.UTF_8));
+            return yaml;
+        } catch (IOException e) {
+            logger.warning("无法读取 " + fileName + ": " + e.getMessage());
+        } catch (InvalidConfigurationException e) {
+            logger.warning(fileName + " 语法错误，已拒绝本次修改，继续使用当前配置: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 将配置展开为 "路径 -> 值" 的有序映射，只保留叶子节点
+     */
+    private static Map<String, Object> flatten(YamlConfiguration yaml) {
+        Map<String, Object> values = new TreeMap<>();
+        for (String key : yaml.getKeys(true)) {
+            if (!yaml.isConfigurationSection(key)) {
+                values.put(key, yaml.get(key));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 生成两份展开后配置之间的差异描述
+     */
+    private static List<String> diff(Map<String, Object> before, Map<String, Object> after) {
+        Set<String> keys = new TreeSet<>(before.keySet());
+        keys.addAll(after.keySet());
+
+        List<String> changes = new ArrayList<>();
+        for (String key : keys) {
+            boolean existedBefore = before.containsKey(key);
+            boolean existsAfter = after.containsKey(key);
+            if (!existedBefore) {
+                changes.add("+ " + key + ": " + after.get(key));
+            } else if (!existsAfter) {
+                changes.add("- " + key + ": " + before.get(key));
+            } else if (!Objects.equals(before.get(key), after.get(key))) {
+                changes.add("* " + key + ": " + before.get(key) + " -> " + after.get(key));
+            }
+        }
+        return changes;
+    }
+}
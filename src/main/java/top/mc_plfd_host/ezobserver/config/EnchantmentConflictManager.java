@@ -366,11 +366,24 @@ public class EnchantmentConflictManager {
             return conflictGroups;
         }
         
-        Map<Enchantment, Integer> enchantments = item.getEnchantments();
+        List<String> enchantNames = new ArrayList<>();
+        for (Enchantment enchant : item.getEnchantments().keySet()) {
+            enchantNames.add(enchant.getKey().getKey());
+        }
+        
+        return findConflictingEnchantments(item.getType(), enchantNames);
+    }
+    
+    /**
+     * 按物品类型和附魔名称检测冲突附魔
+     * 不依赖 ItemStack，供离线审计工具等无服务器环境复用
+     * @return 返回冲突附魔组的列表，每个组包含互相冲突的附魔名称
+     */
+    public List<Set<String>> findConflictingEnchantments(Material material, Collection<String> enchantNames) {
+        List<Set<String>> conflictGroups = new ArrayList<>();
         Set<String> processedEnchantments = new HashSet<>();
         
-        for (Enchantment enchant : enchantments.keySet()) {
-            String enchantName = enchant.getKey().getKey();
+        for (String enchantName : enchantNames) {
             if (processedEnchantments.contains(enchantName)) {
                 continue;
             }
@@ -379,13 +392,12 @@ public class EnchantmentConflictManager {
             conflictGroup.add(enchantName);
             
             // 查找与当前附魔冲突的所有附魔
-            for (Enchantment otherEnchant : enchantments.keySet()) {
-                String otherEnchantName = otherEnchant.getKey().getKey();
+            for (String otherEnchantName : enchantNames) {
                 if (enchantName.equals(otherEnchantName) || processedEnchantments.contains(otherEnchantName)) {
                     continue;
                 }
                 
-                if (areConflicting(enchantName, otherEnchantName, item.getType())) {
+                if (areConflicting(enchantName, otherEnchantName, material)) {
                     conflictGroup.add(otherEnchantName);
                 }
             }
@@ -405,15 +417,39 @@ public class EnchantmentConflictManager {
      * @return 返回被移除的附魔名称列表
      */
     public List<String> removeConflictingEnchantments(ItemStack item) {
+        if (item == null || !item.hasItemMeta()) {
+            return new ArrayList<>();
+        }
+        
+        ItemMeta meta = item.getItemMeta();
+        List<String> removedEnchantments = removeConflictingEnchantments(item.getType(), meta);
+        if (!removedEnchantments.isEmpty()) {
+            item.setItemMeta(meta);
+        }
+        return removedEnchantments;
+    }
+    
+    /**
+     * 从物品元数据中移除冲突的附魔组，只修改传入的 meta，由调用方负责写回物品
+     * @return 返回被移除的附魔名称列表
+     */
+    public List<String> removeConflictingEnchantments(Material material, ItemMeta meta) {
         List<String> removedEnchantments = new ArrayList<>();
-        List<Set<String>> conflictGroups = findConflictingEnchantments(item);
+        if (meta == null || !meta.hasEnchants()) {
+            return removedEnchantments;
+        }
+        
+        List<String> enchantNames = new ArrayList<>();
+        for (Enchantment enchant : meta.getEnchants().keySet()) {
+            enchantNames.add(enchant.getKey().getKey());
+        }
         
-        for (Set<String> conflictGroup : conflictGroups) {
+        for (Set<String> conflictGroup : findConflictingEnchantments(material, enchantNames)) {
             // 移除冲突组中的所有附魔
             for (String enchantName : conflictGroup) {
                 Enchantment enchant = findEnchantmentByName(enchantName);
-                if (enchant != null && item.containsEnchantment(enchant)) {
-                    item.removeEnchantment(enchant);
+                if (enchant != null && meta.hasEnchant(enchant)) {
+                    meta.removeEnchant(enchant);
                     removedEnchantments.add(enchantName);
                 }
             }
@@ -2,8 +2,6 @@ package top.mc_plfd_host.ezobserver.config;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.minimessage.tag.resolver.Placeholder;
-import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import top.mc_plfd_host.ezobserver.EzObserver;
@@ -11,20 +9,19 @@ import top.mc_plfd_host.ezobserver.EzObserver;
 import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 public class MessageManager {
 
     private final EzObserver plugin;
-    private final Map<String, String> messages;
+    // 编译好的模板表整体替换，重载时读取方不会看到清空到一半的表
+    private volatile Map<String, MessageTemplate> templates;
     private final MiniMessage miniMessage;
 
     public MessageManager(EzObserver plugin) {
         this.plugin = plugin;
-        this.messages = new HashMap<>();
+        this.templates = Map.of();
         this.miniMessage = MiniMessage.miniMessage();
     }
 
@@ -35,8 +32,14 @@ public class MessageManager {
             plugin.saveResource("messages.yml", false);
         }
 
-        FileConfiguration messagesConfig = YamlConfiguration.loadConfiguration(messagesFile);
+        applyMessages(YamlConfiguration.loadConfiguration(messagesFile));
+    }
 
+    /**
+     * 使用已解析的 messages.yml 编译新的模板表并替换当前模板表
+     * 格式错误的消息会跳过并记录警告，不影响其他消息
+     */
+    public void applyMessages(FileConfiguration messagesConfig) {
         // 加载默认消息
         InputStream defaultStream = plugin.getResource("messages.yml");
         if (defaultStream != null) {
@@ -45,58 +48,36 @@ public class MessageManager {
             messagesConfig.setDefaults(defaultConfig);
         }
 
-        // 缓存所有消息
-        messages.clear();
+        // 编译所有消息
+        Map<String, MessageTemplate> compiled = new HashMap<>();
         for (String key : messagesConfig.getKeys(true)) {
             if (messagesConfig.isString(key)) {
-                messages.put(key, messagesConfig.getString(key));
+                try {
+                    compiled.put(key, MessageTemplate.compile(miniMessage, messagesConfig.getString(key)));
+                } catch (Exception e) {
+                    plugin.getLogger().warning("无法解析消息 " + key + ": " + e.getMessage());
+                }
             }
         }
+        templates = Map.copyOf(compiled);
     }
 
     public void reloadMessages() {
         loadMessages();
     }
 
-    private String convertLegacyToMiniMessage(String legacy) {
-        if (legacy == null) return "";
-        return legacy
-                .replace("&0", "<black>")
-                .replace("&1", "<dark_blue>")
-                .replace("&2", "<dark_green>")
-                .replace("&3", "<dark_aqua>")
-                .replace("&4", "<dark_red>")
-                .replace("&5", "<dark_purple>")
-                .replace("&6", "<gold>")
-                .replace("&7", "<gray>")
-                .replace("&8", "<dark_gray>")
-                .replace("&9", "<blue>")
-                .replace("&a", "<green>")
-                .replace("&b", "<aqua>")
-                .replace("&c", "<red>")
-                .replace("&d", "<light_purple>")
-                .replace("&e", "<yellow>")
-                .replace("&f", "<white>")
-                .replace("&k", "<obfuscated>")
-                .replace("&l", "<b>")
-                .replace("&m", "<strikethrough>")
-                .replace("&n", "<u>")
-                .replace("&o", "<i>")
-                .replace("&r", "<reset>");
-    }
-
     public Component getMessage(String key) {
-        String message = messages.getOrDefault(key, "Missing message: " + key);
-        return miniMessage.deserialize(convertLegacyToMiniMessage(message));
+        MessageTemplate template = templates.get(key);
+        return template != null ? template.render() : Component.text("Missing message: " + key);
     }
 
-    public Component getMessage(String key, Map<String, String> placeholders) {
-        String message = messages.getOrDefault(key, "Missing message: " + key);
-        List<TagResolver> resolvers = new ArrayList<>();
-        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-            resolvers.add(Placeholder.parsed(entry.getKey(), convertLegacyToMiniMessage(entry.getValue())));
-        }
-        return miniMessage.deserialize(convertLegacyToMiniMessage(message), TagResolver.resolver(resolvers));
+    /**
+     * 渲染带变量的消息
+     * 变量值为 Component 时原样插入，其他值按纯文本插入
+     */
+    public Component getMessage(String key, Map<String, ?> placeholders) {
+        MessageTemplate template = templates.get(key);
+        return template != null ? template.render(placeholders) : Component.text("Missing message: " + key);
     }
 
     public Component getPrefix() {
@@ -120,6 +101,7 @@ public class MessageManager {
             case "delete", "default" -> getMessage("broadcast-delete");
             case "store" -> getMessage("broadcast-store");
             case "fix" -> getMessage("broadcast-fix");
+            default -> getMessage("broadcast-delete");
         };
     }
 
@@ -145,11 +127,11 @@ public class MessageManager {
         return getPrefix().append(getMessage("scan-error", placeholders));
     }
 
-    public String getStatusOn() {
-        return messages.getOrDefault("status-on", "&aOn");
+    public Component getStatusOn() {
+        return getMessage("status-on");
     }
 
-    public String getStatusOff() {
-        return messages.getOrDefault("status-off", "&cOff");
+    public Component getStatusOff() {
+        return getMessage("status-off");
     }
 }
\ No newline at end of file
@@ -0,0 +1,203 @@
+package top.mc_plfd_host.ezobserver.config;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的消息模板
+ * 加载时完成 & 颜色代码转换和 MiniMessage 解析，{name} 形式的变量被编译为带样式的插槽，
+ * 渲染时只填充插槽，不再解析字符串
+ *
+ * 插槽的值为 Component 时直接插入（继承插槽位置的样式），其他类型按纯文本插入，不会被当作格式代码解析
+ *
+ * @author Kush_ShuL
+ */
+final class MessageTemplate {
+
+    // 编译期间标记插槽位置的私有区字符，不会出现在正常的消息文本中
+    private static final char SLOT_START = '\uE000';
+    private static final char SLOT_END = '\uE001';
+
+    private static final String[] LEGACY_TAGS = new String[128];
+
+    static {
+        String[][] mapping = {
+                {"0", "<black>"}, {"1", "<dark_blue>"}, {"2", "<dark_green>"}, {"3", "<dark_aqua>"},
+                {"4", "<dark_red>"}, {"5", "<dark_purple>"}, {"6", "<gold>"}, {"7", "<gray>"},
+                {"8", "<dark_gray>"}, {"9", "<blue>"}, {"a", "<green>"}, {"b", "<aqua>"},
+                {"c", "<red>"}, {"d", "<light_purple>"}, {"e", "<yellow>"}, {"f", "<white>"},
+                {"k", "<obfuscated>"}, {"l", "<b>"}, {"m", "<strikethrough>"}, {"n", "<u>"},
+                {"o", "<i>"}, {"r", "<reset>"}
+        };
+        for (String[] entry : mapping) {
+            LEGACY_TAGS[entry[0].charAt(0)] = entry[1];
+        }
+    }
+
+    private final String raw;
+    // 没有插槽的消息直接缓存渲染结果
+    private final Component constant;
+    private final List<Object> pieces;
+    private final List<String> slotNames;
+
+    private MessageTemplate(String raw, Component constant, List<Object> pieces, List<String> slotNames) {
+        this.raw = raw;
+        this.constant = constant;
+        this.pieces = pieces;
+        this.slotNames = slotNames;
+    }
+
+    /**
+     * 编译消息模板
+     */
+    static MessageTemplate compile(MiniMessage miniMessage, String raw) {
+        String converted = convertLegacy(raw);
+
+        List<String> slotNames = new ArrayList<>();
+        StringBuilder marked = new StringBuilder(converted.length());
+        int i = 0;
+        while (i < converted.length()) {
+            char c = converted.charAt(i);
+            int end = c == '{' ? findSlotEnd(converted, i + 1) : -1;
+            if (end < 0) {
+                marked.append(c);
+                i++;
+                continue;
+            }
+            String name = converted.substring(i + 1, end);
+            int index = slotNames.indexOf(name);
+            if (index < 0) {
+                index = slotNames.size();
+                slotNames.add(name);
+            }
+            marked.append(SLOT_START).append(index).append(SLOT_END);
+            i = end + 1;
+        }
+
+        if (slotNames.isEmpty()) {
+            return new MessageTemplate(raw, miniMessage.deserialize(converted), List.of(), List.of());
+        }
+
+        List<Object> pieces = new ArrayList<>();
+        flatten(miniMessage.deserialize(marked.toString()), Style.empty(), pieces);
+        return new MessageTemplate(raw, null, List.copyOf(pieces), List.copyOf(slotNames));
+    }
+
+    /**
+     * 变量名只允许字母、数字、下划线和连字符，其他花括号按原文保留
+     */
+    private static int findSlotEnd(String text, int start) {
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '}') {
+                return i > start ? i : -1;
+            }
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 将组件树展开为按顺序排列的文本片段和插槽，每个片段带上从父组件继承的完整样式
+     */
+    private static void flatten(Component component, Style inherited, List<Object> pieces) {
+        Style style = component.style().merge(inherited, Style.Merge.Strategy.IF_ABSENT_ON_TARGET);
+
+        if (component instanceof TextComponent text) {
+            String content = text.content();
+            int start = 0;
+            int slot = content.indexOf(SLOT_START);
+            while (slot >= 0) {
+                int end = content.indexOf(SLOT_END, slot);
+                if (slot > start) {
+                    pieces.add(Component.text(content.substring(start, slot), style));
+                }
+                pieces.add(new Slot(Integer.parseInt(content.substring(slot + 1, end)), style));
+                start = end + 1;
+                slot = content.indexOf(SLOT_START, start);
+            }
+            if (start < content.length()) {
+                pieces.add(Component.text(content.substring(start), style));
+            }
+        } else {
+            pieces.add(component.children(List.of()).style(style));
+        }
+
+        for (Component child : component.children()) {
+            flatten(child, style, pieces);
+        }
+    }
+
+    /**
+     * 渲染消息，未提供值的变量按原文 {name} 输出
+     */
+    Component render(Map<String, ?> values) {
+        if (constant != null) {
+            return constant;
+        }
+        TextComponent.Builder builder = Component.text();
+        for (Object piece : pieces) {
+            if (piece instanceof Slot slot) {
+                String name = slotNames.get(slot.index);
+                Object value = values.get(name);
+                if (value instanceof Component component) {
+                    builder.append(component.applyFallbackStyle(slot.style));
+                } else {
+                    builder.append(Component.text(value != null ? String.valueOf(value) : "{" + name + "}", slot.style));
+                }
+            } else {
+                builder.append((Component) piece);
+            }
+        }
+        return builder.build();
+    }
+
+    Component render() {
+        return render(Map.of());
+    }
+
+    String getRaw() {
+        return raw;
+    }
+
+    /**
+     * 单次遍历将 & 颜色代码转换为 MiniMessage 标签
+     */
+    static String convertLegacy(String legacy) {
+        if (legacy == null) return "";
+        if (legacy.indexOf('&') < 0) return legacy;
+        StringBuilder result = new StringBuilder(legacy.length() + 16);
+        for (int i = 0; i < legacy.length(); i++) {
+            char c = legacy.charAt(i);
+            if (c == '&' && i + 1 < legacy.length()) {
+                char code = legacy.charAt(i + 1);
+                String tag = code < LEGACY_TAGS.length ? LEGACY_TAGS[code] : null;
+                if (tag != null) {
+                    result.append(tag);
+                    i++;
+                    continue;
+                }
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+
+    private static final class Slot {
+        private final int index;
+        private final Style style;
+
+        private Slot(int index, Style style) {
+            this.index = index;
+            this.style = style;
+        }
+    }
+}
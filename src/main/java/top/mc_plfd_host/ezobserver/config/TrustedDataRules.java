@@ -0,0 +1,213 @@
+package top.mc_plfd_host.ezobserver.config;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.persistence.PersistentDataContainer;
+import top.mc_plfd_host.ezobserver.checker.VerdictStamp;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 可信 PDC 数据规则
+ * 其他自定义物品插件（如 RPG 物品插件）会在物品的 PersistentDataContainer 中写入自己的数据，
+ * 这些命名空间或键在这里登记后不再被视为可疑的自定义数据，
+ * 带有可信键的物品按对应的规则档案只执行部分检测
+ *
+ * 配置格式（config.yml 中的 trusted-data 节点）：
+ * 档案名为 PDC 命名空间（如 mmoitems）或完整键（如 myplugin:item_id），完整键优先于命名空间
+ *
+ * @author Kush_ShuL
+ */
+public final class TrustedDataRules {
+
+    private static final TrustedDataRules DISABLED = new TrustedDataRules(false, Map.of(), Map.of());
+
+    private final boolean enabled;
+    // 命名空间 -> 档案
+    private final Map<String, Profile> namespaceProfiles;
+    // 完整键 (namespace:key) -> 档案
+    private final Map<String, Profile> keyProfiles;
+
+    private TrustedDataRules(boolean enabled, Map<String, Profile> namespaceProfiles, Map<String, Profile> keyProfiles) {
+        this.enabled = enabled;
+        this.namespaceProfiles = namespaceProfiles;
+        this.keyProfiles = keyProfiles;
+    }
+
+    /**
+     * 从配置节点编译规则
+     *
+     * @param section trusted-data 节点，可以为 null
+     * @param problems 用于收集无效配置的描述
+     */
+    public static TrustedDataRules fromConfig(ConfigurationSection section, List<String> problems) {
+        if (section == null || !section.getBoolean("enabled", false)) {
+            return DISABLED;
+        }
+
+        Map<String, Profile> namespaces = new HashMap<>();
+        Map<String, Profile> keys = new HashMap<>();
+        ConfigurationSection profiles = section.getConfigurationSection("profiles");
+        if (profiles != null) {
+            for (String name : profiles.getKeys(false)) {
+                ConfigurationSection profileSection = profiles.getConfigurationSection(name);
+                if (profileSection == null) {
+                    problems.add("无效的可信数据档案: " + name);
+                    continue;
+                }
+                String normalized = name.toLowerCase();
+                Profile profile = new Profile(normalized,
+                        profileSection.getBoolean("check-enchantments", false),
+                        profileSection.getBoolean("check-attributes", false),
+                        profileSection.getBoolean("check-name-and-lore", false),
+                        profileSection.getBoolean("check-unbreakable", false),
+                        profileSection.getBoolean("check-special-items", true));
+                if (normalized.indexOf(':') >= 0) {
+                    keys.put(normalized, profile);
+                } else {
+                    namespaces.put(normalized, profile);
+                }
+            }
+        }
+        return new TrustedDataRules(true, Map.copyOf(namespaces), Map.copyOf(keys));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 查找物品 PDC 中第一个可信键对应的档案
+     *
+     * @return 档案，没有可信键时返回 null
+     */
+    public Profile findProfile(PersistentDataContainer container) {
+        if (!enabled || container.isEmpty()) {
+            return null;
+        }
+        for (NamespacedKey key : container.getKeys()) {
+            Profile profile = findProfile(key.getNamespace(), key.getKey());
+            if (profile != null) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 检查 PDC 中是否存在未登记为可信的数据
+     * 本插件写入的检测印章不计入
+     */
+    public boolean hasUntrustedData(PersistentDataContainer container) {
+        if (container.isEmpty()) {
+            return false;
+        }
+        for (NamespacedKey key : container.getKeys()) {
+            if (VerdictStamp.isStampKey(key.getNamespace(), key.getKey())) {
+                continue;
+            }
+            if (!enabled || findProfile(key.getNamespace(), key.getKey()) == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按 "namespace:key" 形式的键查找档案，供直接读取 NBT 的场景使用
+     */
+    public Profile findProfile(Iterable<String> fullKeys) {
+        if (!enabled) {
+            return null;
+        }
+        for (String fullKey : fullKeys) {
+            Profile profile = findProfile(fullKey);
+            if (profile != null) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按 "namespace:key" 形式的键检查是否存在未登记为可信的数据
+     */
+    public boolean hasUntrustedData(Iterable<String> fullKeys) {
+        for (String fullKey : fullKeys) {
+            if (VerdictStamp.STAMP_KEY.equals(fullKey)) {
+                continue;
+            }
+            if (!enabled || findProfile(fullKey) == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Profile findProfile(String fullKey) {
+        int separator = fullKey.indexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+        return findProfile(fullKey.substring(0, separator), fullKey.substring(separator + 1));
+    }
+
+    private Profile findProfile(String namespace, String key) {
+        if (!keyProfiles.isEmpty()) {
+            Profile profile = keyProfiles.get(namespace + ':' + key);
+            if (profile != null) {
+                return profile;
+            }
+        }
+        return namespaceProfiles.get(namespace);
+    }
+
+    /**
+     * 可信物品的检测档案，未开启的检测项对带有该可信键的物品直接跳过
+     * 禁止的物品类型检测不受档案影响，始终生效
+     */
+    public static final class Profile {
+        private final String name;
+        private final boolean checkEnchantments;
+        private final boolean checkAttributes;
+        private final boolean checkNameAndLore;
+        private final boolean checkUnbreakable;
+        private final boolean checkSpecialItems;
+
+        private Profile(String name, boolean checkEnchantments, boolean checkAttributes, boolean checkNameAndLore,
+                        boolean checkUnbreakable, boolean checkSpecialItems) {
+            this.name = name;
+            this.checkEnchantments = checkEnchantments;
+            this.checkAttributes = checkAttributes;
+            this.checkNameAndLore = checkNameAndLore;
+            this.checkUnbreakable = checkUnbreakable;
+            this.checkSpecialItems = checkSpecialItems;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isCheckEnchantments() {
+            return checkEnchantments;
+        }
+
+        public boolean isCheckAttributes() {
+            return checkAttributes;
+        }
+
+        public boolean isCheckNameAndLore() {
+            return checkNameAndLore;
+        }
+
+        public boolean isCheckUnbreakable() {
+            return checkUnbreakable;
+        }
+
+        public boolean isCheckSpecialItems() {
+            return checkSpecialItems;
+        }
+    }
+}
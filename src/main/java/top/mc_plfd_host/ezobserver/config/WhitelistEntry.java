@@ -0,0 +1,244 @@
+package top.mc_plfd_host.ezobserver.config;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * 白名单条目
+ * 由物品类型、显示名称、Lore、自定义模型数据和选定的 PDC 键值组成，
+ * 通过 {@link #hash(String)} 计算 64 位规范哈希，物品和白名单条目使用同一套算法，哈希相同即视为匹配
+ *
+ * @author Kush_ShuL
+ */
+final class WhitelistEntry {
+
+    // FNV-1a 64 位参数
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Material type;
+    private final String name;
+    private final List<String> lore;
+    private final Integer customModelData;
+    private final SortedMap<String, String> pdc;
+
+    private WhitelistEntry(Material type, String name, List<String> lore, Integer customModelData,
+                           SortedMap<String, String> pdc) {
+        this.type = type;
+        this.name = name;
+        this.lore = lore;
+        this.customModelData = customModelData;
+        this.pdc = pdc;
+    }
+
+    /**
+     * 从物品提取条目
+     *
+     * @param meta 物品元数据，没有元数据时为 null
+     * @param pdcKeys 需要纳入哈希的 PDC 键
+     */
+    static WhitelistEntry fromItem(Material type, ItemMeta meta, Collection<NamespacedKey> pdcKeys) {
+        if (meta == null) {
+            return new WhitelistEntry(type, null, List.of(), null, new TreeMap<>());
+        }
+
+        String name = meta.hasDisplayName() && !meta.getDisplayName().isEmpty() ? meta.getDisplayName() : null;
+        List<String> lore = meta.hasLore() && meta.getLore() != null ? List.copyOf(meta.getLore()) : List.of();
+        Integer customModelData = meta.hasCustomModelData() ? meta.getCustomModelData() : null;
+
+        SortedMap<String, String> pdc = new TreeMap<>();
+        if (!pdcKeys.isEmpty()) {
+            PersistentDataContainer container = meta.getPersistentDataContainer();
+            for (NamespacedKey key : pdcKeys) {
+                String value = readPdcValue(container, key);
+                if (value != null) {
+                    pdc.put(key.toString(), value);
+                }
+            }
+        }
+        return new WhitelistEntry(type, name, lore, customModelData, pdc);
+    }
+
+    /**
+     * 从 whitelist.yml 中的条目解析
+     * 支持新格式（键值映射）和旧格式字符串 "类型[:名称[:Lore1;Lore2]]"
+     *
+     * @return 解析后的条目，物品类型无效时返回 null
+     */
+    static WhitelistEntry fromConfig(Object raw) {
+        if (raw instanceof String legacy) {
+            String[] parts = legacy.split(":", 3);
+            Material type = Material.matchMaterial(parts[0]);
+            if (type == null) {
+                return null;
+            }
+            String name = parts.length > 1 && !parts[1].isEmpty() ? parts[1] : null;
+            List<String> lore = parts.length > 2 ? List.of(parts[2].split(";")) : List.of();
+            return new WhitelistEntry(type, name, lore, null, new TreeMap<>());
+        }
+
+        if (raw instanceof Map<?, ?> map) {
+            Object typeName = map.get("type");
+            Material type = typeName == null ? null : Material.matchMaterial(typeName.toString());
+            if (type == null) {
+                return null;
+            }
+            Object nameValue = map.get("name");
+            String name = nameValue == null ? null : nameValue.toString();
+
+            List<String> lore = new ArrayList<>();
+            if (map.get("lore") instanceof List<?> loreList) {
+                for (Object line : loreList) {
+                    lore.add(String.valueOf(line));
+                }
+            }
+
+            Integer customModelData = null;
+            if (map.get("custom-model-data") instanceof Number number) {
+                customModelData = number.intValue();
+            }
+
+            SortedMap<String, String> pdc = new TreeMap<>();
+            if (map.get("pdc") instanceof Map<?, ?> pdcMap) {
+                for (Map.Entry<?, ?> entry : pdcMap.entrySet()) {
+                    pdc.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+                }
+            }
+            return new WhitelistEntry(type, name, List.copyOf(lore), customModelData, pdc);
+        }
+        return null;
+    }
+
+    /**
+     * 转换为 whitelist.yml 中的键值映射
+     */
+    Map<String, Object> toConfig() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("type", type.name());
+        if (name != null) {
+            map.put("name", name);
+        }
+        if (!lore.isEmpty()) {
+            map.put("lore", lore);
+        }
+        if (customModelData != null) {
+            map.put("custom-model-data", customModelData);
+        }
+        if (!pdc.isEmpty()) {
+            map.put("pdc", new LinkedHashMap<>(pdc));
+        }
+        return map;
+    }
+
+    /**
+     * 计算规范哈希
+     * strict 模式包含全部字段；loose 模式只包含类型、名称和自定义模型数据；type 模式只包含类型
+     */
+    long hash(String mode) {
+        long hash = mix(FNV_OFFSET, type.name());
+        if ("type".equalsIgnoreCase(mode)) {
+            return hash;
+        }
+
+        hash = mix(hash, name);
+        hash = mix(hash, customModelData == null ? null : customModelData.toString());
+        if ("loose".equalsIgnoreCase(mode)) {
+            return hash;
+        }
+
+        hash = mixLength(hash, lore.size());
+        for (String line : lore) {
+            hash = mix(hash, line);
+        }
+        hash = mixLength(hash, pdc.size());
+        for (Map.Entry<String, String> entry : pdc.entrySet()) {
+            hash = mix(hash, entry.getKey());
+            hash = mix(hash, entry.getValue());
+        }
+        return hash;
+    }
+
+    Material getType() {
+        return type;
+    }
+
+    /**
+     * 生成用于命令输出的简短描述
+     */
+    String describe() {
+        StringBuilder builder = new StringBuilder(type.name());
+        if (name != null) {
+            builder.append(' ').append(name);
+        }
+        if (customModelData != null) {
+            builder.append(" [CMD ").append(customModelData).append(']');
+        }
+        if (!lore.isEmpty()) {
+            builder.append(" (Lore ").append(lore.size()).append(" 行)");
+        }
+        if (!pdc.isEmpty()) {
+            builder.append(" ").append(pdc.keySet());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 读取 PDC 值的文本形式，键不存在时返回 null
+     * 只识别常见的基础类型，其他类型的值仅以 "?" 参与哈希
+     */
+    private static String readPdcValue(PersistentDataContainer container, NamespacedKey key) {
+        if (!container.getKeys().contains(key)) {
+            return null;
+        }
+        if (container.has(key, PersistentDataType.STRING)) {
+            return container.get(key, PersistentDataType.STRING);
+        }
+        if (container.has(key, PersistentDataType.INTEGER)) {
+            return String.valueOf(container.get(key, PersistentDataType.INTEGER));
+        }
+        if (container.has(key, PersistentDataType.LONG)) {
+            return String.valueOf(container.get(key, PersistentDataType.LONG));
+        }
+        if (container.has(key, PersistentDataType.DOUBLE)) {
+            return String.valueOf(container.get(key, PersistentDataType.DOUBLE));
+        }
+        if (container.has(key, PersistentDataType.BYTE)) {
+            return String.valueOf(container.get(key, PersistentDataType.BYTE));
+        }
+        return "?";
+    }
+
+    /**
+     * 混入一个字符串，先写入长度再写入内容，保证不同的字段划分不会得到相同的输入序列
+     */
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mixLength(hash, -1);
+        }
+        hash = mixLength(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mixLength(long hash, int length) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((length >>> shift) & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -1,85 +1,123 @@
 package top.mc_plfd_host.ezobserver.config;
 
 import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.monitor.PerfMonitor;
+import top.mc_plfd_host.ezobserver.util.BoundedLruCache;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class WhitelistManager {
+
+    // 物品判断结果缓存的最大条目数
+    private static final int CACHE_SIZE = 1024;
+
     private final EzObserver plugin;
-    private final Set<String> whitelistedItems = new HashSet<>();
-    private boolean enabled = true;
-    private String mode = "strict";
-    private final ConcurrentHashMap<String, Boolean> cache = new ConcurrentHashMap<>();
-    
+
+    // 当前生效的白名单索引，重载和增删时整体替换引用
+    private volatile Index index = new Index(false, "strict", List.of(), List.of(), List.of());
+
     public WhitelistManager(EzObserver plugin) {
         this.plugin = plugin;
         loadWhitelist();
     }
-    
+
     private void loadWhitelist() {
         File whitelistFile = new File(plugin.getDataFolder(), "whitelist.yml");
         if (!whitelistFile.exists()) {
             createDefaultWhitelist(whitelistFile);
         }
-        
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(whitelistFile);
-        
-        enabled = config.getBoolean("enabled", true);
-        mode = config.getString("mode", "strict");
-        
-        whitelistedItems.clear();
-        whitelistedItems.addAll(config.getStringList("whitelisted-items"));
+
+        applyWhitelist(YamlConfiguration.loadConfiguration(whitelistFile));
     }
-    
+
+    /**
+     * 使用已解析的 whitelist.yml 构建新索引并替换当前索引
+     * 每个索引自带独立的结果缓存，替换后旧缓存随旧索引一起失效
+     */
+    public synchronized void applyWhitelist(FileConfiguration config) {
+        List<WhitelistEntry> entries = new ArrayList<>();
+        List<?> rawEntries = config.getList("whitelisted-items");
+        if (rawEntries != null) {
+            for (Object raw : rawEntries) {
+                WhitelistEntry entry = WhitelistEntry.fromConfig(raw);
+                if (entry != null) {
+                    entries.add(entry);
+                } else {
+                    plugin.getLogger().warning("无效的白名单条目: " + raw);
+                }
+            }
+        }
+
+        List<NamespacedKey> pdcKeys = new ArrayList<>();
+        for (String keyName : config.getStringList("hash-pdc-keys")) {
+            NamespacedKey key = NamespacedKey.fromString(keyName.toLowerCase());
+            if (key != null) {
+                pdcKeys.add(key);
+            } else {
+                plugin.getLogger().warning("无效的白名单 PDC 键: " + keyName);
+            }
+        }
+
+        index = new Index(
+                config.getBoolean("enabled", true),
+                config.getString("mode", "strict"),
+                entries,
+                config.getStringList("namespace-rules"),
+                pdcKeys);
+    }
+
     private void createDefaultWhitelist(File file) {
         YamlConfiguration config = new YamlConfiguration();
-        
+
         config.set("enabled", true);
         config.set("mode", "strict");
+        config.set("hash-pdc-keys", new ArrayList<>());
+        config.set("namespace-rules", new ArrayList<>());
         config.set("whitelisted-items", new ArrayList<>());
-        
+
         try {
             config.save(file);
         } catch (IOException e) {
             plugin.getLogger().warning("无法创建白名单配置文件: " + e.getMessage());
         }
     }
-    
+
     /**
      * 检查物品是否在白名单中
-     * 使用缓存机制提升性能
+     * 先按 "类型 + PDC 命名空间" 规则匹配，再按规范哈希精确匹配，结果按物品（忽略数量）缓存
      */
     public boolean isWhitelisted(ItemStack item) {
-        if (!enabled || whitelistedItems.isEmpty() || item == null) {
+        Index current = index;
+        if (!current.enabled || current.isEmpty() || item == null) {
             return false;
         }
-        
-        // 使用物品类型作为快速缓存键
-        String cacheKey = item.getType().name();
-        
-        // 检查缓存
-        if (cache.containsKey(cacheKey)) {
-            return cache.get(cacheKey);
-        }
-        
-        String itemKey = getItemKey(item);
-        boolean result = itemKey != null && whitelistedItems.contains(itemKey);
-        
-        // 缓存结果（最多缓存1000个物品）
-        if (cache.size() < 1000) {
-            cache.put(cacheKey, result);
-        }
-        
+
+        ItemMeta meta = item.hasItemMeta() ? item.getItemMeta() : null;
+        ItemCacheKey cacheKey = new ItemCacheKey(item, meta);
+
+        Boolean cached = current.cache.get(cacheKey);
+        if (cached != null) {
+            plugin.getPerfMonitor().hit(PerfMonitor.Cache.WHITELIST);
+            return cached;
+        }
+        plugin.getPerfMonitor().miss(PerfMonitor.Cache.WHITELIST);
+
+        boolean result = current.matchesNamespace(item.getType(), meta)
+                || current.exactHashes.contains(WhitelistEntry.fromItem(item.getType(), meta, current.pdcKeys).hash(current.mode));
+
+        // 缓存键持有物品副本，避免原物品之后被修改影响缓存
+        current.cache.put(cacheKey.detach(), result);
         return result;
     }
-    
+
     /**
      * 添加物品到白名单
      */
@@ -87,98 +125,205 @@ public class WhitelistManager {
         if (item == null || item.getType().isAir()) {
             return;
         }
-        String itemKey = getItemKey(item);
-        if (itemKey != null) {
-            whitelistedItems.add(itemKey);
-            saveWhitelist();
+        synchronized (this) {
+            Index current = index;
+            WhitelistEntry entry = createEntry(item, current);
+            long hash = entry.hash(current.mode);
+            if (current.exactHashes.contains(hash)) {
+                return;
+            }
+            List<WhitelistEntry> entries = new ArrayList<>(current.entries);
+            entries.add(entry);
+            index = current.withEntries(entries);
         }
+        saveWhitelist();
     }
-    
+
     /**
      * 从白名单中移除物品
+     * 移除所有与该物品哈希相同的条目
      */
     public void removeFromWhitelist(ItemStack item) {
         if (item == null || item.getType().isAir()) {
             return;
         }
-        String itemKey = getItemKey(item);
-        if (itemKey != null) {
-            whitelistedItems.remove(itemKey);
-            saveWhitelist();
+        synchronized (this) {
+            Index current = index;
+            long hash = createEntry(item, current).hash(current.mode);
+            List<WhitelistEntry> entries = new ArrayList<>();
+            for (WhitelistEntry entry : current.entries) {
+                if (entry.hash(current.mode) != hash) {
+                    entries.add(entry);
+                }
+            }
+            index = current.withEntries(entries);
         }
+        saveWhitelist();
     }
-    
+
     /**
      * 获取白名单条目列表
      */
     public List<String> getWhitelistEntries() {
-        return new ArrayList<>(whitelistedItems);
+        Index current = index;
+        List<String> descriptions = new ArrayList<>();
+        for (WhitelistEntry entry : current.entries) {
+            descriptions.add(entry.describe());
+        }
+        for (String rule : current.namespaceRules) {
+            descriptions.add(rule);
+        }
+        return descriptions;
     }
-    
+
     /**
      * 重新加载白名单
      */
     public void reloadWhitelist() {
         loadWhitelist();
     }
-    
-    /**
-     * 生成物品的唯一标识符
-     */
-    private String getItemKey(ItemStack item) {
-        if (item == null) {
-            return null;
-        }
-        
-        StringBuilder key = new StringBuilder();
-        key.append(item.getType().name());
-        
-        if (item.hasItemMeta()) {
-            ItemMeta meta = item.getItemMeta();
-            if (meta != null) {
-                // 使用legacy API避免类型不兼容
-                if (meta.hasDisplayName()) {
-                    String displayName = meta.getDisplayName();
-                    if (!displayName.isEmpty()) {
-                        key.append(":").append(displayName);
-                    }
-                }
-                
-                if (meta.hasLore()) {
-                    List<String> lore = meta.getLore();
-                    if (lore != null && !lore.isEmpty()) {
-                        key.append(":").append(String.join(";", lore));
-                    }
-                }
-            }
-        }
-        
-        return key.toString();
+
+    private WhitelistEntry createEntry(ItemStack item, Index current) {
+        return WhitelistEntry.fromItem(item.getType(), item.hasItemMeta() ? item.getItemMeta() : null, current.pdcKeys);
     }
-    
+
     /**
      * 保存白名单到文件
      */
     private void saveWhitelist() {
+        Index current = index;
         File whitelistFile = new File(plugin.getDataFolder(), "whitelist.yml");
         YamlConfiguration config = YamlConfiguration.loadConfiguration(whitelistFile);
-        
-        config.set("enabled", enabled);
-        config.set("mode", mode);
-        config.set("whitelisted-items", new ArrayList<>(whitelistedItems));
-        
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (WhitelistEntry entry : current.entries) {
+            entries.add(entry.toConfig());
+        }
+
+        config.set("enabled", current.enabled);
+        config.set("mode", current.mode);
+        config.set("whitelisted-items", entries);
+
         try {
             config.save(whitelistFile);
         } catch (IOException e) {
             plugin.getLogger().warning("无法保存白名单配置文件: " + e.getMessage());
         }
     }
-    
+
     public boolean isEnabled() {
-        return enabled;
+        return index.enabled;
     }
-    
+
     public String getMode() {
-        return mode;
+        return index.mode;
+    }
+
+    /**
+     * 不可变的白名单索引
+     */
+    private static final class Index {
+        private final boolean enabled;
+        private final String mode;
+        private final List<WhitelistEntry> entries;
+        private final Set<Long> exactHashes;
+        private final List<String> namespaceRules;
+        private final Map<Material, Set<String>> namespacesByType;
+        private final Set<String> namespacesForAnyType;
+        private final List<NamespacedKey> pdcKeys;
+        private final BoundedLruCache<ItemCacheKey, Boolean> cache = new BoundedLruCache<>(CACHE_SIZE);
+
+        private Index(boolean enabled, String mode, List<WhitelistEntry> entries, List<String> namespaceRules,
+                      List<NamespacedKey> pdcKeys) {
+            this.enabled = enabled;
+            this.mode = mode;
+            this.entries = List.copyOf(entries);
+            this.namespaceRules = List.copyOf(namespaceRules);
+            this.pdcKeys = List.copyOf(pdcKeys);
+
+            Set<Long> hashes = new HashSet<>();
+            for (WhitelistEntry entry : entries) {
+                hashes.add(entry.hash(mode));
+            }
+            this.exactHashes = Set.copyOf(hashes);
+
+            // 规则格式: "类型@命名空间"，类型为 * 时匹配任意物品
+            Map<Material, Set<String>> byType = new EnumMap<>(Material.class);
+            Set<String> anyType = new HashSet<>();
+            for (String rule : namespaceRules) {
+                int separator = rule.indexOf('@');
+                if (separator <= 0 || separator == rule.length() - 1) {
+                    continue;
+                }
+                String typeName = rule.substring(0, separator).trim();
+                String namespace = rule.substring(separator + 1).trim().toLowerCase();
+                if ("*".equals(typeName)) {
+                    anyType.add(namespace);
+                } else {
+                    Material type = Material.matchMaterial(typeName);
+                    if (type != null) {
+                        byType.computeIfAbsent(type, k -> new HashSet<>()).add(namespace);
+                    }
+                }
+            }
+            this.namespacesByType = byType;
+            this.namespacesForAnyType = Set.copyOf(anyType);
+        }
+
+        private Index withEntries(List<WhitelistEntry> newEntries) {
+            return new Index(enabled, mode, newEntries, namespaceRules, pdcKeys);
+        }
+
+        private boolean isEmpty() {
+            return exactHashes.isEmpty() && namespacesByType.isEmpty() && namespacesForAnyType.isEmpty();
+        }
+
+        private boolean matchesNamespace(Material type, ItemMeta meta) {
+            if (meta == null) {
+                return false;
+            }
+            Set<String> namespaces = namespacesByType.get(type);
+            if (namespaces == null && namespacesForAnyType.isEmpty()) {
+                return false;
+            }
+            for (NamespacedKey key : meta.getPersistentDataContainer().getKeys()) {
+                String namespace = key.getNamespace();
+                if (namespacesForAnyType.contains(namespace) || (namespaces != null && namespaces.contains(namespace))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 结果缓存的键，忽略物品数量，两个物品 isSimilar 即视为相同
+     */
+    private static final class ItemCacheKey {
+        private final ItemStack item;
+        private final int hash;
+
+        private ItemCacheKey(ItemStack item, ItemMeta meta) {
+            this(item, 31 * item.getType().hashCode() + (meta == null ? 0 : meta.hashCode()));
+        }
+
+        private ItemCacheKey(ItemStack item, int hash) {
+            this.item = item;
+            this.hash = hash;
+        }
+
+        private ItemCacheKey detach() {
+            return new ItemCacheKey(item.clone(), hash);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ItemCacheKey key && hash == key.hash && item.isSimilar(key.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package top.mc_plfd_host.ezobserver.fixer;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.util.BoundedLruCache;
+
+/**
+ * 修正结果模板缓存
+ * 复制出来的违规物品通常是大量完全相同的堆叠，同一物品第一次修正后，
+ * 结果以数量归一后的序列化字节保存，之后相同的物品只需反序列化并设置数量
+ *
+ * 插件只创建一个实例，由所有 ItemFixer 共享，一个入口修正过的物品在其他入口同样命中；
+ * 缓存的结果绑定产生时的配置快照，配置重载后整体替换
+ *
+ * @author Kush_ShuL
+ */
+public final class FixTemplateCache {
+
+    private static final int CACHE_SIZE = 512;
+
+    private volatile Generation generation;
+
+    public FixTemplateCache() {
+        this.generation = new Generation(null);
+    }
+
+    /**
+     * 查找与输入物品相同（忽略数量）的修正结果
+     *
+     * @param config 本次修正使用的配置快照，与缓存的快照不同时视为未命中
+     * @return 数量与输入物品一致的修正结果，未命中时返回 null
+     */
+    ItemStack get(ItemStack input, ConfigSnapshot config) {
+        Generation current = generation;
+        if (current.config != config) {
+            return null;
+        }
+        byte[] template = current.templates.get(new ItemKey(input));
+        if (template == null) {
+            return null;
+        }
+        ItemStack fixed = ItemStack.deserializeBytes(template);
+        fixed.setAmount(input.getAmount());
+        return fixed;
+    }
+
+    void put(ItemStack input, ItemStack fixed, ConfigSnapshot config) {
+        if (fixed == null || fixed.getType() == Material.AIR) {
+            return;
+        }
+        Generation current = generation;
+        if (current.config != config) {
+            // 配置已重载，旧的修正结果不再有效
+            current = new Generation(config);
+            generation = current;
+        }
+        ItemStack normalized = fixed.clone();
+        normalized.setAmount(1);
+        current.templates.put(new ItemKey(input.clone()), normalized.serializeAsBytes());
+    }
+
+    /**
+     * 同一份配置快照下的修正结果
+     */
+    private static final class Generation {
+        private final ConfigSnapshot config;
+        private final BoundedLruCache<ItemKey, byte[]> templates = new BoundedLruCache<>(CACHE_SIZE);
+
+        private Generation(ConfigSnapshot config) {
+            this.config = config;
+        }
+    }
+
+    /**
+     * 缓存的键，忽略物品数量，两个物品 isSimilar 即视为相同
+     */
+    private static final class ItemKey {
+        private final ItemStack item;
+        private final int hash;
+
+        private ItemKey(ItemStack item) {
+            this.item = item;
+            this.hash = 31 * item.getType().hashCode() + (item.hasItemMeta() ? item.getItemMeta().hashCode() : 0);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ItemKey key && hash == key.hash && item.isSimilar(key.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package top.mc_plfd_host.ezobserver.fixer;
+
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.util.FoliaUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * 批量背包处理
+ * 一次扫描得到的所有格子操作在玩家所在的实体线程上一次性应用：
+ * 读取一次背包内容，修改数组后调用一次 setContents，并只发送一次背包同步
+ *
+ * 操作创建时记录的物品与应用时格子中的物品不一致（玩家在此期间移动或使用了物品）时，
+ * 该操作被视为过期并跳过，避免误删或覆盖新物品。
+ * 调用方通过返回的实际应用的操作统计处理数量，不要在生成操作时计数
+ *
+ * @author Kush_ShuL
+ */
+public class InventoryEnforcer {
+
+    private final EzObserver plugin;
+    private final Logger logger;
+
+    public InventoryEnforcer(EzObserver plugin) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+    }
+
+    /**
+     * 在玩家的实体线程上应用一批格子操作
+     *
+     * @return 在实体线程上完成，结果为实际应用的操作；玩家已离线或实体已被移除时为空列表
+     */
+    public CompletableFuture<List<SlotFix>> apply(Player player, List<SlotFix> fixes) {
+        if (player == null || fixes.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        List<SlotFix> batch = List.copyOf(fixes);
+        CompletableFuture<List<SlotFix>> result = new CompletableFuture<>();
+        FoliaUtil.runEntityTask(plugin, player, () -> {
+            try {
+                result.complete(applyNow(player, batch));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }, () -> result.complete(List.of()));
+        return result;
+    }
+
+    /**
+     * 立即应用，必须在玩家的实体线程上调用
+     *
+     * @return 实际应用的操作
+     */
+    public List<SlotFix> applyNow(Player player, List<SlotFix> fixes) {
+        if (!player.isOnline()) {
+            return List.of();
+        }
+
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getContents();
+        List<SlotFix> applied = new ArrayList<>(fixes.size());
+        int stale = 0;
+
+        for (SlotFix fix : fixes) {
+            int slot = fix.getSlot();
+            if (slot < 0 || slot >= contents.length || !Objects.equals(contents[slot], fix.getExpected())) {
+                stale++;
+                continue;
+            }
+            contents[slot] = fix.getAction() == SlotFix.Action.DELETE ? null : fix.getReplacement();
+            applied.add(fix);
+        }
+
+        if (!applied.isEmpty()) {
+            inventory.setContents(contents);
+            player.updateInventory();
+        }
+        if (stale > 0) {
+            logger.info("玩家 " + player.getName() + " 的背包在处理前已变化，跳过 " + stale + " 个格子");
+        }
+        return applied;
+    }
+}
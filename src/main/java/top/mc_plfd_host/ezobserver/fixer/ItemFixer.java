@@ -22,9 +22,15 @@ import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 import top.mc_plfd_host.ezobserver.EzObserver;
 import top.mc_plfd_host.ezobserver.checker.ItemChecker;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
 import top.mc_plfd_host.ezobserver.config.ConfigManager;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
 import top.mc_plfd_host.ezobserver.config.EnchantmentConflictManager;
 import top.mc_plfd_host.ezobserver.config.PotionEffectLimitManager;
+import top.mc_plfd_host.ezobserver.config.TrustedDataRules;
+import top.mc_plfd_host.ezobserver.jfr.ItemFixEvent;
+import top.mc_plfd_host.ezobserver.monitor.PerfMonitor;
+import top.mc_plfd_host.ezobserver.util.ServerCapabilities;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,221 +39,338 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * 物品修正器
+ * 根据 ItemChecker 为每条违规记录的类别，只执行对应类别的修正，无法归类的违规不做修正；
+ * 同一轮中的元数据修正在一个 ItemMeta 上完成并只写回一次。
+ * 修正后重新检测，仍有可修正的违规时再修正一轮，最多 {@link #MAX_FIX_PASSES} 轮。
+ * 修正结果按物品缓存，相同物品的其他堆叠直接复用
+ */
 public class ItemFixer {
 
+    /** 单个物品最多修正的轮数 */
+    private static final int MAX_FIX_PASSES = 3;
+
+    private static final long ENCHANTMENT_MASK = ViolationCode.ENCHANTMENT_LEVEL.mask()
+            | ViolationCode.ILLEGAL_ENCHANTMENT.mask()
+            | ViolationCode.CONFLICTING_ENCHANTMENT.mask()
+            | ViolationCode.OP_ITEM.mask();
+
+    /** 修正器能够处理的违规类别，违禁类型、违禁名称等只能删除或没收 */
+    private static final long FIXABLE_MASK = ENCHANTMENT_MASK
+            | ViolationCode.ATTRIBUTE.mask()
+            | ViolationCode.UNBREAKABLE.mask()
+            | ViolationCode.POTION.mask()
+            | ViolationCode.SPAWN_EGG.mask()
+            | ViolationCode.FIREWORK.mask()
+            | ViolationCode.PISTON.mask()
+            | ViolationCode.ENTITY_DATA.mask()
+            | ViolationCode.CONTAINER.mask()
+            | ViolationCode.EMPTY_DATA.mask();
+
     private final EzObserver plugin;
     private final ConfigManager configManager;
     private final EnchantmentConflictManager conflictManager;
     private final PotionEffectLimitManager potionEffectLimitManager;
     private final ItemChecker itemChecker;
+    private final PerfMonitor perfMonitor;
+    private final FixTemplateCache templateCache;
 
-    public ItemFixer(EzObserver plugin) {
+    /**
+     * @param templateCache 插件共享的修正结果缓存
+     */
+    public ItemFixer(EzObserver plugin, FixTemplateCache templateCache) {
         this.plugin = plugin;
         this.configManager = plugin.getConfigManager();
         this.conflictManager = plugin.getEnchantmentConflictManager();
         this.potionEffectLimitManager = plugin.getPotionEffectLimitManager();
         this.itemChecker = new ItemChecker(plugin);
+        this.perfMonitor = plugin.getPerfMonitor();
+        this.templateCache = templateCache;
     }
 
     public ItemStack fixItem(ItemStack item) {
         if (item == null || item.getType() == Material.AIR) {
             return item;
         }
+        return fixItem(item, itemChecker.checkItem(item));
+    }
+
+    /**
+     * 按检测结果修正物品，调用方已经持有违规列表时使用，省去一次重复检测
+     *
+     * @param violations ItemChecker 对该物品的检测结果
+     */
+    public ItemStack fixItem(ItemStack item, List<String> violations) {
+        if (item == null || item.getType() == Material.AIR || violations.isEmpty()) {
+            return item;
+        }
+
+        // 整个修正过程（包括容器内的递归修正）使用同一份配置快照
+        ConfigSnapshot config = configManager.getSnapshot();
+
+        // 相同物品（忽略数量）已经修正过时直接复用结果
+        long start = perfMonitor.begin();
+        ItemFixEvent event = new ItemFixEvent();
+        event.begin();
+        ItemStack cached = templateCache.get(item, config);
+        if (cached != null) {
+            perfMonitor.hit(PerfMonitor.Cache.FIX_TEMPLATE);
+            perfMonitor.record(PerfMonitor.Stage.FIX, start);
+            event.finish(item, violations, true);
+            return cached;
+        }
+        perfMonitor.miss(PerfMonitor.Cache.FIX_TEMPLATE);
+
+        ItemStack fixedItem = fix(item, violations, config).item;
+        templateCache.put(item, fixedItem, config);
+        perfMonitor.record(PerfMonitor.Stage.FIX, start);
+        event.finish(item, violations, false);
+        return fixedItem;
+    }
+
+    /**
+     * 按违规类别生成修正计划并应用，应用后重新检测，仍有可修正的违规时按剩余类别再修正一轮
+     */
+    private FixResult fix(ItemStack item, List<String> violations, ConfigSnapshot config) {
+        if (item == null || item.getType() == Material.AIR || violations.isEmpty()) {
+            return new FixResult(item, violations);
+        }
 
         ItemStack fixedItem = item.clone();
+        List<String> remaining = violations;
+        long mask = ViolationCode.classify(violations);
+
+        for (int pass = 0; pass < MAX_FIX_PASSES && (mask & FIXABLE_MASK) != 0; pass++) {
+            fixedItem = applyPlan(fixedItem, mask, config);
+            remaining = itemChecker.checkItem(fixedItem);
+            long remainingMask = ViolationCode.classify(remaining);
+            // 本轮没有消除任何类别，再修正也不会有变化
+            if (remainingMask == mask) {
+                break;
+            }
+            mask = remainingMask;
+        }
+
+        if (remaining.isEmpty()) {
+            plugin.getLogger().info("物品修正完成: " + fixedItem.getType().name());
+        } else {
+            plugin.getLogger().warning("物品修正后仍有违规: " + fixedItem.getType().name() + " " + remaining);
+        }
+        return new FixResult(fixedItem, remaining);
+    }
+
+    /**
+     * 应用一轮修正计划
+     * 只执行掩码中标记的类别；替换整个物品的修正优先执行，其余修正在同一个 ItemMeta 上完成，最后只写回一次
+     *
+     * @return 修正后的物品（可能是新物品）
+     */
+    private ItemStack applyPlan(ItemStack item, long mask, ConfigSnapshot config) {
+        // 修正空数据物品（替换为对应的基础物品）
+        if (has(mask, ViolationCode.EMPTY_DATA)) {
+            ItemStack replacement = fixEmptyDataItem(item);
+            if (replacement != item) {
+                return replacement;
+            }
+        }
+
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) {
+            return item;
+        }
+        Material type = item.getType();
+
+        // 修正刷怪蛋NBT（重置为干净的刷怪蛋）
+        if ((has(mask, ViolationCode.SPAWN_EGG) || has(mask, ViolationCode.ENTITY_DATA)) && isSpawnEgg(type)
+                && isTamperedSpawnEgg(type, meta, config)) {
+            plugin.getLogger().info("已清理作弊刷怪蛋: " + type.name());
+            return new ItemStack(type, item.getAmount());
+        }
+
+        // 修正无头活塞（只保留名称和Lore）
+        if (has(mask, ViolationCode.PISTON) && (type == Material.PISTON || type == Material.STICKY_PISTON)) {
+            return cleanPiston(item, meta);
+        }
+
+        // 带有可信 PDC 数据的自定义物品只修正其档案中开启检测的部分
+        TrustedDataRules.Profile trustedProfile = config.getTrustedData().findProfile(meta.getPersistentDataContainer());
+        boolean changed = false;
 
         // 修正不可破坏属性（通用）
-        fixUnbreakable(fixedItem);
+        if (has(mask, ViolationCode.UNBREAKABLE) && (trustedProfile == null || trustedProfile.isCheckUnbreakable())) {
+            changed |= fixUnbreakable(type, meta, config);
+        }
 
-        // 修正非法附魔（附魔不能应用到不允许的物品上）
-        fixIllegalEnchantments(fixedItem);
+        if ((mask & ENCHANTMENT_MASK) != 0 && (trustedProfile == null || trustedProfile.isCheckEnchantments())
+                && meta.hasEnchants()) {
+            // 修正非法附魔（附魔不能应用到不允许的物品上）
+            if (has(mask, ViolationCode.ILLEGAL_ENCHANTMENT)) {
+                changed |= fixIllegalEnchantments(type, meta);
+            }
 
-        // 修正冲突附魔（如果两个附魔冲突，则两个都移除）
-        fixConflictingEnchantments(fixedItem);
+            // 修正冲突附魔（如果两个附魔冲突，则两个都移除）
+            if (has(mask, ViolationCode.CONFLICTING_ENCHANTMENT)) {
+                changed |= fixConflictingEnchantments(type, meta);
+            }
 
-        // 修正附魔 (包括单个附魔超限和OP附魔)
-        fixEnchantments(fixedItem);
-        
-        // 修正OP物品附魔总等级
-        fixOpEnchantments(fixedItem);
+            // 修正附魔 (包括单个附魔超限和OP附魔)
+            if (has(mask, ViolationCode.ENCHANTMENT_LEVEL) || has(mask, ViolationCode.OP_ITEM)) {
+                changed |= fixEnchantments(meta, config);
+            }
 
-        // 修正刷怪蛋NBT
-        fixSpawnEggNbt(fixedItem);
+            // 修正OP物品附魔总等级
+            if (has(mask, ViolationCode.OP_ITEM)) {
+                changed |= fixOpEnchantments(meta, config);
+            }
+        }
 
         // 修正药水效果
-        fixPotionEffects(fixedItem);
+        if (has(mask, ViolationCode.POTION)) {
+            changed |= fixPotionEffects(type, meta);
+        }
 
         // 修正烟花火箭飞行时间
-        fixFireworkRocket(fixedItem);
-
-        // 修正无头活塞
-        fixExtendedPiston(fixedItem);
-
-        // 修正容器内容（潜影盒、箱子等）
-        fixContainer(fixedItem);
+        if (has(mask, ViolationCode.FIREWORK)) {
+            changed |= fixFireworkRocket(type, meta);
+        }
 
-        // 修正收纳袋（Bundle）内容（1.21.4+）
-        fixBundle(fixedItem);
+        if (has(mask, ViolationCode.CONTAINER)) {
+            // 修正容器内容（潜影盒、箱子等）
+            changed |= fixContainer(type, meta, config);
 
-        // 修正空数据物品（可能返回新物品）
-        fixedItem = fixEmptyDataItem(fixedItem);
+            // 修正收纳袋（Bundle）内容（1.21.4+）
+            changed |= fixBundle(type, meta, config);
+        }
 
         // 修正属性修饰符
-        if (fixedItem.hasItemMeta()) {
-            ItemMeta meta = fixedItem.getItemMeta();
-            if (meta != null) {
-                boolean metaChanged = false;
-                
-                // 修正超限属性修饰符
-                if (meta.hasAttributeModifiers()) {
-                    fixAttributeModifiers(meta);
-                    metaChanged = true;
-                }
-                
-                // 修正OP物品属性数量
-                if (meta.hasAttributeModifiers()) {
-                    fixOpAttributes(meta);
-                    metaChanged = true;
-                }
-                
-                if (metaChanged) {
-                    fixedItem.setItemMeta(meta);
-                }
+        if ((has(mask, ViolationCode.ATTRIBUTE) || has(mask, ViolationCode.OP_ITEM))
+                && (trustedProfile == null || trustedProfile.isCheckAttributes()) && meta.hasAttributeModifiers()) {
+            // 修正超限属性修饰符
+            changed |= fixAttributeModifiers(meta, config);
+
+            // 修正OP物品属性数量
+            if (has(mask, ViolationCode.OP_ITEM)) {
+                changed |= fixOpAttributes(meta, config);
             }
         }
 
-        plugin.getLogger().info("物品修正完成: " + fixedItem.getType().name());
-        return fixedItem;
+        if (changed) {
+            item.setItemMeta(meta);
+        }
+        return item;
     }
 
-    private void fixEnchantments(ItemStack item) {
-        Map<Enchantment, Integer> enchantments = new HashMap<>(item.getEnchantments());
-        
-        if (enchantments.isEmpty()) {
-            return;
-        }
+    private static boolean has(long mask, ViolationCode code) {
+        return (mask & code.mask()) != 0;
+    }
 
-        for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
+    private boolean fixEnchantments(ItemMeta meta, ConfigSnapshot config) {
+        boolean changed = false;
+        for (Map.Entry<Enchantment, Integer> entry : new HashMap<>(meta.getEnchants()).entrySet()) {
             Enchantment enchant = entry.getKey();
             int level = entry.getValue();
             String enchantName = enchant.getKey().getKey();
-            
+
             // 获取限制等级
             int limit;
-            if (configManager.hasEnchantmentLimit(enchantName)) {
-                limit = configManager.getEnchantmentLimit(enchantName);
-            } else if (configManager.isUseVanillaMaxForUnconfigured()) {
-                limit = (int) Math.ceil(enchant.getMaxLevel() * configManager.getUnconfiguredEnchantmentMultiplier());
+            if (config.hasEnchantmentLimit(enchantName)) {
+                limit = config.getEnchantmentLimit(enchantName);
+            } else if (config.isUseVanillaMaxForUnconfigured()) {
+                limit = (int) Math.ceil(enchant.getMaxLevel() * config.getUnconfiguredEnchantmentMultiplier());
             } else {
-                limit = configManager.getMaxEnchantmentLevel();
+                limit = config.getMaxEnchantmentLevel();
             }
 
             // 同时检查OP物品的附魔倍数限制
-            if (configManager.isOpItemsEnabled()) {
+            if (config.isOpItemsEnabled()) {
                 int maxLevel = enchant.getMaxLevel();
-                int opLimit = (int) Math.ceil(maxLevel * configManager.getMaxEnchantmentMultiplier());
+                int opLimit = (int) Math.ceil(maxLevel * config.getMaxEnchantmentMultiplier());
                 limit = Math.min(limit, opLimit);
             }
 
             if (level > limit) {
-                // 先移除原附魔
-                item.removeEnchantment(enchant);
-                
-                if (configManager.isDowngradeEnchantments()) {
+                if (config.isDowngradeEnchantments()) {
                     // 降级到限制等级
+                    meta.removeEnchant(enchant);
+                    changed = true;
                     if (limit > 0) {
-                        item.addUnsafeEnchantment(enchant, limit);
+                        meta.addEnchant(enchant, limit, true);
                         plugin.getLogger().info("已将附魔 " + enchantName + " 从等级 " + level + " 降级到 " + limit);
                     } else {
                         plugin.getLogger().info("已移除附魔 " + enchantName + " (限制等级为0)");
                     }
-                } else if (configManager.isRemoveOverLimitEnchantments()) {
+                } else if (config.isRemoveOverLimitEnchantments()) {
                     // 移除超限附魔
+                    meta.removeEnchant(enchant);
+                    changed = true;
                     plugin.getLogger().info("已移除超限附魔: " + enchantName + " (等级 " + level + " > 限制 " + limit + ")");
                 }
             }
         }
+        return changed;
     }
 
     /**
      * 修正不可破坏属性
      * 移除物品的不可破坏属性
      */
-    private void fixUnbreakable(ItemStack item) {
+    private boolean fixUnbreakable(Material type, ItemMeta meta, ConfigSnapshot config) {
         // 检查配置是否启用不可破坏属性移除
-        if (!configManager.isRemoveUnbreakable()) {
-            return;
-        }
-        
-        if (!item.hasItemMeta()) {
-            return;
-        }
-        
-        ItemMeta meta = item.getItemMeta();
-        if (meta == null) {
-            return;
-        }
-        
-        if (meta.isUnbreakable()) {
-            meta.setUnbreakable(false);
-            item.setItemMeta(meta);
-            plugin.getLogger().info("已移除不可破坏属性: " + item.getType().name());
+        if (!config.isRemoveUnbreakable() || !meta.isUnbreakable()) {
+            return false;
         }
+
+        meta.setUnbreakable(false);
+        plugin.getLogger().info("已移除不可破坏属性: " + type.name());
+        return true;
     }
 
     /**
      * 修正非法附魔
      * 移除不能应用到此物品上的附魔
      */
-    private void fixIllegalEnchantments(ItemStack item) {
-        Map<Enchantment, Integer> enchantments = new HashMap<>(item.getEnchantments());
-        
-        if (enchantments.isEmpty()) {
-            return;
-        }
-        
+    private boolean fixIllegalEnchantments(Material type, ItemMeta meta) {
         // 创建一个干净的物品来测试附魔是否可以应用
-        ItemStack cleanItem = new ItemStack(item.getType());
-        
-        for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
-            Enchantment enchant = entry.getKey();
-            String enchantName = enchant.getKey().getKey();
-            
+        ItemStack cleanItem = new ItemStack(type);
+        boolean changed = false;
+
+        for (Enchantment enchant : new ArrayList<>(meta.getEnchants().keySet())) {
             // 检查附魔是否可以应用到此物品
             if (!enchant.canEnchantItem(cleanItem)) {
-                item.removeEnchantment(enchant);
+                meta.removeEnchant(enchant);
+                changed = true;
                 plugin.getLogger().info(String.format("已移除非法附魔: %s 不能应用到 %s 上",
-                    enchantName, item.getType().name()));
+                    enchant.getKey().getKey(), type.name()));
             }
         }
+        return changed;
     }
 
     /**
      * 修正冲突附魔
      * 如果两个附魔冲突，则两个附魔都会被移除
      */
-    private void fixConflictingEnchantments(ItemStack item) {
+    private boolean fixConflictingEnchantments(Material type, ItemMeta meta) {
         if (conflictManager == null || !conflictManager.isConflictDetectionEnabled()) {
-            return;
+            return false;
         }
-        
-        List<String> removedEnchantments = conflictManager.removeConflictingEnchantments(item);
-        
-        if (!removedEnchantments.isEmpty()) {
-            plugin.getLogger().info("已移除冲突附魔: " + String.join(", ", removedEnchantments));
+
+        List<String> removedEnchantments = conflictManager.removeConflictingEnchantments(type, meta);
+
+        if (removedEnchantments.isEmpty()) {
+            return false;
         }
+        plugin.getLogger().info("已移除冲突附魔: " + String.join(", ", removedEnchantments));
+        return true;
     }
 
-    private void fixOpEnchantments(ItemStack item) {
-        if (!configManager.isOpItemsEnabled()) {
-            return;
+    private boolean fixOpEnchantments(ItemMeta meta, ConfigSnapshot config) {
+        if (!config.isOpItemsEnabled()) {
+            return false;
         }
 
-        Map<Enchantment, Integer> enchantments = new HashMap<>(item.getEnchantments());
-        
-        if (enchantments.isEmpty()) {
-            return;
-        }
+        Map<Enchantment, Integer> enchantments = new HashMap<>(meta.getEnchants());
 
         // 计算总附魔等级
         int totalLevel = 0;
@@ -255,35 +378,35 @@ public class ItemFixer {
             totalLevel += level;
         }
 
-        int maxTotalLevel = configManager.getMaxTotalEnchantmentLevel();
-        
-        // 如果总等级超限，需要移除一些附魔
-        if (totalLevel > maxTotalLevel) {
-            plugin.getLogger().info("检测到OP物品: 附魔总等级 " + totalLevel + " 超过限制 " + maxTotalLevel);
-            
-            // 按等级从高到低排序，优先移除高等级附魔
-            List<Map.Entry<Enchantment, Integer>> sortedEnchants = new ArrayList<>(enchantments.entrySet());
-            sortedEnchants.sort((a, b) -> b.getValue() - a.getValue());
-            
-            for (Map.Entry<Enchantment, Integer> entry : sortedEnchants) {
-                if (totalLevel <= maxTotalLevel) {
-                    break;
-                }
-                
-                Enchantment enchant = entry.getKey();
-                int level = entry.getValue();
-                
-                item.removeEnchantment(enchant);
-                totalLevel -= level;
-                plugin.getLogger().info("移除OP附魔: " + enchant.getKey().getKey() + " (等级 " + level + ") 以降低总等级");
+        int maxTotalLevel = config.getMaxTotalEnchantmentLevel();
+        if (totalLevel <= maxTotalLevel) {
+            return false;
+        }
+
+        // 总等级超限，需要移除一些附魔
+        plugin.getLogger().info("检测到OP物品: 附魔总等级 " + totalLevel + " 超过限制 " + maxTotalLevel);
+
+        // 按等级从高到低排序，优先移除高等级附魔
+        List<Map.Entry<Enchantment, Integer>> sortedEnchants = new ArrayList<>(enchantments.entrySet());
+        sortedEnchants.sort((a, b) -> b.getValue() - a.getValue());
+
+        for (Map.Entry<Enchantment, Integer> entry : sortedEnchants) {
+            if (totalLevel <= maxTotalLevel) {
+                break;
             }
+
+            Enchantment enchant = entry.getKey();
+            int level = entry.getValue();
+
+            meta.removeEnchant(enchant);
+            totalLevel -= level;
+            plugin.getLogger().info("移除OP附魔: " + enchant.getKey().getKey() + " (等级 " + level + ") 以降低总等级");
         }
+        return true;
     }
 
-    private void fixAttributeModifiers(ItemMeta meta) {
-        if (!meta.hasAttributeModifiers()) {
-            return;
-        }
+    private boolean fixAttributeModifiers(ItemMeta meta, ConfigSnapshot config) {
+        boolean changed = false;
 
         for (Attribute attribute : Attribute.values()) {
             Collection<AttributeModifier> modifiers = meta.getAttributeModifiers(attribute);
@@ -293,14 +416,14 @@ public class ItemFixer {
 
                 for (AttributeModifier modifier : modifiers) {
                     double amount = modifier.getAmount();
-                    double limit = configManager.getAttributeLimit(attribute.name());
+                    double limit = config.getAttributeLimit(attribute.name());
 
                     if (Math.abs(amount) > limit) {
-                        if (configManager.isDowngradeAttributes()) {
+                        if (config.isDowngradeAttributes()) {
                             // 降级到限制值
                             toRemove.add(modifier);
                             double newAmount = amount > 0 ? limit : -limit;
-                            
+
                             // 使用新的构造方法（兼容新版本API）
                             EquipmentSlot slot = modifier.getSlot();
                             AttributeModifier newModifier;
@@ -322,7 +445,7 @@ public class ItemFixer {
                             }
                             toAdd.add(newModifier);
                             plugin.getLogger().info("已将属性 " + attribute.name() + " 从 " + amount + " 降级到 " + newAmount);
-                        } else if (configManager.isRemoveOverLimitAttributes()) {
+                        } else if (config.isRemoveOverLimitAttributes()) {
                             // 移除超限属性修饰符
                             toRemove.add(modifier);
                             plugin.getLogger().info("已移除超限属性修饰符: " + attribute.name() + " (值 " + amount + ")");
@@ -336,22 +459,20 @@ public class ItemFixer {
                 for (AttributeModifier modifier : toAdd) {
                     meta.addAttributeModifier(attribute, modifier);
                 }
+                changed |= !toRemove.isEmpty();
             }
         }
+        return changed;
     }
 
-    private void fixOpAttributes(ItemMeta meta) {
-        if (!configManager.isOpItemsEnabled()) {
-            return;
-        }
-
-        if (!meta.hasAttributeModifiers()) {
-            return;
+    private boolean fixOpAttributes(ItemMeta meta, ConfigSnapshot config) {
+        if (!config.isOpItemsEnabled() || !meta.hasAttributeModifiers()) {
+            return false;
         }
 
         // 计算总属性修饰符数量
         int totalCount = 0;
-        
+
         for (Attribute attribute : Attribute.values()) {
             Collection<AttributeModifier> modifiers = meta.getAttributeModifiers(attribute);
             if (modifiers != null && !modifiers.isEmpty()) {
@@ -359,39 +480,41 @@ public class ItemFixer {
             }
         }
 
-        int maxCount = configManager.getMaxAttributeCount();
-        
-        // 如果属性数量超限，移除多余的属性
-        if (totalCount > maxCount) {
-            plugin.getLogger().info("检测到OP物品: 属性修饰符数量 " + totalCount + " 超过限制 " + maxCount);
-            
-            int toRemoveCount = totalCount - maxCount;
-            int removed = 0;
-            
-            for (Attribute attribute : Attribute.values()) {
-                if (removed >= toRemoveCount) {
-                    break;
-                }
-                
-                Collection<AttributeModifier> modifiers = meta.getAttributeModifiers(attribute);
-                if (modifiers != null && !modifiers.isEmpty()) {
-                    for (AttributeModifier modifier : new ArrayList<>(modifiers)) {
-                        if (removed >= toRemoveCount) {
-                            break;
-                        }
-                        
-                        meta.removeAttributeModifier(attribute, modifier);
-                        removed++;
-                        plugin.getLogger().info("移除多余属性修饰符: " + attribute.name());
+        int maxCount = config.getMaxAttributeCount();
+        if (totalCount <= maxCount) {
+            return false;
+        }
+
+        // 属性数量超限，移除多余的属性
+        plugin.getLogger().info("检测到OP物品: 属性修饰符数量 " + totalCount + " 超过限制 " + maxCount);
+
+        int toRemoveCount = totalCount - maxCount;
+        int removed = 0;
+
+        for (Attribute attribute : Attribute.values()) {
+            if (removed >= toRemoveCount) {
+                break;
+            }
+
+            Collection<AttributeModifier> modifiers = meta.getAttributeModifiers(attribute);
+            if (modifiers != null && !modifiers.isEmpty()) {
+                for (AttributeModifier modifier : new ArrayList<>(modifiers)) {
+                    if (removed >= toRemoveCount) {
+                        break;
                     }
+
+                    meta.removeAttributeModifier(attribute, modifier);
+                    removed++;
+                    plugin.getLogger().info("移除多余属性修饰符: " + attribute.name());
                 }
             }
         }
+        return true;
     }
 
     /**
-     * 修正刷怪蛋的NBT数据
-     * 移除可能被篡改的EntityTag等数据，防止生成非预期的实体
+     * 判断刷怪蛋的NBT数据是否被篡改
+     * 被篡改的刷怪蛋会被替换为干净的同类型刷怪蛋，防止生成非预期的实体
      *
      * 典型的作弊刷怪蛋示例：
      * - entity_data.id: "tnt_minecart" (应该是 allay)
@@ -399,100 +522,61 @@ public class ItemFixer {
      * - fuse: 0 (立即爆炸)
      * - unbreakable: {} (无法破坏)
      */
-    private void fixSpawnEggNbt(ItemStack item) {
-        // 检查是否是刷怪蛋
-        if (!isSpawnEgg(item.getType())) {
-            return;
-        }
-        
-        if (!item.hasItemMeta()) {
-            return;
-        }
-        
-        ItemMeta meta = item.getItemMeta();
-        boolean needsFix = false;
+    private boolean isTamperedSpawnEgg(Material type, ItemMeta meta, ConfigSnapshot config) {
         List<String> reasons = new ArrayList<>();
-        
+
         // 1. 检查是否有无法破坏属性
         if (meta.isUnbreakable()) {
-            needsFix = true;
             reasons.add("无法破坏属性");
         }
-        
+
         // 2. 检查是否有附魔（刷怪蛋不应该有附魔）
-        if (!item.getEnchantments().isEmpty()) {
-            needsFix = true;
+        if (meta.hasEnchants()) {
             reasons.add("非法附魔");
         }
-        
+
         // 3. 检查是否有属性修饰符
         if (meta.hasAttributeModifiers()) {
-            needsFix = true;
             reasons.add("属性修饰符");
         }
-        
-        // 4. 检查并清理SpawnEggMeta中的自定义数据 - 使用Java 16+模式匹配
+
+        // 4. 检查SpawnEggMeta中的自定义数据 - 使用Java 16+模式匹配
         if (meta instanceof SpawnEggMeta spawnEggMeta) {
-            
+
             // 获取预期的实体类型
-            String expectedEntityType = getExpectedEntityType(item.getType());
-            
-            // 尝试通过反射检查和清理自定义生成数据
-            try {
-                // 尝试调用 getSpawnedType() 方法
-                java.lang.reflect.Method getSpawnedTypeMethod = spawnEggMeta.getClass().getMethod("getSpawnedType");
-                Object actualEntityType = getSpawnedTypeMethod.invoke(spawnEggMeta);
-                
-                if (actualEntityType != null) {
-                    String actualTypeName = actualEntityType.toString();
-                    
-                    // 如果实际生成的实体类型与预期不符，需要清理
-                    if (expectedEntityType != null && !expectedEntityType.equals(actualTypeName)) {
-                        needsFix = true;
-                        reasons.add("实体类型被篡改为 " + actualTypeName);
-                    }
+            String expectedEntityType = getExpectedEntityType(type);
+
+            // 生成类型和实体快照的 API 因版本而异，是否存在由 ServerCapabilities 在启动时探测
+            // API 不存在或不可用时返回 null，回退已在启动时记录
+            Object actualEntityType = ServerCapabilities.getSpawnedType(spawnEggMeta);
+            if (actualEntityType != null) {
+                String actualTypeName = actualEntityType.toString();
+
+                // 如果实际生成的实体类型与预期不符，需要清理
+                if (expectedEntityType != null && !expectedEntityType.equals(actualTypeName)) {
+                    reasons.add("实体类型被篡改为 " + actualTypeName);
                 }
-            } catch (Exception e) {
-                // 方法不存在或调用失败
             }
-            
-            // 尝试通过 getSpawnedEntity() 方法检查（Paper 1.20.4+）
-            try {
-                java.lang.reflect.Method getSpawnedEntityMethod = spawnEggMeta.getClass().getMethod("getSpawnedEntity");
-                Object spawnedEntity = getSpawnedEntityMethod.invoke(spawnEggMeta);
-                
-                if (spawnedEntity != null) {
-                    needsFix = true;
-                    reasons.add("自定义实体数据");
-                }
-            } catch (Exception e) {
-                // 方法不存在或调用失败
+
+            // 通过 getSpawnedEntity() 检查实体快照（Paper 1.20.4+）
+            if (ServerCapabilities.getSpawnedEntity(spawnEggMeta) != null) {
+                reasons.add("自定义实体数据");
             }
         }
-        
-        // 5. 检查持久数据容器是否有自定义数据
+
+        // 5. 检查持久数据容器是否有自定义数据，可信插件写入的数据不计入
         // getPersistentDataContainer()永远不会返回null，所以不需要null检查
-        if (!meta.getPersistentDataContainer().isEmpty()) {
-            needsFix = true;
+        if (config.getTrustedData().hasUntrustedData(meta.getPersistentDataContainer())) {
             reasons.add("自定义NBT数据");
         }
-        
-        // 如果需要修复，创建一个新的干净的刷怪蛋
-        if (needsFix) {
-            plugin.getLogger().warning("检测到作弊刷怪蛋 " + item.getType().name() + ": " + String.join(", ", reasons));
-            
-            // 清理方法：创建一个新的相同类型的刷怪蛋，只保留基本属性
-            ItemStack cleanEgg = new ItemStack(item.getType(), item.getAmount());
-            
-            // 将原物品替换为干净的版本
-            item.setType(cleanEgg.getType());
-            item.setAmount(cleanEgg.getAmount());
-            item.setItemMeta(cleanEgg.getItemMeta());
-            
-            plugin.getLogger().info("已清理作弊刷怪蛋: " + item.getType().name());
+
+        if (reasons.isEmpty()) {
+            return false;
         }
+        plugin.getLogger().warning("检测到作弊刷怪蛋 " + type.name() + ": " + String.join(", ", reasons));
+        return true;
     }
-    
+
     /**
      * 检查物品是否是刷怪蛋
      */
@@ -517,125 +601,96 @@ public class ItemFixer {
      * 移除超过正常最大等级+2的药水效果
      * 对于超高等级（如126级）的效果，直接移除所有自定义效果
      */
-    private void fixPotionEffects(ItemStack item) {
+    private boolean fixPotionEffects(Material type, ItemMeta meta) {
         // 检查是否是药水类物品
-        Material type = item.getType();
         if (type != Material.POTION && type != Material.SPLASH_POTION &&
             type != Material.LINGERING_POTION && type != Material.TIPPED_ARROW) {
-            return;
+            return false;
         }
         
         // 使用Java 16+模式匹配
-        if (!(item.getItemMeta() instanceof PotionMeta potionMeta)) {
-            return;
+        if (!(meta instanceof PotionMeta potionMeta) || !potionMeta.hasCustomEffects()) {
+            return false;
         }
         boolean metaChanged = false;
         boolean hasExtremeEffect = false;
         
         // 检查并移除超限的自定义药水效果
-        if (potionMeta.hasCustomEffects()) {
-            List<PotionEffectType> effectTypesToRemove = new ArrayList<>();
+        List<PotionEffectType> effectTypesToRemove = new ArrayList<>();
+        
+        for (PotionEffect effect : potionMeta.getCustomEffects()) {
+            String effectName = effect.getType().getName();
+            int amplifier = effect.getAmplifier();
+            int duration = effect.getDuration();
             
-            for (PotionEffect effect : potionMeta.getCustomEffects()) {
-                String effectName = effect.getType().getName();
-                int amplifier = effect.getAmplifier();
-                int duration = effect.getDuration();
-                
-                // 检查是否是极端效果（超高等级或超长时间）
-                // amplifier >= 117 (约等于 126-9) 被视为极端作弊
-                if (amplifier >= PotionEffectLimitManager.EXTREME_AMPLIFIER_THRESHOLD || 
-                    duration >= PotionEffectLimitManager.EXTREME_DURATION_THRESHOLD) {
-                    hasExtremeEffect = true;
-                    effectTypesToRemove.add(effect.getType());
-                    plugin.getLogger().warning(String.format("检测到极端药水效果 %s 等级 %d 持续时间 %d，将被移除",
-                        effectName, amplifier + 1, duration));
-                }
-                // 检查是否超过正常限制
-                else if (potionEffectLimitManager != null && potionEffectLimitManager.isOverLimit(effectName, amplifier)) {
-                    effectTypesToRemove.add(effect.getType());
-                    int limitLevel = potionEffectLimitManager.getLimitLevel(effectName);
-                    plugin.getLogger().info(String.format("药水效果 %s 等级 %d 超过限制 %d，将被移除",
-                        effectName, amplifier + 1, limitLevel + 1));
-                }
+            // 检查是否是极端效果（超高等级或超长时间）
+            // amplifier >= 117 (约等于 126-9) 被视为极端作弊
+            if (amplifier >= PotionEffectLimitManager.EXTREME_AMPLIFIER_THRESHOLD || 
+                duration >= PotionEffectLimitManager.EXTREME_DURATION_THRESHOLD) {
+                hasExtremeEffect = true;
+                effectTypesToRemove.add(effect.getType());
+                plugin.getLogger().warning(String.format("检测到极端药水效果 %s 等级 %d 持续时间 %d，将被移除",
+                    effectName, amplifier + 1, duration));
             }
-            
-            // 移除超限的效果
-            for (PotionEffectType effectType : effectTypesToRemove) {
-                potionMeta.removeCustomEffect(effectType);
-                metaChanged = true;
+            // 检查是否超过正常限制
+            else if (potionEffectLimitManager != null && potionEffectLimitManager.isOverLimit(effectName, amplifier)) {
+                effectTypesToRemove.add(effect.getType());
+                int limitLevel = potionEffectLimitManager.getLimitLevel(effectName);
+                plugin.getLogger().info(String.format("药水效果 %s 等级 %d 超过限制 %d，将被移除",
+                    effectName, amplifier + 1, limitLevel + 1));
             }
         }
         
+        // 移除超限的效果
+        for (PotionEffectType effectType : effectTypesToRemove) {
+            potionMeta.removeCustomEffect(effectType);
+            metaChanged = true;
+        }
+        
         // 如果检测到极端效果，清除所有自定义效果并重置药水
         if (hasExtremeEffect) {
             potionMeta.clearCustomEffects();
             metaChanged = true;
-            plugin.getLogger().warning("检测到作弊药水，已清除所有自定义效果: " + item.getType().name());
+            plugin.getLogger().warning("检测到作弊药水，已清除所有自定义效果: " + type.name());
         }
         
-        // 如果有修改，更新物品元数据
         if (metaChanged) {
-            item.setItemMeta(potionMeta);
-            plugin.getLogger().info("已修正药水效果: " + item.getType().name());
+            plugin.getLogger().info("已修正药水效果: " + type.name());
         }
+        return metaChanged;
     }
 
     /**
      * 修正烟花火箭的飞行时间
      * 将超过 3 的飞行时间重置为 3
      */
-    private void fixFireworkRocket(ItemStack item) {
-        // 检查是否是烟花火箭
-        if (item.getType() != Material.FIREWORK_ROCKET) {
-            return;
-        }
-        
-        // 使用Java 16+模式匹配
-        if (!(item.getItemMeta() instanceof FireworkMeta fireworkMeta)) {
-            return;
+    private boolean fixFireworkRocket(Material type, ItemMeta meta) {
+        // 检查是否是烟花火箭，使用Java 16+模式匹配
+        if (type != Material.FIREWORK_ROCKET || !(meta instanceof FireworkMeta fireworkMeta)) {
+            return false;
         }
         int power = fireworkMeta.getPower();
         
         // 正常飞行时间为 1-3（power 0-2 对应飞行时间 1-3）
         // 超过 3 的需要修正
-        if (power > 3) {
-            fireworkMeta.setPower(3); // 重置为最大合法值
-            item.setItemMeta(fireworkMeta);
-            plugin.getLogger().info(String.format("已将烟花火箭飞行时间从 %d 修正为 3", power));
+        if (power <= 3) {
+            return false;
         }
+        fireworkMeta.setPower(3); // 重置为最大合法值
+        plugin.getLogger().info(String.format("已将烟花火箭飞行时间从 %d 修正为 3", power));
+        return true;
     }
 
     /**
      * 修正无头活塞
-     * 将处于伸出状态的活塞替换为正常活塞
+     * 物品形式的活塞不应该有 extended=true 等方块状态，替换为只保留显示名称和Lore的干净活塞
      */
-    private void fixExtendedPiston(ItemStack item) {
-        // 检查是否是活塞
+    private ItemStack cleanPiston(ItemStack item, ItemMeta meta) {
         Material type = item.getType();
-        if (type != Material.PISTON && type != Material.STICKY_PISTON) {
-            return;
-        }
-        
-        if (!item.hasItemMeta()) {
-            return;
-        }
-        
-        ItemMeta meta = item.getItemMeta();
-        boolean needsFix = false;
-        
-        // 检查是否有无法破坏属性
-        if (meta.isUnbreakable()) {
-            meta.setUnbreakable(false);
-            needsFix = true;
-            plugin.getLogger().info("已移除活塞的无法破坏属性: " + type.name());
-        }
-        
-        // 创建一个新的干净的活塞，移除所有可能的方块状态数据
-        // 因为物品形式的活塞不应该有 extended=true 的状态
         ItemStack cleanPiston = new ItemStack(type, item.getAmount());
         ItemMeta cleanMeta = cleanPiston.getItemMeta();
         
-        if (cleanMeta != null) {
+        if (cleanMeta != null && (meta.hasDisplayName() || meta.hasLore())) {
             // 保留显示名称和Lore
             if (meta.hasDisplayName()) {
                 cleanMeta.setDisplayName(meta.getDisplayName());
@@ -646,32 +701,27 @@ public class ItemFixer {
             cleanPiston.setItemMeta(cleanMeta);
         }
         
-        // 替换原物品
-        item.setType(cleanPiston.getType());
-        item.setAmount(cleanPiston.getAmount());
-        item.setItemMeta(cleanPiston.getItemMeta());
-        
-        if (needsFix) {
-            plugin.getLogger().info("已清理无头活塞: " + type.name());
-        }
+        plugin.getLogger().info("已清理无头活塞: " + type.name());
+        return cleanPiston;
     }
 
     /**
      * 修正容器（如潜影盒、箱子等）中的内容
      */
-    private void fixContainer(ItemStack item) {
-        if (!isContainer(item.getType())) {
-            return;
+    private boolean fixContainer(Material type, ItemMeta meta, ConfigSnapshot config) {
+        if (!isContainer(type)) {
+            return false;
         }
         
         // 使用Java 16+模式匹配
-        if (!(item.getItemMeta() instanceof BlockStateMeta blockStateMeta) || !blockStateMeta.hasBlockState()) {
-            return;
+        if (!(meta instanceof BlockStateMeta blockStateMeta) || !blockStateMeta.hasBlockState()) {
+            return false;
         }
         
+        BlockState blockState = blockStateMeta.getBlockState();
         // 使用Java 16+模式匹配
-        if (!(blockStateMeta.getBlockState() instanceof InventoryHolder holder)) {
-            return;
+        if (!(blockState instanceof InventoryHolder holder)) {
+            return false;
         }
         
         Inventory inventory = holder.getInventory();
@@ -682,37 +732,38 @@ public class ItemFixer {
             if (contentItem == null || contentItem.getType() == Material.AIR) continue;
             
             // 检查是否是违禁物品
-            if (isBannedItem(contentItem)) {
+            if (isBannedItem(contentItem, config)) {
                 inventory.setItem(i, null);
                 changed = true;
                 plugin.getLogger().warning(String.format("从容器 %s 中移除违禁物品: %s", 
-                    item.getType().name(), contentItem.getType().name()));
+                    type.name(), contentItem.getType().name()));
                 continue;
             }
             
-            // 递归修复
-            ItemStack fixedContentItem = fixItem(contentItem);
+            List<String> contentViolations = itemChecker.checkItem(contentItem);
+            if (contentViolations.isEmpty()) {
+                continue;
+            }
             
-            // 检查修复后是否仍然违规
-            if (isStillViolating(fixedContentItem)) {
+            // 递归修复，修复后仍然违规则移除
+            FixResult result = fix(contentItem, contentViolations, config);
+            if (!result.remaining.isEmpty()) {
                 inventory.setItem(i, null);
                 changed = true;
                 plugin.getLogger().warning(String.format("从容器 %s 中移除无法修复的违规物品: %s", 
-                    item.getType().name(), contentItem.getType().name()));
+                    type.name(), contentItem.getType().name()));
                 continue;
             }
             
-            if (!contentItem.equals(fixedContentItem)) {
-                inventory.setItem(i, fixedContentItem);
-                changed = true;
-            }
+            inventory.setItem(i, result.item);
+            changed = true;
         }
         
         if (changed) {
             blockStateMeta.setBlockState(blockState);
-            item.setItemMeta(blockStateMeta);
-            plugin.getLogger().info("已修正容器内容: " + item.getType().name());
+            plugin.getLogger().info("已修正容器内容: " + type.name());
         }
+        return changed;
     }
     
     /**
@@ -747,21 +798,10 @@ public class ItemFixer {
      * - 包含篡改的物品展示框（entity_data.Invisible: 1b）
      * - 包含特殊盔甲架（ShowArms, Small等属性）
      */
-    private void fixBundle(ItemStack item) {
-        // 检查是否是收纳袋
-        if (item.getType() != Material.BUNDLE) {
-            return;
-        }
-        
-        if (!item.hasItemMeta()) {
-            return;
-        }
-        
-        ItemMeta meta = item.getItemMeta();
-        
-        // 检查是否是 BundleMeta（1.21.4+）- 使用Java 16+模式匹配
-        if (!(meta instanceof BundleMeta bundleMeta)) {
-            return;
+    private boolean fixBundle(Material type, ItemMeta meta, ConfigSnapshot config) {
+        // 检查是否是收纳袋，以及是否是 BundleMeta（1.21.4+）- 使用Java 16+模式匹配
+        if (type != Material.BUNDLE || !(meta instanceof BundleMeta bundleMeta)) {
+            return false;
         }
         
         // 获取收纳袋中的物品
@@ -769,7 +809,7 @@ public class ItemFixer {
         List<ItemStack> contents = bundleMeta.getItems();
         
         if (contents.isEmpty()) {
-            return;
+            return false;
         }
         
         List<ItemStack> cleanedContents = new ArrayList<>();
@@ -781,52 +821,52 @@ public class ItemFixer {
             if (contentItem == null) continue;
             
             // 检查是否是违禁物品
-            if (isBannedItem(contentItem)) {
+            if (isBannedItem(contentItem, config)) {
                 removedCount++;
                 plugin.getLogger().warning("从收纳袋中移除违禁物品: " + contentItem.getType().name());
                 continue; // 跳过违禁物品
             }
             
             // 检查是否有自定义实体数据（物品展示框、盔甲架等）
-            if (hasCustomEntityData(contentItem)) {
+            if (hasCustomEntityData(contentItem, config)) {
                 removedCount++;
                 plugin.getLogger().warning("从收纳袋中移除包含自定义实体数据的物品: " + contentItem.getType().name());
                 continue; // 跳过包含自定义实体数据的物品
             }
             
-            // 递归修复物品
-            ItemStack fixedContentItem = fixItem(contentItem);
+            List<String> contentViolations = itemChecker.checkItem(contentItem);
+            if (contentViolations.isEmpty()) {
+                cleanedContents.add(contentItem);
+                continue;
+            }
             
-            // 检查修复后的物品是否仍然违规
-            // 如果是，则移除
-            if (isStillViolating(fixedContentItem)) {
+            // 递归修复物品，修复后仍然违规则移除
+            FixResult result = fix(contentItem, contentViolations, config);
+            if (!result.remaining.isEmpty()) {
                 removedCount++;
                 plugin.getLogger().warning("从收纳袋中移除无法修复的违规物品: " + contentItem.getType().name());
                 continue;
             }
             
-            // 如果物品被修改了，计数
-            if (!contentItem.equals(fixedContentItem)) {
-                fixedCount++;
-            }
-            
-            cleanedContents.add(fixedContentItem);
+            fixedCount++;
+            cleanedContents.add(result.item);
         }
         
         // 如果有物品被移除或修复，更新收纳袋内容
-        if (removedCount > 0 || fixedCount > 0) {
-            bundleMeta.setItems(cleanedContents);
-            item.setItemMeta(bundleMeta);
-            
-            plugin.getLogger().info(String.format("已修正收纳袋: 移除 %d 个违规物品，修复 %d 个物品，保留 %d 个物品",
-                removedCount, fixedCount, cleanedContents.size()));
+        if (removedCount == 0 && fixedCount == 0) {
+            return false;
         }
+        bundleMeta.setItems(cleanedContents);
+        
+        plugin.getLogger().info(String.format("已修正收纳袋: 移除 %d 个违规物品，修复 %d 个物品，保留 %d 个物品",
+            removedCount, fixedCount, cleanedContents.size()));
+        return true;
     }
     
     /**
      * 检查物品是否是违禁物品
      */
-    private boolean isBannedItem(ItemStack item) {
+    private boolean isBannedItem(ItemStack item, ConfigSnapshot config) {
         if (item == null) {
             return false;
         }
@@ -834,12 +874,12 @@ public class ItemFixer {
         Material type = item.getType();
         
         // 检查禁止的物品类型
-        if (configManager.isBannedMaterial(type)) {
+        if (config.isBannedMaterial(type)) {
             return true;
         }
         
         // 检查禁止的刷怪蛋类型
-        if (configManager.isBannedSpawnEgg(type)) {
+        if (config.isBannedSpawnEgg(type)) {
             return true;
         }
         
@@ -850,7 +890,7 @@ public class ItemFixer {
      * 检查物品是否有自定义实体数据
      * 用于检测物品展示框、盔甲架等被篡改的物品
      */
-    private boolean hasCustomEntityData(ItemStack item) {
+    private boolean hasCustomEntityData(ItemStack item, ConfigSnapshot config) {
         if (!item.hasItemMeta()) {
             return false;
         }
@@ -862,9 +902,9 @@ public class ItemFixer {
         if (type == Material.ITEM_FRAME || type == Material.GLOW_ITEM_FRAME ||
             type == Material.ARMOR_STAND) {
             
-            // 检查持久数据容器
+            // 检查持久数据容器，可信插件写入的数据不计入
             // getPersistentDataContainer()永远不会返回null，所以不需要null检查
-            if (!meta.getPersistentDataContainer().isEmpty()) {
+            if (config.getTrustedData().hasUntrustedData(meta.getPersistentDataContainer())) {
                 return true;
             }
             
@@ -883,19 +923,6 @@ public class ItemFixer {
         return false;
     }
     
-    /**
-     * 检查修复后的物品是否仍然违规
-     * 用于判断物品是否可以保留在收纳袋中
-     */
-    private boolean isStillViolating(ItemStack item) {
-        if (item == null) {
-            return false;
-        }
-        
-        // 使用 ItemChecker 检查是否仍有违规
-        return !itemChecker.checkItem(item).isEmpty();
-    }
-
     /**
      * 修正空数据物品
      * 空成书、空附魔书、空地图等缺少必要数据的物品会被替换为对应的基础物品
@@ -932,42 +959,20 @@ public class ItemFixer {
         }
         
         // 检查空地图 - 替换为空白地图 - 使用Java 16+模式匹配
-        if (type == Material.FILLED_MAP && meta instanceof MapMeta mapMeta) {
-            // 检查是否有地图视图
-            try {
-                if (!mapMeta.hasMapView()) {
-                    needsFix = true;
-                    reason = "空地图（没有地图数据）";
-                    replacementType = Material.MAP; // 替换为空白地图
-                }
-            } catch (Exception e) {
-                // 如果方法不存在，使用备用检查
-                try {
-                    java.lang.reflect.Method hasMapIdMethod = mapMeta.getClass().getMethod("hasMapId");
-                    Boolean hasMapId = (Boolean) hasMapIdMethod.invoke(mapMeta);
-                    if (!hasMapId) {
-                        needsFix = true;
-                        reason = "空地图（没有地图ID）";
-                        replacementType = Material.MAP;
-                    }
-                } catch (Exception ex) {
-                    // 忽略
-                }
-            }
+        if (type == Material.FILLED_MAP && meta instanceof MapMeta mapMeta && !ServerCapabilities.hasMapData(mapMeta)) {
+            needsFix = true;
+            reason = "空地图（没有地图数据）";
+            replacementType = Material.MAP; // 替换为空白地图
         }
         
         // 检查知识之书 - 替换为普通书
-        if (type == Material.KNOWLEDGE_BOOK) {
+        if (type == Material.KNOWLEDGE_BOOK && ServerCapabilities.HAS_KNOWLEDGE_BOOK_RECIPES
+                && ServerCapabilities.isKnowledgeBookMeta(meta)) {
             try {
-                Class<?> knowledgeBookMetaClass = Class.forName("org.bukkit.inventory.meta.KnowledgeBookMeta");
-                if (knowledgeBookMetaClass.isInstance(meta)) {
-                    java.lang.reflect.Method hasRecipesMethod = meta.getClass().getMethod("hasRecipes");
-                    Boolean hasRecipes = (Boolean) hasRecipesMethod.invoke(meta);
-                    if (!hasRecipes) {
-                        needsFix = true;
-                        reason = "空知识之书（没有配方数据）";
-                        replacementType = Material.BOOK;
-                    }
+                if (!ServerCapabilities.hasRecipes(meta)) {
+                    needsFix = true;
+                    reason = "空知识之书（没有配方数据）";
+                    replacementType = Material.BOOK;
                 }
             } catch (Exception e) {
                 // 忽略
@@ -989,4 +994,17 @@ public class ItemFixer {
         
         return item;
     }
-}
\ No newline at end of file
+
+    /**
+     * 一次修正的结果：修正后的物品和修正后剩余的违规
+     */
+    private static final class FixResult {
+        private final ItemStack item;
+        private final List<String> remaining;
+
+        private FixResult(ItemStack item, List<String> remaining) {
+            this.item = item;
+            this.remaining = remaining;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package top.mc_plfd_host.ezobserver.fixer;
+
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * 针对玩家背包单个格子的处理操作
+ * 创建时保存格子中物品的副本作为版本，应用时格子内容已变化的操作会被跳过
+ *
+ * 格子编号与 PlayerInventory#getContents 的下标一致：0-35 背包与快捷栏，36-39 装备，40 副手
+ *
+ * @author Kush_ShuL
+ */
+public final class SlotFix {
+
+    public enum Action {
+        /** 清空格子 */
+        DELETE,
+        /** 替换为修正后的物品 */
+        REPLACE
+    }
+
+    private final int slot;
+    private final Action action;
+    private final ItemStack expected;
+    private final ItemStack replacement;
+
+    private SlotFix(int slot, Action action, ItemStack expected, ItemStack replacement) {
+        this.slot = slot;
+        this.action = action;
+        this.expected = expected != null ? expected.clone() : null;
+        this.replacement = replacement;
+    }
+
+    public static SlotFix delete(int slot, ItemStack expected) {
+        return new SlotFix(slot, Action.DELETE, expected, null);
+    }
+
+    public static SlotFix replace(int slot, ItemStack expected, ItemStack replacement) {
+        return new SlotFix(slot, Action.REPLACE, expected, replacement);
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * 扫描时格子中的物品副本
+     */
+    public ItemStack getExpected() {
+        return expected;
+    }
+
+    public ItemStack getReplacement() {
+        return replacement;
+    }
+}
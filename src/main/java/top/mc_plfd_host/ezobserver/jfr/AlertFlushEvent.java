@@ -0,0 +1,44 @@
+package top.mc_plfd_host.ezobserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * AlertAggregator 结束一个汇总窗口并发送广播，只在窗口内有违规时提交
+ *
+ * @author Kush_ShuL
+ */
+@Name("ezobserver.AlertFlush")
+@Label("Alert Flush")
+@Category({"EzObserver"})
+@Description("EzObserver 违规广播汇总窗口的发送")
+@StackTrace(false)
+public class AlertFlushEvent extends Event {
+
+    @Label("Summaries")
+    @Description("本窗口发送的汇总条数")
+    private int summaries;
+
+    @Label("Deliveries")
+    @Description("发送给玩家的消息数")
+    private int deliveries;
+
+    @Label("Suppressed")
+    @Description("因接收者限流被省略的消息数")
+    private int suppressed;
+
+    public void finish(int summaries, int deliveries, int suppressed) {
+        end();
+        if (summaries == 0 || !shouldCommit()) {
+            return;
+        }
+        this.summaries = summaries;
+        this.deliveries = deliveries;
+        this.suppressed = suppressed;
+        commit();
+    }
+}
@@ -0,0 +1,57 @@
+package top.mc_plfd_host.ezobserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
+
+import java.util.List;
+
+/**
+ * 对违规物品的一次处理决定（删除、存储、修正或仅记录），瞬时事件
+ *
+ * @author Kush_ShuL
+ */
+@Name("ezobserver.Confiscation")
+@Label("Confiscation")
+@Category({"EzObserver"})
+@Description("EzObserver 对违规物品的处理")
+@StackTrace(false)
+public class ConfiscationEvent extends Event {
+
+    @Label("Source")
+    @Description("listener (物品事件) / monitor (实时监控) / scan (全服扫描) / creative (创造模式防火墙) / source-* (物品产生处，如 source-craft)")
+    private String source;
+
+    @Label("Player")
+    private String player;
+
+    @Label("Material")
+    private String material;
+
+    @Label("Action")
+    @Description("delete / store / fix / none")
+    private String action;
+
+    @Label("Violation Mask")
+    @Description("ViolationCode 位掩码")
+    private long violationMask;
+
+    public static void emit(String source, Player player, ItemStack item, String action, List<String> violations) {
+        ConfiscationEvent event = new ConfiscationEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.source = source;
+        event.player = player != null ? player.getName() : null;
+        event.material = item.getType().name();
+        event.action = action;
+        event.violationMask = ViolationCode.classify(violations);
+        event.commit();
+    }
+}
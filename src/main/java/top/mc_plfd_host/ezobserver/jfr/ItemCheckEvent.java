@@ -0,0 +1,81 @@
+package top.mc_plfd_host.ezobserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.bukkit.inventory.ItemStack;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
+
+import java.util.List;
+
+/**
+ * 一次 ItemChecker.checkItem 调用（包括容器内物品的递归检测）
+ *
+ * @author Kush_ShuL
+ */
+@Name("ezobserver.ItemCheck")
+@Label("Item Check")
+@Category({"EzObserver"})
+@Description("EzObserver 对一个物品的完整检测")
+@StackTrace(false)
+public class ItemCheckEvent extends Event {
+
+    // 检测阶段位，记录本次检测实际执行到了哪些阶段
+    public static final int STAGE_WHITELIST = 1;
+    public static final int STAGE_VERDICT_STAMP = 1 << 1;
+    public static final int STAGE_BANNED = 1 << 2;
+    public static final int STAGE_ENCHANTMENTS = 1 << 3;
+    public static final int STAGE_META = 1 << 4;
+    public static final int STAGE_SPECIAL = 1 << 5;
+    public static final int STAGE_SIZE = 1 << 6;
+    public static final int STAGE_PROVENANCE = 1 << 7;
+
+    @Label("Material")
+    private String material;
+
+    @Label("Stage Mask")
+    @Description("执行的检测阶段: 1 白名单, 2 检测印章, 4 禁止物品, 8 附魔, 16 元数据, 32 特殊物品, 64 数据大小, 128 可信来源")
+    private int stages;
+
+    @Label("Verdict")
+    @Description("clean / violating / whitelisted / stamped / trusted / banned / oversized / timeout")
+    private String verdict;
+
+    @Label("Violation Mask")
+    @Description("ViolationCode 位掩码")
+    private long violationMask;
+
+    @Label("Violations")
+    private int violationCount;
+
+    public void addStage(int stage) {
+        stages |= stage;
+    }
+
+    /**
+     * 记录提前结束检测的结论，未设置时按检测结果判断
+     */
+    public void setVerdict(String verdict) {
+        this.verdict = verdict;
+    }
+
+    /**
+     * 结束计时并在事件开启且超过阈值时提交
+     */
+    public void finish(ItemStack item, List<String> violations) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        material = item != null ? item.getType().name() : null;
+        violationCount = violations.size();
+        violationMask = ViolationCode.classify(violations);
+        if (verdict == null) {
+            verdict = violations.isEmpty() ? "clean" : "violating";
+        }
+        commit();
+    }
+}
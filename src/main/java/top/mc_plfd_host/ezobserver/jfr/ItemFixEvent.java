@@ -0,0 +1,47 @@
+package top.mc_plfd_host.ezobserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.bukkit.inventory.ItemStack;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
+
+import java.util.List;
+
+/**
+ * 一次 ItemFixer.fixItem 调用
+ *
+ * @author Kush_ShuL
+ */
+@Name("ezobserver.ItemFix")
+@Label("Item Fix")
+@Category({"EzObserver"})
+@Description("EzObserver 对一个违规物品的修正")
+@StackTrace(false)
+public class ItemFixEvent extends Event {
+
+    @Label("Material")
+    private String material;
+
+    @Label("Violation Mask")
+    @Description("修正前的 ViolationCode 位掩码")
+    private long violationMask;
+
+    @Label("Cached")
+    @Description("是否直接复用了相同物品的修正结果")
+    private boolean cached;
+
+    public void finish(ItemStack item, List<String> violations, boolean cached) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.material = item.getType().name();
+        this.violationMask = ViolationCode.classify(violations);
+        this.cached = cached;
+        commit();
+    }
+}
@@ -0,0 +1,58 @@
+package top.mc_plfd_host.ezobserver.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import top.mc_plfd_host.ezobserver.EzObserver;
+
+import java.util.List;
+
+/**
+ * 注册 EzObserver 的 JFR 事件，并把 JFR 配置文件 ezobserver.jfc 释放到插件目录
+ *
+ * 事件默认关闭，录制时与 JDK 的默认配置一起使用：
+ * jcmd <pid> JFR.start settings=default settings=plugins/EzObserver/ezobserver.jfc
+ *
+ * @author Kush_ShuL
+ */
+public final class JfrSupport {
+
+    public static final String SETTINGS_FILE = "ezobserver.jfc";
+
+    private static final List<Class<? extends Event>> EVENTS = List.of(
+            ItemCheckEvent.class,
+            ItemFixEvent.class,
+            ScanBatchEvent.class,
+            ConfiscationEvent.class,
+            AlertFlushEvent.class
+    );
+
+    private JfrSupport() {
+    }
+
+    public static void register(EzObserver plugin) {
+        // 每次启动覆盖，保证与当前版本的事件一致
+        plugin.saveResource(SETTINGS_FILE, true);
+
+        // 提前注册，使事件在第一次触发前就出现在 JMC 的录制配置中
+        try {
+            for (Class<? extends Event> event : EVENTS) {
+                FlightRecorder.register(event);
+            }
+        } catch (RuntimeException | LinkageError e) {
+            plugin.getLogger().warning("无法注册 JFR 事件: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 插件卸载时注销事件，避免重载后旧类加载器中的事件类仍被 JFR 引用
+     */
+    public static void unregister() {
+        try {
+            for (Class<? extends Event> event : EVENTS) {
+                FlightRecorder.unregister(event);
+            }
+        } catch (RuntimeException | LinkageError ignored) {
+            // JFR 不可用时没有需要注销的事件
+        }
+    }
+}
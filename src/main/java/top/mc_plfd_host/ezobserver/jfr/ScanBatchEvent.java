@@ -0,0 +1,53 @@
+package top.mc_plfd_host.ezobserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.bukkit.entity.Player;
+
+/**
+ * 一次背包扫描：实时监控对一个玩家的定期扫描，或全服扫描中的一个玩家
+ *
+ * @author Kush_ShuL
+ */
+@Name("ezobserver.ScanBatch")
+@Label("Scan Batch")
+@Category({"EzObserver"})
+@Description("EzObserver 对一个玩家背包的扫描")
+@StackTrace(false)
+public class ScanBatchEvent extends Event {
+
+    @Label("Source")
+    @Description("monitor (实时监控) / scan (全服扫描)")
+    private String source;
+
+    @Label("Player")
+    private String player;
+
+    @Label("Items")
+    @Description("扫描的非空格子数")
+    private int items;
+
+    @Label("Violating Items")
+    private int violatingItems;
+
+    @Label("Slot Fixes")
+    @Description("提交给 InventoryEnforcer 的格子操作数")
+    private int fixes;
+
+    public void finish(String source, Player player, int items, int violatingItems, int fixes) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.source = source;
+        this.player = player.getName();
+        this.items = items;
+        this.violatingItems = violatingItems;
+        this.fixes = fixes;
+        commit();
+    }
+}
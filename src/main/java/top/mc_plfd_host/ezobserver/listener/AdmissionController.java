@@ -0,0 +1,223 @@
+package top.mc_plfd_host.ezobserver.listener;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.ItemStack;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.permission.PermissionManager;
+import top.mc_plfd_host.ezobserver.util.FoliaUtil;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 物品事件准入控制
+ * 每个玩家的每类事件有一个令牌桶，速率以内的事件正常检测；
+ * 超出速率后，物品与上次检测通过的物品相同时跳过检测，物品有变化时仍然检测。
+ * 一秒内超速事件过多视为刷包，进入强制冷却，冷却期间该玩家的同类事件直接取消并通知管理员
+ *
+ * 每个玩家的状态只在首次出现时分配一次，之后的准入判断只读写数组；
+ * 检测通过的物品保存副本，超速时与副本完整比较（类型、数量和全部物品数据），不使用可以碰撞的哈希值；
+ * 副本绑定保存时的配置快照，配置重载后按旧规则通过的物品不再跳过检测
+ *
+ * @author Kush_ShuL
+ */
+public class AdmissionController implements Listener {
+
+    /**
+     * 受准入控制的事件类型
+     */
+    public enum EventType {
+        CLICK, DRAG, HELD, SWAP, INTERACT, CREATIVE
+    }
+
+    /**
+     * 准入结果
+     */
+    public enum Admission {
+        /** 正常检测 */
+        CHECK,
+        /** 超速且物品未变化，跳过检测 */
+        SKIP,
+        /** 冷却中，取消事件 */
+        REJECT
+    }
+
+    private static final int TYPE_COUNT = EventType.values().length;
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final EzObserver plugin;
+    private final Map<UUID, PlayerState> states = new ConcurrentHashMap<>();
+
+    public AdmissionController(EzObserver plugin) {
+        this.plugin = plugin;
+    }
+
+    public Admission admit(Player player, EventType type, ItemStack item) {
+        return admit(player, type, item, null);
+    }
+
+    /**
+     * 判断一次事件是否需要检测
+     *
+     * @param player 触发事件的玩家，为 null 时总是检测
+     * @param item 事件涉及的物品
+     * @param other 事件涉及的第二个物品（如交换双手时的副手物品），可以为 null
+     */
+    public Admission admit(Player player, EventType type, ItemStack item, ItemStack other) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        if (player == null || !config.isAdmissionControlEnabled()) {
+            return Admission.CHECK;
+        }
+
+        PlayerState state = states.computeIfAbsent(player.getUniqueId(), PlayerState::new);
+        int index = type.ordinal();
+        long now = System.nanoTime();
+
+        synchronized (state) {
+            state.bind(config);
+            if (now - state.cooldownUntil[index] < 0) {
+                return Admission.REJECT;
+            }
+
+            // 补充令牌
+            double rate = config.getAdmissionRatePerSecond();
+            double elapsed = (now - state.lastRefill[index]) / (double) SECOND_NANOS;
+            state.tokens[index] = Math.min(config.getAdmissionBurst(), state.tokens[index] + elapsed * rate);
+            state.lastRefill[index] = now;
+
+            if (state.tokens[index] >= 1.0) {
+                state.tokens[index] -= 1.0;
+                return Admission.CHECK;
+            }
+
+            // 超出速率：统计一秒窗口内的超速次数
+            if (now - state.overflowWindowStart[index] >= SECOND_NANOS) {
+                state.overflowWindowStart[index] = now;
+                state.overflowCount[index] = 0;
+            }
+            if (++state.overflowCount[index] >= config.getAdmissionAbuseThreshold()) {
+                state.cooldownUntil[index] = now + TimeUnit.SECONDS.toNanos(config.getAdmissionCooldownSeconds());
+                state.overflowCount[index] = 0;
+                alertAdmins(player.getName(), type, config.getAdmissionCooldownSeconds());
+                return Admission.REJECT;
+            }
+
+            if (state.hasClean[index] && isSame(state.cleanItem[index], item) && isSame(state.cleanOther[index], other)) {
+                return Admission.SKIP;
+            }
+            return Admission.CHECK;
+        }
+    }
+
+    public void markClean(Player player, EventType type, ItemStack item) {
+        markClean(player, type, item, null);
+    }
+
+    /**
+     * 记录检测通过的物品，超速时相同的物品可以跳过检测
+     */
+    public void markClean(Player player, EventType type, ItemStack item, ItemStack other) {
+        if (player == null) {
+            return;
+        }
+        PlayerState state = states.get(player.getUniqueId());
+        if (state == null) {
+            return;
+        }
+        int index = type.ordinal();
+        synchronized (state) {
+            state.bind(plugin.getConfigManager().getSnapshot());
+            // 连续通过检测的通常是同一件物品，未变化时不再复制
+            if (!state.hasClean[index] || !isSame(state.cleanItem[index], item)) {
+                state.cleanItem[index] = copy(item);
+            }
+            if (!state.hasClean[index] || !isSame(state.cleanOther[index], other)) {
+                state.cleanOther[index] = copy(other);
+            }
+            state.hasClean[index] = true;
+        }
+    }
+
+    /**
+     * 与保存的副本比较：equals 先比较类型和数量，再通过 isSimilar 比较全部物品数据
+     */
+    private static boolean isSame(ItemStack clean, ItemStack item) {
+        if (clean == null || item == null) {
+            return clean == item;
+        }
+        return clean.equals(item);
+    }
+
+    /**
+     * 事件中的物品可能是背包槽位的镜像，之后会被修改，必须保存副本
+     */
+    private static ItemStack copy(ItemStack item) {
+        return item != null ? item.clone() : null;
+    }
+
+    private void alertAdmins(String playerName, EventType type, long seconds) {
+        plugin.getLogger().warning("玩家 " + playerName + " 的 " + type.name() + " 事件频率异常，已冷却 " + seconds + " 秒");
+        FoliaUtil.runGlobalTask(plugin, () -> {
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("player", playerName);
+            placeholders.put("event", type.name());
+            placeholders.put("seconds", String.valueOf(seconds));
+            plugin.getServer().broadcast(plugin.getMessageManager().getMessage("admission-cooldown", placeholders),
+                    PermissionManager.PERMISSION_ADMIN);
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        states.remove(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * 单个玩家的准入状态，按事件类型下标存放
+     */
+    private static final class PlayerState {
+        private final double[] tokens = new double[TYPE_COUNT];
+        private final long[] lastRefill = new long[TYPE_COUNT];
+        private final long[] overflowWindowStart = new long[TYPE_COUNT];
+        private final int[] overflowCount = new int[TYPE_COUNT];
+        private final long[] cooldownUntil = new long[TYPE_COUNT];
+        private final ItemStack[] cleanItem = new ItemStack[TYPE_COUNT];
+        private final ItemStack[] cleanOther = new ItemStack[TYPE_COUNT];
+        private final boolean[] hasClean = new boolean[TYPE_COUNT];
+        // 保存检测通过物品时的配置快照
+        private ConfigSnapshot config;
+
+        private PlayerState(UUID playerId) {
+            long now = System.nanoTime();
+            for (int i = 0; i < TYPE_COUNT; i++) {
+                // 新玩家从满桶开始
+                tokens[i] = Double.MAX_VALUE;
+                lastRefill[i] = now;
+                overflowWindowStart[i] = now;
+                cooldownUntil[i] = now;
+            }
+        }
+
+        /**
+         * 配置快照变化时清空检测通过的物品，由调用方同步
+         */
+        private void bind(ConfigSnapshot current) {
+            if (config == current) {
+                return;
+            }
+            config = current;
+            Arrays.fill(cleanItem, null);
+            Arrays.fill(cleanOther, null);
+            Arrays.fill(hasClean, false);
+        }
+    }
+}
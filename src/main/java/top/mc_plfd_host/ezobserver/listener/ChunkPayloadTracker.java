@@ -0,0 +1,596 @@
+package top.mc_plfd_host.ezobserver.listener;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Chest;
+import org.bukkit.block.DoubleChest;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.ItemFrame;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerInteractEntityEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.inventory.BlockInventoryHolder;
+import org.bukkit.inventory.DoubleChestInventory;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.checker.ItemSizeGuard;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.rules.ItemRules;
+import top.mc_plfd_host.ezobserver.util.LongLongMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 区块物品数据量统计
+ * 为每个已加载的区块维护其中物品 NBT 数据量的估算值，把物品放入区块会使其超过预算时阻止该操作，
+ * 用于防御在一个区块中堆满容器和物品展示框、使区块数据过大而无法加载的 "区块封禁" 攻击
+ *
+ * 区块在第一次有物品放入时才计算估算值：区块加载时不计算，大部分加载的区块从不放入物品，
+ * 跑图时不需要为每个区块的每件物品估算大小。估算值分两部分：方块部分（容器类方块实体中的物品）
+ * 按容器分别记录，放入物品时先按物品大小累加，关闭容器时只重新计算这一个容器并把差值计入区块，
+ * 漏斗、投掷器等在容器之间转移物品时在两端分别增减，容器被破坏时扣除；
+ * 实体部分（掉落物和物品展示框中的物品）在区块计算过之后随实体加入和离开世界增减
+ *
+ * 每个区块只由其所在区域的线程访问，状态按区块坐标分条存放在基本类型哈希表中，
+ * 不同区域的线程几乎不会争用同一把锁；区块卸载时移除
+ *
+ * @author Kush_ShuL
+ */
+public class ChunkPayloadTracker implements Listener {
+
+    private static final int STRIPES = 16;
+
+    private final EzObserver plugin;
+    private final ItemSizeGuard sizeGuard;
+    private final Map<UUID, WorldTable> worlds = new ConcurrentHashMap<>();
+
+    public ChunkPayloadTracker(EzObserver plugin) {
+        this.plugin = plugin;
+        this.sizeGuard = new ItemSizeGuard(plugin);
+    }
+
+    // ========== 区块卸载 ==========
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        // 配置关闭后仍然清理，避免残留
+        Chunk chunk = event.getChunk();
+        WorldTable table = worlds.get(chunk.getWorld().getUID());
+        if (table == null) {
+            return;
+        }
+        long key = chunkKey(chunk.getX(), chunk.getZ());
+        Stripe stripe = table.stripe(key);
+        synchronized (stripe) {
+            stripe.blocks.remove(key);
+            stripe.entities.remove(key);
+            stripe.containers.remove(key);
+        }
+    }
+
+    // ========== 实体部分 ==========
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAdd(EntityAddToWorldEvent event) {
+        updateEntity(event.getEntity(), 1);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        updateEntity(event.getEntity(), -1);
+    }
+
+    private void updateEntity(Entity entity, int sign) {
+        if (!getSnapshot().isChunkPayloadEnabled()
+                || !(entity instanceof Item || entity instanceof ItemFrame)) {
+            return;
+        }
+        Location location = entity.getLocation();
+        long key = chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        Stripe stripe = table(entity.getWorld()).stripe(key);
+        // 还没有计算过的区块（包括已卸载的区块）不跟踪实体，计算时一并统计
+        synchronized (stripe) {
+            if (!stripe.entities.containsKey(key)) {
+                return;
+            }
+        }
+        long bytes = entityBytes(entity);
+        if (bytes == 0) {
+            return;
+        }
+        synchronized (stripe) {
+            if (stripe.entities.containsKey(key)) {
+                stripe.entities.addClamped(key, sign * bytes);
+            }
+        }
+    }
+
+    // ========== 放入物品 ==========
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (!(event.getWhoClicked() instanceof Player player)) {
+            return;
+        }
+        Inventory top = event.getView().getTopInventory();
+        Location location = getContainerLocation(top);
+        if (location == null) {
+            return;
+        }
+
+        Inventory clicked = event.getClickedInventory();
+        InventoryAction action = event.getAction();
+        ItemStack inserted = null;
+        if (clicked == top) {
+            switch (action) {
+                case PLACE_ALL, PLACE_SOME, PLACE_ONE, SWAP_WITH_CURSOR -> inserted = event.getCursor();
+                case HOTBAR_SWAP, HOTBAR_MOVE_AND_READD -> inserted = event.getHotbarButton() >= 0
+                        ? player.getInventory().getItem(event.getHotbarButton())
+                        : player.getInventory().getItemInOffHand();
+                default -> {
+                }
+            }
+        } else if (clicked != null && action == InventoryAction.MOVE_TO_OTHER_INVENTORY) {
+            inserted = event.getCurrentItem();
+        }
+
+        if (inserted != null && !admit(player, location, inserted, true)) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (!(event.getWhoClicked() instanceof Player player)) {
+            return;
+        }
+        Inventory top = event.getView().getTopInventory();
+        Location location = getContainerLocation(top);
+        if (location == null) {
+            return;
+        }
+        boolean intoTop = false;
+        for (int rawSlot : event.getRawSlots()) {
+            if (rawSlot < top.getSize()) {
+                intoTop = true;
+                break;
+            }
+        }
+        if (intoTop && !admit(player, location, event.getOldCursor(), true)) {
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * 漏斗、投掷器、发射器等把物品移入容器，只检查预算，计入在 MONITOR 阶段完成
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onInventoryMove(InventoryMoveItemEvent event) {
+        Location destination = getContainerLocation(event.getDestination());
+        if (destination == null) {
+            return;
+        }
+        ItemStack item = event.getItem();
+        if (!evaluate(null, destination, item, movedBytes(item), null)) {
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * 移动没有被取消时，目标容器增加、来源容器减少移动的物品大小
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryMoved(InventoryMoveItemEvent event) {
+        if (!getSnapshot().isChunkPayloadEnabled()) {
+            return;
+        }
+        ItemStack item = event.getItem();
+        if (isEmpty(item)) {
+            return;
+        }
+        long bytes = movedBytes(item);
+        Location destination = getContainerLocation(event.getDestination());
+        if (destination != null) {
+            adjustContainer(destination, bytes);
+        }
+        Location source = getContainerLocation(event.getSource());
+        if (source != null) {
+            adjustContainer(source, -bytes);
+        }
+    }
+
+    /**
+     * 关闭容器时只按实际内容重新计算这一个容器，把与记录值的差计入区块，修正放入时的累加误差
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryClose(InventoryCloseEvent event) {
+        if (!getSnapshot().isChunkPayloadEnabled()) {
+            return;
+        }
+        Inventory inventory = event.getInventory();
+        if (getContainerLocation(inventory) == null) {
+            return;
+        }
+        // 大箱子的两半可能位于不同区块，分别计算
+        if (inventory instanceof DoubleChestInventory chest) {
+            recount(chest.getLeftSide());
+            recount(chest.getRightSide());
+        } else {
+            recount(inventory);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        forgetContainer(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            forgetContainer(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            forgetContainer(block);
+        }
+    }
+
+    /**
+     * 放置带有内容的容器方块（如装满物品的潜影盒）
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        ItemStack item = event.getItemInHand();
+        if (item == null || !ItemRules.carriesItems(item.getType()) || !item.hasItemMeta()) {
+            return;
+        }
+        if (!admit(event.getPlayer(), event.getBlock().getLocation(), item, true)) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onItemFrameInsert(PlayerInteractEntityEvent event) {
+        if (!(event.getRightClicked() instanceof ItemFrame frame) || !isEmpty(frame.getItem())) {
+            return;
+        }
+        Player player = event.getPlayer();
+        ItemStack item = event.getHand() == EquipmentSlot.OFF_HAND
+                ? player.getInventory().getItemInOffHand()
+                : player.getInventory().getItemInMainHand();
+        // 展示框的实体部分在此累加，之后随展示框离开世界扣除
+        if (!isEmpty(item) && !admit(player, frame.getLocation(), item, false)) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onDrop(PlayerDropItemEvent event) {
+        Item drop = event.getItemDrop();
+        // 掉落物加入世界时由实体事件累加，这里只检查预算
+        if (!check(event.getPlayer(), drop.getLocation(), drop.getItemStack())) {
+            event.setCancelled(true);
+        }
+    }
+
+    // ========== 预算 ==========
+
+    /**
+     * 检查放入物品后是否超过预算，未超过时把物品大小计入区块
+     *
+     * @param blockPart 计入方块部分还是实体部分
+     * @return 是否允许放入
+     */
+    private boolean admit(Player player, Location location, ItemStack item, boolean blockPart) {
+        return evaluate(player, location, item, isEmpty(item) ? 0 : sizeGuard.estimate(item), blockPart ? Part.BLOCKS : Part.ENTITIES);
+    }
+
+    private boolean check(Player player, Location location, ItemStack item) {
+        return evaluate(player, location, item, isEmpty(item) ? 0 : sizeGuard.estimate(item), null);
+    }
+
+    /**
+     * @param player 放入物品的玩家，容器之间自动转移时为 null
+     * @param bytes 计入区块的大小
+     */
+    private boolean evaluate(Player player, Location location, ItemStack item, long bytes, Part charge) {
+        ConfigSnapshot config = getSnapshot();
+        if (!config.isChunkPayloadEnabled() || isEmpty(item) || location == null || location.getWorld() == null) {
+            return true;
+        }
+        if (plugin.getPermissionManager().canBypass(player)) {
+            return true;
+        }
+
+        World world = location.getWorld();
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+        long key = chunkKey(chunkX, chunkZ);
+        Stripe stripe = table(world).stripe(key);
+
+        boolean tracked;
+        synchronized (stripe) {
+            tracked = stripe.blocks.containsKey(key);
+        }
+        if (!tracked && world.isChunkLoaded(chunkX, chunkZ)) {
+            // 第一次有物品放入的区块，在区块所在线程上计算一次
+            Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+            LongLongMap containers = new LongLongMap();
+            long blocks = countBlocks(chunk, containers);
+            long entities = countEntities(chunk);
+            synchronized (stripe) {
+                stripe.blocks.put(key, blocks);
+                stripe.entities.put(key, entities);
+                stripe.containers.put(key, containers);
+            }
+        }
+
+        long total;
+        synchronized (stripe) {
+            total = stripe.blocks.get(key) + stripe.entities.get(key);
+            if (total + bytes <= config.getChunkPayloadMaxBytes()) {
+                if (charge == Part.BLOCKS) {
+                    stripe.blocks.addClamped(key, bytes);
+                    LongLongMap containers = stripe.containers.get(key);
+                    if (containers != null) {
+                        containers.addClamped(blockKey(location), bytes);
+                    }
+                } else if (charge == Part.ENTITIES) {
+                    stripe.entities.addClamped(key, bytes);
+                }
+                return true;
+            }
+        }
+
+        if (player == null) {
+            // 漏斗每隔几 tick 重试一次，不输出日志
+            return false;
+        }
+        plugin.getLogger().info("阻止玩家 " + player.getName() + " 向区块 " + world.getName() + " [" + chunkX + ", " + chunkZ
+                + "] 放入 " + item.getType().name() + ": 区块物品数据 " + total + " + " + bytes
+                + " 字节，超过预算 " + config.getChunkPayloadMaxBytes() + " 字节");
+        Map<String, Object> placeholders = Map.of(
+                "bytes", total,
+                "item", bytes,
+                "budget", config.getChunkPayloadMaxBytes());
+        player.sendMessage(plugin.getMessageManager().getMessage("chunk-payload-blocked", placeholders));
+        return false;
+    }
+
+    /**
+     * 按实际内容重新计算一个容器，差值计入所在区块；区块还没有计算过时不处理
+     */
+    private void recount(Inventory inventory) {
+        Location location = inventory.getLocation();
+        if (location == null || location.getWorld() == null) {
+            return;
+        }
+        World world = location.getWorld();
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+        if (!world.isChunkLoaded(chunkX, chunkZ)) {
+            return;
+        }
+        long key = chunkKey(chunkX, chunkZ);
+        Stripe stripe = table(world).stripe(key);
+        // 还没有计算过的区块留到第一次放入物品时计算
+        synchronized (stripe) {
+            if (!stripe.containers.containsKey(key)) {
+                return;
+            }
+        }
+        long bytes = inventoryBytes(inventory);
+        long container = blockKey(location);
+        synchronized (stripe) {
+            LongLongMap containers = stripe.containers.get(key);
+            if (containers != null) {
+                long previous = containers.get(container);
+                containers.put(container, bytes);
+                stripe.blocks.addClamped(key, bytes - previous);
+            }
+        }
+    }
+
+    /**
+     * 容器及所在区块增减 delta，区块还没有计算过时不处理
+     */
+    private void adjustContainer(Location location, long delta) {
+        World world = location.getWorld();
+        if (world == null) {
+            return;
+        }
+        long key = chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        Stripe stripe = table(world).stripe(key);
+        synchronized (stripe) {
+            LongLongMap containers = stripe.containers.get(key);
+            if (containers == null) {
+                return;
+            }
+            long container = blockKey(location);
+            long previous = containers.get(container);
+            long updated = containers.addClamped(container, delta);
+            stripe.blocks.addClamped(key, updated - previous);
+        }
+    }
+
+    /**
+     * 被破坏的方块如果是记录过的容器，从区块中扣除；掉出的物品由实体部分计入
+     */
+    private void forgetContainer(Block block) {
+        WorldTable table = worlds.get(block.getWorld().getUID());
+        if (table == null) {
+            return;
+        }
+        long key = chunkKey(block.getX() >> 4, block.getZ() >> 4);
+        Stripe stripe = table.stripe(key);
+        synchronized (stripe) {
+            LongLongMap containers = stripe.containers.get(key);
+            if (containers == null) {
+                return;
+            }
+            long container = blockKey(block.getX(), block.getY(), block.getZ());
+            if (containers.containsKey(container)) {
+                stripe.blocks.addClamped(key, -containers.get(container));
+                containers.remove(container);
+            }
+        }
+    }
+
+    /**
+     * 容器之间转移的物品大小
+     * 可堆叠物品通常并入已有的堆叠，按每件分摊整堆的大小，否则逐件转移会把同一堆计入很多次
+     */
+    private long movedBytes(ItemStack item) {
+        if (isEmpty(item)) {
+            return 0;
+        }
+        int maxStack = Math.max(1, item.getMaxStackSize());
+        return (sizeGuard.estimate(item) * item.getAmount() + maxStack - 1) / maxStack;
+    }
+
+    // ========== 计算 ==========
+
+    /**
+     * 计算区块中所有容器的物品大小，每个容器的大小记入 containers
+     */
+    private long countBlocks(Chunk chunk, LongLongMap containers) {
+        long total = 0;
+        for (BlockState state : chunk.getTileEntities(false)) {
+            if (state instanceof BlockInventoryHolder holder) {
+                // 大箱子的两半分别计算，避免重复
+                Inventory inventory = state instanceof Chest chest ? chest.getBlockInventory() : holder.getInventory();
+                long bytes = inventoryBytes(inventory);
+                containers.put(blockKey(state.getX(), state.getY(), state.getZ()), bytes);
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    private long countEntities(Chunk chunk) {
+        long total = 0;
+        for (Entity entity : chunk.getEntities()) {
+            total += entityBytes(entity);
+        }
+        return total;
+    }
+
+    private long inventoryBytes(Inventory inventory) {
+        long total = 0;
+        for (ItemStack item : inventory.getContents()) {
+            if (!isEmpty(item)) {
+                total += sizeGuard.estimate(item);
+            }
+        }
+        return total;
+    }
+
+    private long entityBytes(Entity entity) {
+        ItemStack item;
+        if (entity instanceof Item drop) {
+            item = drop.getItemStack();
+        } else if (entity instanceof ItemFrame frame) {
+            item = frame.getItem();
+        } else {
+            return 0;
+        }
+        return isEmpty(item) ? 0 : sizeGuard.estimate(item);
+    }
+
+    /**
+     * 方块容器的位置，其他界面（玩家背包、实体容器等）返回 null
+     */
+    private static Location getContainerLocation(Inventory inventory) {
+        InventoryHolder holder = inventory.getHolder(false);
+        if (holder instanceof BlockInventoryHolder || holder instanceof DoubleChest) {
+            return inventory.getLocation();
+        }
+        return null;
+    }
+
+    private static boolean isEmpty(ItemStack item) {
+        return item == null || item.getType() == Material.AIR;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkZ << 32) | (chunkX & 0xffffffffL);
+    }
+
+    /**
+     * 方块在区块内的键，只在同一区块的容器表中使用
+     */
+    private static long blockKey(int x, int y, int z) {
+        return ((long) y << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    private static long blockKey(Location location) {
+        return blockKey(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    private WorldTable table(World world) {
+        return worlds.computeIfAbsent(world.getUID(), uid -> new WorldTable());
+    }
+
+    private ConfigSnapshot getSnapshot() {
+        return plugin.getConfigManager().getSnapshot();
+    }
+
+    private enum Part {
+        BLOCKS, ENTITIES
+    }
+
+    /**
+     * 一个世界的区块表，按区块坐标分条加锁
+     */
+    private static final class WorldTable {
+        private final Stripe[] stripes = new Stripe[STRIPES];
+
+        private WorldTable() {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        private Stripe stripe(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return stripes[(int) (hash >>> 60) & (STRIPES - 1)];
+        }
+    }
+
+    private static final class Stripe {
+        private final LongLongMap blocks = new LongLongMap();
+        private final LongLongMap entities = new LongLongMap();
+        // 区块坐标 -> 区块中每个容器的大小，只包含已经计算过的区块
+        private final Map<Long, LongLongMap> containers = new HashMap<>();
+    }
+}
@@ -0,0 +1,239 @@
+package top.mc_plfd_host.ezobserver.listener;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryCreativeEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.ItemMeta;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.checker.ItemChecker;
+import top.mc_plfd_host.ezobserver.checker.ProvenanceCache;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.jfr.ConfiscationEvent;
+import top.mc_plfd_host.ezobserver.monitor.PerfMonitor;
+import top.mc_plfd_host.ezobserver.util.FoliaUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 创造模式物品防火墙
+ * 创造模式的玩家可以通过 InventoryCreativeEvent 取得任意 NBT 的物品。事件中只做结构预检：
+ * 物品类型黑名单、NBT 长度上限、危险标签和 PDC 命名空间白名单，不通过时在物品进入背包前取消事件；
+ * 预检通过的物品在玩家所在线程的下一个 tick 执行完整检测，违规时从背包、光标、打开的容器
+ * 和玩家刚丢出的掉落物中移除，通过时记为可信；
+ * 在物品栏窗口外点击会直接丢出物品，下一个 tick 时物品已经离开背包，这种情况在事件中完整检测
+ *
+ * 事件频率受准入控制限制，每个玩家等待完整检测的物品数有上限，超出时直接拒绝
+ *
+ * @author Kush_ShuL
+ */
+public class CreativeFirewall implements Listener {
+
+    // 查找玩家丢出的掉落物的范围 (格)
+    private static final double DROP_SEARCH_RADIUS = 8.0;
+
+    private final EzObserver plugin;
+    private final ItemChecker itemChecker;
+    private final AdmissionController admissionController;
+    private final ProvenanceCache provenanceCache;
+    private final PerfMonitor perfMonitor;
+    private final Map<UUID, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    public CreativeFirewall(EzObserver plugin) {
+        this.plugin = plugin;
+        this.itemChecker = new ItemChecker(plugin);
+        this.admissionController = plugin.getAdmissionController();
+        this.provenanceCache = plugin.getProvenanceCache();
+        this.perfMonitor = plugin.getPerfMonitor();
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onCreative(InventoryCreativeEvent event) {
+        long start = perfMonitor.begin();
+        try {
+            processCreative(event);
+        } finally {
+            perfMonitor.record(PerfMonitor.Stage.LISTENER_CREATIVE, start);
+        }
+    }
+
+    private void processCreative(InventoryCreativeEvent event) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        if (!config.isEnabled() || !config.isCreativeFirewallEnabled()
+                || !(event.getWhoClicked() instanceof Player player)) {
+            return;
+        }
+        ItemStack item = event.getCursor();
+        if (item == null || item.getType() == Material.AIR || plugin.getPermissionManager().canBypass(player)) {
+            return;
+        }
+
+        AdmissionController.Admission admission = admissionController.admit(player, AdmissionController.EventType.CREATIVE, item);
+        if (admission == AdmissionController.Admission.REJECT) {
+            event.setCancelled(true);
+            return;
+        }
+
+        String rejection = precheck(item, config);
+        if (rejection != null) {
+            reject(event, player, item, rejection);
+            return;
+        }
+        if (admission == AdmissionController.Admission.SKIP || provenanceCache.isTrusted(item, config)) {
+            return;
+        }
+        if (event.getSlotType() == InventoryType.SlotType.OUTSIDE) {
+            List<String> violations = itemChecker.checkItem(item);
+            if (violations.isEmpty()) {
+                provenanceCache.trust(item, config);
+            } else {
+                event.setCursor(null);
+                event.setCancelled(true);
+                report(player, item, violations);
+            }
+            return;
+        }
+
+        AtomicInteger count = pending.computeIfAbsent(player.getUniqueId(), id -> new AtomicInteger());
+        if (count.incrementAndGet() > config.getCreativeMaxPending()) {
+            count.decrementAndGet();
+            reject(event, player, item, "创造模式物品等待检测过多，已拒绝");
+            return;
+        }
+        ItemStack snapshot = item.clone();
+        FoliaUtil.runEntityTask(plugin, player, () -> {
+            try {
+                fullCheck(player, snapshot);
+            } finally {
+                count.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * 结构预检，只读取物品类型、一次 NBT 字符串和 PDC 键
+     *
+     * @return 不通过的原因，通过时返回 null
+     */
+    private String precheck(ItemStack item, ConfigSnapshot config) {
+        if (config.isCreativeBlockedMaterial(item.getType())) {
+            return "创造模式禁止取得的物品: " + item.getType().name();
+        }
+        if (!item.hasItemMeta()) {
+            return null;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+        String nbt = meta.getAsString();
+        if (nbt.length() > config.getCreativeMaxNbtLength()) {
+            return String.format("创造模式物品数据过长: %s %d 字符，上限 %d 字符",
+                    item.getType().name(), nbt.length(), config.getCreativeMaxNbtLength());
+        }
+        for (String tag : config.getCreativeBlockedTags()) {
+            if (nbt.contains(tag + ":") || nbt.contains("\"" + tag + "\":")) {
+                return "创造模式物品包含禁止的标签: " + tag;
+            }
+        }
+
+        List<String> allowed = config.getCreativeAllowedPdcNamespaces();
+        if (!allowed.contains("*")) {
+            for (NamespacedKey key : meta.getPersistentDataContainer().getKeys()) {
+                if (!allowed.contains(key.getNamespace())) {
+                    return "创造模式物品包含未允许的 PDC 数据: " + key;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 预检通过后的完整检测，在玩家所在线程执行
+     */
+    private void fullCheck(Player player, ItemStack item) {
+        if (!player.isOnline()) {
+            return;
+        }
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        List<String> violations = itemChecker.checkItem(item);
+        if (violations.isEmpty()) {
+            provenanceCache.trust(item, config);
+            admissionController.markClean(player, AdmissionController.EventType.CREATIVE, item);
+            return;
+        }
+
+        removeCopies(player, item);
+        report(player, item, violations);
+    }
+
+    /**
+     * 物品已经进入背包，检测完成前可能已被放进打开的容器或丢出，这些位置中相同的物品全部移除
+     */
+    private void removeCopies(Player player, ItemStack item) {
+        PlayerInventory inventory = player.getInventory();
+        removeSimilar(inventory, item);
+        ItemStack cursor = player.getItemOnCursor();
+        if (cursor != null && cursor.isSimilar(item)) {
+            player.setItemOnCursor(null);
+        }
+        Inventory top = player.getOpenInventory().getTopInventory();
+        if (top != null && top != inventory) {
+            removeSimilar(top, item);
+        }
+        UUID id = player.getUniqueId();
+        for (Entity entity : player.getNearbyEntities(DROP_SEARCH_RADIUS, DROP_SEARCH_RADIUS, DROP_SEARCH_RADIUS)) {
+            if (entity instanceof Item drop && id.equals(drop.getThrower()) && drop.getItemStack().isSimilar(item)) {
+                drop.remove();
+            }
+        }
+    }
+
+    private static void removeSimilar(Inventory inventory, ItemStack item) {
+        ItemStack[] contents = inventory.getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            if (contents[slot] != null && contents[slot].isSimilar(item)) {
+                inventory.setItem(slot, null);
+            }
+        }
+    }
+
+    private void reject(InventoryCreativeEvent event, Player player, ItemStack item, String reason) {
+        event.setCursor(null);
+        event.setCancelled(true);
+        List<String> violations = new ArrayList<>();
+        violations.add(reason);
+        report(player, item, violations);
+    }
+
+    private void report(Player player, ItemStack item, List<String> violations) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        String itemName = item.getType().name();
+        plugin.getLogger().info("创造模式防火墙拦截玩家 " + player.getName() + " 的物品 " + itemName + ": " + violations);
+        ConfiscationEvent.emit("creative", player, item, "delete", violations);
+        if (config.isLogViolations()) {
+            plugin.getViolationJournal().record(player, itemName, "delete", violations);
+        }
+        if (config.isBroadcastViolations()) {
+            plugin.getAlertAggregator().record(player, itemName, "broadcast-delete", violations);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        pending.remove(event.getPlayer().getUniqueId());
+    }
+}
@@ -1,7 +1,6 @@
 package top.mc_plfd_host.ezobserver.listener;
 
 import org.bukkit.Bukkit;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -9,28 +8,25 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerItemHeldEvent;
 import org.bukkit.event.player.PlayerPickupItemEvent;
 import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import top.mc_plfd_host.ezobserver.EzObserver;
 import top.mc_plfd_host.ezobserver.checker.ItemChecker;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
 import top.mc_plfd_host.ezobserver.config.ConfigManager;
 import top.mc_plfd_host.ezobserver.fixer.ItemFixer;
+import top.mc_plfd_host.ezobserver.jfr.ConfiscationEvent;
+import top.mc_plfd_host.ezobserver.monitor.PerfMonitor;
+import top.mc_plfd_host.ezobserver.storage.EventRecorder;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.*;
-import java.nio.file.StandardOpenOption;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
 import java.util.logging.Logger;
 
 import net.kyori.adventure.text.minimessage.MiniMessage;
@@ -41,13 +37,19 @@ public class ItemMoveListener implements Listener {
     private final ConfigManager configManager;
     private final ItemChecker itemChecker;
     private final ItemFixer itemFixer;
+    private final AdmissionController admissionController;
+    private final EventRecorder eventRecorder;
+    private final PerfMonitor perfMonitor;
     private final Logger logger;
 
     public ItemMoveListener(EzObserver plugin) {
         this.plugin = plugin;
         this.configManager = plugin.getConfigManager();
         this.itemChecker = new ItemChecker(plugin);
-        this.itemFixer = new ItemFixer(plugin);
+        this.itemFixer = new ItemFixer(plugin, plugin.getFixTemplateCache());
+        this.admissionController = plugin.getAdmissionController();
+        this.eventRecorder = plugin.getEventRecorder();
+        this.perfMonitor = plugin.getPerfMonitor();
         this.logger = plugin.getLogger();
     }
 
@@ -90,8 +92,9 @@ public class ItemMoveListener implements Listener {
 
     /**
      * 检查物品是否是不可修复的违规物品（必须删除）
+     * 数据大小由检测时的结果判断，不再重新序列化物品
      */
-    private boolean isUnfixableViolation(ItemStack item) {
+    private boolean isUnfixableViolation(ItemStack item, List<String> violations) {
         // 禁止的物品类型
         if (configManager.isBannedMaterial(item.getType())) {
             return true;
@@ -107,6 +110,11 @@ public class ItemMoveListener implements Listener {
             return true;
         }
         
+        // 数据过大的物品无法修正
+        if ((ViolationCode.classify(violations) & ViolationCode.OVERSIZED.mask()) != 0) {
+            return true;
+        }
+        
         return false;
     }
     
@@ -125,17 +133,43 @@ public class ItemMoveListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onInventoryClick(InventoryClickEvent event) {
+        long start = perfMonitor.begin();
+        processInventoryClick(event);
+        perfMonitor.record(PerfMonitor.Stage.LISTENER_CLICK, start);
+    }
+    
+    private void processInventoryClick(InventoryClickEvent event) {
         if (!shouldProcessEvent(event)) return;
         
         ItemStack item = event.getCurrentItem();
         if (item == null) return;
         
+        Player clicker = event.getWhoClicked() instanceof Player ? (Player) event.getWhoClicked() : null;
+        eventRecorder.record(EventRecorder.Kind.CLICK, clicker, event.getSlot(), item);
+        AdmissionController.Admission admission = admissionController.admit(clicker, AdmissionController.EventType.CLICK, item);
+        if (admission == AdmissionController.Admission.REJECT) {
+            event.setCancelled(true);
+            return;
+        }
+        if (admission == AdmissionController.Admission.SKIP) return;
+        
+        // 容器中的物品按容器位置统计，玩家背包中的物品按玩家统计
+        Inventory clickedInventory = event.getClickedInventory();
+        if (clickedInventory != null && clickedInventory.getType() != InventoryType.PLAYER
+                && clickedInventory.getLocation() != null) {
+            plugin.getDupeDetector().observe(clickedInventory.getLocation(), item, clicker);
+        } else {
+            plugin.getDupeDetector().observe(clicker, item);
+        }
+        
         List<String> violations = itemChecker.checkItem(item);
-        if (!violations.isEmpty()) {
-            handleViolation(event.getWhoClicked() instanceof Player ? (Player) event.getWhoClicked() : null, item, violations);
+        if (violations.isEmpty()) {
+            admissionController.markClean(clicker, AdmissionController.EventType.CLICK, item);
+        } else {
+            handleViolation(clicker, item, violations);
             
             if (configManager.isConfiscateItems()) {
-                handleConfiscation(event, item, event.getWhoClicked() instanceof Player ? (Player) event.getWhoClicked() : null);
+                handleConfiscation(event, item, clicker, violations);
             }
         }
     }
@@ -144,8 +178,8 @@ public class ItemMoveListener implements Listener {
         return configManager.isEnabled();
     }
     
-    private void handleConfiscation(InventoryClickEvent event, ItemStack item, Player player) {
-        boolean unfixable = isUnfixableViolation(item);
+    private void handleConfiscation(InventoryClickEvent event, ItemStack item, Player player, List<String> violations) {
+        boolean unfixable = isUnfixableViolation(item, violations);
         
         if (configManager.isDeleteMode() || unfixable) {
             event.setCurrentItem(null);
@@ -154,11 +188,11 @@ public class ItemMoveListener implements Listener {
                 logger.info("[EzObserver] 已删除禁止物品: " + item.getType().name());
             }
         } else if (configManager.isStoreMode()) {
-            storeConfiscatedItem(player, item);
+            storeConfiscatedItem(player, item, violations);
             event.setCurrentItem(null);
             event.setCancelled(true);
         } else if (configManager.isFixMode()) {
-            ItemStack fixedItem = itemFixer.fixItem(item);
+            ItemStack fixedItem = itemFixer.fixItem(item, violations);
             event.setCurrentItem(fixedItem);
             logger.info("[EzObserver] 已修正违规物品");
         }
@@ -166,16 +200,23 @@ public class ItemMoveListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onInventoryMoveItem(InventoryMoveItemEvent event) {
+        long start = perfMonitor.begin();
+        processInventoryMoveItem(event);
+        perfMonitor.record(PerfMonitor.Stage.LISTENER_MOVE, start);
+    }
+    
+    private void processInventoryMoveItem(InventoryMoveItemEvent event) {
         if (!shouldProcessEvent(event)) return;
         
         ItemStack item = event.getItem();
+        eventRecorder.record(EventRecorder.Kind.MOVE, null, -1, item);
         List<String> violations = itemChecker.checkItem(item);
         
         if (!violations.isEmpty()) {
             handleViolation(null, item, violations);
             
             if (configManager.isConfiscateItems()) {
-                handleConfiscation(event, item, null);
+                handleConfiscation(event, item, null, violations);
             }
         }
     }
@@ -184,8 +225,8 @@ public class ItemMoveListener implements Listener {
         return configManager.isEnabled() && configManager.isStrictMode();
     }
     
-    private void handleConfiscation(InventoryMoveItemEvent event, ItemStack item, Player player) {
-        boolean unfixable = isUnfixableViolation(item);
+    private void handleConfiscation(InventoryMoveItemEvent event, ItemStack item, Player player, List<String> violations) {
+        boolean unfixable = isUnfixableViolation(item, violations);
         
         if (configManager.isDeleteMode() || unfixable) {
             event.setCancelled(true);
@@ -193,10 +234,10 @@ public class ItemMoveListener implements Listener {
                 logger.info("[EzObserver] 已阻止禁止物品移动: " + item.getType().name());
             }
         } else if (configManager.isStoreMode()) {
-            storeConfiscatedItem(player, item);
+            storeConfiscatedItem(player, item, violations);
             event.setCancelled(true);
         } else if (configManager.isFixMode()) {
-            ItemStack fixedItem = itemFixer.fixItem(item);
+            ItemStack fixedItem = itemFixer.fixItem(item, violations);
             event.setItem(fixedItem);
             logger.info("[EzObserver] 已修正违规物品");
         }
@@ -205,31 +246,48 @@ public class ItemMoveListener implements Listener {
     // 严格模式：检测物品拖拽
     @EventHandler(priority = EventPriority.HIGH)
     public void onInventoryDrag(InventoryDragEvent event) {
+        long start = perfMonitor.begin();
+        processInventoryDrag(event);
+        perfMonitor.record(PerfMonitor.Stage.LISTENER_DRAG, start);
+    }
+    
+    private void processInventoryDrag(InventoryDragEvent event) {
         if (!shouldProcessEvent(event)) return;
         
+        Player clicker = event.getWhoClicked() instanceof Player ? (Player) event.getWhoClicked() : null;
+        ItemStack dragged = event.getOldCursor();
+        eventRecorder.record(EventRecorder.Kind.DRAG, clicker, -1, dragged);
+        AdmissionController.Admission admission = admissionController.admit(clicker, AdmissionController.EventType.DRAG, dragged);
+        if (admission == AdmissionController.Admission.REJECT) {
+            event.setCancelled(true);
+            return;
+        }
+        if (admission == AdmissionController.Admission.SKIP) return;
+        
         for (ItemStack item : event.getNewItems().values()) {
             if (item == null) continue;
             
             List<String> violations = itemChecker.checkItem(item);
             if (!violations.isEmpty()) {
-                handleViolation(event.getWhoClicked() instanceof Player ? (Player) event.getWhoClicked() : null, item, violations);
+                handleViolation(clicker, item, violations);
                 
                 if (configManager.isConfiscateItems()) {
-                    handleConfiscation(event, item, event.getWhoClicked() instanceof Player ? (Player) event.getWhoClicked() : null);
+                    handleConfiscation(event, item, clicker, violations);
                 }
                 
                 event.setCancelled(true);
-                break;
+                return;
             }
         }
+        admissionController.markClean(clicker, AdmissionController.EventType.DRAG, dragged);
     }
     
     private boolean shouldProcessEvent(InventoryDragEvent event) {
         return configManager.isEnabled() && configManager.isStrictMode();
     }
     
-    private void handleConfiscation(InventoryDragEvent event, ItemStack item, Player player) {
-        boolean unfixable = isUnfixableViolation(item);
+    private void handleConfiscation(InventoryDragEvent event, ItemStack item, Player player, List<String> violations) {
+        boolean unfixable = isUnfixableViolation(item, violations);
         
         if (configManager.isDeleteMode() || unfixable) {
             event.setCancelled(true);
@@ -237,11 +295,10 @@ public class ItemMoveListener implements Listener {
                 logger.info("[EzObserver] 已阻止禁止物品拖拽: " + item.getType().name());
             }
         } else if (configManager.isStoreMode()) {
-            storeConfiscatedItem(player, item);
+            storeConfiscatedItem(player, item, violations);
             event.setCancelled(true);
         } else if (configManager.isFixMode()) {
-            ItemStack fixedItem = itemFixer.fixItem(item);
-            // 由于拖拽事件无法直接修改物品，只能取消事件
+            // 拖拽事件无法替换拖入的物品，不修正，由调用方取消事件
             logger.info("[EzObserver] 拖拽物品包含违规内容，已阻止操作");
         }
     }
@@ -249,16 +306,23 @@ public class ItemMoveListener implements Listener {
     // 严格模式：检测玩家丢弃物品
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerDropItem(PlayerDropItemEvent event) {
+        long start = perfMonitor.begin();
+        processPlayerDropItem(event);
+        perfMonitor.record(PerfMonitor.Stage.LISTENER_DROP, start);
+    }
+    
+    private void processPlayerDropItem(PlayerDropItemEvent event) {
         if (!shouldProcessEvent(event)) return;
         
         ItemStack item = event.getItemDrop().getItemStack();
+        eventRecorder.record(EventRecorder.Kind.DROP, event.getPlayer(), -1, item);
         List<String> violations = itemChecker.checkItem(item);
         
         if (!violations.isEmpty()) {
             handleViolation(event.getPlayer(), item, violations);
             
             if (configManager.isConfiscateItems()) {
-                handleConfiscation(event, item, event.getPlayer());
+                handleConfiscation(event, item, event.getPlayer(), violations);
             }
             
             event.getItemDrop().remove();
@@ -270,17 +334,17 @@ public class ItemMoveListener implements Listener {
         return configManager.isEnabled() && configManager.isStrictMode();
     }
     
-    private void handleConfiscation(PlayerDropItemEvent event, ItemStack item, Player player) {
-        boolean unfixable = isUnfixableViolation(item);
+    private void handleConfiscation(PlayerDropItemEvent event, ItemStack item, Player player, List<String> violations) {
+        boolean unfixable = isUnfixableViolation(item, violations);
         
         if (configManager.isDeleteMode() || unfixable) {
             if (unfixable) {
                 logger.info("[EzObserver] 已阻止丢弃禁止物品: " + item.getType().name());
             }
         } else if (configManager.isStoreMode()) {
-            storeConfiscatedItem(player, item);
+            storeConfiscatedItem(player, item, violations);
         } else if (configManager.isFixMode()) {
-            ItemStack fixedItem = itemFixer.fixItem(item);
+            ItemStack fixedItem = itemFixer.fixItem(item, violations);
             event.getItemDrop().setItemStack(fixedItem);
             logger.info("[EzObserver] 已修正违规物品");
         }
@@ -289,6 +353,12 @@ public class ItemMoveListener implements Listener {
     // 严格模式：检测玩家切换手持物品
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerItemHeld(PlayerItemHeldEvent event) {
+        long start = perfMonitor.begin();
+        processPlayerItemHeld(event);
+        perfMonitor.record(PerfMonitor.Stage.LISTENER_HELD, start);
+    }
+    
+    private void processPlayerItemHeld(PlayerItemHeldEvent event) {
         if (!shouldProcessEvent(event)) return;
         
         Player player = event.getPlayer();
@@ -296,12 +366,22 @@ public class ItemMoveListener implements Listener {
         
         if (item == null) return;
         
+        eventRecorder.record(EventRecorder.Kind.HELD, player, event.getNewSlot(), item);
+        AdmissionController.Admission admission = admissionController.admit(player, AdmissionController.EventType.HELD, item);
+        if (admission == AdmissionController.Admission.REJECT) {
+            event.setCancelled(true);
+            return;
+        }
+        if (admission == AdmissionController.Admission.SKIP) return;
+        
         List<String> violations = itemChecker.checkItem(item);
-        if (!violations.isEmpty()) {
+        if (violations.isEmpty()) {
+            admissionController.markClean(player, AdmissionController.EventType.HELD, item);
+        } else {
             handleViolation(player, item, violations);
             
             if (configManager.isConfiscateItems()) {
-                handleConfiscation(event, item, player);
+                handleConfiscation(event, item, player, violations);
             }
         }
     }
@@ -310,8 +390,8 @@ public class ItemMoveListener implements Listener {
         return configManager.isEnabled() && configManager.isStrictMode();
     }
     
-    private void handleConfiscation(PlayerItemHeldEvent event, ItemStack item, Player player) {
-        boolean unfixable = isUnfixableViolation(item);
+    private void handleConfiscation(PlayerItemHeldEvent event, ItemStack item, Player player, List<String> violations) {
+        boolean unfixable = isUnfixableViolation(item, violations);
         
         if (configManager.isDeleteMode() || unfixable) {
             player.getInventory().setItem(event.getNewSlot(), null);
@@ -319,10 +399,10 @@ public class ItemMoveListener implements Listener {
                 logger.info("[EzObserver] 已阻止使用禁止物品: " + item.getType().name());
             }
         } else if (configManager.isStoreMode()) {
-            storeConfiscatedItem(player, item);
+            storeConfiscatedItem(player, item, violations);
             player.getInventory().setItem(event.getNewSlot(), null);
         } else if (configManager.isFixMode()) {
-            ItemStack fixedItem = itemFixer.fixItem(item);
+            ItemStack fixedItem = itemFixer.fixItem(item, violations);
             player.getInventory().setItem(event.getNewSlot(), fixedItem);
             logger.info("[EzObserver] 已修正违规物品");
         }
@@ -331,16 +411,31 @@ public class ItemMoveListener implements Listener {
     // 严格模式：检测玩家交换手中物品
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerSwapHandItems(PlayerSwapHandItemsEvent event) {
+        long start = perfMonitor.begin();
+        processPlayerSwapHandItems(event);
+        perfMonitor.record(PerfMonitor.Stage.LISTENER_SWAP, start);
+    }
+    
+    private void processPlayerSwapHandItems(PlayerSwapHandItemsEvent event) {
         if (!shouldProcessEvent(event)) return;
         
         ItemStack mainHand = event.getMainHandItem();
         ItemStack offHand = event.getOffHandItem();
         
+        eventRecorder.record(EventRecorder.Kind.SWAP, event.getPlayer(), -1, mainHand, offHand);
+        AdmissionController.Admission admission = admissionController.admit(event.getPlayer(),
+                AdmissionController.EventType.SWAP, mainHand, offHand);
+        if (admission == AdmissionController.Admission.REJECT) {
+            event.setCancelled(true);
+            return;
+        }
+        if (admission == AdmissionController.Admission.SKIP) return;
+        
         // getMainHandItem()和getOffHandItem()永远不会返回null，所以不需要null检查
         List<String> mainHandViolations = itemChecker.checkItem(mainHand);
         if (!mainHandViolations.isEmpty()) {
             handleViolation(event.getPlayer(), mainHand, mainHandViolations);
-            handleConfiscation(event, mainHand, event.getPlayer());
+            handleConfiscation(event, mainHand, event.getPlayer(), mainHandViolations);
             event.setCancelled(true);
             return;
         }
@@ -348,27 +443,29 @@ public class ItemMoveListener implements Listener {
         List<String> offHandViolations = itemChecker.checkItem(offHand);
         if (!offHandViolations.isEmpty()) {
             handleViolation(event.getPlayer(), offHand, offHandViolations);
-            handleConfiscation(event, offHand, event.getPlayer());
+            handleConfiscation(event, offHand, event.getPlayer(), offHandViolations);
             event.setCancelled(true);
+            return;
         }
+        
+        admissionController.markClean(event.getPlayer(), AdmissionController.EventType.SWAP, mainHand, offHand);
     }
     
     private boolean shouldProcessEvent(PlayerSwapHandItemsEvent event) {
         return configManager.isEnabled() && configManager.isStrictMode();
     }
     
-    private void handleConfiscation(PlayerSwapHandItemsEvent event, ItemStack item, Player player) {
-        boolean unfixable = isUnfixableViolation(item);
+    private void handleConfiscation(PlayerSwapHandItemsEvent event, ItemStack item, Player player, List<String> violations) {
+        boolean unfixable = isUnfixableViolation(item, violations);
         
         if (configManager.isDeleteMode() || unfixable) {
             if (unfixable) {
                 logger.info("[EzObserver] 已阻止使用禁止物品: " + item.getType().name());
             }
         } else if (configManager.isStoreMode()) {
-            storeConfiscatedItem(player, item);
+            storeConfiscatedItem(player, item, violations);
         } else if (configManager.isFixMode()) {
-            ItemStack fixedItem = itemFixer.fixItem(item);
-            // 由于事件无法直接修改物品，只能取消事件
+            // 交换事件无法替换交换的物品，不修正，由调用方取消事件
             logger.info("[EzObserver] 检测到违规物品，已阻止交换");
         }
     }
@@ -376,15 +473,32 @@ public class ItemMoveListener implements Listener {
     // 严格模式：检测玩家使用物品
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerInteract(PlayerInteractEvent event) {
+        long start = perfMonitor.begin();
+        processPlayerInteract(event);
+        perfMonitor.record(PerfMonitor.Stage.LISTENER_INTERACT, start);
+    }
+    
+    private void processPlayerInteract(PlayerInteractEvent event) {
         if (!shouldProcessEvent(event)) return;
         
         ItemStack item = event.getItem();
         if (item == null) return;
         
+        eventRecorder.record(EventRecorder.Kind.INTERACT, event.getPlayer(), -1, item);
+        AdmissionController.Admission admission = admissionController.admit(event.getPlayer(),
+                AdmissionController.EventType.INTERACT, item);
+        if (admission == AdmissionController.Admission.REJECT) {
+            event.setCancelled(true);
+            return;
+        }
+        if (admission == AdmissionController.Admission.SKIP) return;
+        
         List<String> violations = itemChecker.checkItem(item);
-        if (!violations.isEmpty()) {
+        if (violations.isEmpty()) {
+            admissionController.markClean(event.getPlayer(), AdmissionController.EventType.INTERACT, item);
+        } else {
             handleViolation(event.getPlayer(), item, violations);
-            handleConfiscation(event, item, event.getPlayer());
+            handleConfiscation(event, item, event.getPlayer(), violations);
             event.setCancelled(true);
         }
     }
@@ -393,8 +507,8 @@ public class ItemMoveListener implements Listener {
         return configManager.isEnabled() && configManager.isStrictMode();
     }
     
-    private void handleConfiscation(PlayerInteractEvent event, ItemStack item, Player player) {
-        boolean unfixable = isUnfixableViolation(item);
+    private void handleConfiscation(PlayerInteractEvent event, ItemStack item, Player player, List<String> violations) {
+        boolean unfixable = isUnfixableViolation(item, violations);
         
         if (configManager.isDeleteMode() || unfixable) {
             event.getPlayer().getInventory().setItemInMainHand(null);
@@ -402,10 +516,10 @@ public class ItemMoveListener implements Listener {
                 logger.info("[EzObserver] 已阻止使用禁止物品: " + item.getType().name());
             }
         } else if (configManager.isStoreMode()) {
-            storeConfiscatedItem(player, item);
+            storeConfiscatedItem(player, item, violations);
             event.getPlayer().getInventory().setItemInMainHand(null);
         } else if (configManager.isFixMode()) {
-            ItemStack fixedItem = itemFixer.fixItem(item);
+            ItemStack fixedItem = itemFixer.fixItem(item, violations);
             event.getPlayer().getInventory().setItemInMainHand(fixedItem);
             logger.info("[EzObserver] 已修正违规物品");
         }
@@ -413,16 +527,23 @@ public class ItemMoveListener implements Listener {
     
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerPickupItem(PlayerPickupItemEvent event) {
+        long start = perfMonitor.begin();
+        processPlayerPickupItem(event);
+        perfMonitor.record(PerfMonitor.Stage.LISTENER_PICKUP, start);
+    }
+    
+    private void processPlayerPickupItem(PlayerPickupItemEvent event) {
         if (!configManager.isEnabled()) return;
         
         ItemStack item = event.getItem().getItemStack();
+        eventRecorder.record(EventRecorder.Kind.PICKUP, event.getPlayer(), -1, item);
         List<String> violations = itemChecker.checkItem(item);
         
         if (!violations.isEmpty()) {
             handleViolation(event.getPlayer(), item, violations);
             
             if (configManager.isConfiscateItems()) {
-                boolean unfixable = isUnfixableViolation(item);
+                boolean unfixable = isUnfixableViolation(item, violations);
                 
                 if (configManager.isDeleteMode() || unfixable) {
                     event.getItem().remove();
@@ -431,11 +552,11 @@ public class ItemMoveListener implements Listener {
                         logger.info("已删除禁止物品: " + item.getType().name());
                     }
                 } else if (configManager.isStoreMode()) {
-                    storeConfiscatedItem(event.getPlayer(), item);
+                    storeConfiscatedItem(event.getPlayer(), item, violations);
                     event.getItem().remove();
                     event.setCancelled(true);
                 } else if (configManager.isFixMode()) {
-                    ItemStack fixedItem = itemFixer.fixItem(item);
+                    ItemStack fixedItem = itemFixer.fixItem(item, violations);
                     event.getItem().setItemStack(fixedItem);
                     logger.info("已修正违规物品");
                 }
@@ -444,104 +565,34 @@ public class ItemMoveListener implements Listener {
     }
 
     private void handleViolation(Player player, ItemStack item, List<String> violations) {
-        String playerName = player != null ? player.getName() : "未知";
         String itemName = item.getType().name();
-        String reason = String.join(", ", violations);
-
-        // 异步处理日志和广播
-        plugin.getServer().getGlobalRegionScheduler().run(plugin, task -> {
-            try {
-                // 记录日志
-                if (configManager.isLogViolations()) {
-                    StringBuilder logMessage = new StringBuilder();
-                    logMessage.append("[EzObserver] 检测到违规物品: ").append(itemName);
 
-                    if (player != null) {
-                        logMessage.append(" | 玩家: ").append(playerName);
-                    }
-
-                    logMessage.append(" | 违规原因: ");
-                    for (String violation : violations) {
-                        logMessage.append("\n  - ").append(violation);
-                    }
-
-                    logger.warning(logMessage.toString());
-                }
-
-                // 广播消息
-                if (configManager.isBroadcastViolations()) {
-                    java.util.Map<String, String> placeholders = new java.util.HashMap<>();
-                    placeholders.put("player", playerName);
-                    placeholders.put("item", itemName);
-                    placeholders.put("reason", reason);
+        String mode = configManager.getConfiscateMode();
+        // 如果是违禁物品且配置了删除模式，覆盖 mode
+        if (isUnfixableViolation(item, violations)) {
+            mode = "delete";
+        }
 
-                    String mode = configManager.getConfiscateMode();
-                    // 如果是违禁物品且配置了删除模式，覆盖 mode
-                    if (isUnfixableViolation(item)) {
-                        mode = "delete";
-                    }
+        ConfiscationEvent.emit("listener", player, item, configManager.isConfiscateItems() ? mode : "none", violations);
+        
+        // 记录日志：只入队，写文件和控制台输出由违规日志的后台线程完成
+        if (configManager.isLogViolations()) {
+            plugin.getViolationJournal().record(player, itemName, mode, violations);
+        }
 
-                    // 修正：我们需要根据 mode 获取对应的消息 key
-                    String key = "broadcast-delete";
-                    if ("store".equalsIgnoreCase(mode)) key = "broadcast-store";
-                    else if ("fix".equalsIgnoreCase(mode)) key = "broadcast-fix";
+        // 广播消息：交给聚合器按窗口汇总后统一发送
+        if (configManager.isBroadcastViolations()) {
+            String key = "broadcast-delete";
+            if ("store".equalsIgnoreCase(mode)) key = "broadcast-store";
+            else if ("fix".equalsIgnoreCase(mode)) key = "broadcast-fix";
 
-                    plugin.getServer().broadcast(plugin.getMessageManager().getMessage(key, placeholders));
-                }
-            } catch (Exception e) {
-                logger.severe("处理违规物品时发生错误: " + e.getMessage());
-                logger.severe("异常详情: " + e.getClass().getName() + ": " + e.getMessage());
-            }
-        });
+            plugin.getAlertAggregator().record(player, itemName, key, violations);
+        }
     }
 
-    private void storeConfiscatedItem(Player player, ItemStack item) {
-        try {
-            File storageDir = new File(configManager.getConfiscateStoragePath());
-            if (!storageDir.exists()) {
-                boolean created = storageDir.mkdirs();
-                if (!created) {
-                    logger.warning("无法创建存储目录: " + storageDir.getAbsolutePath());
-                }
-            }
-
-            String timestamp = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
-            String playerName = player != null ? player.getName() : "unknown";
-            String fileName = String.format("%s_%s_%s.yml", timestamp, playerName, item.getType().name());
-            File file = new File(storageDir, fileName);
-
-            YamlConfiguration config = new YamlConfiguration();
-            config.set("item", item);
-            config.set("player", playerName);
-            config.set("timestamp", timestamp);
-            config.set("type", item.getType().name());
-            
-            config.save(file);
-            logger.info("已存储没收物品: " + fileName);
-        } catch (IOException e) {
-            logger.severe("存储没收物品失败: " + e.getMessage());
-        }
-    }
-    private void logViolationToFile(Player player, ItemStack item, List<String> violations) {
-        try {
-            File logFile = new File(plugin.getDataFolder(), "violations.log");
-            if (!logFile.exists()) {
-                boolean created = logFile.createNewFile();
-                if (!created) {
-                    logger.warning("无法创建违规日志文件: " + logFile.getAbsolutePath());
-                }
-            }
-            
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-            String timestamp = sdf.format(new Date());
-            
-            String logEntry = String.format("[%s] 玩家: %s, 物品: %s, 违规原因: %s%n",
-                timestamp, player != null ? player.getName() : "未知", item.getType().name(), String.join(", ", violations));
-            
-            Files.writeString(logFile.toPath(), logEntry, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
-            
-        } catch (IOException e) {
-            logger.severe("写入违规日志时发生错误: " + e.getMessage());
-        }
+    private void storeConfiscatedItem(Player player, ItemStack item, List<String> violations) {
+        // 序列化在当前线程完成，文件写入由没收库的后台线程批量处理
+        plugin.getConfiscationVault().store(player, item, violations);
+        logger.info("已存储没收物品: " + item.getType().name() + (player != null ? " | 玩家: " + player.getName() : ""));
     }
 }
\ No newline at end of file
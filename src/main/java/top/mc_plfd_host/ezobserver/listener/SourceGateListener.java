@@ -0,0 +1,191 @@
+package top.mc_plfd_host.ezobserver.listener;
+
+import io.papermc.paper.event.player.PlayerTradeEvent;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockDispenseEvent;
+import org.bukkit.event.enchantment.EnchantItemEvent;
+import org.bukkit.event.inventory.CraftItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.event.inventory.PrepareAnvilEvent;
+import org.bukkit.event.world.LootGenerateEvent;
+import org.bukkit.inventory.AnvilInventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.checker.ItemChecker;
+import top.mc_plfd_host.ezobserver.checker.ProvenanceCache;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.jfr.ConfiscationEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 物品来源检测
+ * 在物品产生的位置检测：铁砧、附魔台、合成、战利品生成、发射器和村民交易。
+ * 违规的物品在产生时就被阻止；检测通过的物品记入 ProvenanceCache，之后的移动检测走快速路径
+ * 创造模式取物由 CreativeFirewall 处理
+ *
+ * 优先级低于 ItemMoveListener，同一次点击中 ItemMoveListener 的检测可以直接命中
+ *
+ * @author Kush_ShuL
+ */
+public class SourceGateListener implements Listener {
+
+    private final EzObserver plugin;
+    private final ItemChecker itemChecker;
+    private final ProvenanceCache provenanceCache;
+
+    public SourceGateListener(EzObserver plugin) {
+        this.plugin = plugin;
+        this.itemChecker = new ItemChecker(plugin);
+        this.provenanceCache = plugin.getProvenanceCache();
+    }
+
+    /**
+     * 铁砧每次放入物品或修改名称都会触发，只是结果预览：违规时只清空结果，不记录日志和广播
+     */
+    @EventHandler(priority = EventPriority.NORMAL)
+    public void onPrepareAnvil(PrepareAnvilEvent event) {
+        Player player = event.getView().getPlayer() instanceof Player p ? p : null;
+        if (!inspect(player, event.getResult(), plugin.getConfigManager().getSnapshot()).isEmpty()) {
+            event.setResult(null);
+        }
+    }
+
+    /**
+     * 实际取出铁砧结果时完整检测，其他插件在预览之后设置的结果也在这里拦截
+     */
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onAnvilTake(InventoryClickEvent event) {
+        if (!(event.getInventory() instanceof AnvilInventory) || event.getSlotType() != InventoryType.SlotType.RESULT) {
+            return;
+        }
+        Player player = event.getWhoClicked() instanceof Player p ? p : null;
+        if (!gate(player, event.getCurrentItem(), "anvil")) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onEnchant(EnchantItemEvent event) {
+        if (!gate(event.getEnchanter(), enchantResult(event.getItem(), event.getEnchantsToAdd()), "enchant")) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onCraft(CraftItemEvent event) {
+        Player player = event.getWhoClicked() instanceof Player p ? p : null;
+        // 配方的结果只是模板，实际产出（例如修复、染色、复制地图）以合成格中的结果为准
+        if (!gate(player, event.getInventory().getResult(), "craft")) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onTrade(PlayerTradeEvent event) {
+        if (!gate(event.getPlayer(), event.getTrade().getResult(), "trade")) {
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onDispense(BlockDispenseEvent event) {
+        if (!gate(null, event.getItem(), "dispense")) {
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * 战利品逐件检测，只移除违规的物品
+     */
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onLootGenerate(LootGenerateEvent event) {
+        Player player = event.getEntity() instanceof Player p ? p : null;
+        List<ItemStack> loot = event.getLoot();
+        List<ItemStack> allowed = new ArrayList<>(loot.size());
+        for (ItemStack item : loot) {
+            if (gate(player, item, "loot")) {
+                allowed.add(item);
+            }
+        }
+        if (allowed.size() != loot.size()) {
+            event.setLoot(allowed);
+        }
+    }
+
+    /**
+     * 检测新产生的物品，通过时记为可信
+     *
+     * @param player 产生物品的玩家，可以为 null
+     * @param source 来源名称，用于日志和 JFR 事件
+     * @return 是否允许产生该物品
+     */
+    private boolean gate(Player player, ItemStack item, String source) {
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        List<String> violations = inspect(player, item, config);
+        if (violations.isEmpty()) {
+            return true;
+        }
+
+        String itemName = item.getType().name();
+        plugin.getLogger().info("阻止产生违规物品 (" + source + "): " + itemName
+                + (player != null ? " | 玩家: " + player.getName() : "") + " | " + violations);
+        ConfiscationEvent.emit("source-" + source, player, item, "delete", violations);
+        if (config.isLogViolations()) {
+            plugin.getViolationJournal().record(player, itemName, "delete", violations);
+        }
+        if (config.isBroadcastViolations()) {
+            plugin.getAlertAggregator().record(player, itemName, "broadcast-delete", violations);
+        }
+        return false;
+    }
+
+    /**
+     * 只检测不记录，通过时记为可信
+     *
+     * @return 违规列表，不需要检测或检测通过时为空
+     */
+    private List<String> inspect(Player player, ItemStack item, ConfigSnapshot config) {
+        if (!config.isEnabled() || !config.isSourceGateEnabled() || item == null || item.getType() == Material.AIR) {
+            return List.of();
+        }
+        if (player != null && plugin.getPermissionManager().canBypass(player)) {
+            return List.of();
+        }
+
+        List<String> violations = itemChecker.checkItem(item);
+        if (violations.isEmpty()) {
+            provenanceCache.trust(item, config);
+        }
+        return violations;
+    }
+
+    /**
+     * 附魔台的附魔在事件之后才写入物品，按事件中的附魔预先生成结果；书会变为附魔书
+     */
+    private static ItemStack enchantResult(ItemStack item, Map<Enchantment, Integer> enchants) {
+        if (item == null) {
+            return null;
+        }
+        if (item.getType() == Material.BOOK) {
+            ItemStack book = new ItemStack(Material.ENCHANTED_BOOK, item.getAmount());
+            if (book.getItemMeta() instanceof EnchantmentStorageMeta meta) {
+                enchants.forEach((enchantment, level) -> meta.addStoredEnchant(enchantment, level, true));
+                book.setItemMeta(meta);
+            }
+            return book;
+        }
+        ItemStack result = item.clone();
+        result.addUnsafeEnchantments(enchants);
+        return result;
+    }
+}
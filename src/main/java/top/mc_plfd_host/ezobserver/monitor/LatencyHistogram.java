@@ -0,0 +1,150 @@
+package top.mc_plfd_host.ezobserver.monitor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 对数-线性分桶的延迟直方图 (HDR 风格)
+ * 每个 2 的幂区间分为 16 个子桶，相对误差不超过 1/16；记录只是一次原子加，不分配对象
+ * 桶数组按线程分为多条，减少多个区域线程同时记录时的缓存行争用
+ *
+ * @author Kush_ShuL
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // 超过约 68 秒的值记入最后一个桶
+    private static final int MAX_EXPONENT = 36;
+    private static final long MAX_TRACKABLE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) << SUB_BUCKET_BITS;
+    private static final int STRIPES = 4;
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKET_COUNT);
+        }
+    }
+
+    /**
+     * 记录一个值 (纳秒)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_TRACKABLE));
+        int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+        stripes[stripe].incrementAndGet(bucketIndex(value));
+        count.increment();
+        total.add(value);
+
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * 清空所有记录，与并发的 record 之间不保证原子性
+     */
+    public void reset() {
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                stripe.set(i, 0);
+            }
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * 合并所有分条，生成当前的统计快照
+     */
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKET_COUNT];
+        long sum = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long bucket = stripe.get(i);
+                buckets[i] += bucket;
+                sum += bucket;
+            }
+        }
+        return new Snapshot(buckets, sum, total.sum(), max.get());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+    }
+
+    /**
+     * 桶内的最大值，分位数按此值报告，不会低估
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lower = (long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * 直方图在某一时刻的统计结果
+     */
+    public static final class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long total;
+        private final long max;
+
+        private Snapshot(long[] buckets, long count, long total, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getMean() {
+            return count > 0 ? total / count : 0;
+        }
+
+        /**
+         * 分位数 (纳秒)
+         *
+         * @param quantile 0 到 1 之间
+         */
+        public long getPercentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package top.mc_plfd_host.ezobserver.monitor;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 性能统计
+ * 记录监听器、检测器各阶段、修正器、实时监控和扫描的耗时直方图，以及各缓存的命中率，
+ * 通过 /ezobserver perf 查看，并可定期追加到 perf/perf.log（按大小滚动）
+ *
+ * 用法：long start = perf.begin(); ...; perf.record(Stage.X, start);
+ * 统计关闭时 begin 返回 DISABLED，record 直接返回，不调用 System.nanoTime
+ *
+ * @author Kush_ShuL
+ */
+public class PerfMonitor {
+
+    /**
+     * begin() 在统计关闭时的返回值
+     */
+    public static final long DISABLED = Long.MIN_VALUE;
+
+    /**
+     * 计时阶段，名称用于命令输出和日志
+     */
+    public enum Stage {
+        LISTENER_CLICK("listener.click"),
+        LISTENER_MOVE("listener.move"),
+        LISTENER_DRAG("listener.drag"),
+        LISTENER_DROP("listener.drop"),
+        LISTENER_HELD("listener.held"),
+        LISTENER_SWAP("listener.swap"),
+        LISTENER_INTERACT("listener.interact"),
+        LISTENER_PICKUP("listener.pickup"),
+        LISTENER_CREATIVE("listener.creative"),
+        CHECK("checker.total"),
+        CHECK_SIZE("checker.size"),
+        CHECK_WHITELIST("checker.whitelist"),
+        CHECK_ENCHANTMENTS("checker.enchantments"),
+        CHECK_META("checker.meta"),
+        CHECK_SPECIAL("checker.special"),
+        FIX("fixer.fix"),
+        MONITOR_PASS("monitor.pass"),
+        SCAN_BATCH("scanner.batch");
+
+        private final String displayName;
+
+        Stage(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 统计命中率的缓存
+     */
+    public enum Cache {
+        WHITELIST("whitelist"),
+        VERDICT_STAMP("verdict-stamp"),
+        FIX_TEMPLATE("fix-template"),
+        SIZE_ESTIMATE("size-estimate"),
+        PROVENANCE("provenance");
+
+        private final String displayName;
+
+        Cache(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final Cache[] CACHES = Cache.values();
+    private static final String LOG_NAME = "perf.log";
+
+    private final EzObserver plugin;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private final LongAdder[] hits = new LongAdder[CACHES.length];
+    private final LongAdder[] misses = new LongAdder[CACHES.length];
+
+    private volatile long resetNanos = System.nanoTime();
+    private ScheduledTask dumpTask;
+
+    public PerfMonitor(EzObserver plugin) {
+        this.plugin = plugin;
+        for (int i = 0; i < STAGES.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < CACHES.length; i++) {
+            hits[i] = new LongAdder();
+            misses[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 按配置启动定期写入日志的任务
+     */
+    public void start() {
+        long minutes = getSnapshot().getPerfDumpIntervalMinutes();
+        if (minutes <= 0) {
+            return;
+        }
+        dumpTask = plugin.getServer().getAsyncScheduler().runAtFixedRate(plugin, task -> {
+            try {
+                dump();
+            } catch (IOException e) {
+                plugin.getLogger().warning("写入性能统计日志失败: " + e.getMessage());
+            }
+        }, minutes, minutes, TimeUnit.MINUTES);
+    }
+
+    public void stop() {
+        if (dumpTask != null) {
+            dumpTask.cancel();
+            dumpTask = null;
+        }
+    }
+
+    // ========== 记录 ==========
+
+    public long begin() {
+        return getSnapshot().isPerfEnabled() ? System.nanoTime() : DISABLED;
+    }
+
+    public void record(Stage stage, long startNanos) {
+        if (startNanos != DISABLED) {
+            histograms[stage.ordinal()].record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public void hit(Cache cache) {
+        if (getSnapshot().isPerfEnabled()) {
+            hits[cache.ordinal()].increment();
+        }
+    }
+
+    public void miss(Cache cache) {
+        if (getSnapshot().isPerfEnabled()) {
+            misses[cache.ordinal()].increment();
+        }
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        for (int i = 0; i < CACHES.length; i++) {
+            hits[i].reset();
+            misses[i].reset();
+        }
+        resetNanos = System.nanoTime();
+    }
+
+    // ========== 报告 ==========
+
+    /**
+     * 距上次重置的秒数
+     */
+    public double getElapsedSeconds() {
+        return Math.max(1e-3, (System.nanoTime() - resetNanos) / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * 有记录的阶段的统计
+     */
+    public List<StageStats> getStageStats() {
+        double seconds = getElapsedSeconds();
+        List<StageStats> stats = new ArrayList<>();
+        for (Stage stage : STAGES) {
+            LatencyHistogram.Snapshot snapshot = histograms[stage.ordinal()].snapshot();
+            if (snapshot.getCount() > 0) {
+                stats.add(new StageStats(stage, snapshot, snapshot.getCount() / seconds));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * 缓存命中率，没有访问时返回 -1
+     */
+    public double getHitRatio(Cache cache) {
+        long hit = hits[cache.ordinal()].sum();
+        long total = hit + misses[cache.ordinal()].sum();
+        return total > 0 ? hit / (double) total : -1;
+    }
+
+    public long getLookups(Cache cache) {
+        return hits[cache.ordinal()].sum() + misses[cache.ordinal()].sum();
+    }
+
+    /**
+     * 把当前统计追加到 perf/perf.log，文件超过上限时滚动为 perf.log.1、perf.log.2 ...
+     *
+     * @return 写入的日志文件
+     */
+    public synchronized File dump() throws IOException {
+        ConfigSnapshot config = getSnapshot();
+        File directory = new File(plugin.getDataFolder(), "perf");
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("无法创建目录: " + directory.getAbsolutePath());
+        }
+        File file = new File(directory, LOG_NAME);
+        if (file.length() >= config.getPerfMaxFileSizeMb() * 1024L * 1024L) {
+            rotate(directory, config.getPerfMaxFiles());
+        }
+
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
+            for (String line : formatReport()) {
+                writer.write(line);
+                writer.newLine();
+            }
+            writer.newLine();
+        }
+        return file;
+    }
+
+    private void rotate(File directory, int maxFiles) throws IOException {
+        File oldest = new File(directory, LOG_NAME + "." + maxFiles);
+        if (oldest.exists() && !oldest.delete()) {
+            throw new IOException("无法删除旧的性能统计日志: " + oldest.getName());
+        }
+        for (int i = maxFiles - 1; i >= 0; i--) {
+            File source = new File(directory, i == 0 ? LOG_NAME : LOG_NAME + "." + i);
+            if (source.exists() && !source.renameTo(new File(directory, LOG_NAME + "." + (i + 1)))) {
+                throw new IOException("无法滚动性能统计日志: " + source.getName());
+            }
+        }
+    }
+
+    private List<String> formatReport() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("=== %s (统计时长 %.0f 秒) ===",
+                new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()), getElapsedSeconds()));
+        for (StageStats stats : getStageStats()) {
+            lines.add(String.format("%-22s calls=%d rate=%.1f/s mean=%s p50=%s p99=%s max=%s",
+                    stats.getStage().getDisplayName(), stats.getCount(), stats.getRate(),
+                    formatNanos(stats.getMean()), formatNanos(stats.getP50()),
+                    formatNanos(stats.getP99()), formatNanos(stats.getMax())));
+        }
+        for (Cache cache : CACHES) {
+            double ratio = getHitRatio(cache);
+            if (ratio >= 0) {
+                lines.add(String.format("cache.%-16s lookups=%d hit=%.1f%%",
+                        cache.getDisplayName(), getLookups(cache), ratio * 100));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * 把纳秒格式化为 ns/us/ms
+     */
+    public static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format("%.1fus", nanos / 1_000.0);
+        }
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+
+    private ConfigSnapshot getSnapshot() {
+        return plugin.getConfigManager().getSnapshot();
+    }
+
+    /**
+     * 单个阶段的统计结果
+     */
+    public static final class StageStats {
+        private final Stage stage;
+        private final LatencyHistogram.Snapshot snapshot;
+        private final double rate;
+
+        private StageStats(Stage stage, LatencyHistogram.Snapshot snapshot, double rate) {
+            this.stage = stage;
+            this.snapshot = snapshot;
+            this.rate = rate;
+        }
+
+        public Stage getStage() {
+            return stage;
+        }
+
+        public long getCount() {
+            return snapshot.getCount();
+        }
+
+        /**
+         * 每秒调用次数
+         */
+        public double getRate() {
+            return rate;
+        }
+
+        public long getMean() {
+            return snapshot.getMean();
+        }
+
+        public long getP50() {
+            return snapshot.getPercentile(0.50);
+        }
+
+        public long getP99() {
+            return snapshot.getPercentile(0.99);
+        }
+
+        public long getMax() {
+            return snapshot.getMax();
+        }
+    }
+}
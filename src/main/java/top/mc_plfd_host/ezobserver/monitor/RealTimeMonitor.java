@@ -6,7 +6,14 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import top.mc_plfd_host.ezobserver.EzObserver;
 import top.mc_plfd_host.ezobserver.checker.ItemChecker;
+import top.mc_plfd_host.ezobserver.checker.VerdictStamp;
 import top.mc_plfd_host.ezobserver.config.ConfigManager;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.fixer.InventoryEnforcer;
+import top.mc_plfd_host.ezobserver.fixer.ItemFixer;
+import top.mc_plfd_host.ezobserver.fixer.SlotFix;
+import top.mc_plfd_host.ezobserver.jfr.ConfiscationEvent;
+import top.mc_plfd_host.ezobserver.jfr.ScanBatchEvent;
 import top.mc_plfd_host.ezobserver.util.FoliaUtil;
 
 import java.util.*;
@@ -17,6 +24,8 @@ public class RealTimeMonitor {
     private final EzObserver plugin;
     private final ConfigManager configManager;
     private final ItemChecker itemChecker;
+    private final ItemFixer itemFixer;
+    private final InventoryEnforcer inventoryEnforcer;
     private final Map<UUID, Integer> playerViolationCount = new ConcurrentHashMap<>();
     private final Map<UUID, List<String>> playerViolationHistory = new ConcurrentHashMap<>();
     private volatile boolean monitoringEnabled = true;
@@ -27,6 +36,8 @@ public class RealTimeMonitor {
         this.plugin = plugin;
         this.configManager = plugin.getConfigManager();
         this.itemChecker = new ItemChecker(plugin);
+        this.itemFixer = new ItemFixer(plugin, plugin.getFixTemplateCache());
+        this.inventoryEnforcer = new InventoryEnforcer(plugin);
     }
     
     /**
@@ -76,16 +87,35 @@ public class RealTimeMonitor {
     private void scanPlayerInventory(Player player) {
         if (player == null || !player.isOnline()) return;
         
+        long start = plugin.getPerfMonitor().begin();
+        ScanBatchEvent event = new ScanBatchEvent();
+        event.begin();
+        int scannedItems = 0;
         UUID playerId = player.getUniqueId();
         int violationCount = 0;
         List<String> currentViolations = new ArrayList<>();
+        List<SlotFix> fixes = new ArrayList<>();
+        ConfigSnapshot config = configManager.getSnapshot();
+        VerdictStamp verdictStamp = plugin.getVerdictStamp();
         
-        // 扫描背包
-        for (ItemStack item : player.getInventory().getContents()) {
+        // 扫描背包，格子下标与 setContents 一致
+        ItemStack[] contents = player.getInventory().getContents();
+        for (int slot = 0; slot < contents.length; slot++) {
+            ItemStack item = contents[slot];
             if (item == null || item.getType() == Material.AIR) continue;
             
+            scannedItems++;
+            plugin.getDupeDetector().observe(player, item);
             List<String> itemViolations = itemChecker.checkItem(item);
-            if (!itemViolations.isEmpty()) {
+            if (itemViolations.isEmpty()) {
+                // 为检测通过的物品加印章，之后的检测可以直接跳过；刚校验过印章的物品 stamp 返回原物品
+                if (config.isVerdictStampEnabled() && !configManager.getWhitelistManager().isWhitelisted(item)) {
+                    ItemStack stamped = verdictStamp.stamp(item, config);
+                    if (stamped != null && stamped != item && !stamped.equals(item)) {
+                        fixes.add(SlotFix.replace(slot, item, stamped));
+                    }
+                }
+            } else {
                 violationCount++;
                 currentViolations.addAll(itemViolations);
                 
@@ -94,11 +124,17 @@ public class RealTimeMonitor {
                 
                 // 自动修复
                 if (configManager.isAutoFixEnabled()) {
-                    handleAutoFix(player, item, itemViolations);
+                    SlotFix fix = planAutoFix(player, slot, item, itemViolations);
+                    if (fix != null) {
+                        fixes.add(fix);
+                    }
                 }
             }
         }
         
+        // 所有修复一次性应用
+        inventoryEnforcer.apply(player, fixes);
+        
         // 更新违规计数
         if (violationCount > 0) {
             playerViolationCount.merge(playerId, violationCount, Integer::sum);
@@ -108,21 +144,35 @@ public class RealTimeMonitor {
             // 限制历史记录大小
             limitHistorySize(playerId);
         }
+        plugin.getPerfMonitor().record(PerfMonitor.Stage.MONITOR_PASS, start);
+        event.finish("monitor", player, scannedItems, violationCount, fixes.size());
     }
     
     /**
-     * 自动修复违规物品
+     * 生成单个格子的自动修复操作，关闭没收 (confiscate-items: false) 时只记录不处理
      */
-    private void handleAutoFix(Player player, ItemStack item, List<String> violations) {
+    private SlotFix planAutoFix(Player player, int slot, ItemStack item, List<String> violations) {
+        if (!configManager.isConfiscateItems()) {
+            plugin.getLogger().info("检测到玩家 " + player.getName() + " 的违规物品: " + violations);
+            ConfiscationEvent.emit("monitor", player, item, "none", violations);
+            return null;
+        }
         if (configManager.isAutoDeleteEnabled()) {
             // 删除违规物品
-            player.getInventory().remove(item);
             plugin.getLogger().info("自动删除玩家 " + player.getName() + " 的违规物品: " + violations);
-        } else if (configManager.isAutoFixEnabled()) {
-            // 修复违规物品
-            // 这里可以添加具体的修复逻辑
+            ConfiscationEvent.emit("monitor", player, item, "delete", violations);
+            return SlotFix.delete(slot, item);
+        }
+        // 修复违规物品
+        ItemStack fixed = itemFixer.fixItem(item, violations);
+        if (fixed == null || fixed.equals(item)) {
             plugin.getLogger().info("检测到玩家 " + player.getName() + " 的违规物品: " + violations);
+            ConfiscationEvent.emit("monitor", player, item, "none", violations);
+            return null;
         }
+        plugin.getLogger().info("自动修复玩家 " + player.getName() + " 的违规物品: " + violations);
+        ConfiscationEvent.emit("monitor", player, item, "fix", violations);
+        return SlotFix.replace(slot, item, fixed);
     }
     
     /**
@@ -0,0 +1,173 @@
+package top.mc_plfd_host.ezobserver.rules;
+
+import org.bukkit.Material;
+import top.mc_plfd_host.ezobserver.config.TrustedDataRules;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 检测规则使用的物品视图
+ * 插件从 ItemStack / ItemMeta 读取，离线审计工具从 NBT 读取，{@link ItemRules} 只依赖这个接口，
+ * 两边使用同一套规则和违规描述
+ *
+ * 附魔名称为去掉命名空间的小写形式（例如 sharpness），物品没有对应数据时返回空集合、null 或 false
+ *
+ * @author Kush_ShuL
+ */
+public interface ItemFacts {
+
+    /**
+     * 物品类型，离线数据中无法识别的类型（例如模组物品）返回 null
+     */
+    Material getType();
+
+    /**
+     * 物品类型名称，例如 DIAMOND_SWORD
+     */
+    String getTypeName();
+
+    /**
+     * 物品是否带有元数据
+     */
+    boolean hasMeta();
+
+    /**
+     * 物品上的附魔及等级
+     */
+    Map<String, Integer> getEnchantments();
+
+    /**
+     * 附魔的原版最大等级，未知附魔返回 0
+     * 由运行环境提供：插件使用服务器注册表，离线审计使用内置的原版数据
+     */
+    int getVanillaMaxLevel(String enchantment);
+
+    /**
+     * 附魔能否应用到该类型的干净物品上
+     */
+    boolean canEnchant(String enchantment);
+
+    /**
+     * 附魔书是否存储了附魔
+     */
+    boolean hasStoredEnchantments();
+
+    /**
+     * 旧版格式的显示名称，没有时返回 null
+     */
+    String getDisplayName();
+
+    /**
+     * 旧版格式的 Lore
+     */
+    List<String> getLore();
+
+    List<Modifier> getAttributeModifiers();
+
+    boolean isUnbreakable();
+
+    /**
+     * 药水类物品的自定义效果
+     */
+    List<Effect> getCustomEffects();
+
+    /**
+     * 烟花火箭的飞行时间
+     */
+    int getFireworkFlight();
+
+    /**
+     * 活塞物品是否处于伸出状态
+     */
+    boolean isPistonExtended();
+
+    /**
+     * 刷怪蛋实际生成的实体类型（大写），无法获取时返回 null
+     */
+    String getSpawnedEntityType();
+
+    /**
+     * 是否携带自定义实体数据（刷怪蛋的实体快照、EntityTag / entity_data）
+     */
+    boolean hasEntityData();
+
+    /**
+     * 按 PDC 数据查找可信档案
+     */
+    TrustedDataRules.Profile findTrustedProfile(TrustedDataRules rules);
+
+    /**
+     * PDC 中是否存在未登记为可信的数据
+     */
+    boolean hasUntrustedData(TrustedDataRules rules);
+
+    int getBookPageCount();
+
+    boolean hasBookAuthor();
+
+    boolean hasBookTitle();
+
+    /**
+     * 已填充的地图是否有地图数据，无法判断时返回 true
+     */
+    boolean hasMapData();
+
+    /**
+     * 知识之书是否有配方，无法判断时返回 true
+     */
+    boolean hasRecipes();
+
+    /**
+     * 是否设置了附魔光效覆盖
+     */
+    boolean hasEnchantGlint();
+
+    /**
+     * 属性修饰符
+     */
+    final class Modifier {
+        private final String attribute;
+        private final double amount;
+
+        public Modifier(String attribute, double amount) {
+            this.attribute = attribute;
+            this.amount = amount;
+        }
+
+        public String getAttribute() {
+            return attribute;
+        }
+
+        public double getAmount() {
+            return amount;
+        }
+    }
+
+    /**
+     * 药水效果，持续时间单位为 tick
+     */
+    final class Effect {
+        private final String name;
+        private final int amplifier;
+        private final int duration;
+
+        public Effect(String name, int amplifier, int duration) {
+            this.name = name;
+            this.amplifier = amplifier;
+            this.duration = duration;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAmplifier() {
+            return amplifier;
+        }
+
+        public int getDuration() {
+            return duration;
+        }
+    }
+}
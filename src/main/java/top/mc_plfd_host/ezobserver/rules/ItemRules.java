@@ -0,0 +1,476 @@
+package top.mc_plfd_host.ezobserver.rules;
+
+import org.bukkit.Material;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
+import top.mc_plfd_host.ezobserver.checker.ViolationList;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.config.EnchantmentConflictManager;
+import top.mc_plfd_host.ezobserver.config.PotionEffectLimitManager;
+import top.mc_plfd_host.ezobserver.config.TrustedDataRules;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 物品检测规则
+ * 插件的 ItemChecker 和离线审计工具共用的规则实现，只依赖 {@link ItemFacts} 和配置快照，
+ * 不接触 ItemStack / ItemMeta，因此可以在没有服务器的环境中运行
+ *
+ * 规则按阶段拆分，阶段的执行顺序、计时和容器内物品的递归检测由调用方负责
+ *
+ * @author Kush_ShuL
+ */
+public final class ItemRules {
+
+    public static final String SIZE_VIOLATION_PREFIX = "物品数据过大";
+
+    // 物品形式下可以携带其他物品的方块，使用容器大小上限
+    private static final Set<Material> ITEM_CARRIERS = EnumSet.noneOf(Material.class);
+
+    static {
+        Set<String> blockContainers = Set.of("CHEST", "TRAPPED_CHEST", "BARREL", "DISPENSER", "DROPPER", "HOPPER",
+                "FURNACE", "BLAST_FURNACE", "SMOKER", "BREWING_STAND", "CRAFTER", "DECORATED_POT",
+                "CHISELED_BOOKSHELF", "LECTERN", "CAMPFIRE", "SOUL_CAMPFIRE");
+        for (Material material : Material.values()) {
+            String name = material.name();
+            if (name.endsWith("SHULKER_BOX") || name.endsWith("BUNDLE") || blockContainers.contains(name)) {
+                ITEM_CARRIERS.add(material);
+            }
+        }
+    }
+
+    private final EnchantmentConflictManager conflictManager;
+    private final PotionEffectLimitManager potionEffectLimitManager;
+
+    /**
+     * @param conflictManager 附魔冲突规则，为 null 时跳过冲突检测
+     * @param potionEffectLimitManager 药水等级规则，为 null 时只使用配置中的限制
+     */
+    public ItemRules(EnchantmentConflictManager conflictManager, PotionEffectLimitManager potionEffectLimitManager) {
+        this.conflictManager = conflictManager;
+        this.potionEffectLimitManager = potionEffectLimitManager;
+    }
+
+    // ========== 类型 ==========
+
+    /**
+     * 检查禁止的物品类型和刷怪蛋
+     *
+     * @return 违规描述，没有违规时返回 null
+     */
+    public String checkBannedType(ItemFacts item, ConfigSnapshot config) {
+        Material type = item.getType();
+        if (!config.isBannedItemsEnabled() || type == null) {
+            return null;
+        }
+        if (config.isBannedMaterial(type) || config.isBannedSpawnEgg(type)) {
+            return String.format("禁止的物品类型: %s", item.getTypeName());
+        }
+        return null;
+    }
+
+    // ========== 附魔 ==========
+
+    /**
+     * 检查附魔等级、非法附魔、冲突附魔和 OP 物品
+     */
+    public void checkEnchantments(ItemFacts item, ConfigSnapshot config, ViolationList violations) {
+        Map<String, Integer> enchantments = item.getEnchantments();
+        if (enchantments.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<String, Integer> entry : enchantments.entrySet()) {
+            String enchantName = entry.getKey();
+            int level = entry.getValue();
+
+            int limit;
+            // 检查是否有配置的限制
+            if (config.hasEnchantmentLimit(enchantName)) {
+                limit = config.getEnchantmentLimit(enchantName);
+            } else {
+                // 未配置的附魔，使用原版最大等级
+                int vanillaMax = item.getVanillaMaxLevel(enchantName);
+                if (config.isUseVanillaMaxForUnconfigured() && vanillaMax > 0) {
+                    limit = (int) Math.ceil(vanillaMax * config.getUnconfiguredEnchantmentMultiplier());
+                } else {
+                    limit = config.getMaxEnchantmentLevel();
+                }
+            }
+
+            if (level > limit) {
+                violations.add(ViolationCode.ENCHANTMENT_LEVEL, String.format("附魔 %s 等级 %d 超过限制 %d",
+                    enchantName, level, limit));
+            }
+        }
+
+        // 附魔不能应用到不允许的物品上
+        for (String enchantName : enchantments.keySet()) {
+            if (!item.canEnchant(enchantName)) {
+                violations.add(ViolationCode.ILLEGAL_ENCHANTMENT, String.format("非法附魔: %s 不能应用到 %s 上",
+                    enchantName, item.getTypeName()));
+            }
+        }
+
+        if (conflictManager != null && conflictManager.isConflictDetectionEnabled()
+                && enchantments.size() > 1 && item.getType() != null) {
+            for (Set<String> conflictGroup : conflictManager.findConflictingEnchantments(item.getType(), enchantments.keySet())) {
+                violations.add(ViolationCode.CONFLICTING_ENCHANTMENT, String.format("冲突附魔组: %s (这些附魔互相冲突，将被全部移除)",
+                    String.join(", ", conflictGroup)));
+            }
+        }
+
+        checkOpItem(item, config, violations);
+    }
+
+    private void checkOpItem(ItemFacts item, ConfigSnapshot config, ViolationList violations) {
+        if (!config.isOpItemsEnabled()) {
+            return;
+        }
+
+        // 检查附魔总等级，以及单个附魔是否超过原版最大等级的倍数
+        int totalLevel = 0;
+        for (Map.Entry<String, Integer> entry : item.getEnchantments().entrySet()) {
+            int level = entry.getValue();
+            totalLevel += level;
+
+            int maxLevel = item.getVanillaMaxLevel(entry.getKey());
+            if (maxLevel <= 0) {
+                continue;
+            }
+            double maxAllowed = maxLevel * config.getMaxEnchantmentMultiplier();
+            if (level > maxAllowed) {
+                violations.add(ViolationCode.OP_ITEM, String.format("OP附魔: %s 等级 %d 超过原版最大等级 %d 的 %.1f 倍",
+                    entry.getKey(), level, maxLevel, config.getMaxEnchantmentMultiplier()));
+            }
+        }
+
+        if (totalLevel > config.getMaxTotalEnchantmentLevel()) {
+            violations.add(ViolationCode.OP_ITEM, String.format("OP物品: 附魔总等级 %d 超过限制 %d",
+                totalLevel, config.getMaxTotalEnchantmentLevel()));
+        }
+
+        int attributeCount = item.getAttributeModifiers().size();
+        if (attributeCount > config.getMaxAttributeCount()) {
+            violations.add(ViolationCode.OP_ITEM, String.format("OP物品: 属性修饰符数量 %d 超过限制 %d",
+                attributeCount, config.getMaxAttributeCount()));
+        }
+    }
+
+    // ========== 元数据 ==========
+
+    /**
+     * 检查禁止的名称和 Lore、属性修饰符和不可破坏属性
+     *
+     * @param trustedProfile 物品匹配的可信档案，没有时为 null
+     */
+    public void checkMeta(ItemFacts item, ConfigSnapshot config, TrustedDataRules.Profile trustedProfile,
+                          ViolationList violations) {
+        if (!item.hasMeta()) {
+            return;
+        }
+
+        if (config.isBannedItemsEnabled() && (trustedProfile == null || trustedProfile.isCheckNameAndLore())) {
+            String displayName = item.getDisplayName();
+            if (displayName != null) {
+                String keyword = config.findBannedNameKeyword(displayName);
+                if (keyword != null) {
+                    violations.add(ViolationCode.BANNED_NAME, String.format("物品名称包含禁止关键词: %s", keyword));
+                }
+            }
+            for (String loreLine : item.getLore()) {
+                String keyword = config.findBannedLoreKeyword(loreLine);
+                if (keyword != null) {
+                    violations.add(ViolationCode.BANNED_LORE, String.format("物品Lore包含禁止关键词: %s", keyword));
+                }
+            }
+        }
+
+        if (trustedProfile == null || trustedProfile.isCheckAttributes()) {
+            for (ItemFacts.Modifier modifier : item.getAttributeModifiers()) {
+                double limit = config.getAttributeLimit(modifier.getAttribute());
+                if (Math.abs(modifier.getAmount()) > limit) {
+                    violations.add(ViolationCode.ATTRIBUTE, String.format("属性修饰符 %s 值 %.2f 超过限制 %.2f",
+                        modifier.getAttribute(), modifier.getAmount(), limit));
+                }
+            }
+        }
+
+        if (config.isRemoveUnbreakable() && item.isUnbreakable()
+                && (trustedProfile == null || trustedProfile.isCheckUnbreakable())) {
+            violations.add(ViolationCode.UNBREAKABLE, String.format("物品 %s 具有不可破坏属性 (疑似作弊物品)", item.getTypeName()));
+        }
+    }
+
+    // ========== 特殊物品 ==========
+
+    /**
+     * 检查药水、刷怪蛋、烟花火箭、活塞以及物品展示框和盔甲架
+     * 容器内容由调用方递归检测，空数据物品见 {@link #checkEmptyData}
+     */
+    public void checkSpecialItems(ItemFacts item, ConfigSnapshot config, ViolationList violations) {
+        String type = item.getTypeName();
+
+        if (type.equals("POTION") || type.equals("SPLASH_POTION") ||
+            type.equals("LINGERING_POTION") || type.equals("TIPPED_ARROW")) {
+            if (config.isPotionCheckEnabled()) {
+                for (ItemFacts.Effect effect : item.getCustomEffects()) {
+                    checkPotionEffect(effect, config, violations);
+                }
+            }
+        }
+
+        if (type.endsWith("_SPAWN_EGG")) {
+            checkSpawnEgg(item, config, violations);
+        }
+
+        // 正常飞行时间为 1-3
+        if (type.equals("FIREWORK_ROCKET") && item.getFireworkFlight() > 3) {
+            violations.add(ViolationCode.FIREWORK, String.format("烟花火箭飞行时间 %d 超过限制 3 (疑似作弊物品)",
+                item.getFireworkFlight()));
+        }
+
+        if (type.equals("PISTON") || type.equals("STICKY_PISTON")) {
+            // 物品形式的活塞不应该处于伸出状态
+            if (item.isPistonExtended()) {
+                violations.add(ViolationCode.PISTON, String.format("检测到无头活塞: %s 处于伸出状态 (疑似作弊物品)", type));
+            }
+            if (item.isUnbreakable()) {
+                violations.add(ViolationCode.PISTON.mask() | ViolationCode.UNBREAKABLE.mask(),
+                    String.format("活塞 %s 具有无法破坏属性 (疑似作弊物品)", type));
+            }
+        }
+
+        if (type.equals("ITEM_FRAME") || type.equals("GLOW_ITEM_FRAME") || type.equals("ARMOR_STAND")) {
+            if (hasCustomEntityData(item, config)) {
+                violations.add(ViolationCode.ENTITY_DATA, String.format("物品 %s 包含自定义实体数据 (疑似作弊物品)", type));
+            }
+        }
+    }
+
+    private void checkPotionEffect(ItemFacts.Effect effect, ConfigSnapshot config, ViolationList violations) {
+        String effectName = effect.getName();
+        int amplifier = effect.getAmplifier();
+        int durationTicks = effect.getDuration();
+        int duration = durationTicks / 20; // 转换为秒
+
+        if (config.isBannedPotionEffect(effectName)) {
+            violations.add(ViolationCode.POTION, String.format("禁止的药水效果: %s", effectName));
+            return;
+        }
+
+        // amplifier >= 117 或 duration 接近 Integer.MAX_VALUE 被视为极端作弊
+        if (amplifier >= PotionEffectLimitManager.EXTREME_AMPLIFIER_THRESHOLD ||
+            durationTicks >= PotionEffectLimitManager.EXTREME_DURATION_THRESHOLD) {
+            violations.add(ViolationCode.POTION, String.format("极端作弊药水效果: %s 等级 %d 持续时间 %d ticks (疑似作弊物品)",
+                effectName, amplifier + 1, durationTicks));
+            return;
+        }
+
+        // 效果等级超过正常最大等级 + 2 视为违规
+        if (potionEffectLimitManager != null && potionEffectLimitManager.isOverLimit(effectName, amplifier)) {
+            int maxLevel = potionEffectLimitManager.getMaxLevel(effectName);
+            int limitLevel = potionEffectLimitManager.getLimitLevel(effectName);
+
+            if (potionEffectLimitManager.isPotionObtainable(effectName)) {
+                violations.add(ViolationCode.POTION, String.format("药水效果 %s 等级 %d 超过限制（正常最大等级 %d + 容许值 2 = %d）",
+                    effectName, amplifier + 1, maxLevel + 1, limitLevel + 1));
+            } else {
+                // 非药水可获得的效果，最大10级
+                violations.add(ViolationCode.POTION, String.format("非药水效果 %s 等级 %d 超过限制 %d",
+                    effectName, amplifier + 1, limitLevel + 1));
+            }
+        } else {
+            // 备用检查：使用配置的限制
+            int amplifierLimit = config.hasPotionEffectLimit(effectName)
+                    ? config.getPotionEffectLimit(effectName)
+                    : config.getMaxPotionAmplifier();
+
+            if (amplifier > amplifierLimit) {
+                violations.add(ViolationCode.POTION, String.format("药水效果 %s 等级 %d 超过配置限制 %d",
+                    effectName, amplifier + 1, amplifierLimit + 1));
+            }
+        }
+
+        int durationLimit = config.hasPotionDurationLimit(effectName)
+                ? config.getPotionDurationLimit(effectName)
+                : config.getMaxPotionDuration();
+
+        if (duration > durationLimit) {
+            violations.add(ViolationCode.POTION, String.format("药水效果 %s 持续时间 %d秒 超过限制 %d秒",
+                effectName, duration, durationLimit));
+        }
+    }
+
+    /**
+     * 检查刷怪蛋是否被修改
+     * 刷怪蛋可能被修改为生成不同的实体（如 TNT 矿车），或带有无法破坏、附魔、属性修饰符等不应存在的数据
+     */
+    private void checkSpawnEgg(ItemFacts item, ConfigSnapshot config, ViolationList violations) {
+        if (!item.hasMeta()) {
+            return;
+        }
+        String type = item.getTypeName();
+
+        if (item.isUnbreakable()) {
+            violations.add(ViolationCode.SPAWN_EGG.mask() | ViolationCode.UNBREAKABLE.mask(),
+                String.format("刷怪蛋 %s 具有无法破坏属性 (疑似作弊物品)", type));
+        }
+
+        // 例如: CHICKEN_SPAWN_EGG -> CHICKEN
+        String expectedEntityType = type.substring(0, type.length() - "_SPAWN_EGG".length());
+        String actualEntityType = item.getSpawnedEntityType();
+        if (actualEntityType != null && !actualEntityType.equalsIgnoreCase(expectedEntityType)) {
+            violations.add(ViolationCode.SPAWN_EGG, String.format("刷怪蛋NBT被篡改: 物品类型为 %s，但实际会生成 %s (疑似作弊物品)",
+                type, actualEntityType));
+        }
+
+        if (item.hasEntityData()) {
+            violations.add(ViolationCode.SPAWN_EGG.mask() | ViolationCode.ENTITY_DATA.mask(),
+                String.format("刷怪蛋 %s 包含自定义实体数据 (疑似作弊物品)", type));
+        }
+
+        // 可信插件写入的数据不计入
+        if (item.hasUntrustedData(config.getTrustedData())) {
+            violations.add(ViolationCode.SPAWN_EGG.mask() | ViolationCode.ENTITY_DATA.mask(),
+                String.format("刷怪蛋 %s 包含自定义EntityTag NBT数据，可能被篡改", type));
+        }
+
+        if (!item.getEnchantments().isEmpty()) {
+            violations.add(ViolationCode.SPAWN_EGG, String.format("刷怪蛋 %s 具有附魔 (疑似作弊物品)", type));
+        }
+
+        if (!item.getAttributeModifiers().isEmpty()) {
+            violations.add(ViolationCode.SPAWN_EGG, String.format("刷怪蛋 %s 具有属性修饰符 (疑似作弊物品)", type));
+        }
+    }
+
+    /**
+     * 物品展示框、盔甲架是否被篡改（隐形、显示手臂、小型等）
+     */
+    private static boolean hasCustomEntityData(ItemFacts item, ConfigSnapshot config) {
+        if (!item.hasMeta()) {
+            return false;
+        }
+        if (item.hasEntityData() || item.hasUntrustedData(config.getTrustedData())) {
+            return true;
+        }
+        // 被篡改的物品通常会有特殊名称
+        String name = item.getDisplayName();
+        return name != null && (name.contains("隐形") || name.contains("Invisible") ||
+                name.contains("arms") || name.contains("small"));
+    }
+
+    // ========== 空数据物品 ==========
+
+    /**
+     * 检查缺少必要数据的物品
+     *
+     * 典型示例：
+     * - 空成书 (WRITTEN_BOOK) - 没有页面内容
+     * - 空附魔书 (ENCHANTED_BOOK) - stored_enchantments: {} 为空
+     * - 空地图 (FILLED_MAP) - 没有 map_id
+     */
+    public void checkEmptyData(ItemFacts item, ViolationList violations) {
+        String type = item.getTypeName();
+
+        if (!item.hasMeta()) {
+            // 某些物品必须有元数据，没有的话也是异常
+            if (type.equals("WRITTEN_BOOK") || type.equals("ENCHANTED_BOOK") || type.equals("FILLED_MAP")) {
+                violations.add(ViolationCode.EMPTY_DATA, String.format("空数据物品: %s 缺少必要的元数据", type));
+            }
+            return;
+        }
+
+        if (type.equals("WRITTEN_BOOK")) {
+            if (item.getBookPageCount() == 0) {
+                violations.add(ViolationCode.EMPTY_DATA, "空成书: 没有页面内容 (疑似作弊物品)");
+            }
+            if (!item.hasBookAuthor() || !item.hasBookTitle()) {
+                violations.add(ViolationCode.EMPTY_DATA, "空成书: 缺少作者或标题 (疑似作弊物品)");
+            }
+        }
+
+        if (type.equals("ENCHANTED_BOOK") && !item.hasStoredEnchantments()) {
+            violations.add(ViolationCode.EMPTY_DATA, "空附魔书: 没有存储的附魔 (疑似作弊物品)");
+        }
+
+        if (type.equals("FILLED_MAP") && !item.hasMapData()) {
+            violations.add(ViolationCode.EMPTY_DATA, "空地图: 没有地图数据 (疑似作弊物品)");
+        }
+
+        if (type.equals("KNOWLEDGE_BOOK") && !item.hasRecipes()) {
+            violations.add(ViolationCode.EMPTY_DATA, "空知识之书: 没有配方数据 (疑似作弊物品)");
+        }
+
+        // 正常物品只有附魔后才会发光
+        if (item.hasEnchantGlint() && item.getEnchantments().isEmpty() && !item.hasStoredEnchantments()) {
+            violations.add(ViolationCode.ENCHANT_GLINT, "异常发光效果: 物品有发光但没有附魔 (疑似作弊物品)");
+        }
+    }
+
+    // ========== 容器 ==========
+
+    /**
+     * 容器内违规物品的汇总行，之后是每个违规物品的明细行
+     */
+    public static String containerViolation(String containerType, int violatingItemCount) {
+        return String.format("容器 %s 包含 %d 个违规物品:", containerType, violatingItemCount);
+    }
+
+    public static String bundleViolation(int violatingItemCount, int totalItemCount) {
+        return String.format("收纳袋包含 %d 个违规物品 (共 %d 个物品):", violatingItemCount, totalItemCount);
+    }
+
+    /**
+     * 容器内单个违规物品的明细行，缩进表示其类别已由容器汇总行覆盖
+     *
+     * @param position 位置标签，例如 "插槽 3" 或收纳袋中的序号
+     */
+    public static String contentDetail(String position, String itemType, List<String> itemViolations) {
+        return String.format("  [%s] %s: %s", position, itemType, String.join("; ", itemViolations));
+    }
+
+    // ========== 数据大小 ==========
+
+    /**
+     * 物品形式下是否可以携带其他物品
+     */
+    public static boolean carriesItems(Material material) {
+        return material != null && ITEM_CARRIERS.contains(material);
+    }
+
+    /**
+     * 物品数据大小上限：物品类型单独配置的上限优先，其次是容器上限和默认上限
+     */
+    public static int getSizeLimit(Material material, ConfigSnapshot config) {
+        Integer limit = material != null ? config.getSizeGuardMaterialLimit(material) : null;
+        if (limit != null) {
+            return limit;
+        }
+        return carriesItems(material) ? config.getSizeGuardContainerMaxBytes() : config.getSizeGuardMaxBytes();
+    }
+
+    /**
+     * 检查物品数据大小
+     *
+     * @param size 未压缩的 NBT 字节数，超过上限时可以只是下限估计
+     * @return 违规描述，没有超过上限时返回 null
+     */
+    public static String checkSize(Material material, String typeName, int size, ConfigSnapshot config) {
+        int limit = getSizeLimit(material, config);
+        if (size <= limit) {
+            return null;
+        }
+        return String.format("%s: %s 至少 %d 字节，上限 %d 字节", SIZE_VIOLATION_PREFIX, typeName, size, limit);
+    }
+
+    /**
+     * 区块内方块和实体携带的物品数据总量是否超过预算，检测关闭时返回 false
+     */
+    public static boolean isChunkPayloadExceeded(long totalBytes, ConfigSnapshot config) {
+        return config.isChunkPayloadEnabled() && totalBytes > config.getChunkPayloadMaxBytes();
+    }
+}
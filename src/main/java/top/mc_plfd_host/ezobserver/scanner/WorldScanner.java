@@ -5,20 +5,27 @@ import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import top.mc_plfd_host.ezobserver.EzObserver;
 import top.mc_plfd_host.ezobserver.checker.ItemChecker;
 import top.mc_plfd_host.ezobserver.config.ConfigManager;
 import top.mc_plfd_host.ezobserver.config.MessageManager;
+import top.mc_plfd_host.ezobserver.fixer.InventoryEnforcer;
 import top.mc_plfd_host.ezobserver.fixer.ItemFixer;
+import top.mc_plfd_host.ezobserver.fixer.SlotFix;
+import top.mc_plfd_host.ezobserver.jfr.ConfiscationEvent;
+import top.mc_plfd_host.ezobserver.jfr.ScanBatchEvent;
+import top.mc_plfd_host.ezobserver.monitor.PerfMonitor;
+import top.mc_plfd_host.ezobserver.util.FoliaUtil;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
@@ -27,9 +34,11 @@ public class WorldScanner {
     private final EzObserver plugin;
     private final ConfigManager configManager;
     private final ItemChecker itemChecker;
+    private final ItemFixer itemFixer;
+    private final InventoryEnforcer inventoryEnforcer;
     private final Logger logger;
     
-    private boolean isScanning = false;
+    private volatile boolean isScanning = false;
     private final AtomicInteger scannedPlayers = new AtomicInteger(0);
     private final AtomicInteger scannedOfflinePlayers = new AtomicInteger(0);
     private final AtomicInteger scannedContainers = new AtomicInteger(0);
@@ -41,6 +50,8 @@ public class WorldScanner {
         this.plugin = plugin;
         this.configManager = plugin.getConfigManager();
         this.itemChecker = new ItemChecker(plugin);
+        this.itemFixer = new ItemFixer(plugin, plugin.getFixTemplateCache());
+        this.inventoryEnforcer = new InventoryEnforcer(plugin);
         this.logger = plugin.getLogger();
     }
 
@@ -64,7 +75,7 @@ public class WorldScanner {
 
         try {
             // 扫描在线玩家背包
-            scanOnlinePlayers();
+            List<CompletableFuture<?>> pending = scanOnlinePlayers();
             
             // 扫描离线玩家数据
             scanOfflinePlayers();
@@ -72,10 +83,13 @@ public class WorldScanner {
             // 暂时跳过世界容器扫描（Folia线程限制）
             sendMessage(executor, messages.getScanSkippedContainers());
             
-            // 完成扫描
-            isScanning = false;
-            sendScanSummary(executor);
-            logger.info("全服扫描完成");
+            // 各玩家的格子操作在其实体线程上应用，全部完成后再汇总删除和修复数量
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) ->
+                FoliaUtil.runEntityTask(plugin, executor, () -> {
+                    isScanning = false;
+                    sendScanSummary(executor);
+                    logger.info("全服扫描完成");
+                }, () -> isScanning = false));
             
         } catch (Exception e) {
             isScanning = false;
@@ -100,8 +114,12 @@ public class WorldScanner {
         itemsDeleted.set(0);
     }
 
-    private void scanOnlinePlayers() {
+    /**
+     * @return 每个玩家的格子操作的应用结果
+     */
+    private List<CompletableFuture<?>> scanOnlinePlayers() {
         logger.info("开始扫描在线玩家背包...");
+        List<CompletableFuture<?>> pending = new ArrayList<>();
         
         for (Player player : Bukkit.getOnlinePlayers()) {
             if (player.hasPermission("ezobserver.bypass")) {
@@ -109,41 +127,93 @@ public class WorldScanner {
             }
             
             scannedPlayers.incrementAndGet();
+            long start = plugin.getPerfMonitor().begin();
+            ScanBatchEvent event = new ScanBatchEvent();
+            event.begin();
+            int scannedItems = 0;
+            int violatingItems = 0;
             PlayerInventory inventory = player.getInventory();
+            int heldSlot = inventory.getHeldItemSlot();
             
-            // 扫描主手物品
-            scanInventorySlot(inventory, player.getInventory().getHeldItemSlot(), player.getName() + " 主手");
-            
-            // 扫描副手物品
-            ItemStack offHand = inventory.getItemInOffHand();
-            if (offHand.getType() != Material.AIR) {
-                scanSingleItem(offHand, player.getName() + " 副手");
+            // 一次读取整个背包，发现的违规物品汇总为一批格子操作
+            ItemStack[] contents = inventory.getContents();
+            List<SlotFix> fixes = new ArrayList<>();
+            for (int slot = 0; slot < contents.length; slot++) {
+                ItemStack item = contents[slot];
+                if (item == null || item.getType() == Material.AIR) {
+                    continue;
+                }
+                scannedItems++;
+                plugin.getDupeDetector().observe(player, item);
+                List<String> violations = scanSingleItem(item, player.getName() + " " + describeSlot(slot, heldSlot));
+                if (!violations.isEmpty()) {
+                    violatingItems++;
+                    SlotFix fix = planFix(player, slot, item, violations);
+                    if (fix != null) {
+                        fixes.add(fix);
+                    }
+                }
             }
             
-            // 扫描装备栏
-            scanInventorySlot(inventory, 36, player.getName() + " 头盔");
-            scanInventorySlot(inventory, 37, player.getName() + " 胸甲");
-            scanInventorySlot(inventory, 38, player.getName() + " 护腿");
-            scanInventorySlot(inventory, 39, player.getName() + " 靴子");
-            
-            // 扫描背包栏
-            for (int i = 0; i < 27; i++) {
-                int slot = i + 9; // 背包栏从第9格开始
-                scanInventorySlot(inventory, slot, player.getName() + " 背包");
-            }
+            // 在玩家的实体线程上一次性应用，只统计实际应用的操作
+            pending.add(inventoryEnforcer.apply(player, fixes).thenAccept(this::countApplied));
+            plugin.getPerfMonitor().record(PerfMonitor.Stage.SCAN_BATCH, start);
+            event.finish("scan", player, scannedItems, violatingItems, fixes.size());
         }
         
         logger.info("在线玩家背包扫描完成");
+        return pending;
     }
 
-    private void scanInventorySlot(Inventory inventory, int slot, String source) {
-        ItemStack item = inventory.getItem(slot);
-        if (item != null && item.getType() != Material.AIR) {
-            scanSingleItem(item, source);
+    private void countApplied(List<SlotFix> applied) {
+        for (SlotFix fix : applied) {
+            if (fix.getAction() == SlotFix.Action.DELETE) {
+                itemsDeleted.incrementAndGet();
+            } else {
+                itemsFixed.incrementAndGet();
+            }
         }
     }
 
-    private void scanSingleItem(ItemStack item, String source) {
+    private String describeSlot(int slot, int heldSlot) {
+        if (slot == heldSlot) return "主手";
+        if (slot < 9) return "快捷栏";
+        if (slot < 36) return "背包";
+        return switch (slot) {
+            case 36 -> "靴子";
+            case 37 -> "护腿";
+            case 38 -> "胸甲";
+            case 39 -> "头盔";
+            case 40 -> "副手";
+            default -> "格子 " + slot;
+        };
+    }
+
+    /**
+     * 按没收模式生成格子操作，关闭没收 (confiscate-items: false) 或 store 模式时只记录不处理
+     * 删除和修复数量在操作实际应用后统计
+     */
+    private SlotFix planFix(Player player, int slot, ItemStack item, List<String> violations) {
+        if (!configManager.isConfiscateItems()) {
+            ConfiscationEvent.emit("scan", player, item, "none", violations);
+            return null;
+        }
+        if (configManager.isDeleteMode()) {
+            ConfiscationEvent.emit("scan", player, item, "delete", violations);
+            return SlotFix.delete(slot, item);
+        }
+        if (configManager.isFixMode()) {
+            ItemStack fixed = itemFixer.fixItem(item, violations);
+            if (fixed != null && !fixed.equals(item)) {
+                ConfiscationEvent.emit("scan", player, item, "fix", violations);
+                return SlotFix.replace(slot, item, fixed);
+            }
+        }
+        ConfiscationEvent.emit("scan", player, item, "none", violations);
+        return null;
+    }
+
+    private List<String> scanSingleItem(ItemStack item, String source) {
         List<String> violations = itemChecker.checkItem(item);
         if (!violations.isEmpty()) {
             violationsFound.incrementAndGet();
@@ -151,10 +221,8 @@ public class WorldScanner {
             String violationLog = String.format("发现违规物品 - 来源: %s, 物品: %s, 原因: %s",
                 source, item.getType().name(), String.join(", ", violations));
             logger.warning(violationLog);
-            
-            // 注意：在Folia中修改玩家背包可能需要特殊处理
-            // 这里仅记录，不自动修改以避免线程安全问题
         }
+        return violations;
     }
 
     private void scanOfflinePlayers() {
@@ -0,0 +1,823 @@
+package top.mc_plfd_host.ezobserver.storage;
+
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * 没收物品库
+ * 没收的物品以 serializeAsBytes 的二进制形式追加写入段文件 (vault-00000001.seg)，
+ * 由单个后台线程批量写入并在每批结束时统一落盘（组提交），事件线程只负责序列化物品并入队。
+ * 写入队列有容量上限，队列已满时新的记录被丢弃并计数，由写入线程定期在控制台提示
+ *
+ * 记录格式（大端序）：
+ * <pre>
+ * 固定头部  int 魔数 | int 主体长度 | long 时间戳 | long UUID 高位 | long UUID 低位 | long 违规类别掩码
+ * 主体      short+UTF-8 物品类型 | short+UTF-8 玩家名称 | int+UTF-8 违规描述 | int+字节 物品数据
+ * 尾部      int CRC32（覆盖时间戳至主体结尾）
+ * </pre>
+ * 段文件达到大小上限后轮换，封存时将段内记录的偏移和元数据写入索引文件 (vault-00000001.idx)，
+ * 已封存的段中超过保留期限的记录由压缩过程清理，压缩后重写索引文件。
+ * 启动时由写入线程加载索引：已封存的段读取索引文件，缺少索引文件或索引与段文件不一致时扫描段文件重建；
+ * 当前段总是扫描，末尾不完整或校验失败的记录会被截断
+ *
+ * @author Kush_ShuL
+ */
+public class ConfiscationVault {
+
+    private static final int MAGIC = 0x455A5631; // "EZV1"
+    private static final int FIXED_HEADER_SIZE = 40;
+    private static final int TRAILER_SIZE = 4;
+    private static final String SEGMENT_PREFIX = "vault-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int INDEX_MAGIC = 0x455A4931; // "EZI1"
+    private static final String INDEX_SUFFIX = ".idx";
+
+    // 单批最多合并写入的记录数
+    private static final int MAX_BATCH_SIZE = 256;
+    // 压缩检查间隔
+    private static final long COMPACTION_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(6);
+    // 丢弃提示的最短间隔
+    private static final long DROP_WARNING_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final EzObserver plugin;
+    private final Logger logger;
+    private final AtomicLong dropped = new AtomicLong();
+    private BlockingQueue<PendingRecord> queue;
+
+    // 索引：按段号排列的记录列表，以及按玩家分组的记录列表（均按写入顺序，即时间顺序）
+    private final TreeMap<Integer, List<VaultRecord>> recordsBySegment = new TreeMap<>();
+    private final Map<UUID, List<VaultRecord>> recordsByPlayer = new HashMap<>();
+    // 保护索引和段文件替换，读取记录时持有读锁，压缩替换段文件时持有写锁
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private File directory;
+    private FileChannel currentChannel;
+    private int currentSegment;
+    private long currentSize;
+    private long reportedDrops;
+    private long lastDropWarning;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ConfiscationVault(EzObserver plugin) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+    }
+
+    /**
+     * 打开没收库并启动写入线程
+     * 索引由写入线程在处理队列之前加载，不阻塞调用线程，加载完成前提交的记录在队列中等待，
+     * 查询只返回已加载的记录。队列容量在打开时确定
+     */
+    public synchronized void open() {
+        if (running) {
+            return;
+        }
+        directory = new File(plugin.getConfigManager().getConfiscateStoragePath());
+        if (!directory.exists() && !directory.mkdirs()) {
+            logger.warning("无法创建存储目录: " + directory.getAbsolutePath());
+        }
+        queue = new LinkedBlockingQueue<>(Math.max(1, getSnapshot().getVaultQueueCapacity()));
+        List<Integer> segments = listSegments();
+
+        running = true;
+        writerThread = new Thread(() -> writeLoop(segments), "EzObserver-ConfiscationVault");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 关闭没收库，等待队列中剩余的记录写入完成
+     */
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = writerThread;
+            writerThread = null;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.warning("没收库关闭时仍有 " + queue.size() + " 条记录未写入");
+        }
+        reportDrops(true);
+        try {
+            if (currentChannel != null) {
+                currentChannel.force(true);
+                currentChannel.close();
+            }
+        } catch (IOException e) {
+            logger.warning("关闭没收库段文件时发生错误: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 提交一件没收物品
+     * 物品在调用线程上序列化（ItemStack 不能跨线程使用），文件写入全部在后台线程完成
+     *
+     * @param player 物品持有者，可以为 null
+     */
+    public void store(Player player, ItemStack item, List<String> violations) {
+        if (!running) {
+            logger.warning("没收库未打开，无法存储没收物品: " + item.getType().name());
+            return;
+        }
+        byte[] payload;
+        try {
+            payload = item.serializeAsBytes();
+        } catch (Exception e) {
+            logger.severe("序列化没收物品失败: " + e.getMessage());
+            return;
+        }
+        boolean queued = queue.offer(new PendingRecord(
+                System.currentTimeMillis(),
+                player != null ? player.getUniqueId() : null,
+                player != null ? player.getName() : "unknown",
+                item.getType().name(),
+                ViolationCode.classify(violations),
+                String.join("\n", violations),
+                payload));
+        if (!queued) {
+            // 写入线程跟不上时丢弃新记录，不阻塞事件线程
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * 因写入队列已满而丢弃的记录总数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 查询玩家在指定时间之后的没收记录，按时间从新到旧排列
+     */
+    public List<VaultRecord> findByPlayer(UUID playerId, long since, int limit) {
+        List<VaultRecord> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<VaultRecord> records = recordsByPlayer.get(playerId);
+            if (records == null) {
+                return result;
+            }
+            for (int i = records.size() - 1; i >= 0 && result.size() < limit; i--) {
+                VaultRecord record = records.get(i);
+                if (record.getTimestamp() < since) {
+                    break;
+                }
+                result.add(record);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * 查询指定时间之后的所有没收记录，按时间从新到旧排列
+     */
+    public List<VaultRecord> findSince(long since, int limit) {
+        List<VaultRecord> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (List<VaultRecord> records : recordsBySegment.descendingMap().values()) {
+                for (int i = records.size() - 1; i >= 0; i--) {
+                    VaultRecord record = records.get(i);
+                    if (record.getTimestamp() < since || result.size() >= limit) {
+                        return result;
+                    }
+                    result.add(record);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * 从段文件读取没收的物品
+     */
+    public ItemStack readItem(VaultRecord record) throws IOException {
+        return ItemStack.deserializeBytes(readBody(record).payload);
+    }
+
+    /**
+     * 从段文件读取完整的违规描述
+     */
+    public String readReason(VaultRecord record) throws IOException {
+        return readBody(record).reason;
+    }
+
+    // ========== 写入线程 ==========
+
+    private void writeLoop(List<Integer> segments) {
+        try {
+            loadIndex(segments);
+            openCurrentSegment();
+        } catch (IOException e) {
+            logger.severe("打开没收库失败: " + e.getMessage());
+            running = false;
+            return;
+        }
+
+        long nextCompaction = System.currentTimeMillis();
+        List<PendingRecord> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                reportDrops(false);
+
+                if (System.currentTimeMillis() >= nextCompaction) {
+                    compact();
+                    nextCompaction = System.currentTimeMillis() + COMPACTION_INTERVAL_MILLIS;
+                }
+
+                PendingRecord first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.severe("写入没收库失败，本批 " + batch.size() + " 条记录未保存: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 写入一批记录，整批只调用一次 force
+     * 记录按 currentSize 指定的位置写入，写入失败时截断未写完的记录，保证 currentSize 与文件中最后一条完整记录的结尾一致
+     */
+    private void writeBatch(List<PendingRecord> batch) {
+        long segmentLimit = getSnapshot().getVaultSegmentSizeMb() * 1024L * 1024L;
+        List<VaultRecord> written = new ArrayList<>(batch.size());
+        int saved = 0;
+
+        try {
+            for (PendingRecord pending : batch) {
+                ByteBuffer buffer = encode(pending);
+                if (currentSize > 0 && currentSize + buffer.remaining() > segmentLimit) {
+                    currentChannel.force(false);
+                    publish(written);
+                    written.clear();
+                    rotate();
+                }
+                long offset = currentSize;
+                int length = buffer.remaining();
+                writeFully(currentChannel, buffer, offset);
+                currentSize += length;
+                saved++;
+                written.add(new VaultRecord(currentSegment, offset, length, pending.timestamp, pending.playerId,
+                        pending.playerName, pending.material, pending.reasonMask));
+            }
+            currentChannel.force(false);
+        } catch (IOException e) {
+            logger.severe(String.format("写入没收库失败，本批 %d 条记录中 %d 条未保存: %s",
+                    batch.size(), batch.size() - saved, e.getMessage()));
+            discardPartialRecord();
+        }
+        publish(written);
+    }
+
+    /**
+     * 截断写入失败的记录，currentSize 只在记录完整写入后增加，即最后一条完整记录的结尾
+     * 无法截断时切换到新的段文件，否则之后的记录会写在损坏的记录后面，启动扫描时会在损坏处被一起截断
+     */
+    private void discardPartialRecord() {
+        try {
+            currentChannel.truncate(currentSize);
+        } catch (IOException e) {
+            logger.warning("截断没收库段文件失败，切换到新的段文件: " + e.getMessage());
+            try {
+                rotate();
+            } catch (IOException ex) {
+                logger.severe("切换没收库段文件失败: " + ex.getMessage());
+            }
+        }
+    }
+
+    private void reportDrops(boolean force) {
+        long total = dropped.get();
+        long now = System.currentTimeMillis();
+        if (total > reportedDrops && (force || now - lastDropWarning >= DROP_WARNING_INTERVAL_MILLIS)) {
+            logger.warning("没收库写入队列已满，丢弃了 " + (total - reportedDrops) + " 件没收物品的记录");
+            reportedDrops = total;
+            lastDropWarning = now;
+        }
+    }
+
+    private void publish(List<VaultRecord> written) {
+        if (written.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (VaultRecord record : written) {
+                addToIndex(record);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rotate() throws IOException {
+        int sealed = currentSegment;
+        currentChannel.close();
+        currentSegment++;
+        openCurrentSegment();
+        writeIndexFile(sealed, segmentRecords(sealed));
+        logger.info("没收库已轮换到新的段文件: " + segmentFile(currentSegment).getName());
+    }
+
+    private void openCurrentSegment() throws IOException {
+        currentChannel = FileChannel.open(segmentFile(currentSegment).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        currentSize = currentChannel.size();
+    }
+
+    // ========== 压缩 ==========
+
+    /**
+     * 清理已封存段中超过保留期限的记录
+     * 整段过期时直接删除段文件，部分过期时将未过期的记录复制到临时文件后原子替换
+     */
+    private void compact() {
+        int retentionDays = getSnapshot().getVaultRetentionDays();
+        if (retentionDays <= 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+
+        List<Integer> sealed;
+        lock.readLock().lock();
+        try {
+            sealed = new ArrayList<>(recordsBySegment.headMap(currentSegment, false).keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        for (int segment : sealed) {
+            try {
+                compactSegment(segment, cutoff);
+            } catch (IOException e) {
+                logger.warning("压缩没收库段文件 " + segmentFile(segment).getName() + " 失败: " + e.getMessage());
+            }
+        }
+    }
+
+    private void compactSegment(int segment, long cutoff) throws IOException {
+        List<VaultRecord> records = segmentRecords(segment);
+
+        List<VaultRecord> live = new ArrayList<>();
+        for (VaultRecord record : records) {
+            if (record.getTimestamp() >= cutoff) {
+                live.add(record);
+            }
+        }
+        if (live.size() == records.size()) {
+            return;
+        }
+
+        File file = segmentFile(segment);
+        if (live.isEmpty()) {
+            lock.writeLock().lock();
+            try {
+                removeFromIndex(segment);
+                Files.deleteIfExists(file.toPath());
+                Files.deleteIfExists(indexFile(segment).toPath());
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("已删除过期的没收库段文件: " + file.getName());
+            return;
+        }
+
+        // 复制未过期的记录到临时文件
+        Path temp = new File(directory, file.getName() + ".tmp").toPath();
+        List<VaultRecord> relocated = new ArrayList<>(live.size());
+        try (FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = 0;
+            for (VaultRecord record : live) {
+                source.transferTo(record.getOffset(), record.getLength(), target);
+                relocated.add(record.relocate(segment, position));
+                position += record.getLength();
+            }
+            target.force(true);
+        }
+
+        lock.writeLock().lock();
+        try {
+            // 先删除旧索引，替换段文件后写入新索引之前中断时，下次启动重新扫描该段
+            Files.deleteIfExists(indexFile(segment).toPath());
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            removeFromIndex(segment);
+            for (VaultRecord record : relocated) {
+                addToIndex(record);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        writeIndexFile(segment, relocated);
+        logger.info(String.format("已压缩没收库段文件 %s: 清理 %d 条过期记录，保留 %d 条",
+                file.getName(), records.size() - live.size(), live.size()));
+    }
+
+    // ========== 索引 ==========
+
+    /**
+     * 加载所有段的索引，在写入线程上执行
+     * 最新的段为当前段，总是扫描；已封存的段优先读取索引文件，缺少或失效时扫描后重建
+     */
+    private void loadIndex(List<Integer> segments) throws IOException {
+        long start = System.currentTimeMillis();
+        currentSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        int rebuilt = 0;
+        int records = 0;
+        for (int segment : segments) {
+            List<VaultRecord> segmentRecords = segment != currentSegment ? readIndexFile(segment) : null;
+            if (segmentRecords == null) {
+                segmentRecords = scanSegment(segment);
+                if (segment != currentSegment) {
+                    writeIndexFile(segment, segmentRecords);
+                    rebuilt++;
+                }
+            }
+            records += segmentRecords.size();
+            lock.writeLock().lock();
+            try {
+                recordsBySegment.computeIfAbsent(segment, k -> new ArrayList<>());
+                for (VaultRecord record : segmentRecords) {
+                    addToIndex(record);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info(String.format("没收库已加载: %d 个段文件，%d 条记录%s，用时 %d ms", segments.size(), records,
+                rebuilt > 0 ? "，重建了 " + rebuilt + " 个索引文件" : "", System.currentTimeMillis() - start));
+    }
+
+    /**
+     * 读取已封存段的索引文件
+     * 格式：int 魔数 | long 段文件长度 | int 记录数 | 每条记录 (long 偏移 | int 长度 | long 时间戳 | long UUID 高位 |
+     * long UUID 低位 | long 违规类别掩码 | short+UTF-8 物品类型 | short+UTF-8 玩家名称) | int CRC32
+     *
+     * @return 记录列表，索引文件不存在、损坏或与段文件长度不一致时返回 null
+     */
+    private List<VaultRecord> readIndexFile(int segment) {
+        File file = indexFile(segment);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            byte[] array = Files.readAllBytes(file.toPath());
+            if (array.length < 20) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(array);
+            int crcOffset = array.length - TRAILER_SIZE;
+            CRC32 crc = new CRC32();
+            crc.update(array, 0, crcOffset);
+            if (buffer.getInt(0) != INDEX_MAGIC || (int) crc.getValue() != buffer.getInt(crcOffset)
+                    || buffer.getLong(4) != segmentFile(segment).length()) {
+                return null;
+            }
+
+            buffer.position(12);
+            int count = buffer.getInt();
+            List<VaultRecord> records = new ArrayList<>(Math.max(0, Math.min(count, 65536)));
+            for (int i = 0; i < count; i++) {
+                long offset = buffer.getLong();
+                int length = buffer.getInt();
+                long timestamp = buffer.getLong();
+                long most = buffer.getLong();
+                long least = buffer.getLong();
+                long reasonMask = buffer.getLong();
+                String material = readShortString(buffer);
+                String playerName = readShortString(buffer);
+                records.add(new VaultRecord(segment, offset, length, timestamp,
+                        most == 0 && least == 0 ? null : new UUID(most, least), playerName, material, reasonMask));
+            }
+            return buffer.position() == crcOffset ? records : null;
+        } catch (IOException | BufferUnderflowException e) {
+            logger.warning("没收库索引文件 " + file.getName() + " 无法读取，将重新扫描段文件: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写入已封存段的索引文件，失败时只记录警告，下次启动重新扫描该段
+     */
+    private void writeIndexFile(int segment, List<VaultRecord> records) {
+        File file = indexFile(segment);
+        Path temp = new File(directory, file.getName() + ".tmp").toPath();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + records.size() * 80);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(INDEX_MAGIC);
+            out.writeLong(segmentFile(segment).length());
+            out.writeInt(records.size());
+            for (VaultRecord record : records) {
+                out.writeLong(record.getOffset());
+                out.writeInt(record.getLength());
+                out.writeLong(record.getTimestamp());
+                out.writeLong(record.getPlayerId() != null ? record.getPlayerId().getMostSignificantBits() : 0L);
+                out.writeLong(record.getPlayerId() != null ? record.getPlayerId().getLeastSignificantBits() : 0L);
+                out.writeLong(record.getReasonMask());
+                writeShortString(out, record.getMaterial());
+                writeShortString(out, record.getPlayerName());
+            }
+            out.flush();
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+            out.flush();
+
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warning("写入没收库索引文件 " + file.getName() + " 失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 扫描段文件读取所有记录，遇到不完整或损坏的记录时截断文件
+     */
+    private List<VaultRecord> scanSegment(int segment) throws IOException {
+        File file = segmentFile(segment);
+        List<VaultRecord> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_SIZE);
+            while (position < size) {
+                header.clear();
+                if (readFully(channel, header, position) < FIXED_HEADER_SIZE
+                        || header.getInt(0) != MAGIC) {
+                    break;
+                }
+                int bodyLength = header.getInt(4);
+                long recordLength = (long) FIXED_HEADER_SIZE + bodyLength + TRAILER_SIZE;
+                if (bodyLength < 0 || position + recordLength > size) {
+                    break;
+                }
+                ByteBuffer record = ByteBuffer.allocate((int) recordLength);
+                readFully(channel, record, position);
+                RecordBody body = decode(record);
+                if (body == null) {
+                    break;
+                }
+                records.add(new VaultRecord(segment, position, (int) recordLength, body.timestamp, body.playerId,
+                        body.playerName, body.material, body.reasonMask));
+                position += recordLength;
+            }
+            if (position < size) {
+                logger.warning(String.format("没收库段文件 %s 在偏移 %d 处存在不完整的记录，已截断", file.getName(), position));
+                channel.truncate(position);
+            }
+        }
+        return records;
+    }
+
+    private List<VaultRecord> segmentRecords(int segment) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(recordsBySegment.getOrDefault(segment, List.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addToIndex(VaultRecord record) {
+        recordsBySegment.computeIfAbsent(record.getSegment(), k -> new ArrayList<>()).add(record);
+        if (record.getPlayerId() != null) {
+            recordsByPlayer.computeIfAbsent(record.getPlayerId(), k -> new ArrayList<>()).add(record);
+        }
+    }
+
+    private void removeFromIndex(int segment) {
+        recordsBySegment.remove(segment);
+        for (List<VaultRecord> records : recordsByPlayer.values()) {
+            records.removeIf(record -> record.getSegment() == segment);
+        }
+        recordsByPlayer.values().removeIf(List::isEmpty);
+    }
+
+    private List<Integer> listSegments() {
+        List<Integer> segments = new ArrayList<>();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    segments.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    logger.warning("忽略无法识别的段文件: " + name);
+                }
+            }
+        }
+        segments.sort(Integer::compare);
+        return segments;
+    }
+
+    private File segmentFile(int segment) {
+        return new File(directory, String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private File indexFile(int segment) {
+        return new File(directory, String.format("%s%08d%s", SEGMENT_PREFIX, segment, INDEX_SUFFIX));
+    }
+
+    private ConfigSnapshot getSnapshot() {
+        return plugin.getConfigManager().getSnapshot();
+    }
+
+    // ========== 编解码 ==========
+
+    private static ByteBuffer encode(PendingRecord pending) throws IOException {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(pending.payload.length + 128);
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        writeShortString(body, pending.material);
+        writeShortString(body, pending.playerName);
+        byte[] reason = pending.reason.getBytes(StandardCharsets.UTF_8);
+        body.writeInt(reason.length);
+        body.write(reason);
+        body.writeInt(pending.payload.length);
+        body.write(pending.payload);
+        body.flush();
+
+        byte[] bodyArray = bodyBytes.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_HEADER_SIZE + bodyArray.length + TRAILER_SIZE);
+        buffer.putInt(MAGIC);
+        buffer.putInt(bodyArray.length);
+        buffer.putLong(pending.timestamp);
+        buffer.putLong(pending.playerId != null ? pending.playerId.getMostSignificantBits() : 0L);
+        buffer.putLong(pending.playerId != null ? pending.playerId.getLeastSignificantBits() : 0L);
+        buffer.putLong(pending.reasonMask);
+        buffer.put(bodyArray);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 8, buffer.position() - 8);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 解码一条完整记录，校验失败时返回 null
+     */
+    private static RecordBody decode(ByteBuffer record) {
+        byte[] array = record.array();
+        int crcOffset = array.length - TRAILER_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(array, 8, crcOffset - 8);
+        if ((int) crc.getValue() != record.getInt(crcOffset)) {
+            return null;
+        }
+
+        RecordBody body = new RecordBody();
+        body.timestamp = record.getLong(8);
+        long most = record.getLong(16);
+        long least = record.getLong(24);
+        body.playerId = most == 0 && least == 0 ? null : new UUID(most, least);
+        body.reasonMask = record.getLong(32);
+
+        ByteBuffer reader = ByteBuffer.wrap(array, FIXED_HEADER_SIZE, crcOffset - FIXED_HEADER_SIZE);
+        body.material = readShortString(reader);
+        body.playerName = readShortString(reader);
+        byte[] reason = new byte[reader.getInt()];
+        reader.get(reason);
+        body.reason = new String(reason, StandardCharsets.UTF_8);
+        body.payload = new byte[reader.getInt()];
+        reader.get(body.payload);
+        return body;
+    }
+
+    private RecordBody readBody(VaultRecord record) throws IOException {
+        lock.readLock().lock();
+        try (FileChannel channel = FileChannel.open(segmentFile(record.getSegment()).toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(record.getLength());
+            if (readFully(channel, buffer, record.getOffset()) < record.getLength()) {
+                throw new IOException("记录不完整");
+            }
+            RecordBody body = decode(buffer);
+            if (body == null) {
+                throw new IOException("记录校验失败");
+            }
+            return body;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static void writeShortString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readShortString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 等待写入的记录，所有字段在入队前已在事件线程上准备好
+     */
+    private static final class PendingRecord {
+        private final long timestamp;
+        private final UUID playerId;
+        private final String playerName;
+        private final String material;
+        private final long reasonMask;
+        private final String reason;
+        private final byte[] payload;
+
+        private PendingRecord(long timestamp, UUID playerId, String playerName, String material, long reasonMask,
+                              String reason, byte[] payload) {
+            this.timestamp = timestamp;
+            this.playerId = playerId;
+            this.playerName = playerName;
+            this.material = material;
+            this.reasonMask = reasonMask;
+            this.reason = reason;
+            this.payload = payload;
+        }
+    }
+
+    private static final class RecordBody {
+        private long timestamp;
+        private UUID playerId;
+        private long reasonMask;
+        private String material;
+        private String playerName;
+        private String reason;
+        private byte[] payload;
+    }
+}
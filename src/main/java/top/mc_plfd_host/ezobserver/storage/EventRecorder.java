@@ -0,0 +1,274 @@
+package top.mc_plfd_host.ezobserver.storage;
+
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 物品事件录制
+ * 把 ItemMoveListener 收到的事件（类型、格子、物品、时间）写入 recordings/events-时间.ezrec，
+ * 用于在离线环境中按原速或加速回放，复现线上负载
+ *
+ * 事件线程只复制物品并入队，物品序列化和写入在后台线程完成；队列满时丢弃新事件，不会阻塞事件线程
+ *
+ * 文件格式（整个文件经过 GZIP 压缩）：
+ * 头部：魔数 0x455A5231 (4) | 版本 (2) | 开始时间毫秒 (8)
+ * 每条记录：事件类型 (1) | 距上一条的纳秒数 (varlong) | 玩家序号 (varint) | 格子+1 (varint)
+ *           | 物品字节长度 (varint) | 物品字节 | 第二个物品字节长度 (varint) | 第二个物品字节
+ * 玩家以录制内的序号代替 UUID，序号 0 表示没有玩家；长度为 0 表示没有物品
+ *
+ * @author Kush_ShuL
+ */
+public class EventRecorder {
+
+    public static final int MAGIC = 0x455A5231;
+    public static final short VERSION = 1;
+    public static final String FILE_SUFFIX = ".ezrec";
+
+    /**
+     * 录制的事件类型，序号写入文件，只能在末尾追加
+     */
+    public enum Kind {
+        CLICK, MOVE, DRAG, DROP, HELD, SWAP, INTERACT, PICKUP
+    }
+
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final EzObserver plugin;
+    private final Logger logger;
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean recording;
+    private Thread writerThread;
+    private File currentFile;
+    private long deadlineNanos;
+    private long maxBytes;
+
+    public EventRecorder(EzObserver plugin) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public File getCurrentFile() {
+        return currentFile;
+    }
+
+    /**
+     * 开始录制
+     *
+     * @param minutes 录制时长，到时自动停止
+     * @return 录制文件，已在录制或无法创建文件时返回 null
+     */
+    public synchronized File start(long minutes) {
+        if (recording) {
+            return null;
+        }
+        ConfigSnapshot config = plugin.getConfigManager().getSnapshot();
+        File directory = new File(plugin.getDataFolder(), "recordings");
+        if (!directory.exists() && !directory.mkdirs()) {
+            logger.warning("无法创建事件录制目录: " + directory.getAbsolutePath());
+            return null;
+        }
+
+        File file = new File(directory, "events-" + LocalDateTime.now().format(FILE_TIME_FORMAT) + FILE_SUFFIX);
+        DataOutputStream out;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(file), WRITE_BUFFER_SIZE), WRITE_BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(System.currentTimeMillis());
+        } catch (IOException e) {
+            logger.warning("无法创建事件录制文件 " + file.getName() + ": " + e.getMessage());
+            return null;
+        }
+
+        currentFile = file;
+        deadlineNanos = System.nanoTime() + TimeUnit.MINUTES.toNanos(minutes);
+        maxBytes = config.getRecorderMaxFileSizeMb() * 1024L * 1024L;
+        dropped.set(0);
+        recording = true;
+        writerThread = new Thread(() -> writeLoop(out), "EzObserver-EventRecorder");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("开始录制物品事件: " + file.getName() + " (最长 " + minutes + " 分钟)");
+        return file;
+    }
+
+    /**
+     * 停止录制，写完队列中剩余的事件后关闭文件
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            if (!recording) {
+                return;
+            }
+            recording = false;
+            thread = writerThread;
+            writerThread = null;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void record(Kind kind, Player player, int slot, ItemStack item) {
+        record(kind, player, slot, item, null);
+    }
+
+    /**
+     * 记录一次事件，未在录制时直接返回
+     *
+     * @param slot 事件涉及的格子，没有时为 -1
+     * @param other 事件涉及的第二个物品（如交换双手时的副手物品），可以为 null
+     */
+    public void record(Kind kind, Player player, int slot, ItemStack item, ItemStack other) {
+        if (!recording) {
+            return;
+        }
+        if (queued.incrementAndGet() > QUEUE_CAPACITY) {
+            queued.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        // 物品可能在事件之后被修改，入队前复制，序列化留给写入线程
+        queue.offer(new Entry(kind, System.nanoTime(), player != null ? player.getUniqueId() : null, slot,
+                copy(item), copy(other)));
+    }
+
+    private static ItemStack copy(ItemStack item) {
+        return item == null || item.getType() == Material.AIR ? null : item.clone();
+    }
+
+    // ========== 写入线程 ==========
+
+    private void writeLoop(DataOutputStream out) {
+        Map<UUID, Integer> playerIndexes = new HashMap<>();
+        long previousNanos = System.nanoTime();
+        long written = 0;
+        long events = 0;
+        String stopReason = "手动停止";
+
+        try (DataOutputStream stream = out) {
+            while (recording || !queue.isEmpty()) {
+                Entry entry = queue.poll();
+                if (entry == null) {
+                    if (System.nanoTime() - deadlineNanos >= 0) {
+                        stopReason = "到达录制时长";
+                        break;
+                    }
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    continue;
+                }
+                queued.decrementAndGet();
+
+                int playerIndex = 0;
+                if (entry.playerId != null) {
+                    playerIndex = playerIndexes.computeIfAbsent(entry.playerId, id -> playerIndexes.size() + 1);
+                }
+                byte[] item = serialize(entry.item);
+                byte[] other = serialize(entry.other);
+
+                stream.writeByte(entry.kind.ordinal());
+                written += 1 + writeVarLong(stream, Math.max(0, entry.nanos - previousNanos));
+                written += writeVarLong(stream, playerIndex);
+                written += writeVarLong(stream, entry.slot + 1);
+                written += writeVarLong(stream, item.length) + item.length;
+                stream.write(item);
+                written += writeVarLong(stream, other.length) + other.length;
+                stream.write(other);
+                previousNanos = entry.nanos;
+                events++;
+
+                if (written >= maxBytes) {
+                    stopReason = "到达文件大小上限";
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            stopReason = "写入失败: " + e.getMessage();
+        } finally {
+            synchronized (this) {
+                recording = false;
+                if (writerThread == Thread.currentThread()) {
+                    writerThread = null;
+                }
+            }
+            queue.clear();
+            queued.set(0);
+        }
+
+        logger.info(String.format("物品事件录制结束 (%s): %s，%d 个事件，%d 个玩家，丢弃 %d 个",
+                stopReason, currentFile.getName(), events, playerIndexes.size(), dropped.get()));
+    }
+
+    private static byte[] serialize(ItemStack item) {
+        return item == null ? new byte[0] : item.serializeAsBytes();
+    }
+
+    /**
+     * 写入无符号变长整数，返回写入的字节数
+     */
+    private static int writeVarLong(DataOutputStream out, long value) throws IOException {
+        int bytes = 1;
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+            bytes++;
+        }
+        out.writeByte((int) value);
+        return bytes;
+    }
+
+    private static final class Entry {
+        private final Kind kind;
+        private final long nanos;
+        private final UUID playerId;
+        private final int slot;
+        private final ItemStack item;
+        private final ItemStack other;
+
+        private Entry(Kind kind, long nanos, UUID playerId, int slot, ItemStack item, ItemStack other) {
+            this.kind = kind;
+            this.nanos = nanos;
+            this.playerId = playerId;
+            this.slot = slot;
+            this.item = item;
+            this.other = other;
+        }
+    }
+}
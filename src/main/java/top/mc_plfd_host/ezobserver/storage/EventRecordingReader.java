@@ -0,0 +1,161 @@
+package top.mc_plfd_host.ezobserver.storage;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 读取 EventRecorder 写出的录制文件，供离线回放工具使用
+ * 文件格式见 EventRecorder
+ *
+ * @author Kush_ShuL
+ */
+public class EventRecordingReader implements Closeable {
+
+    private static final EventRecorder.Kind[] KINDS = EventRecorder.Kind.values();
+    private static final byte[] EMPTY = new byte[0];
+
+    private final DataInputStream in;
+    private final long startMillis;
+    private long offsetNanos;
+
+    public EventRecordingReader(File file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file), 64 * 1024)));
+        try {
+            if (in.readInt() != EventRecorder.MAGIC) {
+                throw new IOException("不是事件录制文件: " + file.getName());
+            }
+            short version = in.readShort();
+            if (version != EventRecorder.VERSION) {
+                throw new IOException("不支持的录制文件版本: " + version);
+            }
+            this.startMillis = in.readLong();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 录制开始时间 (毫秒时间戳)
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * 读取下一条记录
+     *
+     * @return 记录，文件结束时返回 null
+     */
+    public Record next() throws IOException {
+        int kind = in.read();
+        if (kind < 0) {
+            return null;
+        }
+        if (kind >= KINDS.length) {
+            throw new IOException("未知的事件类型: " + kind);
+        }
+        offsetNanos += readVarLong();
+        int playerIndex = (int) readVarLong();
+        int slot = (int) readVarLong() - 1;
+        byte[] item = readBytes();
+        byte[] other = readBytes();
+        return new Record(KINDS[kind], offsetNanos, playerIndex, slot, item, other);
+    }
+
+    private byte[] readBytes() throws IOException {
+        int length = (int) readVarLong();
+        if (length == 0) {
+            return EMPTY;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("录制文件在记录中间结束");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("变长整数过长");
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * 一条录制的事件
+     */
+    public static final class Record {
+        private final EventRecorder.Kind kind;
+        private final long offsetNanos;
+        private final int playerIndex;
+        private final int slot;
+        private final byte[] item;
+        private final byte[] other;
+
+        private Record(EventRecorder.Kind kind, long offsetNanos, int playerIndex, int slot, byte[] item, byte[] other) {
+            this.kind = kind;
+            this.offsetNanos = offsetNanos;
+            this.playerIndex = playerIndex;
+            this.slot = slot;
+            this.item = item;
+            this.other = other;
+        }
+
+        public EventRecorder.Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * 距录制开始的纳秒数
+         */
+        public long getOffsetNanos() {
+            return offsetNanos;
+        }
+
+        /**
+         * 录制内的玩家序号，0 表示没有玩家
+         */
+        public int getPlayerIndex() {
+            return playerIndex;
+        }
+
+        /**
+         * 格子，没有时为 -1
+         */
+        public int getSlot() {
+            return slot;
+        }
+
+        /**
+         * 物品序列化字节，没有物品时长度为 0
+         */
+        public byte[] getItem() {
+            return item;
+        }
+
+        /**
+         * 第二个物品的序列化字节，没有时长度为 0
+         */
+        public byte[] getOther() {
+            return other;
+        }
+    }
+}
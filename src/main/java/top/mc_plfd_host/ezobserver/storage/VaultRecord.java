@@ -0,0 +1,76 @@
+package top.mc_plfd_host.ezobserver.storage;
+
+import java.util.UUID;
+
+/**
+ * 没收库索引条目
+ * 只包含定位记录和列表展示所需的头部信息，物品数据和完整违规描述需要通过
+ * {@link ConfiscationVault#readItem(VaultRecord)} / {@link ConfiscationVault#readReason(VaultRecord)} 从段文件读取
+ *
+ * @author Kush_ShuL
+ */
+public final class VaultRecord {
+
+    private final int segment;
+    private final long offset;
+    private final int length;
+    private final long timestamp;
+    private final UUID playerId;
+    private final String playerName;
+    private final String material;
+    private final long reasonMask;
+
+    VaultRecord(int segment, long offset, int length, long timestamp, UUID playerId, String playerName,
+                String material, long reasonMask) {
+        this.segment = segment;
+        this.offset = offset;
+        this.length = length;
+        this.timestamp = timestamp;
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.material = material;
+        this.reasonMask = reasonMask;
+    }
+
+    VaultRecord relocate(int newSegment, long newOffset) {
+        return new VaultRecord(newSegment, newOffset, length, timestamp, playerId, playerName, material, reasonMask);
+    }
+
+    int getSegment() {
+        return segment;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * 物品持有者，无法确定玩家时为 null
+     */
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public String getMaterial() {
+        return material;
+    }
+
+    /**
+     * 违规类别掩码，参见 {@link top.mc_plfd_host.ezobserver.checker.ViolationCode}
+     */
+    public long getReasonMask() {
+        return reasonMask;
+    }
+}
@@ -0,0 +1,433 @@
+package top.mc_plfd_host.ezobserver.storage;
+
+import org.bukkit.entity.Player;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 违规日志
+ * 事件线程只把违规信息入队，后台线程批量写入 journal/violations-日期.jsonl（每行一条 JSON 记录）
+ * 并输出控制台摘要。日志文件按天和大小轮换，轮换后的文件压缩为 .jsonl.gz，超过保留期限后删除
+ *
+ * 队列有固定容量，写入跟不上时按 violation-journal.overflow-policy 丢弃记录：
+ * drop-newest 丢弃新记录，drop-oldest 丢弃队列中最旧的记录。
+ * 事件线程永远不会因为日志写入而阻塞，丢弃的数量会写入日志并在控制台提示
+ *
+ * @author Kush_ShuL
+ */
+public class ViolationJournal {
+
+    private static final String FILE_PREFIX = "violations-";
+    private static final String FILE_SUFFIX = ".jsonl";
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    // 队列为空时写入线程的休眠时间
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    // 丢弃提示的最短间隔
+    private static final long DROP_WARNING_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+    private final EzObserver plugin;
+    private final Logger logger;
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private int capacity;
+    private boolean dropOldest;
+
+    private File directory;
+    private BufferedWriter writer;
+    private LocalDate currentDate;
+    private File currentFile;
+    private long currentSize;
+    private long lastDropWarning;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public ViolationJournal(EzObserver plugin) {
+        this.plugin = plugin;
+        this.logger = plugin.getLogger();
+    }
+
+    /**
+     * 启动写入线程，队列容量和溢出策略在启动时确定
+     */
+    public synchronized void open() {
+        if (running) {
+            return;
+        }
+        ConfigSnapshot config = getSnapshot();
+        capacity = config.getJournalQueueCapacity();
+        dropOldest = "drop-oldest".equalsIgnoreCase(config.getJournalOverflowPolicy());
+
+        directory = new File(plugin.getDataFolder(), "journal");
+        if (!directory.exists() && !directory.mkdirs()) {
+            logger.warning("无法创建违规日志目录: " + directory.getAbsolutePath());
+        }
+
+        running = true;
+        writerThread = new Thread(this::writeLoop, "EzObserver-ViolationJournal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * 停止写入线程，写完队列中剩余的记录后关闭文件
+     */
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = writerThread;
+            writerThread = null;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 记录一次违规，只做一次入队
+     *
+     * @param player 物品持有者，可以为 null
+     * @param action 处理方式 (delete/store/fix)
+     */
+    public void record(Player player, String material, String action, List<String> violations) {
+        if (!running) {
+            return;
+        }
+        Entry entry = new Entry(System.currentTimeMillis(),
+                player != null ? player.getName() : null,
+                player != null ? player.getUniqueId() : null,
+                material, action, violations);
+
+        if (queued.incrementAndGet() > capacity) {
+            if (dropOldest && queue.poll() != null) {
+                // 取出一条旧记录再放入新记录，队列长度不变
+                queue.offer(entry);
+                queued.decrementAndGet();
+            } else {
+                queued.decrementAndGet();
+            }
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.offer(entry);
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // ========== 写入线程 ==========
+
+    private void writeLoop() {
+        compressLeftovers();
+        List<Entry> batch = new ArrayList<>();
+
+        while (running || !queue.isEmpty()) {
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                queued.decrementAndGet();
+                batch.add(entry);
+            }
+
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            try {
+                writeBatch(batch);
+            } catch (IOException e) {
+                logger.severe("写入违规日志失败，本批 " + batch.size() + " 条记录未保存: " + e.getMessage());
+                closeWriter();
+            } finally {
+                batch.clear();
+            }
+        }
+        closeWriter();
+    }
+
+    private void writeBatch(List<Entry> batch) throws IOException {
+        ConfigSnapshot config = getSnapshot();
+        boolean console = config.isJournalConsoleSummary();
+        StringBuilder line = new StringBuilder(256);
+
+        long droppedNow = dropped.getAndSet(0);
+        if (droppedNow > 0) {
+            line.setLength(0);
+            line.append("{\"ts\":").append(System.currentTimeMillis())
+                    .append(",\"type\":\"dropped\",\"count\":").append(droppedNow).append('}');
+            writeLine(line, config);
+            long now = System.currentTimeMillis();
+            if (now - lastDropWarning >= DROP_WARNING_INTERVAL_MILLIS) {
+                lastDropWarning = now;
+                logger.warning("违规日志队列已满，丢弃了 " + droppedNow + " 条记录");
+            }
+        }
+
+        for (Entry entry : batch) {
+            line.setLength(0);
+            appendJson(line, entry);
+            writeLine(line, config);
+
+            if (console) {
+                logger.warning("[EzObserver] 检测到违规物品: " + entry.material
+                        + (entry.playerName != null ? " | 玩家: " + entry.playerName : "")
+                        + " | 违规原因: " + String.join("; ", entry.violations));
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeLine(StringBuilder line, ConfigSnapshot config) throws IOException {
+        LocalDate today = LocalDate.now();
+        long limit = config.getJournalMaxFileSizeMb() * 1024L * 1024L;
+        if (writer == null || !today.equals(currentDate) || currentSize >= limit) {
+            rotate(today, config);
+        }
+        line.append('\n');
+        writer.append(line);
+        // 按字符数估算文件大小，只用于判断是否需要轮换
+        currentSize += line.length();
+    }
+
+    // ========== 轮换与压缩 ==========
+
+    /**
+     * 关闭当前文件并打开当天的新文件
+     * 当天文件已超过大小上限时，先将其重命名为带序号的文件再压缩
+     */
+    private void rotate(LocalDate today, ConfigSnapshot config) throws IOException {
+        File previous = currentFile;
+        closeWriter();
+
+        File file = new File(directory, FILE_PREFIX + today + FILE_SUFFIX);
+        long limit = config.getJournalMaxFileSizeMb() * 1024L * 1024L;
+        if (file.exists() && file.length() >= limit) {
+            File sealed = nextSealedName(today);
+            if (!file.renameTo(sealed)) {
+                throw new IOException("无法轮换违规日志文件: " + file.getName());
+            }
+            if (file.equals(previous)) {
+                previous = sealed;
+            } else {
+                finishSegment(sealed, config);
+            }
+        }
+        if (previous != null && !previous.equals(file)) {
+            finishSegment(previous, config);
+        }
+
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8),
+                WRITE_BUFFER_SIZE);
+        currentFile = file;
+        currentDate = today;
+        currentSize = file.length();
+        deleteExpired(config);
+    }
+
+    private File nextSealedName(LocalDate date) {
+        int index = 1;
+        File candidate;
+        do {
+            candidate = new File(directory, FILE_PREFIX + date + "." + index + FILE_SUFFIX);
+            index++;
+        } while (candidate.exists() || new File(candidate.getPath() + GZIP_SUFFIX).exists());
+        return candidate;
+    }
+
+    /**
+     * 处理已封存的日志文件，按配置压缩
+     */
+    private void finishSegment(File file, ConfigSnapshot config) {
+        if (!config.isJournalCompressRotated() || !file.exists()) {
+            return;
+        }
+        File compressed = new File(file.getPath() + GZIP_SUFFIX);
+        try (InputStream in = new FileInputStream(file);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(compressed), WRITE_BUFFER_SIZE)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            logger.warning("压缩违规日志 " + file.getName() + " 失败: " + e.getMessage());
+            compressed.delete();
+            return;
+        }
+        if (!file.delete()) {
+            logger.warning("无法删除已压缩的违规日志: " + file.getName());
+        }
+    }
+
+    /**
+     * 压缩上次运行遗留的未压缩日志（当天的文件除外，会继续追加）
+     */
+    private void compressLeftovers() {
+        ConfigSnapshot config = getSnapshot();
+        String todayName = FILE_PREFIX + LocalDate.now() + FILE_SUFFIX;
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!file.getName().equals(todayName)) {
+                finishSegment(file, config);
+            }
+        }
+    }
+
+    private void deleteExpired(ConfigSnapshot config) {
+        int retentionDays = config.getJournalRetentionDays();
+        if (retentionDays <= 0) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!file.equals(currentFile) && file.lastModified() < cutoff && !file.delete()) {
+                logger.warning("无法删除过期的违规日志: " + file.getName());
+            }
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.warning("关闭违规日志文件时发生错误: " + e.getMessage());
+        }
+        writer = null;
+    }
+
+    private ConfigSnapshot getSnapshot() {
+        return plugin.getConfigManager().getSnapshot();
+    }
+
+    // ========== JSON ==========
+
+    private static void appendJson(StringBuilder out, Entry entry) {
+        out.append("{\"ts\":").append(entry.timestamp);
+        out.append(",\"time\":");
+        appendString(out, TIME_FORMAT.format(Instant.ofEpochMilli(entry.timestamp).atZone(ZoneId.systemDefault())));
+        out.append(",\"type\":\"violation\"");
+        out.append(",\"player\":");
+        if (entry.playerName != null) {
+            appendString(out, entry.playerName);
+        } else {
+            out.append("null");
+        }
+        out.append(",\"uuid\":");
+        if (entry.playerId != null) {
+            appendString(out, entry.playerId.toString());
+        } else {
+            out.append("null");
+        }
+        out.append(",\"item\":");
+        appendString(out, entry.material);
+        out.append(",\"action\":");
+        appendString(out, entry.action);
+        out.append(",\"codes\":[");
+        boolean first = true;
+        for (ViolationCode code : ViolationCode.fromMask(ViolationCode.classify(entry.violations))) {
+            if (!first) {
+                out.append(',');
+            }
+            appendString(out, code.name());
+            first = false;
+        }
+        out.append("],\"violations\":[");
+        first = true;
+        for (String violation : entry.violations) {
+            if (!first) {
+                out.append(',');
+            }
+            appendString(out, violation);
+            first = false;
+        }
+        out.append("]}");
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * 队列中的一条违规记录，格式化工作全部留给写入线程
+     */
+    private static final class Entry {
+        private final long timestamp;
+        private final String playerName;
+        private final UUID playerId;
+        private final String material;
+        private final String action;
+        private final List<String> violations;
+
+        private Entry(long timestamp, String playerName, UUID playerId, String material, String action,
+                      List<String> violations) {
+            this.timestamp = timestamp;
+            this.playerName = playerName;
+            this.playerId = playerId;
+            this.material = material;
+            this.action = action;
+            this.violations = violations;
+        }
+    }
+}
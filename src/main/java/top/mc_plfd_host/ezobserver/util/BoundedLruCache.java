@@ -0,0 +1,55 @@
+package top.mc_plfd_host.ezobserver.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 容量有限的 LRU 缓存
+ * 超出容量时淘汰最久未访问的条目，所有操作都是同步的，可以在多个区域线程间共享
+ *
+ * @author Kush_ShuL
+ */
+public class BoundedLruCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries;
+
+    public BoundedLruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于 0: " + maxSize);
+        }
+        // accessOrder = true，每次 get 都会把条目移到队尾
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 获取缓存值，不存在时返回 null
+     */
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * 获取缓存值，不存在时创建并放入，创建过程在锁内完成
+     */
+    public synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        return entries.computeIfAbsent(key, factory);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
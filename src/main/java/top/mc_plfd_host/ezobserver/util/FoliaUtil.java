@@ -48,6 +48,19 @@ public class FoliaUtil {
      * @param task 要执行的任务
      */
     public static void runEntityTask(Plugin plugin, Entity entity, Runnable task) {
+        runEntityTask(plugin, entity, task, null);
+    }
+
+    /**
+     * 在实体的区域调度器上执行任务
+     * 如果不是 Folia，则使用 Bukkit 调度器
+     *
+     * @param plugin 插件实例
+     * @param entity 实体
+     * @param task 要执行的任务
+     * @param retired 实体在任务执行前被移除时执行（仅 Folia），可以为 null
+     */
+    public static void runEntityTask(Plugin plugin, Entity entity, Runnable task, Runnable retired) {
         if (entity == null || task == null) {
             return;
         }
@@ -76,8 +89,12 @@ public class FoliaUtil {
                     localRunMethod = runMethod;
                 }
                 
-                // 执行任务
-                localRunMethod.invoke(scheduler, plugin, (java.util.function.Consumer<Object>) (t) -> task.run(), null);
+                // 执行任务，实体已被移除时 run 返回 null，任务不会执行
+                Object scheduled = localRunMethod.invoke(scheduler, plugin,
+                    (java.util.function.Consumer<Object>) (t) -> task.run(), retired);
+                if (scheduled == null && retired != null) {
+                    retired.run();
+                }
             } catch (Exception e) {
                 // 如果反射失败，回退到同步执行
                 plugin.getLogger().warning("Folia 调度器调用失败，回退到同步执行: " + e.getMessage());
@@ -0,0 +1,127 @@
+package top.mc_plfd_host.ezobserver.util;
+
+/**
+ * long 到 long 的开放寻址哈希表
+ * 键和值都存放在基本类型数组中，读写不装箱、不分配对象；不存在的键读出 0
+ * 不是线程安全的，由调用方加锁
+ *
+ * @author Kush_ShuL
+ */
+public class LongLongMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+
+    public LongLongMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    public long get(long key) {
+        int index = find(key);
+        return index >= 0 ? values[index] : 0;
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) >= 0;
+    }
+
+    public void put(long key, long value) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        while (used[index]) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        used[index] = true;
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    }
+
+    /**
+     * 在原值上加 delta，结果不小于 0；键不存在时从 0 开始
+     *
+     * @return 更新后的值
+     */
+    public long addClamped(long key, long delta) {
+        long value = Math.max(0, get(key) + delta);
+        put(key, value);
+        return value;
+    }
+
+    public void remove(long key) {
+        int index = find(key);
+        if (index < 0) {
+            return;
+        }
+        // 向后移动同一探测链上的条目，保持线性探测的查找正确
+        int mask = keys.length - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (used[next]) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[hole] = false;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        while (used[index]) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        size = 0;
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,201 @@
+package top.mc_plfd_host.ezobserver.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 服务器 API 能力探测
+ * 部分物品元数据方法只在特定版本的 Bukkit/Paper 中存在，类加载时探测一次并绑定为 MethodHandle，
+ * 检测时只判断预先解析的布尔值，不再每次调用 getMethod 和 Method.invoke
+ *
+ * 方法从 API 接口上查找，而不是实现类，避免 CraftBukkit 实现类的访问限制
+ * 存在但不可用的方法（例如新版中直接抛出异常的 getSpawnedType）在启动时由 {@link #probe()} 试调用一次，
+ * 回退只在启动时记录，检测时不再逐个物品捕获异常和记录日志
+ *
+ * @author Kush_ShuL
+ */
+public final class ServerCapabilities {
+
+    private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, ItemMeta.class);
+    private static final MethodType BOOLEAN_GETTER = MethodType.methodType(boolean.class, ItemMeta.class);
+
+    /** SpawnEggMeta.getSpawnedType() */
+    private static final MethodHandle SPAWNED_TYPE = bind("org.bukkit.inventory.meta.SpawnEggMeta", "getSpawnedType", OBJECT_GETTER);
+    /** SpawnEggMeta.getSpawnedEntity()（Paper 1.20.4+） */
+    private static final MethodHandle SPAWNED_ENTITY = bind("org.bukkit.inventory.meta.SpawnEggMeta", "getSpawnedEntity", OBJECT_GETTER);
+    /** MapMeta.hasMapView() */
+    private static final MethodHandle HAS_MAP_VIEW = bind("org.bukkit.inventory.meta.MapMeta", "hasMapView", BOOLEAN_GETTER);
+    /** MapMeta.hasMapId()，hasMapView 不存在时的备用检查 */
+    private static final MethodHandle HAS_MAP_ID = bind("org.bukkit.inventory.meta.MapMeta", "hasMapId", BOOLEAN_GETTER);
+    /** KnowledgeBookMeta.hasRecipes() */
+    private static final MethodHandle HAS_RECIPES = bind("org.bukkit.inventory.meta.KnowledgeBookMeta", "hasRecipes", BOOLEAN_GETTER);
+    /** ItemMeta.hasEnchantGlint()（1.20.5+） */
+    private static final MethodHandle HAS_ENCHANT_GLINT = bind("org.bukkit.inventory.meta.ItemMeta", "hasEnchantGlint", BOOLEAN_GETTER);
+
+    private static final Class<?> KNOWLEDGE_BOOK_META = findClass("org.bukkit.inventory.meta.KnowledgeBookMeta");
+
+    public static final boolean HAS_SPAWNED_ENTITY = SPAWNED_ENTITY != null;
+    public static final boolean HAS_MAP_VIEW_CHECK = HAS_MAP_VIEW != null;
+    private static final boolean HAS_MAP_ID_CHECK = HAS_MAP_ID != null;
+    public static final boolean HAS_KNOWLEDGE_BOOK_RECIPES = HAS_RECIPES != null && KNOWLEDGE_BOOK_META != null;
+    public static final boolean HAS_ENCHANT_GLINT_CHECK = HAS_ENCHANT_GLINT != null;
+
+    /** getSpawnedType 存在且启动时试调用成功 */
+    private static volatile boolean spawnedTypeUsable = SPAWNED_TYPE != null;
+
+    private ServerCapabilities() {
+    }
+
+    /**
+     * 启动时用真实的刷怪蛋元数据试调用 getSpawnedType
+     * 新版 API 中该方法仍然存在，但调用时直接抛出 UnsupportedOperationException，此时关闭生成类型检测
+     *
+     * @return 需要在启动日志中说明的回退
+     */
+    public static List<String> probe() {
+        List<String> fallbacks = new ArrayList<>();
+        if (SPAWNED_TYPE != null) {
+            try {
+                Object ignored = (Object) SPAWNED_TYPE.invokeExact(Bukkit.getItemFactory().getItemMeta(Material.PIG_SPAWN_EGG));
+                spawnedTypeUsable = true;
+            } catch (Throwable e) {
+                spawnedTypeUsable = false;
+                fallbacks.add("getSpawnedType is unusable (" + e.getClass().getSimpleName()
+                        + "), spawn egg type check disabled");
+            }
+        }
+        if (!HAS_MAP_VIEW_CHECK) {
+            fallbacks.add(HAS_MAP_ID_CHECK
+                    ? "hasMapView is missing, empty map check uses hasMapId"
+                    : "hasMapView and hasMapId are missing, empty map check disabled");
+        }
+        return fallbacks;
+    }
+
+    /**
+     * 刷怪蛋实际生成的实体类型，API 不存在、不可用或调用失败时返回 null
+     */
+    public static Object getSpawnedType(ItemMeta spawnEggMeta) {
+        if (!spawnedTypeUsable) {
+            return null;
+        }
+        try {
+            return (Object) SPAWNED_TYPE.invokeExact(spawnEggMeta);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 刷怪蛋中的实体快照，API 不存在或调用失败时返回 null
+     */
+    public static Object getSpawnedEntity(ItemMeta spawnEggMeta) {
+        if (!HAS_SPAWNED_ENTITY) {
+            return null;
+        }
+        try {
+            return (Object) SPAWNED_ENTITY.invokeExact(spawnEggMeta);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 已填充的地图是否有地图数据
+     * 优先使用 hasMapView，不存在时使用 hasMapId；两者都不存在时视为有数据
+     */
+    public static boolean hasMapData(ItemMeta mapMeta) {
+        MethodHandle handle = HAS_MAP_VIEW != null ? HAS_MAP_VIEW : HAS_MAP_ID;
+        if (handle == null) {
+            return true;
+        }
+        try {
+            return (boolean) handle.invokeExact(mapMeta);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    public static boolean isKnowledgeBookMeta(ItemMeta meta) {
+        return KNOWLEDGE_BOOK_META != null && KNOWLEDGE_BOOK_META.isInstance(meta);
+    }
+
+    /**
+     * 知识之书是否有配方，调用前需确认 HAS_KNOWLEDGE_BOOK_RECIPES 和 isKnowledgeBookMeta
+     */
+    public static boolean hasRecipes(ItemMeta knowledgeBookMeta) {
+        try {
+            return (boolean) HAS_RECIPES.invokeExact(knowledgeBookMeta);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * 物品是否设置了附魔光效覆盖，调用前需确认 HAS_ENCHANT_GLINT_CHECK
+     */
+    public static boolean hasEnchantGlint(ItemMeta meta) {
+        try {
+            return (boolean) HAS_ENCHANT_GLINT.invokeExact(meta);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * 已探测到的能力描述，用于启动日志
+     */
+    public static String describe() {
+        List<String> available = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        (spawnedTypeUsable ? available : missing).add("getSpawnedType");
+        (HAS_SPAWNED_ENTITY ? available : missing).add("getSpawnedEntity");
+        (HAS_MAP_VIEW_CHECK ? available : missing).add("hasMapView");
+        (HAS_MAP_ID_CHECK ? available : missing).add("hasMapId");
+        (HAS_KNOWLEDGE_BOOK_RECIPES ? available : missing).add("hasRecipes");
+        (HAS_ENCHANT_GLINT_CHECK ? available : missing).add("hasEnchantGlint");
+        return "available " + available + ", missing " + missing;
+    }
+
+    private static Class<?> findClass(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * 在 API 接口上查找无参方法并适配为统一的签名，类或方法不存在时返回 null
+     */
+    private static MethodHandle bind(String className, String methodName, MethodType type) {
+        Class<?> owner = findClass(className);
+        if (owner == null) {
+            return null;
+        }
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(owner.getMethod(methodName));
+            return handle.asType(type);
+        } catch (NoSuchMethodException | IllegalAccessException | WrongMethodTypeException e) {
+            return null;
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(e);
+    }
+}
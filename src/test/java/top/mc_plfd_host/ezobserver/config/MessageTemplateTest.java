@@ -0,0 +1,108 @@
+package top.mc_plfd_host.ezobserver.config;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author Kush_ShuL
+ */
+class MessageTemplateTest {
+
+    private static final MiniMessage MINI_MESSAGE = MiniMessage.miniMessage();
+
+    @Test
+    void fillsSlotsWithValues() {
+        MessageTemplate template = MessageTemplate.compile(MINI_MESSAGE, "&c{player} 持有 {item} x{count}");
+        Component rendered = template.render(Map.of("player", "Steve", "item", "DIAMOND_SWORD", "count", 3));
+
+        assertEquals("Steve 持有 DIAMOND_SWORD x3", plain(rendered));
+    }
+
+    @Test
+    void missingValueRendersPlaceholderText() {
+        MessageTemplate template = MessageTemplate.compile(MINI_MESSAGE, "玩家 {player} 的 {item}");
+
+        assertEquals("玩家 Steve 的 {item}", plain(template.render(Map.of("player", "Steve"))));
+    }
+
+    @Test
+    void repeatedSlotUsesSameValue() {
+        MessageTemplate template = MessageTemplate.compile(MINI_MESSAGE, "{name}/{name}");
+
+        assertEquals("a/a", plain(template.render(Map.of("name", "a"))));
+    }
+
+    @Test
+    void stringValuesAreNotParsedAsFormatting() {
+        MessageTemplate template = MessageTemplate.compile(MINI_MESSAGE, "名称: {name}");
+
+        assertEquals("名称: <red>&lfake", plain(template.render(Map.of("name", "<red>&lfake"))));
+    }
+
+    @Test
+    void slotInheritsSurroundingStyle() {
+        MessageTemplate template = MessageTemplate.compile(MINI_MESSAGE, "&a前缀 {player}");
+        Component slot = findText(template.render(Map.of("player", "Steve")), "Steve");
+
+        assertNotNull(slot);
+        assertEquals(NamedTextColor.GREEN, slot.style().color());
+    }
+
+    @Test
+    void componentValuesAreInsertedAsIs() {
+        MessageTemplate template = MessageTemplate.compile(MINI_MESSAGE, "物品: {item}");
+        Component value = Component.text("钻石剑");
+
+        assertEquals("物品: 钻石剑", plain(template.render(Map.of("item", value))));
+    }
+
+    @Test
+    void bracesThatAreNotSlotsStayLiteral() {
+        MessageTemplate template = MessageTemplate.compile(MINI_MESSAGE, "{not a slot} {} {ok}");
+
+        assertEquals("{not a slot} {} 1", plain(template.render(Map.of("ok", 1))));
+    }
+
+    @Test
+    void constantMessageIsRenderedOnce() {
+        MessageTemplate template = MessageTemplate.compile(MINI_MESSAGE, "&e没有变量");
+
+        assertSame(template.render(), template.render(Map.of("unused", "x")));
+        assertEquals("没有变量", plain(template.render()));
+        assertEquals("&e没有变量", template.getRaw());
+    }
+
+    @Test
+    void convertLegacyMapsKnownCodesOnly() {
+        assertEquals("<red>a<b>b&zc&", MessageTemplate.convertLegacy("&ca&lb&zc&"));
+        assertEquals("plain", MessageTemplate.convertLegacy("plain"));
+        assertEquals("", MessageTemplate.convertLegacy(null));
+    }
+
+    private static String plain(Component component) {
+        return PlainTextComponentSerializer.plainText().serialize(component);
+    }
+
+    private static Component findText(Component component, String content) {
+        if (component instanceof TextComponent text && text.content().equals(content)) {
+            return component;
+        }
+        for (Component child : component.children()) {
+            Component found = findText(child, content);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,94 @@
+package top.mc_plfd_host.ezobserver.monitor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Kush_ShuL
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketUpperBoundCoversValueWithinRelativeError() {
+        for (long value = 0; value < 1L << 36; value = value < 64 ? value + 1 : value + value / 7 + 1) {
+            long upper = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+            assertTrue(upper >= value, "上界 " + upper + " 小于 " + value);
+            assertTrue(upper - value <= value / 16, "值 " + value + " 的上界 " + upper + " 误差超过 1/16");
+        }
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.bucketIndex(value));
+            assertEquals(value, LatencyHistogram.bucketUpperBound(value));
+        }
+    }
+
+    @Test
+    void bucketIndexIsMonotonic() {
+        int previous = 0;
+        for (long value = 0; value < 1_000_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(index >= previous);
+            previous = index;
+        }
+    }
+
+    @Test
+    void snapshotReportsCountMeanMaxAndPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1_000_000, snapshot.getMax());
+        assertEquals(500_500, snapshot.getMean());
+        assertWithin(500_000, snapshot.getPercentile(0.5));
+        assertWithin(990_000, snapshot.getPercentile(0.99));
+        assertEquals(1_000_000, snapshot.getPercentile(1.0));
+    }
+
+    @Test
+    void percentileNeverExceedsMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_001);
+        assertEquals(1_000_001, histogram.snapshot().getPercentile(0.99));
+    }
+
+    @Test
+    void negativeValuesAreRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getPercentile(0.5));
+    }
+
+    @Test
+    void resetClearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(12345);
+        histogram.reset();
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getMean());
+        assertEquals(0, snapshot.getPercentile(0.5));
+    }
+
+    /**
+     * 分位数按桶上界报告，不低于真实值，且不超过 1/16
+     */
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / 16,
+                "期望约 " + expected + "，实际 " + actual);
+    }
+}
@@ -0,0 +1,361 @@
+package top.mc_plfd_host.ezobserver.rules;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
+import top.mc_plfd_host.ezobserver.checker.ViolationList;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+import top.mc_plfd_host.ezobserver.config.TrustedDataRules;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 插件和离线审计工具共用的检测规则
+ *
+ * @author Kush_ShuL
+ */
+class ItemRulesTest {
+
+    private static final Logger LOGGER = Logger.getLogger(ItemRulesTest.class.getName());
+
+    private final ItemRules rules = new ItemRules(null, null);
+
+    @Test
+    void bannedTypeIsReported() {
+        ConfigSnapshot config = config("""
+                banned-items:
+                  banned-materials: [BEDROCK]
+                """);
+
+        assertEquals("禁止的物品类型: BEDROCK", rules.checkBannedType(new FakeItem(Material.BEDROCK), config));
+        assertNull(rules.checkBannedType(new FakeItem(Material.STONE), config));
+    }
+
+    @Test
+    void bannedTypeIgnoredWhenDisabledOrUnknown() {
+        ConfigSnapshot config = config("""
+                banned-items:
+                  enabled: false
+                  banned-materials: [BEDROCK]
+                """);
+
+        assertNull(rules.checkBannedType(new FakeItem(Material.BEDROCK), config));
+        assertNull(rules.checkBannedType(new FakeItem(null), config("")));
+    }
+
+    @Test
+    void enchantmentOverConfiguredLimit() {
+        ConfigSnapshot config = config("""
+                enchantment-limits:
+                  sharpness: 5
+                """);
+        FakeItem item = new FakeItem(Material.DIAMOND_SWORD);
+        item.enchantments.put("sharpness", 6);
+        item.vanillaMax.put("sharpness", 5);
+
+        ViolationList violations = check(item, config);
+
+        assertEquals(List.of("附魔 sharpness 等级 6 超过限制 5"), violations);
+        assertEquals(ViolationCode.ENCHANTMENT_LEVEL.mask(), violations.mask());
+    }
+
+    @Test
+    void unconfiguredEnchantmentUsesVanillaMaximum() {
+        FakeItem item = new FakeItem(Material.DIAMOND_SWORD);
+        item.enchantments.put("unbreaking", 4);
+        item.vanillaMax.put("unbreaking", 3);
+
+        assertEquals(List.of("附魔 unbreaking 等级 4 超过限制 3"), check(item, config("")));
+
+        item.enchantments.put("unbreaking", 3);
+        assertTrue(check(item, config("")).isEmpty());
+    }
+
+    @Test
+    void enchantmentThatCannotApplyIsIllegal() {
+        FakeItem item = new FakeItem(Material.STONE);
+        item.enchantments.put("sharpness", 1);
+        item.vanillaMax.put("sharpness", 5);
+        item.canEnchant = false;
+
+        ViolationList violations = check(item, config(""));
+
+        assertEquals(List.of("非法附魔: sharpness 不能应用到 STONE 上"), violations);
+        assertEquals(ViolationCode.ILLEGAL_ENCHANTMENT.mask(), violations.mask());
+    }
+
+    @Test
+    void sizeLimitDependsOnWhetherItemCarriesItems() {
+        ConfigSnapshot config = config("");
+
+        assertTrue(ItemRules.carriesItems(Material.SHULKER_BOX));
+        assertTrue(ItemRules.carriesItems(Material.CHEST));
+        assertFalse(ItemRules.carriesItems(Material.STONE));
+        assertFalse(ItemRules.carriesItems(null));
+        assertEquals(262144, ItemRules.getSizeLimit(Material.SHULKER_BOX, config));
+        assertEquals(32768, ItemRules.getSizeLimit(Material.STONE, config));
+        assertEquals(32768, ItemRules.getSizeLimit(null, config));
+    }
+
+    @Test
+    void materialSizeLimitOverridesDefaults() {
+        ConfigSnapshot config = config("""
+                size-guard:
+                  material-max-bytes:
+                    WRITTEN_BOOK: 1000
+                """);
+
+        assertEquals(1000, ItemRules.getSizeLimit(Material.WRITTEN_BOOK, config));
+        assertNull(ItemRules.checkSize(Material.WRITTEN_BOOK, "WRITTEN_BOOK", 1000, config));
+        assertEquals("物品数据过大: WRITTEN_BOOK 至少 1001 字节，上限 1000 字节",
+                ItemRules.checkSize(Material.WRITTEN_BOOK, "WRITTEN_BOOK", 1001, config));
+    }
+
+    @Test
+    void chunkPayloadBudget() {
+        assertFalse(ItemRules.isChunkPayloadExceeded(1048576, config("")));
+        assertTrue(ItemRules.isChunkPayloadExceeded(1048577, config("")));
+        assertFalse(ItemRules.isChunkPayloadExceeded(Long.MAX_VALUE, config("""
+                chunk-payload:
+                  enabled: false
+                """)));
+    }
+
+    @Test
+    void fireworkFlightOverThree() {
+        FakeItem item = new FakeItem(Material.FIREWORK_ROCKET);
+        item.fireworkFlight = 3;
+        assertTrue(special(item).isEmpty());
+
+        item.fireworkFlight = 4;
+        ViolationList violations = special(item);
+        assertEquals(List.of("烟花火箭飞行时间 4 超过限制 3 (疑似作弊物品)"), violations);
+        assertEquals(ViolationCode.FIREWORK.mask(), violations.mask());
+    }
+
+    @Test
+    void spawnEggThatSpawnsDifferentEntity() {
+        FakeItem item = new FakeItem(Material.ZOMBIE_SPAWN_EGG);
+        item.hasMeta = true;
+        item.spawnedEntityType = "ZOMBIE";
+        assertTrue(special(item).isEmpty());
+
+        item.spawnedEntityType = "TNT_MINECART";
+        ViolationList violations = special(item);
+        assertEquals(List.of("刷怪蛋NBT被篡改: 物品类型为 ZOMBIE_SPAWN_EGG，但实际会生成 TNT_MINECART (疑似作弊物品)"),
+                violations);
+        assertEquals(ViolationCode.SPAWN_EGG.mask(), violations.mask());
+    }
+
+    @Test
+    void emptyDataItems() {
+        FakeItem bareBook = new FakeItem(Material.WRITTEN_BOOK);
+        assertEquals(List.of("空数据物品: WRITTEN_BOOK 缺少必要的元数据"), emptyData(bareBook));
+
+        FakeItem book = new FakeItem(Material.WRITTEN_BOOK);
+        book.hasMeta = true;
+        book.bookPageCount = 0;
+        book.hasBookAuthor = true;
+        book.hasBookTitle = true;
+        assertEquals(List.of("空成书: 没有页面内容 (疑似作弊物品)"), emptyData(book));
+
+        FakeItem enchantedBook = new FakeItem(Material.ENCHANTED_BOOK);
+        enchantedBook.hasMeta = true;
+        ViolationList violations = emptyData(enchantedBook);
+        assertEquals(List.of("空附魔书: 没有存储的附魔 (疑似作弊物品)"), violations);
+        assertEquals(ViolationCode.EMPTY_DATA.mask(), violations.mask());
+
+        FakeItem stone = new FakeItem(Material.STONE);
+        assertTrue(emptyData(stone).isEmpty());
+    }
+
+    @Test
+    void glintWithoutEnchantments() {
+        FakeItem item = new FakeItem(Material.STONE);
+        item.hasMeta = true;
+        item.hasEnchantGlint = true;
+        assertEquals(List.of("异常发光效果: 物品有发光但没有附魔 (疑似作弊物品)"), emptyData(item));
+
+        item.enchantments.put("unbreaking", 1);
+        assertTrue(emptyData(item).isEmpty());
+    }
+
+    private ViolationList check(FakeItem item, ConfigSnapshot config) {
+        ViolationList violations = new ViolationList();
+        rules.checkEnchantments(item, config, violations);
+        return violations;
+    }
+
+    private ViolationList special(FakeItem item) {
+        ViolationList violations = new ViolationList();
+        rules.checkSpecialItems(item, config(""), violations);
+        return violations;
+    }
+
+    private ViolationList emptyData(FakeItem item) {
+        ViolationList violations = new ViolationList();
+        rules.checkEmptyData(item, violations);
+        return violations;
+    }
+
+    private static ConfigSnapshot config(String yaml) {
+        YamlConfiguration config = new YamlConfiguration();
+        try {
+            config.loadFromString(yaml);
+        } catch (InvalidConfigurationException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return new ConfigSnapshot(config, LOGGER);
+    }
+
+    /**
+     * 只返回测试设置的数据，其余均为空
+     */
+    private static final class FakeItem implements ItemFacts {
+        private final Material type;
+        private final Map<String, Integer> enchantments = new HashMap<>();
+        private final Map<String, Integer> vanillaMax = new HashMap<>();
+        private boolean hasMeta;
+        private boolean canEnchant = true;
+        private int fireworkFlight;
+        private String spawnedEntityType;
+        private int bookPageCount = 1;
+        private boolean hasBookAuthor;
+        private boolean hasBookTitle;
+        private boolean hasEnchantGlint;
+
+        private FakeItem(Material type) {
+            this.type = type;
+        }
+
+        @Override
+        public Material getType() {
+            return type;
+        }
+
+        @Override
+        public String getTypeName() {
+            return type != null ? type.name() : "MODDED_ITEM";
+        }
+
+        @Override
+        public boolean hasMeta() {
+            return hasMeta || !enchantments.isEmpty();
+        }
+
+        @Override
+        public Map<String, Integer> getEnchantments() {
+            return enchantments;
+        }
+
+        @Override
+        public int getVanillaMaxLevel(String enchantment) {
+            return vanillaMax.getOrDefault(enchantment, 0);
+        }
+
+        @Override
+        public boolean canEnchant(String enchantment) {
+            return canEnchant;
+        }
+
+        @Override
+        public boolean hasStoredEnchantments() {
+            return false;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+
+        @Override
+        public List<String> getLore() {
+            return List.of();
+        }
+
+        @Override
+        public List<Modifier> getAttributeModifiers() {
+            return List.of();
+        }
+
+        @Override
+        public boolean isUnbreakable() {
+            return false;
+        }
+
+        @Override
+        public List<Effect> getCustomEffects() {
+            return List.of();
+        }
+
+        @Override
+        public int getFireworkFlight() {
+            return fireworkFlight;
+        }
+
+        @Override
+        public boolean isPistonExtended() {
+            return false;
+        }
+
+        @Override
+        public String getSpawnedEntityType() {
+            return spawnedEntityType;
+        }
+
+        @Override
+        public boolean hasEntityData() {
+            return false;
+        }
+
+        @Override
+        public TrustedDataRules.Profile findTrustedProfile(TrustedDataRules rules) {
+            return null;
+        }
+
+        @Override
+        public boolean hasUntrustedData(TrustedDataRules rules) {
+            return false;
+        }
+
+        @Override
+        public int getBookPageCount() {
+            return bookPageCount;
+        }
+
+        @Override
+        public boolean hasBookAuthor() {
+            return hasBookAuthor;
+        }
+
+        @Override
+        public boolean hasBookTitle() {
+            return hasBookTitle;
+        }
+
+        @Override
+        public boolean hasMapData() {
+            return true;
+        }
+
+        @Override
+        public boolean hasRecipes() {
+            return true;
+        }
+
+        @Override
+        public boolean hasEnchantGlint() {
+            return hasEnchantGlint;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package top.mc_plfd_host.ezobserver.storage;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.checker.ViolationCode;
+import top.mc_plfd_host.ezobserver.config.ConfigManager;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 没收库的记录格式、启动扫描恢复和段文件轮换
+ *
+ * @author Kush_ShuL
+ */
+class ConfiscationVaultTest {
+
+    private static final Logger LOGGER = Logger.getLogger(ConfiscationVaultTest.class.getName());
+    private static final String BANNED_TYPE = "禁止的物品类型: BEDROCK";
+
+    @TempDir
+    Path directory;
+
+    private EzObserver plugin;
+
+    @BeforeEach
+    void setUp() throws InvalidConfigurationException {
+        // 段文件 1 MiB，关闭过期清理，避免启动时的压缩过程影响测试
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.loadFromString("""
+                confiscate-vault:
+                  segment-size-mb: 1
+                  retention-days: 0
+                """);
+        ConfigSnapshot snapshot = new ConfigSnapshot(yaml, LOGGER);
+
+        ConfigManager configManager = mock(ConfigManager.class);
+        when(configManager.getSnapshot()).thenReturn(snapshot);
+        when(configManager.getConfiscateStoragePath()).thenReturn(directory.toString());
+
+        plugin = mock(EzObserver.class);
+        when(plugin.getLogger()).thenReturn(LOGGER);
+        when(plugin.getConfigManager()).thenReturn(configManager);
+    }
+
+    @Test
+    void storedRecordsAreQueryable() throws IOException {
+        UUID steveId = UUID.randomUUID();
+        Player steve = player(steveId, "Steve");
+        Player alex = player(UUID.randomUUID(), "Alex");
+        long start = System.currentTimeMillis();
+
+        ConfiscationVault vault = new ConfiscationVault(plugin);
+        vault.open();
+        vault.store(steve, item(Material.BEDROCK, new byte[]{1, 2, 3}), List.of(BANNED_TYPE));
+        vault.store(alex, item(Material.DIAMOND_SWORD, new byte[]{4}), List.of("附魔 sharpness 等级 10 超过限制 5"));
+        vault.store(null, item(Material.STONE, new byte[0]), List.of("a", "b"));
+        vault.close();
+
+        List<VaultRecord> all = vault.findSince(start, 10);
+        assertEquals(3, all.size());
+        // 从新到旧
+        assertEquals("STONE", all.get(0).getMaterial());
+        assertEquals("unknown", all.get(0).getPlayerName());
+        assertNull(all.get(0).getPlayerId());
+        assertEquals("a\nb", vault.readReason(all.get(0)));
+
+        List<VaultRecord> steveRecords = vault.findByPlayer(steveId, start, 10);
+        assertEquals(1, steveRecords.size());
+        VaultRecord record = steveRecords.get(0);
+        assertEquals("BEDROCK", record.getMaterial());
+        assertEquals("Steve", record.getPlayerName());
+        assertEquals(steveId, record.getPlayerId());
+        assertEquals(ViolationCode.BANNED_TYPE.mask(), record.getReasonMask());
+        assertEquals(BANNED_TYPE, vault.readReason(record));
+
+        assertEquals(2, vault.findSince(start, 2).size());
+        assertTrue(vault.findSince(System.currentTimeMillis() + 1000, 10).isEmpty());
+    }
+
+    @Test
+    void reopenRebuildsIndexFromSegment() throws IOException {
+        UUID steveId = UUID.randomUUID();
+        ConfiscationVault vault = new ConfiscationVault(plugin);
+        vault.open();
+        vault.store(player(steveId, "Steve"), item(Material.BEDROCK, new byte[]{9}), List.of(BANNED_TYPE));
+        vault.close();
+
+        ConfiscationVault reopened = reopen();
+        List<VaultRecord> records = reopened.findByPlayer(steveId, 0, 10);
+        assertEquals(1, records.size());
+        assertEquals("Steve", records.get(0).getPlayerName());
+        assertEquals(BANNED_TYPE, reopened.readReason(records.get(0)));
+    }
+
+    @Test
+    void partialTailIsTruncatedOnOpen() throws IOException {
+        ConfiscationVault vault = new ConfiscationVault(plugin);
+        vault.open();
+        vault.store(null, item(Material.BEDROCK, new byte[]{1, 2}), List.of(BANNED_TYPE));
+        vault.close();
+
+        Path segment = directory.resolve("vault-00000001.seg");
+        long complete = Files.size(segment);
+        // 写入中途崩溃：只有魔数和一部分头部
+        Files.write(segment, new byte[]{0x45, 0x5A, 0x56, 0x31, 0, 0, 0, 10, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        ConfiscationVault reopened = reopen();
+        assertEquals(complete, Files.size(segment));
+        assertEquals(1, reopened.findSince(0, 10).size());
+
+        // 截断后新的记录接在最后一条完整记录之后
+        ConfiscationVault writer = new ConfiscationVault(plugin);
+        writer.open();
+        writer.store(null, item(Material.STONE, new byte[]{3}), List.of("第二条"));
+        writer.close();
+
+        ConfiscationVault again = reopen();
+        List<VaultRecord> records = again.findSince(0, 10);
+        assertEquals(2, records.size());
+        assertEquals("第二条", again.readReason(records.get(0)));
+        assertEquals(BANNED_TYPE, again.readReason(records.get(1)));
+    }
+
+    @Test
+    void corruptedRecordIsTruncatedOnOpen() throws IOException {
+        ConfiscationVault vault = new ConfiscationVault(plugin);
+        vault.open();
+        vault.store(null, item(Material.BEDROCK, new byte[]{1}), List.of("第一条"));
+        vault.store(null, item(Material.STONE, new byte[]{2}), List.of("第二条"));
+        vault.close();
+
+        Path segment = directory.resolve("vault-00000001.seg");
+        byte[] bytes = Files.readAllBytes(segment);
+        // 第二条记录的最后一个字节（CRC）损坏
+        bytes[bytes.length - 1] ^= 0x7F;
+        Files.write(segment, bytes);
+
+        ConfiscationVault reopened = reopen();
+        List<VaultRecord> records = reopened.findSince(0, 10);
+        assertEquals(1, records.size());
+        assertEquals("第一条", reopened.readReason(records.get(0)));
+        assertEquals(records.get(0).getLength(), Files.size(segment));
+    }
+
+    @Test
+    void fullSegmentRotatesAndWritesIndex() throws IOException {
+        byte[] payload = new byte[400 * 1024];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        ConfiscationVault vault = new ConfiscationVault(plugin);
+        vault.open();
+        for (int i = 0; i < 3; i++) {
+            vault.store(null, item(Material.STONE, payload), List.of("记录 " + i));
+        }
+        vault.close();
+
+        Path index = directory.resolve("vault-00000001.idx");
+        assertTrue(Files.isRegularFile(index));
+        assertTrue(Files.isRegularFile(directory.resolve("vault-00000002.seg")));
+        byte[] validIndex = Files.readAllBytes(index);
+
+        // 已封存的段从索引文件加载
+        ConfiscationVault reopened = reopen();
+        assertRecords(reopened, 3);
+
+        // 索引损坏时扫描段文件并重建索引
+        byte[] corrupted = validIndex.clone();
+        corrupted[20] ^= 0x7F;
+        Files.write(index, corrupted);
+        ConfiscationVault rebuilt = reopen();
+        assertRecords(rebuilt, 3);
+        assertArrayEquals(validIndex, Files.readAllBytes(index));
+    }
+
+    private static void assertRecords(ConfiscationVault vault, int count) throws IOException {
+        List<VaultRecord> records = vault.findSince(0, 10);
+        assertEquals(count, records.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals("记录 " + (count - 1 - i), vault.readReason(records.get(i)));
+        }
+    }
+
+    /**
+     * 打开后立即关闭：close 等待写入线程，写入线程总是先加载索引
+     */
+    private ConfiscationVault reopen() {
+        ConfiscationVault vault = new ConfiscationVault(plugin);
+        vault.open();
+        vault.close();
+        return vault;
+    }
+
+    private static ItemStack item(Material type, byte[] payload) {
+        ItemStack item = mock(ItemStack.class);
+        when(item.getType()).thenReturn(type);
+        when(item.serializeAsBytes()).thenReturn(payload);
+        return item;
+    }
+
+    private static Player player(UUID id, String name) {
+        Player player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(id);
+        when(player.getName()).thenReturn(name);
+        return player;
+    }
+}
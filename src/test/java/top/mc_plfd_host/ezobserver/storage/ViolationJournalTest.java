@@ -0,0 +1,146 @@
+package top.mc_plfd_host.ezobserver.storage;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import top.mc_plfd_host.ezobserver.EzObserver;
+import top.mc_plfd_host.ezobserver.config.ConfigManager;
+import top.mc_plfd_host.ezobserver.config.ConfigSnapshot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 违规日志的按大小轮换、遗留文件压缩和过期清理
+ *
+ * @author Kush_ShuL
+ */
+class ViolationJournalTest {
+
+    private static final Logger LOGGER = Logger.getLogger(ViolationJournalTest.class.getName());
+
+    @TempDir
+    Path dataFolder;
+
+    @Test
+    void leftoverFilesAreCompressedOnOpen() throws Exception {
+        Path journal = Files.createDirectories(dataFolder.resolve("journal"));
+        Files.writeString(journal.resolve("violations-2020-01-01.jsonl"), "{\"ts\":1}\n");
+
+        ViolationJournal violationJournal = new ViolationJournal(plugin(""));
+        violationJournal.open();
+        violationJournal.close();
+
+        assertFalse(Files.exists(journal.resolve("violations-2020-01-01.jsonl")));
+        assertEquals(List.of("{\"ts\":1}"), readLines(journal.resolve("violations-2020-01-01.jsonl.gz")));
+    }
+
+    @Test
+    void fullFileIsRotatedAndCompressed() throws Exception {
+        ViolationJournal violationJournal = new ViolationJournal(plugin("""
+                violation-journal:
+                  max-file-size-mb: 1
+                  queue-capacity: 4096
+                """));
+        violationJournal.open();
+        // 每条约 1 KB，共约 1.5 MB
+        List<String> violations = List.of("禁止的物品类型: " + "X".repeat(1000));
+        int total = 1500;
+        for (int i = 0; i < total; i++) {
+            violationJournal.record(null, "BEDROCK", "delete", violations);
+        }
+        violationJournal.close();
+
+        Path journal = dataFolder.resolve("journal");
+        LocalDate today = LocalDate.now();
+        Path sealed = journal.resolve("violations-" + today + ".1.jsonl.gz");
+        Path current = journal.resolve("violations-" + today + ".jsonl");
+        assertTrue(Files.isRegularFile(sealed));
+        assertFalse(Files.exists(journal.resolve("violations-" + today + ".1.jsonl")));
+        assertTrue(Files.size(current) < 1024 * 1024);
+
+        List<String> sealedLines = readLines(sealed);
+        List<String> currentLines = readLines(current);
+        assertEquals(total, sealedLines.size() + currentLines.size());
+        assertTrue(sealedLines.get(0).contains("\"codes\":[\"BANNED_TYPE\"]"));
+        assertTrue(currentLines.get(currentLines.size() - 1).startsWith("{\"ts\":"));
+        assertEquals(0, violationJournal.getDroppedCount());
+    }
+
+    @Test
+    void expiredFilesAreDeletedOnRotate() throws Exception {
+        Path journal = Files.createDirectories(dataFolder.resolve("journal"));
+        Path expired = journal.resolve("violations-2020-01-01.1.jsonl.gz");
+        Path recent = journal.resolve("violations-2020-01-02.1.jsonl.gz");
+        Files.write(expired, new byte[0]);
+        Files.write(recent, new byte[0]);
+        long now = System.currentTimeMillis();
+        assertTrue(expired.toFile().setLastModified(now - TimeUnit.DAYS.toMillis(60)));
+        assertTrue(recent.toFile().setLastModified(now - TimeUnit.DAYS.toMillis(10)));
+
+        ViolationJournal violationJournal = new ViolationJournal(plugin("""
+                violation-journal:
+                  retention-days: 30
+                """));
+        violationJournal.open();
+        violationJournal.record(null, "BEDROCK", "delete", List.of("禁止的物品类型: BEDROCK"));
+        violationJournal.close();
+
+        assertFalse(Files.exists(expired));
+        assertTrue(Files.exists(recent));
+        assertEquals(1, readLines(journal.resolve("violations-" + LocalDate.now() + ".jsonl")).size());
+    }
+
+    @Test
+    void recordsAreIgnoredWhenClosed() throws Exception {
+        ViolationJournal violationJournal = new ViolationJournal(plugin(""));
+        violationJournal.record(null, "BEDROCK", "delete", List.of("禁止的物品类型: BEDROCK"));
+        violationJournal.open();
+        violationJournal.close();
+
+        assertFalse(Files.exists(dataFolder.resolve("journal").resolve("violations-" + LocalDate.now() + ".jsonl")));
+    }
+
+    private EzObserver plugin(String yaml) throws InvalidConfigurationException {
+        YamlConfiguration config = new YamlConfiguration();
+        config.loadFromString(yaml);
+        // 控制台摘要会为每条记录输出一行警告
+        config.set("violation-journal.console-summary", false);
+        ConfigSnapshot snapshot = new ConfigSnapshot(config, LOGGER);
+
+        ConfigManager configManager = mock(ConfigManager.class);
+        when(configManager.getSnapshot()).thenReturn(snapshot);
+
+        EzObserver plugin = mock(EzObserver.class);
+        when(plugin.getLogger()).thenReturn(LOGGER);
+        when(plugin.getConfigManager()).thenReturn(configManager);
+        when(plugin.getDataFolder()).thenReturn(dataFolder.toFile());
+        return plugin;
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        try (InputStream in = file.toString().endsWith(".gz")
+                ? new GZIPInputStream(Files.newInputStream(file))
+                : Files.newInputStream(file);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package top.mc_plfd_host.ezobserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Kush_ShuL
+ */
+class BoundedLruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyAccessedEntry() {
+        BoundedLruCache<String, Integer> cache = new BoundedLruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        // 访问 a 后 b 成为最久未访问的条目
+        assertEquals(1, cache.get("a"));
+        cache.put("c", 3);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+    }
+
+    @Test
+    void computeIfAbsentCreatesOnlyOnce() {
+        BoundedLruCache<String, Object> cache = new BoundedLruCache<>(4);
+        Object first = cache.computeIfAbsent("key", key -> new Object());
+        Object second = cache.computeIfAbsent("key", key -> new Object());
+
+        assertSame(first, second);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void clearRemovesAllEntries() {
+        BoundedLruCache<String, Integer> cache = new BoundedLruCache<>(4);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedLruCache<String, Integer>(0));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedLruCache<String, Integer>(-1));
+    }
+}
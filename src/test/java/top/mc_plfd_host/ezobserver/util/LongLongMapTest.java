@@ -0,0 +1,97 @@
+package top.mc_plfd_host.ezobserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Kush_ShuL
+ */
+class LongLongMapTest {
+
+    @Test
+    void missingKeyReadsZero() {
+        LongLongMap map = new LongLongMap();
+        assertEquals(0, map.get(42));
+        assertFalse(map.containsKey(42));
+    }
+
+    @Test
+    void putOverwritesExistingValue() {
+        LongLongMap map = new LongLongMap();
+        map.put(7, 100);
+        map.put(7, 200);
+
+        assertEquals(200, map.get(7));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void keepsAllEntriesAcrossResize() {
+        LongLongMap map = new LongLongMap();
+        for (long key = -500; key < 500; key++) {
+            map.put(key, key * 3);
+        }
+
+        assertEquals(1000, map.size());
+        for (long key = -500; key < 500; key++) {
+            assertTrue(map.containsKey(key));
+            assertEquals(key * 3, map.get(key));
+        }
+    }
+
+    @Test
+    void removeKeepsProbeChainsReachable() {
+        LongLongMap map = new LongLongMap();
+        // 数量接近扩容阈值，保证存在较长的探测链
+        for (long key = 0; key < 12; key++) {
+            map.put(key << 32, key);
+        }
+        for (long key = 0; key < 12; key += 2) {
+            map.remove(key << 32);
+        }
+
+        assertEquals(6, map.size());
+        for (long key = 0; key < 12; key++) {
+            assertEquals(key % 2 == 1, map.containsKey(key << 32));
+            assertEquals(key % 2 == 1 ? key : 0, map.get(key << 32));
+        }
+    }
+
+    @Test
+    void removeMissingKeyIsNoOp() {
+        LongLongMap map = new LongLongMap();
+        map.put(1, 1);
+        map.remove(2);
+
+        assertEquals(1, map.size());
+        assertEquals(1, map.get(1));
+    }
+
+    @Test
+    void addClampedNeverGoesBelowZero() {
+        LongLongMap map = new LongLongMap();
+
+        assertEquals(10, map.addClamped(5, 10));
+        assertEquals(15, map.addClamped(5, 5));
+        assertEquals(0, map.addClamped(5, -100));
+        assertEquals(0, map.get(5));
+        assertEquals(0, map.addClamped(6, -1));
+    }
+
+    @Test
+    void clearEmptiesMap() {
+        LongLongMap map = new LongLongMap();
+        for (long key = 0; key < 100; key++) {
+            map.put(key, key);
+        }
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(1));
+        map.put(1, 2);
+        assertEquals(2, map.get(1));
+    }
+}